@@ -0,0 +1,117 @@
+package org.opengoofy.index12306.framework.starter.cache;
+
+import com.alibaba.fastjson2.JSON;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.framework.starter.cache.core.CacheValueCodec;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.FastJson2Util;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 缓存值编解码器注册表
+ * 已注册类型的缓存值以「魔数 + 版本 + 编解码器输出」写入 Redis，读取时按魔数区分二进制与历史 JSON 内容，
+ * 因此开启或关闭二进制写入都无需清理已有缓存；内容无法解析时按缓存未命中处理，交由 CacheLoader 重建
+ */
+@Slf4j
+public class CacheValueCodecRegistry {
+
+    /**
+     * 二进制缓存值魔数，JSON 文本首字节只可能是 ASCII 字符，不会与之冲突
+     */
+    public static final byte MAGIC = (byte) 0xC5;
+
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_LENGTH = 2;
+
+    private final ObjectProvider<CacheValueCodec<?>> codecProvider;
+
+    private final boolean encodeEnabled;
+
+    private volatile Map<Class<?>, CacheValueCodec<?>> codecs;
+
+    public CacheValueCodecRegistry(ObjectProvider<CacheValueCodec<?>> codecProvider, boolean encodeEnabled) {
+        this.codecProvider = codecProvider;
+        this.encodeEnabled = encodeEnabled;
+    }
+
+    /**
+     * 是否为该类型注册了编解码器，已注册类型需按字节读取缓存值
+     */
+    public boolean supports(Class<?> clazz) {
+        return getCodecs().containsKey(clazz);
+    }
+
+    /**
+     * 编码缓存值
+     *
+     * @return 带魔数的二进制内容；未开启二进制写入或类型未注册时返回 null，由调用方回退为 JSON
+     */
+    @SuppressWarnings("unchecked")
+    public byte[] encode(Object value) {
+        if (!encodeEnabled || value == null) {
+            return null;
+        }
+        CacheValueCodec<Object> codec = (CacheValueCodec<Object>) getCodecs().get(value.getClass());
+        if (codec == null) {
+            return null;
+        }
+        byte[] body = codec.encode(value);
+        byte[] result = new byte[body.length + HEADER_LENGTH];
+        result[0] = MAGIC;
+        result[1] = VERSION;
+        System.arraycopy(body, 0, result, HEADER_LENGTH, body.length);
+        return result;
+    }
+
+    /**
+     * 解码缓存值，兼容二进制与 JSON 两种格式
+     */
+    public <T> T decode(byte[] bytes, Class<T> clazz) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (!isEncoded(bytes)) {
+            try {
+                return JSON.parseObject(bytes, FastJson2Util.buildType(clazz));
+            } catch (RuntimeException ex) {
+                log.warn("缓存值 JSON 解析失败，按未命中处理，类型：{}", clazz.getName(), ex);
+                return null;
+            }
+        }
+        CacheValueCodec<?> codec = getCodecs().get(clazz);
+        if (codec == null || bytes[1] != VERSION) {
+            log.warn("缓存值二进制格式不受支持，类型：{}，版本：{}", clazz.getName(), bytes[1]);
+            return null;
+        }
+        byte[] body = new byte[bytes.length - HEADER_LENGTH];
+        System.arraycopy(bytes, HEADER_LENGTH, body, 0, body.length);
+        try {
+            return clazz.cast(codec.decode(body));
+        } catch (RuntimeException ex) {
+            log.warn("缓存值二进制解码失败，按未命中处理，类型：{}", clazz.getName(), ex);
+            return null;
+        }
+    }
+
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC;
+    }
+
+    private Map<Class<?>, CacheValueCodec<?>> getCodecs() {
+        Map<Class<?>, CacheValueCodec<?>> actual = codecs;
+        if (actual == null) {
+            synchronized (this) {
+                if ((actual = codecs) == null) {
+                    Map<Class<?>, CacheValueCodec<?>> registered = new HashMap<>();
+                    codecProvider.orderedStream().forEach(each -> registered.putIfAbsent(each.type(), each));
+                    codecs = actual = Collections.unmodifiableMap(registered);
+                }
+            }
+        }
+        return actual;
+    }
+}
@@ -16,8 +16,12 @@ import org.redisson.api.RBloomFilter;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.scripting.support.ResourceScriptSource;
 
 import java.util.Collection;
@@ -38,6 +42,7 @@ public class StringRedisTemplateProxy implements DistributedCache {
     private final StringRedisTemplate stringRedisTemplate;
     private final RedisDistributedProperties redisProperties;
     private final RedissonClient redissonClient;
+    private final CacheValueCodecRegistry cacheValueCodecRegistry;
 
     private static final String LUA_PUT_IF_ALL_ABSENT_SCRIPT_PATH = "lua/putIfAllAbsent.lua";
     private static final String SAFE_GET_DISTRIBUTED_LOCK_KEY_PREFIX = "safe_get_distributed_lock_get:";
@@ -47,6 +52,12 @@ public class StringRedisTemplateProxy implements DistributedCache {
      */
     @Override
     public <T> T get(String key, Class<T> clazz) {
+        // 注册了编解码器的类型按字节读取，兼容二进制与 JSON 两种格式
+        if (cacheValueCodecRegistry.supports(clazz)) {
+            byte[] rawKey = rawKey(key);
+            byte[] bytes = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+            return cacheValueCodecRegistry.decode(bytes, clazz);
+        }
         // 从缓存中取值
         String value = stringRedisTemplate.opsForValue().get(key);
         // 如果 clazz 是 String 类型，直接返回 value，isAssignableFrom 判断 clazz 是否是 String 类型
@@ -153,7 +164,6 @@ public class StringRedisTemplateProxy implements DistributedCache {
         put(key, value, redisProperties.getValueTimeout());
     }
 
-
     @Override
     public void put(String key, Object value, long timeout) {
         put(key, value, timeout, redisProperties.getValueTimeUnit());
@@ -161,6 +171,13 @@ public class StringRedisTemplateProxy implements DistributedCache {
 
     @Override
     public void put(String key, Object value, long timeout, TimeUnit timeUnit) {
+        byte[] encoded = cacheValueCodecRegistry.encode(value);
+        if (encoded != null) {
+            byte[] rawKey = rawKey(key);
+            stringRedisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.stringCommands().set(rawKey, encoded, Expiration.from(timeout, timeUnit), RedisStringCommands.SetOption.upsert()));
+            return;
+        }
         String actual = value instanceof String ? (String) value : JSON.toJSONString(value);
         stringRedisTemplate.opsForValue().set(key, actual, timeout, timeUnit);
     }
@@ -206,7 +223,6 @@ public class StringRedisTemplateProxy implements DistributedCache {
         return result != null && result;
     }
 
-
     @Override
     public Boolean hasKey(String key) {
         return stringRedisTemplate.hasKey(key);
@@ -244,4 +260,9 @@ public class StringRedisTemplateProxy implements DistributedCache {
         }
         return result;
     }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) stringRedisTemplate.getKeySerializer()).serialize(key);
+    }
 }
@@ -1,10 +1,13 @@
 package org.opengoofy.index12306.framework.starter.cache.config;
 
 import lombok.AllArgsConstructor;
+import org.opengoofy.index12306.framework.starter.cache.CacheValueCodecRegistry;
 import org.opengoofy.index12306.framework.starter.cache.RedisKeySerializer;
 import org.opengoofy.index12306.framework.starter.cache.StringRedisTemplateProxy;
+import org.opengoofy.index12306.framework.starter.cache.core.CacheValueCodec;
 import org.redisson.api.RBloomFilter;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -40,12 +43,21 @@ public class CacheAutoConfiguration {
         return cachePenetrationBloomFilter;
     }
 
+    /**
+     * 缓存值编解码器注册表，业务方注册 {@link CacheValueCodec} Bean 即可接入
+     */
+    @Bean
+    public CacheValueCodecRegistry cacheValueCodecRegistry(ObjectProvider<CacheValueCodec<?>> cacheValueCodecs) {
+        return new CacheValueCodecRegistry(cacheValueCodecs, Boolean.TRUE.equals(redisDistributedProperties.getValueCodecEnabled()));
+    }
+
     @Bean
     // 静态代理模式: Redis 客户端代理类增强
     public StringRedisTemplateProxy stringRedisTemplateProxy(RedisKeySerializer redisKeySerializer,
                                                              StringRedisTemplate stringRedisTemplate,
-                                                             RedissonClient redissonClient) {
+                                                             RedissonClient redissonClient,
+                                                             CacheValueCodecRegistry cacheValueCodecRegistry) {
         stringRedisTemplate.setKeySerializer(redisKeySerializer);
-        return new StringRedisTemplateProxy(stringRedisTemplate, redisDistributedProperties, redissonClient);
+        return new StringRedisTemplateProxy(stringRedisTemplate, redisDistributedProperties, redissonClient, cacheValueCodecRegistry);
     }
 }
@@ -50,4 +50,10 @@ public class RedisDistributedProperties {
      * 时间单位
      */
     private TimeUnit valueTimeUnit = TimeUnit.MILLISECONDS;
+
+    /**
+     * 是否以二进制格式写入注册了 {@link org.opengoofy.index12306.framework.starter.cache.core.CacheValueCodec} 的缓存值
+     * 关闭时仍可读取已写入的二进制内容，灰度开启或回退时无需清理缓存
+     */
+    private Boolean valueCodecEnabled = Boolean.FALSE;
 }
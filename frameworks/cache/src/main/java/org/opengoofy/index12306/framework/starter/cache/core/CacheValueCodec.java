@@ -0,0 +1,29 @@
+package org.opengoofy.index12306.framework.starter.cache.core;
+
+/**
+ * 缓存值编解码器
+ * 为指定类型提供比 JSON 更紧凑的二进制表示，注册为 Spring Bean 后由 {@link org.opengoofy.index12306.framework.starter.cache.CacheValueCodecRegistry} 统一管理
+ */
+public interface CacheValueCodec<T> {
+
+    /**
+     * 编解码器负责的缓存值类型，按类型精确匹配
+     */
+    Class<T> type();
+
+    /**
+     * 编码缓存值
+     *
+     * @param value 缓存值，不为空
+     * @return 二进制内容，不包含类型魔数
+     */
+    byte[] encode(T value);
+
+    /**
+     * 解码缓存值
+     *
+     * @param bytes {@link #encode(Object)} 输出的二进制内容
+     * @return 缓存值
+     */
+    T decode(byte[] bytes);
+}
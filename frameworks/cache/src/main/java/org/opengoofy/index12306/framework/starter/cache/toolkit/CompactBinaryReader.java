@@ -0,0 +1,106 @@
+package org.opengoofy.index12306.framework.starter.cache.toolkit;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 紧凑二进制读取器，与 {@link CompactBinaryWriter} 一一对应
+ * 内容截断或格式不符时抛出 {@link IllegalArgumentException}
+ */
+public class CompactBinaryReader {
+
+    private final byte[] bytes;
+
+    private int position;
+
+    public CompactBinaryReader(byte[] bytes) {
+        this(bytes, 0);
+    }
+
+    public CompactBinaryReader(byte[] bytes, int offset) {
+        this.bytes = bytes;
+        this.position = offset;
+    }
+
+    public boolean readBoolean() {
+        return next() != 0;
+    }
+
+    public int readVarInt() {
+        long value = readVarLong();
+        if (value > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Varint overflow at position " + position);
+        }
+        return (int) value;
+    }
+
+    public int readInt() {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long readLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public Integer readNullableInt() {
+        return readBoolean() ? readInt() : null;
+    }
+
+    public Long readNullableLong() {
+        return readBoolean() ? readLong() : null;
+    }
+
+    public Boolean readNullableBoolean() {
+        int flag = next();
+        return flag == 0 ? null : flag == 2;
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        if (length < 0 || length > bytes.length - position) {
+            throw new IllegalArgumentException("String length " + length + " exceeds remaining bytes at position " + position);
+        }
+        String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    /**
+     * 读取集合长度，-1 表示 null；每个元素至少占用一个字节，长度超过剩余字节数时视为内容损坏
+     */
+    public int readCollectionSize() {
+        int size = readVarInt() - 1;
+        if (size < -1 || size > bytes.length - position) {
+            throw new IllegalArgumentException("Collection size " + size + " exceeds remaining bytes at position " + position);
+        }
+        return size;
+    }
+
+    public boolean hasRemaining() {
+        return position < bytes.length;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int current = next();
+            value |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at position " + position);
+    }
+
+    private int next() {
+        if (position >= bytes.length) {
+            throw new IllegalArgumentException("Unexpected end of cache value at position " + position);
+        }
+        return bytes[position++] & 0xFF;
+    }
+}
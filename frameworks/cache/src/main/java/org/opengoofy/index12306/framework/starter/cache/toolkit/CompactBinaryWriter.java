@@ -0,0 +1,90 @@
+package org.opengoofy.index12306.framework.starter.cache.toolkit;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * 紧凑二进制写入器
+ * 整数采用 Varint 变长编码，有符号整数先做 ZigZag 转换；可空字段额外写入一位存在标记，由调用方按固定字段顺序写入
+ */
+public class CompactBinaryWriter {
+
+    private final ByteArrayOutputStream out;
+
+    public CompactBinaryWriter() {
+        this(64);
+    }
+
+    public CompactBinaryWriter(int initialSize) {
+        this.out = new ByteArrayOutputStream(initialSize);
+    }
+
+    public CompactBinaryWriter writeBoolean(boolean value) {
+        out.write(value ? 1 : 0);
+        return this;
+    }
+
+    /**
+     * 写入非负整数，负数请使用 {@link #writeInt(int)}
+     */
+    public CompactBinaryWriter writeVarInt(int value) {
+        return writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    public CompactBinaryWriter writeInt(int value) {
+        return writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    public CompactBinaryWriter writeLong(long value) {
+        return writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public CompactBinaryWriter writeNullableInt(Integer value) {
+        writeBoolean(value != null);
+        return value == null ? this : writeInt(value);
+    }
+
+    public CompactBinaryWriter writeNullableLong(Long value) {
+        writeBoolean(value != null);
+        return value == null ? this : writeLong(value);
+    }
+
+    public CompactBinaryWriter writeNullableBoolean(Boolean value) {
+        out.write(value == null ? 0 : value ? 2 : 1);
+        return this;
+    }
+
+    /**
+     * 写入字符串，长度前缀为 UTF-8 字节数加一，0 表示 null
+     */
+    public CompactBinaryWriter writeString(String value) {
+        if (value == null) {
+            return writeVarInt(0);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        out.write(bytes, 0, bytes.length);
+        return this;
+    }
+
+    /**
+     * 写入集合长度，长度前缀为元素数量加一，0 表示 null，元素由调用方依次写入
+     */
+    public CompactBinaryWriter writeCollectionSize(Collection<?> collection) {
+        return writeVarInt(collection == null ? 0 : collection.size() + 1);
+    }
+
+    public byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    private CompactBinaryWriter writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+        return this;
+    }
+}
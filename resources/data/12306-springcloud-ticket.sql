@@ -55380,3 +55380,9 @@ VALUES (1685114632433401856, 3, '15', '07A', 5, '嘉兴', '海宁', 13000, 0, '2
         0),
        (1685114673839570944, 3, '16', '09F', 5, '海宁', '杭州', 13000, 0, '2023-07-29 10:25:54', '2023-07-29 10:25:54',
         0);
+
+INSERT INTO `t_seat_segment` (`id`, `train_id`, `carriage_number`, `seat_number`, `seat_type`, `segment_mask`,
+                              `create_time`, `update_time`, `del_flag`)
+SELECT MIN(`id`), `train_id`, `carriage_number`, `seat_number`, `seat_type`, 0, MIN(`create_time`), MIN(`update_time`), 0
+FROM `t_seat`
+GROUP BY `train_id`, `carriage_number`, `seat_number`, `seat_type`;
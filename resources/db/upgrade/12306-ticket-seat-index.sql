@@ -0,0 +1,16 @@
+-- 座位库存覆盖索引升级脚本，适用于已导入旧版表结构的 12306_ticket（SpringCloud）或 12306（SpringBoot）库
+-- 新部署直接使用 resources/db 下的建表脚本即可，无需执行本脚本
+
+-- t_seat_segment：选座快照、可用车厢、座位类型余票以及余票缓存加载均按 train_id + seat_type 过滤并判断 segment_mask
+-- 覆盖索引包含查询涉及的全部列，等值前缀后按 carriage_number 有序，避免回表以及 filesort
+ALTER TABLE `t_seat_segment`
+    ADD KEY `idx_train_seat_type_mask` (`train_id`, `seat_type`, `del_flag`, `carriage_number`, `seat_number`, `segment_mask`) USING BTREE,
+    ADD KEY `idx_train_carriage_mask` (`train_id`, `carriage_number`, `del_flag`, `segment_mask`) USING BTREE,
+    DROP KEY `idx_train_seat_type`;
+
+-- t_seat：查询已迁移至 t_seat_segment，仅剩支付回调按座位更新售出状态以及按列车重置，train_id 单列索引由新索引前缀替代
+ALTER TABLE `t_seat`
+    ADD KEY `idx_train_carriage_seat` (`train_id`, `carriage_number`, `seat_number`) USING BTREE,
+    DROP KEY `idx_train_id`;
+
+ANALYZE TABLE `t_seat_segment`, `t_seat`;
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.canal;
+
+import lombok.RequiredArgsConstructor;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.CanalExecuteStrategyMarkEnum;
+import org.opengoofy.index12306.biz.ticketservice.mq.event.CanalBinlogEvent;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.StationRegionIndexCache;
+import org.opengoofy.index12306.biz.ticketservice.service.search.TicketSearchResultCache;
+import org.opengoofy.index12306.framework.starter.designpattern.strategy.AbstractExecuteStrategy;
+import org.springframework.stereotype.Component;
+
+/**
+ * 车站、地区变更后重建车站地区索引并淘汰车票查询本地结果组件，通过 {@link CanalExecuteStrategyMarkEnum#T_STATION} 的匹配规则同时处理车站表以及地区表
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Component
+@RequiredArgsConstructor
+public class StationRegionIndexInvalidateHandler implements AbstractExecuteStrategy<CanalBinlogEvent, Void> {
+
+    private final StationRegionIndexCache stationRegionIndexCache;
+    private final TicketSearchResultCache ticketSearchResultCache;
+
+    @Override
+    public void execute(CanalBinlogEvent message) {
+        stationRegionIndexCache.incrementVersion();
+        ticketSearchResultCache.incrementVersion();
+    }
+
+    @Override
+    public String mark() {
+        return CanalExecuteStrategyMarkEnum.T_STATION.getActualTable();
+    }
+
+    @Override
+    public String patternMatchMark() {
+        return CanalExecuteStrategyMarkEnum.T_STATION.getPatternMatchTable();
+    }
+}
@@ -21,8 +21,12 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
 import lombok.RequiredArgsConstructor;
 import org.opengoofy.index12306.biz.ticketservice.common.enums.CanalExecuteStrategyMarkEnum;
-import org.opengoofy.index12306.biz.ticketservice.common.enums.SeatStatusEnum;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketAvailabilityChangeDTO;
 import org.opengoofy.index12306.biz.ticketservice.mq.event.CanalBinlogEvent;
+import org.opengoofy.index12306.biz.ticketservice.service.TrainStationService;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailabilityKey;
+import org.opengoofy.index12306.biz.ticketservice.service.push.TicketAvailabilityPublisher;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatSegmentMaskUtil;
 import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
 import org.opengoofy.index12306.framework.starter.designpattern.strategy.AbstractExecuteStrategy;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -30,9 +34,9 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
 
@@ -45,47 +49,56 @@ import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKe
 public class TicketAvailabilityCacheUpdateHandler implements AbstractExecuteStrategy<CanalBinlogEvent, Void> {
 
     private final DistributedCache distributedCache;
+    private final TrainStationService trainStationService;
+    private final TicketAvailabilityPublisher ticketAvailabilityPublisher;
 
     @Override
     public void execute(CanalBinlogEvent message) {
-        List<Map<String, Object>> messageDataList = new ArrayList<>();
-        List<Map<String, Object>> actualOldDataList = new ArrayList<>();
+        Map<TicketAvailabilityKey, Integer> cacheChangeKeyMap = new LinkedHashMap<>();
+        Map<String, List<String>> trainStationAllMap = new HashMap<>();
         for (int i = 0; i < message.getOld().size(); i++) {
             Map<String, Object> oldDataMap = message.getOld().get(i);
-            if (oldDataMap.get("seat_status") != null && StrUtil.isNotBlank(oldDataMap.get("seat_status").toString())) {
-                Map<String, Object> currentDataMap = message.getData().get(i);
-                if (StrUtil.equalsAny(currentDataMap.get("seat_status").toString(), String.valueOf(SeatStatusEnum.AVAILABLE.getCode()), String.valueOf(SeatStatusEnum.LOCKED.getCode()))) {
-                    actualOldDataList.add(oldDataMap);
-                    messageDataList.add(currentDataMap);
+            if (oldDataMap.get("segment_mask") == null || StrUtil.isBlank(oldDataMap.get("segment_mask").toString())) {
+                continue;
+            }
+            Map<String, Object> currentDataMap = message.getData().get(i);
+            long oldSegmentMask = Long.parseLong(oldDataMap.get("segment_mask").toString());
+            long currentSegmentMask = Long.parseLong(currentDataMap.get("segment_mask").toString());
+            String trainId = currentDataMap.get("train_id").toString();
+            Integer seatType = Integer.parseInt(currentDataMap.get("seat_type").toString());
+            List<String> trainStationAllList = trainStationAllMap.computeIfAbsent(trainId, trainStationService::listTrainStationAll);
+            // 区段位图变更前后逐一比对站点区间，可售状态发生变化的区间才需要调整余票
+            for (int start = 0; start < trainStationAllList.size() - 1; start++) {
+                for (int end = start + 1; end < trainStationAllList.size(); end++) {
+                    long rangeMask = SeatSegmentMaskUtil.rangeMask(start, end);
+                    boolean oldAvailable = SeatSegmentMaskUtil.isAvailable(oldSegmentMask, rangeMask);
+                    boolean currentAvailable = SeatSegmentMaskUtil.isAvailable(currentSegmentMask, rangeMask);
+                    if (oldAvailable == currentAvailable) {
+                        continue;
+                    }
+                    TicketAvailabilityKey changeKey = new TicketAvailabilityKey(trainId, trainStationAllList.get(start), trainStationAllList.get(end), seatType);
+                    cacheChangeKeyMap.merge(changeKey, currentAvailable ? 1 : -1, Integer::sum);
                 }
             }
         }
-        if (CollUtil.isEmpty(messageDataList) || CollUtil.isEmpty(actualOldDataList)) {
+        if (CollUtil.isEmpty(cacheChangeKeyMap)) {
             return;
         }
-        Map<String, Map<Integer, Integer>> cacheChangeKeyMap = new HashMap<>();
-        for (int i = 0; i < messageDataList.size(); i++) {
-            Map<String, Object> each = messageDataList.get(i);
-            Map<String, Object> actualOldData = actualOldDataList.get(i);
-            String seatStatus = actualOldData.get("seat_status").toString();
-            int increment = Objects.equals(seatStatus, "0") ? -1 : 1;
-            String trainId = each.get("train_id").toString();
-            String hashCacheKey = TRAIN_STATION_REMAINING_TICKET + trainId + "_" + each.get("start_station") + "_" + each.get("end_station");
-            Map<Integer, Integer> seatTypeMap = cacheChangeKeyMap.get(hashCacheKey);
-            if (CollUtil.isEmpty(seatTypeMap)) {
-                seatTypeMap = new HashMap<>();
-            }
-            Integer seatType = Integer.parseInt(each.get("seat_type").toString());
-            Integer num = seatTypeMap.get(seatType);
-            seatTypeMap.put(seatType, num == null ? increment : num + increment);
-            cacheChangeKeyMap.put(hashCacheKey, seatTypeMap);
-        }
         StringRedisTemplate instance = (StringRedisTemplate) distributedCache.getInstance();
-        cacheChangeKeyMap.forEach((cacheKey, cacheVal) -> cacheVal.forEach((seatType, num) -> instance.opsForHash().increment(cacheKey, String.valueOf(seatType), num)));
+        Map<String, List<TicketAvailabilityChangeDTO>> trainChangeMap = new LinkedHashMap<>();
+        cacheChangeKeyMap.forEach((changeKey, num) -> {
+            if (num == 0) {
+                return;
+            }
+            Long quantity = instance.opsForHash().increment(TRAIN_STATION_REMAINING_TICKET + changeKey.keySuffix(), String.valueOf(changeKey.getSeatType()), num);
+            trainChangeMap.computeIfAbsent(changeKey.getTrainId(), key -> new ArrayList<>())
+                    .add(new TicketAvailabilityChangeDTO(changeKey.getTrainId(), changeKey.getDeparture(), changeKey.getArrival(), changeKey.getSeatType(), quantity.intValue()));
+        });
+        trainChangeMap.forEach(ticketAvailabilityPublisher::publish);
     }
 
     @Override
     public String mark() {
-        return CanalExecuteStrategyMarkEnum.T_SEAT.getActualTable();
+        return CanalExecuteStrategyMarkEnum.T_SEAT_SEGMENT.getActualTable();
     }
 }
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.canal;
+
+import lombok.RequiredArgsConstructor;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.CanalExecuteStrategyMarkEnum;
+import org.opengoofy.index12306.biz.ticketservice.mq.event.CanalBinlogEvent;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TrainRouteTopologyCache;
+import org.opengoofy.index12306.biz.ticketservice.service.search.TicketSearchResultCache;
+import org.opengoofy.index12306.framework.starter.designpattern.strategy.AbstractExecuteStrategy;
+import org.springframework.stereotype.Component;
+
+/**
+ * 列车站点变更后淘汰列车线路拓扑缓存以及车票查询本地结果组件
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Component
+@RequiredArgsConstructor
+public class TrainRouteCacheInvalidateHandler implements AbstractExecuteStrategy<CanalBinlogEvent, Void> {
+
+    private final TrainRouteTopologyCache trainRouteTopologyCache;
+    private final TicketSearchResultCache ticketSearchResultCache;
+
+    @Override
+    public void execute(CanalBinlogEvent message) {
+        trainRouteTopologyCache.incrementVersion();
+        ticketSearchResultCache.incrementVersion();
+    }
+
+    @Override
+    public String mark() {
+        return CanalExecuteStrategyMarkEnum.T_TRAIN_STATION.getActualTable();
+    }
+}
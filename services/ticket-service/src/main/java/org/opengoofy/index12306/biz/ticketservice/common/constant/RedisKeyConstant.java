@@ -89,9 +89,19 @@ public final class RedisKeyConstant {
     public static final String STATION_ALL = "index12306-ticket-service:all_station";
 
     /**
-     * 列车车厢状态， Key Prefix + 列车 ID + 起始站点 + 目的站点 + 车厢编号
+     * 列车车厢区段座位状态位图，Key Prefix + {列车ID}_车厢号_区段下标，同一列车的位图通过 Hash Tag 落在同一个 Slot
      */
-    public static final String TRAIN_CARRIAGE_SEAT_STATUS = "index12306-ticket-service:train_carriage_seat_status:";
+    public static final String TRAIN_CARRIAGE_SEAT_STATUS = "index12306-ticket-service:train_carriage_seat_status:{%s}_%s_%d";
+
+    /**
+     * 列车座位位图已初始化标识，Key Prefix + {列车ID}_座位类型
+     */
+    public static final String TRAIN_SEAT_STATUS_LOADED = "index12306-ticket-service:train_seat_status_loaded:{%s}_%d";
+
+    /**
+     * 列车座位位图初始化分布式锁 Key
+     */
+    public static final String LOCK_TRAIN_SEAT_STATUS_LOAD = "index12306-ticket-service:lock:train_seat_status_load:%s_%d";
 
     /**
      * 用户购票分布式锁 Key
@@ -113,6 +123,46 @@ public final class RedisKeyConstant {
      */
     public static final String TICKET_AVAILABILITY_TOKEN_BUCKET = "index12306-ticket-service:ticket_availability_token_bucket:";
 
+    /**
+     * 列车按区段下标存储的购买令牌桶，Key Prefix + 列车ID
+     */
+    public static final String TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET = "index12306-ticket-service:ticket_availability_segment_token_bucket:";
+
+    /**
+     * 列车购买令牌桶上一轮校正遗留偏差，Key Prefix + 列车ID
+     */
+    public static final String TICKET_AVAILABILITY_TOKEN_BUCKET_RECONCILE_DRIFT = "index12306-ticket-service:ticket_availability_token_bucket_reconcile_drift:";
+
+    /**
+     * 列车购买令牌桶近期扣减标记，存在期间跳过令牌校正，Key Prefix + 列车ID
+     */
+    public static final String TICKET_AVAILABILITY_TOKEN_BUCKET_RECENT_TAKE = "index12306-ticket-service:ticket_availability_token_bucket_recent_take:";
+
+    /**
+     * 列车购买令牌桶最近一次预热结果
+     */
+    public static final String TICKET_AVAILABILITY_TOKEN_BUCKET_READINESS = "index12306-ticket-service:ticket_availability_token_bucket_readiness";
+
+    /**
+     * 列车购票排队序号，Key Prefix + 列车ID
+     */
+    public static final String TICKET_WAITING_ROOM_SEQUENCE = "index12306-ticket-service:ticket_waiting_room_sequence:";
+
+    /**
+     * 列车购票排队放行进度，Key Prefix + 列车ID
+     */
+    public static final String TICKET_WAITING_ROOM_ADMISSION = "index12306-ticket-service:ticket_waiting_room_admission:";
+
+    /**
+     * 用户购票排队序号，Key Prefix + 列车ID + 用户名
+     */
+    public static final String TICKET_WAITING_ROOM_POSITION = "index12306-ticket-service:ticket_waiting_room_position:%s:%s";
+
+    /**
+     * 列车购票排队关闭标识，Key Prefix + 列车ID
+     */
+    public static final String TICKET_WAITING_ROOM_CLOSED = "index12306-ticket-service:ticket_waiting_room_closed:";
+
     /**
      * 获取全部地点集合分布式锁 Key
      */
@@ -142,4 +192,34 @@ public final class RedisKeyConstant {
      * 令牌获取失败分布式锁 Key
      */
     public static final String LOCK_TOKEN_BUCKET_ISNULL = "index12306-ticket-service:lock:token-bucket-isnull:%s";
+
+    /**
+     * 列车归属节点租约，Key Prefix + 列车ID
+     */
+    public static final String TRAIN_OWNER_LEASE = "index12306-ticket-service:train_owner_lease:";
+
+    /**
+     * 车票查询静态结果版本号，列车、站点、价格等静态数据变更后自增，各节点据此淘汰本地查询结果
+     */
+    public static final String TICKET_SEARCH_VERSION = "index12306-ticket-service:ticket_search_version";
+
+    /**
+     * 列车余票变更发布订阅频道，Key Prefix + 列车ID
+     */
+    public static final String TICKET_AVAILABILITY_CHANNEL = "index12306-ticket-service:ticket_availability_channel:";
+
+    /**
+     * 列车经停线路版本号，列车站点变更后自增，各节点据此淘汰本地列车线路拓扑
+     */
+    public static final String TRAIN_ROUTE_VERSION = "index12306-ticket-service:train_route_version";
+
+    /**
+     * 列车站点余票刷新时间，Key Prefix + 列车ID，Key 存活期间余票视为新鲜，过期后由后台刷新
+     */
+    public static final String TRAIN_STATION_REMAINING_TICKET_REFRESH_AFTER = "index12306-ticket-service:train_station_remaining_ticket_refresh_after:";
+
+    /**
+     * 车站地区版本号，车站表或地区表变更后自增，各节点据此重建本地车站地区索引
+     */
+    public static final String STATION_REGION_VERSION = "index12306-ticket-service:station_region_version";
 }
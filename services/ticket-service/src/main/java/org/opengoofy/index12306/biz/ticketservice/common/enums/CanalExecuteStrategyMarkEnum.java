@@ -33,9 +33,34 @@ import java.util.regex.Pattern;
 public enum CanalExecuteStrategyMarkEnum {
 
     /**
-     * 座位表
+     * 座位区段库存表
      */
-    T_SEAT("t_seat", null),
+    T_SEAT_SEGMENT("t_seat_segment", null),
+
+    /**
+     * 列车表，匹配规则同时覆盖列车站点价格表，列车、票价变更均淘汰车票查询本地结果
+     */
+    T_TRAIN("t_train", "^(t_train|t_train_station_price)$"),
+
+    /**
+     * 列车站点价格表，由 {@link #T_TRAIN} 的匹配规则处理
+     */
+    T_TRAIN_STATION_PRICE("t_train_station_price", null),
+
+    /**
+     * 列车站点表
+     */
+    T_TRAIN_STATION("t_train_station", null),
+
+    /**
+     * 车站表，匹配规则同时覆盖地区表，车站、地区变更均重建车站地区索引
+     */
+    T_STATION("t_station", "^(t_station|t_region)$"),
+
+    /**
+     * 地区表，由 {@link #T_STATION} 的匹配规则处理
+     */
+    T_REGION("t_region", null),
 
     /**
      * 订单表
@@ -53,6 +78,13 @@ public enum CanalExecuteStrategyMarkEnum {
                 .anyMatch(each -> StrUtil.isNotBlank(each.getPatternMatchTable()) && Pattern.compile(each.getPatternMatchTable()).matcher(tableName).matches());
     }
 
+    /**
+     * 是否为静态数据表，静态数据新增、修改、删除均需淘汰本地缓存，与余票缓存更新方式无关
+     */
+    public static boolean isStaticDataTable(String tableName) {
+        return StrUtil.equalsAny(tableName, T_TRAIN.actualTable, T_TRAIN_STATION_PRICE.actualTable, T_TRAIN_STATION.actualTable, T_STATION.actualTable, T_REGION.actualTable);
+    }
+
     public static String getPatternMatch(String tableName) {
         return Arrays.stream(CanalExecuteStrategyMarkEnum.values())
                 .filter(each -> Objects.equals(tableName, each.getActualTable()))
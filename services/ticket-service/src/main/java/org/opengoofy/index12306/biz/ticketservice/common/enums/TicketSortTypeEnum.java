@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.common.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 车票查询排序类型枚举
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TicketSortTypeEnum {
+
+    /**
+     * 出发时间最早
+     */
+    DEPARTURE_TIME(0, "DEPARTURE_TIME", "出发时间"),
+
+    /**
+     * 到达时间最早
+     */
+    ARRIVAL_TIME(1, "ARRIVAL_TIME", "到达时间"),
+
+    /**
+     * 历时最短
+     */
+    DURATION(2, "DURATION", "历时"),
+
+    /**
+     * 最低价格
+     */
+    PRICE(3, "PRICE", "价格");
+
+    private final Integer code;
+
+    private final String name;
+
+    private final String value;
+
+    /**
+     * 根据编码查找排序类型
+     */
+    public static TicketSortTypeEnum findByCode(Integer code) {
+        return Arrays.stream(TicketSortTypeEnum.values())
+                .filter(each -> Objects.equals(each.getCode(), code))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 批量购票合并配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = PurchaseTicketsBatchProperties.PREFIX)
+public class PurchaseTicketsBatchProperties {
+
+    public static final String PREFIX = "ticket.purchase.batch";
+
+    /**
+     * 是否开启批量购票合并，开启后同一列车同一座位类型的并发购票请求合并为一个批次执行
+     */
+    private Boolean enabled = Boolean.FALSE;
+
+    /**
+     * 批次收集窗口，单位毫秒，批次首个请求到达后最多等待该时间收集后续请求
+     */
+    private Long window = 5L;
+
+    /**
+     * 单个批次最大请求数量，达到数量后立即执行
+     */
+    private Integer maxSize = 32;
+}
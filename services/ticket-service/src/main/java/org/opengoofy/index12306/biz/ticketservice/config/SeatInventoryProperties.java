@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 座位库存存储配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = SeatInventoryProperties.PREFIX)
+public class SeatInventoryProperties {
+
+    public static final String PREFIX = "ticket.seat-inventory";
+
+    /**
+     * MySQL 座位区段位图存储，可配合内存座位图使用
+     */
+    public static final String TYPE_MYSQL = "mysql";
+
+    /**
+     * Redis 座位位图存储，每个 列车 + 车厢 + 区段 一个位图，通过 Lua 脚本跨节点原子占用座位
+     */
+    public static final String TYPE_REDIS = "redis";
+
+    /**
+     * 座位库存存储类型，可选 mysql、redis
+     */
+    private String type = TYPE_MYSQL;
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 列车站点余票后台刷新配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = SeatMarginRefreshProperties.PREFIX)
+public class SeatMarginRefreshProperties {
+
+    public static final String PREFIX = "ticket.availability.stale-while-revalidate";
+
+    /**
+     * 是否开启余票过期后台刷新，开启后车票查询始终读取缓存中的余票，过期或未命中的列车由后台线程重建，不再同步访问数据库
+     */
+    private Boolean enabled = Boolean.FALSE;
+
+    /**
+     * 余票新鲜期，单位毫秒，超过后下一次读取触发后台刷新
+     */
+    private Long refreshAfter = 60000L;
+
+    /**
+     * 单次后台刷新的最大列车数量，同一批次一次聚合查询
+     */
+    private Integer batchSize = 50;
+
+    /**
+     * 等待刷新的最大列车数量，超出后丢弃本次刷新请求，由后续读取再次触发
+     */
+    private Integer maxPendingTrains = 2000;
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 车站地区常驻索引配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = StationRegionIndexProperties.PREFIX)
+public class StationRegionIndexProperties {
+
+    public static final String PREFIX = "ticket.search.station-index";
+
+    /**
+     * 是否开启车站地区常驻索引，开启后启动时从车站表、地区表加载，查询解析车站所属地区不再访问 Redis
+     */
+    private Boolean enabled = Boolean.FALSE;
+
+    /**
+     * 拉取车站地区版本号的间隔时间，单位毫秒
+     */
+    private Long versionRefreshInterval = 5000L;
+
+    /**
+     * 全量重建索引的间隔时间，单位毫秒，版本号通知丢失时兜底
+     */
+    private Long reloadInterval = 1800000L;
+}
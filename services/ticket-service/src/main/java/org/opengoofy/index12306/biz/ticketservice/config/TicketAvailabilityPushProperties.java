@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 余票变更推送配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = TicketAvailabilityPushProperties.PREFIX)
+public class TicketAvailabilityPushProperties {
+
+    public static final String PREFIX = "ticket.availability.push";
+
+    /**
+     * 是否开启余票变更推送，开启后余票缓存变更通过 Redis 发布订阅广播，客户端通过 SSE 接收变更
+     */
+    private Boolean enabled = Boolean.FALSE;
+
+    /**
+     * 单个订阅最多关注的列车数量
+     */
+    private Integer maxTrainsPerSubscription = 50;
+
+    /**
+     * 单个节点最多持有的订阅数量
+     */
+    private Integer maxSubscriptions = 10000;
+
+    /**
+     * 订阅连接最长保持时间，单位毫秒，超时后客户端重新订阅
+     */
+    private Long subscriptionTimeout = 600000L;
+
+    /**
+     * 心跳间隔时间，单位毫秒，避免网关以及代理因连接空闲断开
+     */
+    private Long heartbeatInterval = 15000L;
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 车票查询本地结果缓存配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = TicketSearchCacheProperties.PREFIX)
+public class TicketSearchCacheProperties {
+
+    public static final String PREFIX = "ticket.search.result-cache";
+
+    /**
+     * 是否开启车票查询本地结果缓存，开启后列车、时刻、价格等静态结果常驻本地，每次查询仅批量读取余票
+     */
+    private Boolean enabled = Boolean.FALSE;
+
+    /**
+     * 本地缓存的 出发地 + 目的地 + 出发日期 查询结果最大数量
+     */
+    private Long maximumSize = 20000L;
+
+    /**
+     * 查询结果写入后的最长存活时间，单位毫秒，版本号通知丢失时兜底淘汰
+     */
+    private Long expireAfterWrite = 600000L;
+
+    /**
+     * 拉取查询结果版本号的间隔时间，单位毫秒
+     */
+    private Long versionRefreshInterval = 5000L;
+}
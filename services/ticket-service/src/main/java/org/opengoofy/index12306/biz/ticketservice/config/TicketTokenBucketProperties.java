@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 列车车票余量令牌桶配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = TicketTokenBucketProperties.PREFIX)
+public class TicketTokenBucketProperties {
+
+    public static final String PREFIX = "ticket.availability.token-bucket";
+
+    /**
+     * 是否按区段下标存储令牌，开启后每种座位类型仅保存相邻站点区段的令牌，购票时对乘车区段取最小值校验并整体扣减
+     */
+    private Boolean segmentIndexed = Boolean.FALSE;
+
+    /**
+     * 令牌桶不存在时是否允许购票请求同步初始化，关闭后令牌桶只能由预热任务构建
+     */
+    private Boolean lazyInitializeEnabled = Boolean.TRUE;
+
+    /**
+     * 是否开启令牌桶预热任务
+     */
+    private Boolean prewarmEnabled = Boolean.FALSE;
+
+    /**
+     * 预热窗口，单位分钟，预热开售时间在窗口内且尚未发车的列车
+     */
+    private Long prewarmHorizon = 120L;
+
+    /**
+     * 是否开启令牌增量校正，开启后令牌与座位库存不一致时仅校正差异 Field，不再删除令牌桶
+     */
+    private Boolean reconcileEnabled = Boolean.FALSE;
+
+    /**
+     * 令牌校正静默期，单位毫秒，列车在静默期内有令牌扣减时跳过校正
+     * 需大于购票从扣减令牌到座位提交的最长耗时，避免在途请求被当作令牌偏差补回
+     */
+    private Long reconcileQuietPeriod = 10000L;
+
+    /**
+     * 是否开启节点本地令牌租约，仅按区段下标存储令牌时生效
+     * <p>
+     * 租借的令牌已从中心令牌桶扣减，租约存续期间重叠区段最多少看到 leaseMaxSize 个令牌，持续 leaseTtl 毫秒，即有意的超额预留；
+     * 中心令牌桶因此无法反映真实余量，不能与令牌增量校正或排队等候室同时开启，启动时校验
+     */
+    private Boolean leaseEnabled = Boolean.FALSE;
+
+    /**
+     * 单次租借令牌最小数量
+     */
+    private Integer leaseMinSize = 2;
+
+    /**
+     * 单次租借令牌最大数量，租约在有效期内耗尽时租借数量翻倍直至该值
+     */
+    private Integer leaseMaxSize = 32;
+
+    /**
+     * 租约有效期，单位毫秒，到期后剩余令牌归还中心令牌桶
+     */
+    private Long leaseTtl = 2000L;
+
+    /**
+     * 检查到期租约的间隔时间，单位毫秒
+     */
+    private Long leaseReturnInterval = 500L;
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 换乘查询配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = TicketTransferSearchProperties.PREFIX)
+public class TicketTransferSearchProperties {
+
+    public static final String PREFIX = "ticket.search.transfer";
+
+    /**
+     * 是否开启一次换乘查询，开启后启动时加载列车时刻以及价格构建换乘图，查询全部基于内存结构
+     */
+    private Boolean enabled = Boolean.FALSE;
+
+    /**
+     * 换乘图重建间隔时间，单位毫秒
+     */
+    private Long refreshInterval = 1800000L;
+
+    /**
+     * 默认最短换乘时间，单位分钟，请求未指定时使用
+     */
+    private Integer minConnectionTime = 20;
+
+    /**
+     * 最长换乘等待时间，单位分钟，不超过一天
+     */
+    private Integer maxConnectionTime = 360;
+
+    /**
+     * 单次查询返回的最大换乘方案数量
+     */
+    private Integer maxResults = 50;
+}
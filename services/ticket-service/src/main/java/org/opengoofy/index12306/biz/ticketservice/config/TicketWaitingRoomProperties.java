@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 购票排队配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = TicketWaitingRoomProperties.PREFIX)
+public class TicketWaitingRoomProperties {
+
+    public static final String PREFIX = "ticket.purchase.waiting-room";
+
+    /**
+     * 是否开启购票排队，开启后用户需先进入列车排队，放行后才能购票
+     */
+    private Boolean enabled = Boolean.FALSE;
+
+    /**
+     * 每趟列车每秒放行人数，按余票扣减以及选座能够承受的速率配置
+     */
+    private Integer admitRate = 100;
+
+    /**
+     * 每趟列车最大排队人数
+     */
+    private Integer maxQueueSize = 100000;
+
+    /**
+     * 排队数据有效期，单位秒
+     */
+    private Long queueTimeout = 1800L;
+
+    /**
+     * 令牌桶已空时关闭排队的时间，单位秒，到期后重新开放以承接取消订单释放的余票
+     */
+    private Long closeTimeout = 30L;
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 列车归属节点路由配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = TrainAffinityProperties.PREFIX)
+public class TrainAffinityProperties {
+
+    public static final String PREFIX = "ticket.purchase.train-affinity";
+
+    /**
+     * 是否开启列车归属节点路由，开启后购票请求转发至列车归属节点，归属节点内存串行化购票，不再使用分布式锁
+     */
+    private Boolean enabled = Boolean.FALSE;
+
+    /**
+     * 一致性哈希环中每个节点的虚拟节点数量
+     */
+    private Integer virtualNodes = 160;
+
+    /**
+     * 刷新服务实例列表以及续期归属租约的间隔时间，单位毫秒
+     */
+    private Long refreshInterval = 5000L;
+
+    /**
+     * 列车归属租约有效期，单位毫秒，归属节点宕机后其它节点最迟在该时间后接管列车
+     */
+    private Long leaseTimeout = 30000L;
+
+    /**
+     * 节点之间转发调用内部接口的共享密钥，归属节点校验请求头，未配置时拒绝所有内部调用
+     */
+    private String innerToken;
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 列车线路拓扑本地缓存配置
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = TrainRouteCacheProperties.PREFIX)
+public class TrainRouteCacheProperties {
+
+    public static final String PREFIX = "ticket.train-route.local-cache";
+
+    /**
+     * 是否开启列车线路拓扑本地缓存，关闭时每次调用从数据库加载经停站点构建拓扑
+     */
+    private Boolean enabled = Boolean.FALSE;
+
+    /**
+     * 本地缓存的列车线路拓扑最大数量
+     */
+    private Long maximumSize = 10000L;
+
+    /**
+     * 列车线路拓扑写入后的最长存活时间，单位毫秒，版本号通知丢失时兜底淘汰
+     */
+    private Long expireAfterWrite = 3600000L;
+
+    /**
+     * 拉取列车线路版本号的间隔时间，单位毫秒
+     */
+    private Long versionRefreshInterval = 5000L;
+}
@@ -22,8 +22,10 @@ import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import lombok.RequiredArgsConstructor;
 import org.opengoofy.index12306.biz.ticketservice.common.enums.SeatStatusEnum;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.SeatDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.SeatSegmentDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationRelationDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.SeatMapper;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.SeatSegmentMapper;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainStationRelationMapper;
 import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
 import org.opengoofy.index12306.framework.starter.common.toolkit.ThreadUtil;
@@ -36,6 +38,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET;
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_TOKEN_BUCKET;
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
 
@@ -49,6 +52,7 @@ import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKe
 public class TempSeatController {
 
     private final SeatMapper seatMapper;
+    private final SeatSegmentMapper seatSegmentMapper;
     private final TrainStationRelationMapper trainStationRelationMapper;
     private final DistributedCache distributedCache;
 
@@ -60,6 +64,9 @@ public class TempSeatController {
         SeatDO seatDO = new SeatDO();
         seatDO.setSeatStatus(SeatStatusEnum.AVAILABLE.getCode());
         seatMapper.update(seatDO, Wrappers.lambdaUpdate(SeatDO.class).eq(SeatDO::getTrainId, trainId));
+        SeatSegmentDO seatSegmentDO = new SeatSegmentDO();
+        seatSegmentDO.setSegmentMask(0L);
+        seatSegmentMapper.update(seatSegmentDO, Wrappers.lambdaUpdate(SeatSegmentDO.class).eq(SeatSegmentDO::getTrainId, trainId));
         ThreadUtil.sleep(5000);
         StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
         List<TrainStationRelationDO> trainStationRelationDOList = trainStationRelationMapper.selectList(Wrappers.lambdaQuery(TrainStationRelationDO.class)
@@ -69,6 +76,7 @@ public class TempSeatController {
             stringRedisTemplate.delete(TRAIN_STATION_REMAINING_TICKET + keySuffix);
         }
         stringRedisTemplate.delete(TICKET_AVAILABILITY_TOKEN_BUCKET + trainId);
+        stringRedisTemplate.delete(TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET + trainId);
         return Results.success();
     }
 }
@@ -21,19 +21,33 @@ import lombok.RequiredArgsConstructor;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.CancelTicketOrderReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.RefundTicketReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketBatchQueryReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.SeatUnlockReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketAvailabilitySubscribeReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketPageQueryReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketTransferQueryReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.resp.RefundTicketRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketBatchQueryRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPageQueryRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketTransferQueryRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketWaitingRoomRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.remote.dto.PayInfoRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.SeatService;
 import org.opengoofy.index12306.biz.ticketservice.service.TicketService;
+import org.opengoofy.index12306.biz.ticketservice.service.affinity.TrainOwnerInnerTokenVerifier;
+import org.opengoofy.index12306.biz.ticketservice.service.push.TicketAvailabilityPushService;
+import org.opengoofy.index12306.biz.ticketservice.service.waitingroom.TicketWaitingRoomService;
 import org.opengoofy.index12306.framework.starter.convention.result.Result;
 import org.opengoofy.index12306.framework.starter.web.Results;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * 车票控制层
@@ -44,6 +58,10 @@ import org.springframework.web.bind.annotation.RestController;
 public class TicketController {
 
     private final TicketService ticketService;
+    private final SeatService seatService;
+    private final TicketAvailabilityPushService ticketAvailabilityPushService;
+    private final TicketWaitingRoomService ticketWaitingRoomService;
+    private final TrainOwnerInnerTokenVerifier trainOwnerInnerTokenVerifier;
 
     /**
      * 根据条件查询车票
@@ -53,6 +71,46 @@ public class TicketController {
         return Results.success(ticketService.pageListTicketQueryV1(requestParam));
     }
 
+    /**
+     * 批量查询多组出发地、目的地、出发日期的车票
+     */
+    @PostMapping("/api/ticket-service/ticket/query/batch")
+    public Result<TicketBatchQueryRespDTO> batchListTicketQuery(@RequestBody TicketBatchQueryReqDTO requestParam) {
+        return Results.success(ticketService.batchListTicketQuery(requestParam));
+    }
+
+    /**
+     * 根据条件查询一次换乘车票
+     */
+    @GetMapping("/api/ticket-service/ticket/transfer/query")
+    public Result<TicketTransferQueryRespDTO> listTransferTicketQuery(TicketTransferQueryReqDTO requestParam) {
+        return Results.success(ticketService.listTransferTicketQuery(requestParam));
+    }
+
+    /**
+     * 订阅车次区间余票变更，替代客户端轮询车票查询接口
+     */
+    @GetMapping(value = "/api/ticket-service/ticket/availability/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeTicketAvailability(TicketAvailabilitySubscribeReqDTO requestParam) {
+        return ticketAvailabilityPushService.subscribe(requestParam);
+    }
+
+    /**
+     * 进入列车购票排队
+     */
+    @PostMapping("/api/ticket-service/ticket/waiting-room/enter")
+    public Result<TicketWaitingRoomRespDTO> enterWaitingRoom(@RequestParam(value = "trainId") String trainId) {
+        return Results.success(ticketWaitingRoomService.enter(trainId));
+    }
+
+    /**
+     * 查询列车购票排队情况
+     */
+    @GetMapping("/api/ticket-service/ticket/waiting-room/position")
+    public Result<TicketWaitingRoomRespDTO> getWaitingRoomPosition(@RequestParam(value = "trainId") String trainId) {
+        return Results.success(ticketWaitingRoomService.position(trainId));
+    }
+
     /**
      * 购买车票
      */
@@ -69,6 +127,27 @@ public class TicketController {
         return Results.success(ticketService.purchaseTicketsV2(requestParam));
     }
 
+    /**
+     * 列车归属节点购买车票，仅供服务节点之间转发调用
+     */
+    @PostMapping("/api/ticket-service/inner/ticket/purchase/v2")
+    public Result<TicketPurchaseRespDTO> purchaseTicketsV2OnOwner(@RequestHeader(value = TrainOwnerInnerTokenVerifier.INNER_TOKEN_HEADER, required = false) String innerToken,
+                                                                  @RequestBody PurchaseTicketReqDTO requestParam) {
+        trainOwnerInnerTokenVerifier.verify(innerToken);
+        return Results.success(ticketService.purchaseTicketsV2OnOwner(requestParam));
+    }
+
+    /**
+     * 列车归属节点解锁座位，仅供服务节点之间转发调用
+     */
+    @PostMapping("/api/ticket-service/inner/seat/unlock")
+    public Result<Void> unlockSeatOnOwner(@RequestHeader(value = TrainOwnerInnerTokenVerifier.INNER_TOKEN_HEADER, required = false) String innerToken,
+                                          @RequestBody SeatUnlockReqDTO requestParam) {
+        trainOwnerInnerTokenVerifier.verify(innerToken);
+        seatService.unlockOnOwner(requestParam);
+        return Results.success();
+    }
+
     /**
      * 取消车票订单
      */
@@ -18,25 +18,11 @@
 package org.opengoofy.index12306.biz.ticketservice.dao.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import org.apache.ibatis.annotations.Param;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.SeatDO;
-import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatTypeCountDTO;
-
-import java.util.List;
 
 /**
  * 座位持久层
  * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
  */
 public interface SeatMapper extends BaseMapper<SeatDO> {
-
-    /**
-     * 获取列车车厢余票集合
-     */
-    List<Integer> listSeatRemainingTicket(@Param("seatDO") SeatDO seatDO, @Param("trainCarriageList") List<String> trainCarriageList);
-
-    /**
-     * 获取列车 startStation 到 endStation 区间可用座位数量
-     */
-    List<SeatTypeCountDTO> listSeatTypeCount(@Param("trainId") Long trainId, @Param("startStation") String startStation, @Param("endStation") String endStation, @Param("seatTypes") List<Integer> seatTypes);
 }
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.SeatSegmentDO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.CarriageSeatCountDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatSegmentMaskCountDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatTypeCountDTO;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 座位区段库存持久层
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public interface SeatSegmentMapper extends BaseMapper<SeatSegmentDO> {
+
+    /**
+     * 获取列车所有车厢中乘车区段可用的座位，仅返回车厢号以及座位号，按车厢号排序
+     */
+    List<SeatSegmentDO> listAvailableSeat(@Param("trainId") Long trainId, @Param("seatType") Integer seatType, @Param("rangeMask") Long rangeMask);
+
+    /**
+     * 获取列车车厢乘车区段可用座位数量
+     */
+    List<CarriageSeatCountDTO> listCarriageSeatCount(@Param("trainId") Long trainId, @Param("rangeMask") Long rangeMask, @Param("trainCarriageList") List<String> trainCarriageList);
+
+    /**
+     * 查询列车乘车区段有余票的车厢号集合
+     */
+    List<String> listUsableCarriageNumber(@Param("trainId") Long trainId, @Param("seatType") Integer seatType, @Param("rangeMask") Long rangeMask);
+
+    /**
+     * 获取列车乘车区段可用座位数量
+     */
+    List<SeatTypeCountDTO> listSeatTypeCount(@Param("trainId") Long trainId, @Param("rangeMask") Long rangeMask, @Param("seatTypes") List<Integer> seatTypes);
+
+    /**
+     * 按座位类型以及区段位图聚合列车座位数量，一次查询即可推算任意区间余票
+     */
+    List<SeatSegmentMaskCountDTO> listSeatSegmentMaskCount(@Param("trainId") Long trainId, @Param("seatTypes") List<Integer> seatTypes);
+
+    /**
+     * 按列车、座位类型以及区段位图聚合多趟列车座位数量，批量回填余票缓存时一次查询
+     */
+    List<SeatSegmentMaskCountDTO> listTrainSeatSegmentMaskCount(@Param("trainIds") Collection<Long> trainIds);
+
+    /**
+     * 占用座位乘车区段，区段已被占用时不做修改
+     *
+     * @return 修改成功记录数
+     */
+    int occupySeatSegment(@Param("trainId") Long trainId, @Param("carriageNumber") String carriageNumber, @Param("seatNumber") String seatNumber, @Param("rangeMask") Long rangeMask);
+
+    /**
+     * 释放座位乘车区段
+     *
+     * @return 修改成功记录数
+     */
+    int releaseSeatSegment(@Param("trainId") Long trainId, @Param("carriageNumber") String carriageNumber, @Param("seatNumber") String seatNumber, @Param("rangeMask") Long rangeMask);
+}
@@ -40,7 +40,7 @@ public class SeatClassDTO {
     private Integer type;
 
     /**
-     * 席别数量
+     * 席别数量，为空表示余票尚未加载
      */
     private Integer quantity;
 
@@ -18,42 +18,40 @@
 package org.opengoofy.index12306.biz.ticketservice.dto.domain;
 
 import lombok.AllArgsConstructor;
-import lombok.Builder;
 import lombok.Data;
-
-import java.util.List;
+import lombok.NoArgsConstructor;
 
 /**
- * 高铁座位基础信息
+ * 列车区间余票变更实体，携带变更后的余票数量，重复或乱序到达时以最新数量覆盖即可
  * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
  */
-@Builder
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
-public class TrainSeatBaseDTO {
+public class TicketAvailabilityChangeDTO {
 
     /**
-     * 高铁列车 ID
+     * 列车 ID
      */
     private String trainId;
 
     /**
-     * 列车起始站点
+     * 出发站点
      */
     private String departure;
 
     /**
-     * 列车到达站点
+     * 到达站点
      */
     private String arrival;
 
     /**
-     * 乘客信息
+     * 座位类型
      */
-    private List<PurchaseTicketPassengerDetailDTO> passengerSeatDetails;
+    private Integer seatType;
 
     /**
-     * 选择座位信息
+     * 变更后余票数量
      */
-    private List<String> chooseSeatList;
+    private Integer quantity;
 }
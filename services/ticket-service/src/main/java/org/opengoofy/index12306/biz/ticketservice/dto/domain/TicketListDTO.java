@@ -53,6 +53,21 @@ public class TicketListDTO {
      */
     private String duration;
 
+    /**
+     * 出发时间当日分钟数，用于排序以及时间段筛选
+     */
+    private Integer departureMinute;
+
+    /**
+     * 到达时间当日分钟数，用于排序以及时间段筛选
+     */
+    private Integer arrivalMinute;
+
+    /**
+     * 历时分钟数
+     */
+    private Integer durationMinute;
+
     /**
      * 到达天数
      */
@@ -15,37 +15,42 @@
  * limitations under the License.
  */
 
-package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.base;
+package org.opengoofy.index12306.biz.ticketservice.dto.domain;
 
-import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
- * 抽象的验证座位实体类
+ * 一次换乘方案实体
  * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
  */
-public interface BitMapCheckSeat {
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferJourneyDTO {
 
     /**
-     * 座位是否存在检查方法
-     *
-     * @param key              缓存Key
-     * @param convert          座位统计Map
-     * @param distributedCache 分布式缓存接口
-     * @return 判断座位是否存在 true or false
+     * 换乘站点
      */
-    boolean checkSeat(String key, HashMap<Integer, Integer> convert, DistributedCache distributedCache);
+    private String transferStation;
 
     /**
-     * 检查座位是否存在 v2 版本
-     *
-     * @param chooseSeatList 选择座位
-     * @param actualSeats    座位状态数组
-     * @param SEAT_Y_INT     坐标转换 Map
-     * @return
+     * 换乘等待时间，单位分钟
      */
-    boolean checkChooseSeat(List<String> chooseSeatList, int[][] actualSeats, Map<Character, Integer> SEAT_Y_INT);
+    private Integer connectionMinute;
+
+    /**
+     * 全程历时，单位分钟，包含换乘等待时间
+     */
+    private Integer durationMinute;
+
+    /**
+     * 乘车区段集合，依次为首段以及换乘后车次
+     */
+    private List<TicketListDTO> legList;
 }
@@ -15,11 +15,21 @@
  * limitations under the License.
  */
 
-package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.base;
+package org.opengoofy.index12306.biz.ticketservice.dto.req;
+
+import lombok.Data;
+
+import java.util.List;
 
 /**
- * 高铁验证座位接口
+ * 批量车票查询请求参数
  * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
  */
-public interface TrainBitMapCheckSeat extends BitMapCheckSeat {
+@Data
+public class TicketBatchQueryReqDTO {
+
+    /**
+     * 查询条件集合，每组条件包含出发地、目的地、出发日期以及可选的排序筛选条件
+     */
+    private List<TicketPageQueryReqDTO> queryList;
 }
@@ -17,11 +17,13 @@
 
 package org.opengoofy.index12306.biz.ticketservice.dto.req;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 import org.opengoofy.index12306.framework.starter.convention.page.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.util.Date;
+import java.util.List;
 
 /**
  * 车票分页查询请求参数
@@ -44,6 +46,7 @@ public class TicketPageQueryReqDTO extends PageRequest {
      * 出发日期
      */
     @DateTimeFormat(pattern = "yyyy-MM-dd")
+    @JsonFormat(pattern = "yyyy-MM-dd", timezone = "GMT+8")
     private Date departureDate;
 
     /**
@@ -55,4 +58,39 @@ public class TicketPageQueryReqDTO extends PageRequest {
      * 到达站点
      */
     private String arrival;
+
+    /**
+     * 排序类型 0：出发时间 1：到达时间 2：历时 3：价格，为空时按出发时间排序
+     */
+    private Integer sortType;
+
+    /**
+     * 列车类型集合 0：高铁 1：动车 2：普通车，为空时不过滤
+     */
+    private List<Integer> trainTypes;
+
+    /**
+     * 出发时间段开始 HH:mm
+     */
+    private String departureTimeBegin;
+
+    /**
+     * 出发时间段结束 HH:mm
+     */
+    private String departureTimeEnd;
+
+    /**
+     * 到达时间段开始 HH:mm
+     */
+    private String arrivalTimeBegin;
+
+    /**
+     * 到达时间段结束 HH:mm
+     */
+    private String arrivalTimeEnd;
+
+    /**
+     * 仅显示有票车次
+     */
+    private Boolean onlyHasSeat;
 }
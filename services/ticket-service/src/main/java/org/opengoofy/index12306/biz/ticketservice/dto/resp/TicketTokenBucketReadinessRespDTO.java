@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.dto.resp;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 列车余票令牌桶预热就绪情况响应参数
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketTokenBucketReadinessRespDTO {
+
+    /**
+     * 预热完成时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private Date checkTime;
+
+    /**
+     * 预热窗口，单位分钟
+     */
+    private Long horizon;
+
+    /**
+     * 预热窗口内列车数量
+     */
+    private Integer trainCount;
+
+    /**
+     * 本次新建令牌桶数量
+     */
+    private Integer initializedCount;
+
+    /**
+     * 未开售但与座位库存不一致，本次按数据库重建的令牌桶数量
+     */
+    private Integer rebuiltCount;
+
+    /**
+     * 已开售且与座位库存不一致的列车 ID，可能存在未完成订单，不做覆盖
+     */
+    private List<String> driftTrainIds;
+
+    /**
+     * 预热失败的列车 ID
+     */
+    private List<String> failedTrainIds;
+
+    /**
+     * 窗口内全部列车令牌桶是否就绪
+     */
+    private Boolean ready;
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.dto.resp;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 购票排队情况响应参数
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketWaitingRoomRespDTO {
+
+    /**
+     * 列车 ID
+     */
+    private String trainId;
+
+    /**
+     * 排队序号，未排队为 0
+     */
+    private Long position;
+
+    /**
+     * 前方排队人数
+     */
+    private Long aheadCount;
+
+    /**
+     * 预计等待时间，单位秒
+     */
+    private Long estimatedWaitTime;
+
+    /**
+     * 是否已放行，放行后可发起一次购票
+     */
+    private Boolean admitted;
+
+    /**
+     * 排队是否已关闭，关闭时列车余票已售罄，无需继续轮询
+     */
+    private Boolean closed;
+}
@@ -30,6 +30,7 @@ import org.opengoofy.index12306.biz.ticketservice.dao.entity.RegionDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationRelationDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.RegionMapper;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainStationRelationMapper;
+import org.opengoofy.index12306.biz.ticketservice.service.search.TicketSearchResultCache;
 import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
 import org.opengoofy.index12306.framework.starter.common.toolkit.EnvironmentUtil;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -60,6 +61,7 @@ public class RegionTrainStationJobHandler extends IJobHandler {
     private final RegionMapper regionMapper;
     private final TrainStationRelationMapper trainStationRelationMapper;
     private final DistributedCache distributedCache;
+    private final TicketSearchResultCache ticketSearchResultCache;
 
     @XxlJob(value = "regionTrainStationJobHandler")
     @GetMapping("/api/ticket-service/region-train-station/job/cache-init/execute")
@@ -96,6 +98,8 @@ public class RegionTrainStationJobHandler extends IJobHandler {
                 }
             }
         }
+        // 地区车次缓存重建后，各节点基于旧车次构建的查询结果需要淘汰
+        ticketSearchResultCache.incrementVersion();
     }
 
     private String getJobRequestParam() {
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.job;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.DateUtil;
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.xxl.job.core.handler.annotation.XxlJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketTokenBucketProperties;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainMapper;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketTokenBucketReadinessRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.opengoofy.index12306.framework.starter.convention.result.Result;
+import org.opengoofy.index12306.framework.starter.web.Results;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_TOKEN_BUCKET_READINESS;
+
+/**
+ * 列车余票令牌桶预热定时任务
+ * 开售前为预热窗口内的列车构建令牌桶并与座位库存校验，避免开售瞬间购票请求承担令牌桶构建开销
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class TicketTokenBucketPrewarmJobHandler {
+
+    private final TrainMapper trainMapper;
+    private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
+    private final TicketTokenBucketProperties ticketTokenBucketProperties;
+    private final DistributedCache distributedCache;
+
+    /**
+     * 预热开售时间在窗口内且尚未发车的列车令牌桶，可重复执行
+     * 令牌桶不存在时新建；未开售但与座位库存不一致时按数据库重建；已开售的不一致列车仅记录，交由令牌校正处理
+     */
+    @XxlJob(value = "ticketTokenBucketPrewarmJobHandler")
+    @GetMapping("/api/ticket-service/ticket-token-bucket/job/prewarm/execute")
+    public void execute() {
+        if (!ticketTokenBucketProperties.getPrewarmEnabled()) {
+            return;
+        }
+        Date now = new Date();
+        Date horizonTime = DateUtil.offsetMinute(now, ticketTokenBucketProperties.getPrewarmHorizon().intValue());
+        int trainCount = 0;
+        int initializedCount = 0;
+        int rebuiltCount = 0;
+        List<String> driftTrainIds = new ArrayList<>();
+        List<String> failedTrainIds = new ArrayList<>();
+        for (long currentPage = 1L; ; currentPage++) {
+            var queryWrapper = Wrappers.lambdaQuery(TrainDO.class)
+                    .le(TrainDO::getSaleTime, horizonTime)
+                    .gt(TrainDO::getDepartureTime, now)
+                    .select(TrainDO::getId, TrainDO::getSaleTime)
+                    .orderByAsc(TrainDO::getId);
+            var trainDOPage = trainMapper.selectPage(new Page<>(currentPage, 1000L), queryWrapper);
+            if (trainDOPage == null || CollUtil.isEmpty(trainDOPage.getRecords())) {
+                break;
+            }
+            for (TrainDO each : trainDOPage.getRecords()) {
+                trainCount++;
+                String trainId = String.valueOf(each.getId());
+                try {
+                    if (ticketAvailabilityTokenBucket.initializeTokens(trainId)) {
+                        initializedCount++;
+                    } else if (!ticketAvailabilityTokenBucket.verifyTokens(trainId)) {
+                        if (each.getSaleTime() != null && each.getSaleTime().after(now)) {
+                            ticketAvailabilityTokenBucket.putTokenInBucket(trainId);
+                            rebuiltCount++;
+                        } else {
+                            driftTrainIds.add(trainId);
+                        }
+                    }
+                } catch (Throwable ex) {
+                    log.error("列车余票令牌桶预热失败，列车ID：{}", trainId, ex);
+                    failedTrainIds.add(trainId);
+                }
+            }
+        }
+        TicketTokenBucketReadinessRespDTO readiness = TicketTokenBucketReadinessRespDTO.builder()
+                .checkTime(new Date())
+                .horizon(ticketTokenBucketProperties.getPrewarmHorizon())
+                .trainCount(trainCount)
+                .initializedCount(initializedCount)
+                .rebuiltCount(rebuiltCount)
+                .driftTrainIds(driftTrainIds)
+                .failedTrainIds(failedTrainIds)
+                .ready(driftTrainIds.isEmpty() && failedTrainIds.isEmpty())
+                .build();
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        stringRedisTemplate.opsForValue().set(TICKET_AVAILABILITY_TOKEN_BUCKET_READINESS, JSON.toJSONString(readiness));
+        log.info("列车余票令牌桶预热完成，列车数量：{}，新建：{}，重建：{}，不一致：{}，失败：{}",
+                trainCount, initializedCount, rebuiltCount, driftTrainIds.size(), failedTrainIds.size());
+    }
+
+    /**
+     * 查询最近一次令牌桶预热就绪情况
+     */
+    @GetMapping("/api/ticket-service/ticket-token-bucket/readiness")
+    public Result<TicketTokenBucketReadinessRespDTO> readiness() {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        String readinessStr = stringRedisTemplate.opsForValue().get(TICKET_AVAILABILITY_TOKEN_BUCKET_READINESS);
+        return Results.success(JSON.parseObject(readinessStr, TicketTokenBucketReadinessRespDTO.class));
+    }
+}
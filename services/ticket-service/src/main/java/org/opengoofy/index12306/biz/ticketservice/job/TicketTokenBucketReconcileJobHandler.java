@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.job;
+
+import cn.hutool.core.collection.CollUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.xxl.job.core.handler.annotation.XxlJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketTokenBucketProperties;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainMapper;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Date;
+
+/**
+ * 列车余票令牌桶增量校正定时任务
+ * 按数据库座位库存逐 Field 计算偏差，仅对不一致的令牌执行 HINCRBY 校正，令牌桶始终存在
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class TicketTokenBucketReconcileJobHandler {
+
+    private final TrainMapper trainMapper;
+    private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
+    private final TicketTokenBucketProperties ticketTokenBucketProperties;
+
+    /**
+     * 校正已开售且尚未发车的列车令牌桶
+     */
+    @XxlJob(value = "ticketTokenBucketReconcileJobHandler")
+    @GetMapping("/api/ticket-service/ticket-token-bucket/job/reconcile/execute")
+    public void execute() {
+        if (!ticketTokenBucketProperties.getReconcileEnabled()) {
+            return;
+        }
+        Date now = new Date();
+        int trainCount = 0;
+        int driftTrainCount = 0;
+        int adjustedFieldCount = 0;
+        int failedTrainCount = 0;
+        for (long currentPage = 1L; ; currentPage++) {
+            var queryWrapper = Wrappers.lambdaQuery(TrainDO.class)
+                    .le(TrainDO::getSaleTime, now)
+                    .gt(TrainDO::getDepartureTime, now)
+                    .select(TrainDO::getId)
+                    .orderByAsc(TrainDO::getId);
+            var trainDOPage = trainMapper.selectPage(new Page<>(currentPage, 1000L), queryWrapper);
+            if (trainDOPage == null || CollUtil.isEmpty(trainDOPage.getRecords())) {
+                break;
+            }
+            for (TrainDO each : trainDOPage.getRecords()) {
+                trainCount++;
+                try {
+                    int adjusted = ticketAvailabilityTokenBucket.reconcileTokens(String.valueOf(each.getId()));
+                    if (adjusted > 0) {
+                        driftTrainCount++;
+                        adjustedFieldCount += adjusted;
+                    }
+                } catch (Throwable ex) {
+                    log.error("列车余票令牌校正失败，列车ID：{}", each.getId(), ex);
+                    failedTrainCount++;
+                }
+            }
+        }
+        log.info("列车余票令牌校正任务完成，列车数量：{}，存在偏差列车数量：{}，校正Field数量：{}，失败：{}",
+                trainCount, driftTrainCount, adjustedFieldCount, failedTrainCount);
+    }
+}
@@ -17,7 +17,6 @@
 
 package org.opengoofy.index12306.biz.ticketservice.job;
 
-import com.alibaba.fastjson2.JSON;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.xxl.job.core.handler.annotation.XxlJob;
@@ -26,6 +25,7 @@ import org.opengoofy.index12306.biz.ticketservice.common.constant.Index12306Cons
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainStationMapper;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TrainStopoverCacheDTO;
 import org.opengoofy.index12306.biz.ticketservice.job.base.AbstractTrainStationJobHandlerTemplate;
 import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -60,11 +60,12 @@ public class TrainStationJobHandler extends AbstractTrainStationJobHandlerTempla
     protected void actualExecute(List<TrainDO> trainDOPageRecords) {
         for (TrainDO each : trainDOPageRecords) {
             LambdaQueryWrapper<TrainStationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationDO.class)
-                    .eq(TrainStationDO::getTrainId, each.getId());
+                    .eq(TrainStationDO::getTrainId, each.getId())
+                    .select(TrainStationDO::getDeparture);
             List<TrainStationDO> trainStationDOList = trainStationMapper.selectList(queryWrapper);
             distributedCache.put(
                     TRAIN_STATION_STOPOVER_DETAIL + each.getId(),
-                    JSON.toJSONString(trainStationDOList),
+                    new TrainStopoverCacheDTO(trainStationDOList.stream().map(TrainStationDO::getDeparture).toList()),
                     Index12306Constant.ADVANCE_TICKET_DAY,
                     TimeUnit.DAYS
             );
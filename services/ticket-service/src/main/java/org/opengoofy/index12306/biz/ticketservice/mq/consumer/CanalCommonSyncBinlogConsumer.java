@@ -62,6 +62,15 @@ public class CanalCommonSyncBinlogConsumer implements RocketMQListener<CanalBinl
     )
     @Override
     public void onMessage(CanalBinlogEvent message) {
+        if (!message.getIsDdl() && CanalExecuteStrategyMarkEnum.isStaticDataTable(message.getTable())) {
+            // 列车、票价、列车站点、车站、地区新增、修改、删除均需淘汰本地列车线路拓扑、车站地区索引以及车票查询结果，与余票缓存更新方式无关
+            abstractStrategyChoose.chooseAndExecute(
+                    message.getTable(),
+                    message,
+                    CanalExecuteStrategyMarkEnum.isPatternMatch(message.getTable())
+            );
+            return;
+        }
         // 余票 Binlog 更新延迟问题如何解决？详情查看：https://nageoffer.com/12306/question
         if (message.getIsDdl()
                 || CollUtil.isEmpty(message.getOld())
@@ -20,7 +20,10 @@ package org.opengoofy.index12306.biz.ticketservice.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.SeatDO;
 import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatTypeCountDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.SeatUnlockReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayout;
+import org.opengoofy.index12306.biz.ticketservice.service.seatmap.TrainSeatSnapshot;
 
 import java.util.List;
 
@@ -31,16 +34,16 @@ import java.util.List;
 public interface SeatService extends IService<SeatDO> {
 
     /**
-     * 获取列车车厢中可用的座位集合
+     * 获取列车乘车区段座位快照，一次读取返回该座位类型所有车厢的可用座位
      *
-     * @param trainId        列车 ID
-     * @param carriageNumber 车厢号
-     * @param seatType       座位类型
-     * @param departure      出发站
-     * @param arrival        到达站
-     * @return 可用座位集合
+     * @param trainId    列车 ID
+     * @param seatType   座位类型
+     * @param departure  出发站
+     * @param arrival    到达站
+     * @param seatLayout 车厢座位布局
+     * @return 座位快照
      */
-    List<String> listAvailableSeat(String trainId, String carriageNumber, Integer seatType, String departure, String arrival);
+    TrainSeatSnapshot snapshot(String trainId, Integer seatType, String departure, String arrival, SeatLayout seatLayout);
 
     /**
      * 获取列车车厢余票集合
@@ -94,4 +97,11 @@ public interface SeatService extends IService<SeatDO> {
      * @param trainPurchaseTicketResults 乘车人以及座位信息
      */
     void unlock(String trainId, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults);
+
+    /**
+     * 在列车归属节点解锁座位，由非归属节点转发调用
+     *
+     * @param requestParam 座位解锁请求参数
+     */
+    void unlockOnOwner(SeatUnlockReqDTO requestParam);
 }
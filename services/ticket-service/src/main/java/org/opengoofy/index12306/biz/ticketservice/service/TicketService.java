@@ -22,13 +22,20 @@ import org.opengoofy.index12306.biz.ticketservice.dao.entity.TicketDO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.CancelTicketOrderReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.RefundTicketReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketBatchQueryReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketPageQueryReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketTransferQueryReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.resp.RefundTicketRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketBatchQueryRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPageQueryRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketTransferQueryRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.remote.dto.PayInfoRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.batch.PurchaseTicketsBatchItem;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 /**
  * 车票接口
  * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
@@ -51,6 +58,22 @@ public interface TicketService extends IService<TicketDO> {
      */
     TicketPageQueryRespDTO pageListTicketQueryV2(TicketPageQueryReqDTO requestParam);
 
+    /**
+     * 根据条件查询一次换乘车票
+     *
+     * @param requestParam 换乘查询车票请求参数
+     * @return 换乘查询车票返回结果
+     */
+    TicketTransferQueryRespDTO listTransferTicketQuery(TicketTransferQueryReqDTO requestParam);
+
+    /**
+     * 批量查询多组出发地、目的地、出发日期的车票，共享地区、车次、价格加载以及余票批量读取
+     *
+     * @param requestParam 批量查询车票请求参数
+     * @return 与查询条件顺序一致的查询结果
+     */
+    TicketBatchQueryRespDTO batchListTicketQuery(TicketBatchQueryReqDTO requestParam);
+
     /**
      * 购买车票
      *
@@ -67,6 +90,15 @@ public interface TicketService extends IService<TicketDO> {
      */
     TicketPurchaseRespDTO purchaseTicketsV2(@RequestBody PurchaseTicketReqDTO requestParam);
 
+    /**
+     * 在列车归属节点执行购票，由非归属节点转发调用
+     * 请求已在转发节点完成参数校验以及令牌获取，归属节点只负责串行选座以及落库
+     *
+     * @param requestParam 车票购买请求参数
+     * @return 订单号
+     */
+    TicketPurchaseRespDTO purchaseTicketsV2OnOwner(@RequestBody PurchaseTicketReqDTO requestParam);
+
     /**
      * 执行购买车票
      * 被对应购票版本号接口调用 {@link TicketService#purchaseTicketsV1(PurchaseTicketReqDTO)} and {@link TicketService#purchaseTicketsV2(PurchaseTicketReqDTO)}
@@ -76,6 +108,14 @@ public interface TicketService extends IService<TicketDO> {
      */
     TicketPurchaseRespDTO executePurchaseTickets(@RequestBody PurchaseTicketReqDTO requestParam);
 
+    /**
+     * 批量执行购买车票，批次内请求属于同一列车同一座位类型
+     * 选座以及车票写入在批次内合并执行，单个请求的失败只回滚该请求，执行结果写入各请求的返回结果或异常
+     *
+     * @param batchItems 批次内购票请求
+     */
+    void executePurchaseTicketsBatch(List<PurchaseTicketsBatchItem> batchItems);
+
     /**
      * 支付单详情查询
      *
@@ -36,6 +36,14 @@ public interface TrainStationService {
      */
     List<TrainStationQueryRespDTO> listTrainStationQuery(String trainId);
 
+    /**
+     * 根据列车 ID 按经停顺序查询所有站点名称
+     *
+     * @param trainId 列车 ID
+     * @return 列车经停站点名称集合
+     */
+    List<String> listTrainStationAll(String trainId);
+
     /**
      * 计算列车站点路线关系
      * 获取开始站点和目的站点及中间站点信息
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.affinity;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.SeatUnlockReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.opengoofy.index12306.framework.starter.bases.constant.UserConstant;
+import org.opengoofy.index12306.framework.starter.convention.exception.RemoteException;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+import org.opengoofy.index12306.framework.starter.convention.result.Result;
+import org.opengoofy.index12306.frameworks.starter.user.core.UserContext;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.ConnectException;
+import java.net.URLEncoder;
+import java.net.UnknownHostException;
+import java.time.Duration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 列车归属节点转发客户端，按实例地址直接调用归属节点内部接口
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+public class TrainOwnerForwardClient {
+
+    private static final String PURCHASE_TICKETS_PATH = "/api/ticket-service/inner/ticket/purchase/v2";
+    private static final String SEAT_UNLOCK_PATH = "/api/ticket-service/inner/seat/unlock";
+
+    private final RestTemplate restTemplate;
+    private final TrainOwnerInnerTokenVerifier trainOwnerInnerTokenVerifier;
+
+    public TrainOwnerForwardClient(RestTemplateBuilder restTemplateBuilder, TrainOwnerInnerTokenVerifier trainOwnerInnerTokenVerifier) {
+        this.trainOwnerInnerTokenVerifier = trainOwnerInnerTokenVerifier;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * 转发购票请求至列车归属节点
+     */
+    public TicketPurchaseRespDTO purchaseTickets(String ownerInstance, PurchaseTicketReqDTO requestParam) {
+        return exchange(ownerInstance, PURCHASE_TICKETS_PATH, requestParam, new ParameterizedTypeReference<>() {
+        });
+    }
+
+    /**
+     * 转发座位解锁请求至列车归属节点
+     */
+    public void unlockSeat(String ownerInstance, SeatUnlockReqDTO requestParam) {
+        exchange(ownerInstance, SEAT_UNLOCK_PATH, requestParam, new ParameterizedTypeReference<Result<Void>>() {
+        });
+    }
+
+    private <REQUEST, RESPONSE> RESPONSE exchange(String ownerInstance, String path, REQUEST requestParam, ParameterizedTypeReference<Result<RESPONSE>> responseType) {
+        Result<RESPONSE> result;
+        try {
+            result = restTemplate.exchange("http://" + ownerInstance + path, HttpMethod.POST, new HttpEntity<>(requestParam, buildHeaders()), responseType).getBody();
+        } catch (ResourceAccessException ex) {
+            log.error("转发请求至列车归属节点失败，归属节点：{}，请求路径：{}", ownerInstance, path, ex);
+            if (isNotSent(ex)) {
+                throw new RemoteException("列车归属节点调用失败，请稍后再试");
+            }
+            // 请求可能已送达归属节点，例如读取超时，归属节点是否执行完成无法确定
+            throw new TrainOwnerOutcomeUnknownException("列车归属节点响应超时，请稍后在订单列表确认购票结果", ex);
+        } catch (Throwable ex) {
+            log.error("转发请求至列车归属节点失败，归属节点：{}，请求路径：{}", ownerInstance, path, ex);
+            throw new RemoteException("列车归属节点调用失败，请稍后再试");
+        }
+        if (result == null || !result.isSuccess()) {
+            throw new ServiceException(result == null ? "列车归属节点调用失败，请稍后再试" : result.getMessage());
+        }
+        return result.getData();
+    }
+
+    /**
+     * 连接未建立时请求一定没有送达归属节点
+     */
+    private static boolean isNotSent(ResourceAccessException ex) {
+        Throwable cause = ex.getCause();
+        return cause instanceof ConnectException || cause instanceof UnknownHostException;
+    }
+
+    private HttpHeaders buildHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (StringUtils.hasText(trainOwnerInnerTokenVerifier.getInnerToken())) {
+            headers.set(TrainOwnerInnerTokenVerifier.INNER_TOKEN_HEADER, trainOwnerInnerTokenVerifier.getInnerToken());
+        }
+        if (StringUtils.hasText(UserContext.getUserId())) {
+            headers.set(UserConstant.USER_ID_KEY, UserContext.getUserId());
+            headers.set(UserConstant.USER_NAME_KEY, URLEncoder.encode(UserContext.getUsername(), UTF_8));
+            if (StringUtils.hasText(UserContext.getRealName())) {
+                headers.set(UserConstant.REAL_NAME_KEY, URLEncoder.encode(UserContext.getRealName(), UTF_8));
+            }
+            if (StringUtils.hasText(UserContext.getToken())) {
+                headers.set(UserConstant.USER_TOKEN_KEY, UserContext.getToken());
+            }
+        }
+        return headers;
+    }
+}
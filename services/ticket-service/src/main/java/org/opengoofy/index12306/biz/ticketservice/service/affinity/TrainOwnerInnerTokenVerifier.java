@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.affinity;
+
+import lombok.RequiredArgsConstructor;
+import org.opengoofy.index12306.biz.ticketservice.config.TrainAffinityProperties;
+import org.opengoofy.index12306.framework.starter.convention.exception.ClientException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.MessageDigest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 列车归属节点内部调用鉴权，节点之间通过共享密钥请求头互相认证
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Component
+@RequiredArgsConstructor
+public class TrainOwnerInnerTokenVerifier {
+
+    /**
+     * 内部调用共享密钥请求头
+     */
+    public static final String INNER_TOKEN_HEADER = "X-Train-Owner-Token";
+
+    private final TrainAffinityProperties trainAffinityProperties;
+
+    /**
+     * 获取转发请求携带的共享密钥
+     */
+    public String getInnerToken() {
+        return trainAffinityProperties.getInnerToken();
+    }
+
+    /**
+     * 校验内部调用请求头，未开启归属节点路由、未配置密钥或密钥不匹配时拒绝请求
+     */
+    public void verify(String innerToken) {
+        String expected = trainAffinityProperties.getInnerToken();
+        if (!trainAffinityProperties.getEnabled()
+                || !StringUtils.hasText(expected)
+                || !StringUtils.hasText(innerToken)
+                || !MessageDigest.isEqual(expected.getBytes(UTF_8), innerToken.getBytes(UTF_8))) {
+            throw new ClientException("列车归属节点内部调用鉴权失败");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.affinity;
+
+import org.opengoofy.index12306.framework.starter.convention.errorcode.BaseErrorCode;
+import org.opengoofy.index12306.framework.starter.convention.exception.RemoteException;
+
+/**
+ * 列车归属节点调用结果未知异常
+ * 请求已发出但未收到响应，例如读取超时，归属节点可能已经执行完成，调用方不能按失败回滚本地资源
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public class TrainOwnerOutcomeUnknownException extends RemoteException {
+
+    public TrainOwnerOutcomeUnknownException(String message, Throwable throwable) {
+        super(message, throwable, BaseErrorCode.REMOTE_ERROR);
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.affinity;
+
+import com.google.common.collect.Lists;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.TrainAffinityProperties;
+import org.opengoofy.index12306.biz.ticketservice.service.seatmap.TrainSeatMapManager;
+import org.opengoofy.index12306.framework.starter.bases.Singleton;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.opengoofy.index12306.framework.starter.common.threadpool.build.ThreadFactoryBuilder;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_OWNER_LEASE;
+
+/**
+ * 列车归属节点管理器
+ * 通过一致性哈希将列车分配给唯一的 ticket-service 节点，归属节点持有 Redis 租约后在内存中串行化购票
+ * 节点变更时失去归属的节点先排空在途请求、清理内存座位图并释放租约，新归属节点在租约释放或过期后接管
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrainOwnershipManager implements ApplicationListener<WebServerInitializedEvent>, DisposableBean {
+
+    private static final String LUA_TRAIN_OWNER_LEASE_ACQUIRE_PATH = "lua/train_owner_lease_acquire.lua";
+    private static final String LUA_TRAIN_OWNER_LEASE_RELEASE_PATH = "lua/train_owner_lease_release.lua";
+
+    private final TrainAffinityProperties trainAffinityProperties;
+    private final DistributedCache distributedCache;
+    private final TrainSeatMapManager trainSeatMapManager;
+    private final ObjectProvider<DiscoveryClient> discoveryClientProvider;
+    private final ObjectProvider<Registration> registrationProvider;
+    private final Environment environment;
+
+    /**
+     * 当前节点持有租约的列车
+     */
+    private final Set<String> heldTrains = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 列车维度读写锁，购票持有读锁，移交列车时持有写锁等待在途请求完成
+     */
+    private final Map<String, ReentrantReadWriteLock> trainLockMap = new ConcurrentHashMap<>();
+
+    private volatile TrainOwnershipRing ring;
+    private volatile String localInstance;
+    private ScheduledExecutorService scheduledExecutor;
+
+    /**
+     * 是否开启列车归属节点路由
+     */
+    public boolean isEnabled() {
+        return trainAffinityProperties.getEnabled();
+    }
+
+    /**
+     * 当前节点是否为列车归属节点
+     *
+     * @param trainId 列车 ID
+     * @return 当前节点持有列车租约返回 true
+     */
+    public boolean isLocalOwner(String trainId) {
+        return heldTrains.contains(trainId);
+    }
+
+    /**
+     * 在列车归属节点执行操作，当前节点为归属节点时本地执行，否则交由转发函数发送至归属节点
+     *
+     * @param trainId       列车 ID
+     * @param forwarded     请求是否已由其它节点转发，已转发的请求不再二次转发
+     * @param localAction   本地执行逻辑
+     * @param forwardAction 转发逻辑，入参为归属节点标识
+     * @param <T>           返回值类型
+     * @return 执行结果
+     */
+    public <T> T execute(String trainId, boolean forwarded, Supplier<T> localAction, Function<String, T> forwardAction) {
+        String owner;
+        ReentrantReadWriteLock.ReadLock readLock = trainLockMap.computeIfAbsent(trainId, key -> new ReentrantReadWriteLock()).readLock();
+        readLock.lock();
+        try {
+            owner = resolveOwner(trainId);
+            if (Objects.equals(owner, localInstance)) {
+                return localAction.get();
+            }
+        } finally {
+            readLock.unlock();
+        }
+        if (forwarded || owner == null) {
+            throw new ServiceException("列车归属节点切换中，请稍后再试");
+        }
+        return forwardAction.apply(owner);
+    }
+
+    private String resolveOwner(String trainId) {
+        if (localInstance == null) {
+            return null;
+        }
+        if (heldTrains.contains(trainId)) {
+            return localInstance;
+        }
+        TrainOwnershipRing actualRing = ring;
+        String ringOwner = actualRing == null ? null : actualRing.locate(trainId);
+        if (!Objects.equals(ringOwner, localInstance)) {
+            return ringOwner;
+        }
+        // 哈希环归属当前节点，但原归属节点可能仍持有租约，此时请求继续交给原归属节点处理
+        String leaseHolder = acquireLease(trainId);
+        if (Objects.equals(leaseHolder, localInstance)) {
+            heldTrains.add(trainId);
+        }
+        return leaseHolder;
+    }
+
+    private String acquireLease(String trainId) {
+        DefaultRedisScript<String> actual = Singleton.get(LUA_TRAIN_OWNER_LEASE_ACQUIRE_PATH, () -> {
+            DefaultRedisScript<String> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TRAIN_OWNER_LEASE_ACQUIRE_PATH)));
+            redisScript.setResultType(String.class);
+            return redisScript;
+        });
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        return stringRedisTemplate.execute(actual, Lists.newArrayList(TRAIN_OWNER_LEASE + trainId), localInstance, String.valueOf(trainAffinityProperties.getLeaseTimeout()));
+    }
+
+    private void releaseLease(String trainId) {
+        DefaultRedisScript<Long> actual = Singleton.get(LUA_TRAIN_OWNER_LEASE_RELEASE_PATH, () -> {
+            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TRAIN_OWNER_LEASE_RELEASE_PATH)));
+            redisScript.setResultType(Long.class);
+            return redisScript;
+        });
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        stringRedisTemplate.execute(actual, Lists.newArrayList(TRAIN_OWNER_LEASE + trainId), localInstance);
+    }
+
+    /**
+     * 移交列车归属：阻塞新请求并等待在途请求完成，清理内存座位图并释放租约
+     */
+    private void handoff(String trainId, boolean releaseLease) {
+        ReentrantReadWriteLock.WriteLock writeLock = trainLockMap.computeIfAbsent(trainId, key -> new ReentrantReadWriteLock()).writeLock();
+        writeLock.lock();
+        try {
+            if (!heldTrains.remove(trainId)) {
+                return;
+            }
+            trainSeatMapManager.invalidate(Long.parseLong(trainId));
+            if (releaseLease) {
+                releaseLease(trainId);
+            }
+            log.info("列车归属移交完成，列车ID：{}，当前节点：{}", trainId, localInstance);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void refresh() {
+        try {
+            refreshRing();
+            for (String trainId : new ArrayList<>(heldTrains)) {
+                TrainOwnershipRing actualRing = ring;
+                if (actualRing != null && !Objects.equals(actualRing.locate(trainId), localInstance)) {
+                    handoff(trainId, true);
+                    continue;
+                }
+                // 租约续期失败说明租约过期后已被其它节点接管，当前节点直接放弃归属
+                if (!Objects.equals(acquireLease(trainId), localInstance)) {
+                    log.warn("列车归属租约已被其它节点持有，列车ID：{}", trainId);
+                    handoff(trainId, false);
+                }
+            }
+        } catch (Throwable ex) {
+            log.error("刷新列车归属节点失败", ex);
+        }
+    }
+
+    private void refreshRing() {
+        DiscoveryClient discoveryClient = discoveryClientProvider.getIfAvailable();
+        List<String> instances = new ArrayList<>();
+        if (discoveryClient != null) {
+            List<ServiceInstance> serviceInstances = discoveryClient.getInstances(environment.getProperty("spring.application.name"));
+            serviceInstances.forEach(each -> instances.add(each.getHost() + ":" + each.getPort()));
+        }
+        if (!instances.contains(localInstance)) {
+            instances.add(localInstance);
+        }
+        instances.sort(String::compareTo);
+        TrainOwnershipRing actualRing = ring;
+        if (actualRing == null || !Objects.equals(actualRing.getInstances(), instances)) {
+            ring = new TrainOwnershipRing(instances, trainAffinityProperties.getVirtualNodes());
+            log.info("列车归属哈希环变更，服务实例：{}", instances);
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        if (!isEnabled() || localInstance != null) {
+            return;
+        }
+        // 注册中心实例端口在 Web 容器启动后才能确定，因此在容器启动后再加入哈希环
+        Registration registration = registrationProvider.getIfAvailable();
+        String host;
+        try {
+            host = registration != null ? registration.getHost() : InetAddress.getLocalHost().getHostAddress();
+        } catch (Exception ex) {
+            throw new ServiceException("获取当前节点地址失败");
+        }
+        localInstance = host + ":" + event.getWebServer().getPort();
+        refreshRing();
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder()
+                        .prefix("train-ownership-refresh")
+                        .daemon(true)
+                        .build()
+        );
+        scheduledExecutor.scheduleWithFixedDelay(this::refresh, trainAffinityProperties.getRefreshInterval(), trainAffinityProperties.getRefreshInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduledExecutor != null) {
+            scheduledExecutor.shutdownNow();
+        }
+        // 优雅停机时主动移交所有列车，新归属节点无需等待租约过期
+        new ArrayList<>(heldTrains).forEach(each -> handoff(each, true));
+    }
+}
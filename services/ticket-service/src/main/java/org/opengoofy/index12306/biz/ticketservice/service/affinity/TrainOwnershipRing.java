@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.affinity;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 列车归属一致性哈希环，不可变对象，服务实例变更时整体替换
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class TrainOwnershipRing {
+
+    private final List<String> instances;
+
+    private final NavigableMap<Long, String> virtualNodeMap = new TreeMap<>();
+
+    public TrainOwnershipRing(List<String> instances, int virtualNodes) {
+        this.instances = List.copyOf(instances);
+        for (String each : this.instances) {
+            for (int i = 0; i < virtualNodes; i++) {
+                virtualNodeMap.put(hash(each + "#" + i), each);
+            }
+        }
+    }
+
+    /**
+     * 定位列车归属节点，哈希环为空时返回 null
+     *
+     * @param trainId 列车 ID
+     * @return 归属节点标识
+     */
+    public String locate(String trainId) {
+        if (virtualNodeMap.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = virtualNodeMap.ceilingEntry(hash(trainId));
+        return entry != null ? entry.getValue() : virtualNodeMap.firstEntry().getValue();
+    }
+
+    /**
+     * 哈希环中的服务实例集合
+     */
+    public List<String> getInstances() {
+        return instances;
+    }
+
+    private static long hash(String key) {
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.PurchaseTicketsBatchProperties;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+import org.opengoofy.index12306.frameworks.starter.user.core.UserContext;
+import org.opengoofy.index12306.frameworks.starter.user.core.UserInfoDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 批量购票合并器
+ * 同一列车同一座位类型的并发购票请求进入同一队列，抢到队列执行权的请求线程收集窗口期内的请求后批量执行，
+ * 加锁与事务提交在批次内只发生一次，批次内请求各自在保存点内执行，其余请求线程等待各自的执行结果
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PurchaseTicketsBatchCoalescer {
+
+    private final PurchaseTicketsBatchProperties purchaseTicketsBatchProperties;
+
+    private final Map<String, BatchQueue> batchQueueMap = new ConcurrentHashMap<>();
+
+    /**
+     * 是否开启批量购票合并
+     */
+    public boolean isEnabled() {
+        return purchaseTicketsBatchProperties.getEnabled();
+    }
+
+    /**
+     * 提交购票请求并等待所在批次执行完成
+     *
+     * @param batchKey      批次标识，同一列车同一座位类型的请求使用相同标识
+     * @param requestParam  车票购买请求参数
+     * @param batchExecutor 批次执行逻辑，需要为批次内请求写入返回结果或异常
+     * @return 当前请求购票结果
+     */
+    public TicketPurchaseRespDTO submit(String batchKey, PurchaseTicketReqDTO requestParam, Consumer<List<PurchaseTicketsBatchItem>> batchExecutor) {
+        UserInfoDTO userInfo = UserInfoDTO.builder()
+                .userId(UserContext.getUserId())
+                .username(UserContext.getUsername())
+                .realName(UserContext.getRealName())
+                .token(UserContext.getToken())
+                .build();
+        PurchaseTicketsBatchItem batchItem = new PurchaseTicketsBatchItem(requestParam, userInfo);
+        BatchQueue batchQueue = batchQueueMap.computeIfAbsent(batchKey, key -> new BatchQueue());
+        batchQueue.queue.offer(batchItem);
+        while (!batchItem.getFuture().isDone()) {
+            // 没有线程执行当前队列时由当前线程执行，执行完成后若自身请求仍未处理则继续抢占执行权
+            if (batchQueue.running.compareAndSet(false, true)) {
+                try {
+                    executeBatch(batchQueue, batchExecutor);
+                } finally {
+                    batchQueue.running.set(false);
+                    UserContext.setUser(userInfo);
+                }
+                continue;
+            }
+            try {
+                return batchItem.getFuture().get(Math.max(purchaseTicketsBatchProperties.getWindow(), 10L), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignored) {
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ServiceException("购票请求被中断，请稍后再试");
+            } catch (ExecutionException ex) {
+                throw unwrap(ex);
+            }
+        }
+        try {
+            return batchItem.getFuture().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("购票请求被中断，请稍后再试");
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    private void executeBatch(BatchQueue batchQueue, Consumer<List<PurchaseTicketsBatchItem>> batchExecutor) {
+        PurchaseTicketsBatchItem first = batchQueue.queue.poll();
+        if (first == null) {
+            return;
+        }
+        int maxSize = purchaseTicketsBatchProperties.getMaxSize();
+        List<PurchaseTicketsBatchItem> batchItems = new ArrayList<>(maxSize);
+        batchItems.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(purchaseTicketsBatchProperties.getWindow());
+        try {
+            while (batchItems.size() < maxSize) {
+                long remaining = deadline - System.nanoTime();
+                PurchaseTicketsBatchItem next = remaining > 0 ? batchQueue.queue.poll(remaining, TimeUnit.NANOSECONDS) : batchQueue.queue.poll();
+                if (next == null) {
+                    break;
+                }
+                batchItems.add(next);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            batchExecutor.accept(batchItems);
+            batchItems.forEach(each -> each.getFuture().complete(each.getResponse()));
+        } catch (Throwable ex) {
+            log.error("批量购票执行失败，批次请求数量：{}", batchItems.size(), ex);
+            batchItems.forEach(each -> each.getFuture().completeExceptionally(ex));
+        }
+    }
+
+    private RuntimeException unwrap(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        log.error("批量购票执行异常", cause);
+        return new ServiceException("购票失败，请稍后再试");
+    }
+
+    private static class BatchQueue {
+
+        private final BlockingQueue<PurchaseTicketsBatchItem> queue = new LinkedBlockingQueue<>();
+
+        private final AtomicBoolean running = new AtomicBoolean(false);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.batch;
+
+import lombok.Data;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TicketDO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.opengoofy.index12306.frameworks.starter.user.core.UserInfoDTO;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 批量购票批次中的单个购票请求
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Data
+public class PurchaseTicketsBatchItem {
+
+    /**
+     * 车票购买请求参数
+     */
+    private final PurchaseTicketReqDTO requestParam;
+
+    /**
+     * 发起请求的用户，批次由其它请求线程执行，需要在执行时还原用户上下文
+     */
+    private final UserInfoDTO userInfo;
+
+    /**
+     * 请求执行结果，批次事务提交后完成，请求在保存点内失败时立即以异常完成
+     */
+    private final CompletableFuture<TicketPurchaseRespDTO> future = new CompletableFuture<>();
+
+    /**
+     * 选座结果
+     */
+    private List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults;
+
+    /**
+     * 待写入车票
+     */
+    private List<TicketDO> ticketDOList;
+
+    /**
+     * 购票返回结果，事务提交前暂存
+     */
+    private TicketPurchaseRespDTO response;
+}
@@ -17,30 +17,34 @@
 
 package org.opengoofy.index12306.biz.ticketservice.service.cache;
 
-import cn.hutool.core.collection.CollUtil;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import lombok.RequiredArgsConstructor;
-import org.opengoofy.index12306.biz.ticketservice.common.enums.SeatStatusEnum;
 import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
-import org.opengoofy.index12306.biz.ticketservice.dao.entity.SeatDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
-import org.opengoofy.index12306.biz.ticketservice.dao.mapper.SeatMapper;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.SeatSegmentMapper;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainMapper;
-import org.opengoofy.index12306.biz.ticketservice.dto.domain.RouteDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatSegmentMaskCountDTO;
 import org.opengoofy.index12306.biz.ticketservice.service.TrainStationService;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatSegmentMaskUtil;
 import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
 import org.opengoofy.index12306.framework.starter.cache.toolkit.CacheUtil;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.Index12306Constant.ADVANCE_TICKET_DAY;
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.*;
@@ -54,7 +58,7 @@ import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKe
 public class SeatMarginCacheLoader {
 
     private final TrainMapper trainMapper;
-    private final SeatMapper seatMapper;
+    private final SeatSegmentMapper seatSegmentMapper;
     private final DistributedCache distributedCache;
     private final RedissonClient redissonClient;
     private final TrainStationService trainStationService;
@@ -76,47 +80,15 @@ public class SeatMarginCacheLoader {
                         ADVANCE_TICKET_DAY,
                         TimeUnit.DAYS
                 );
-                List<RouteDTO> routeDTOList = trainStationService.listTrainStationRoute(trainId, trainDO.getStartStation(), trainDO.getEndStation());
-                if (CollUtil.isNotEmpty(routeDTOList)) {
-                    switch (trainDO.getTrainType()) {
-                        // TODO 通过已有列车类型座位枚举重构
-                        case 0 -> {
-                            for (RouteDTO each : routeDTOList) {
-                                Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
-                                trainStationRemainingTicket.put("0", selectSeatMargin(trainId, 0, each.getStartStation(), each.getEndStation()));
-                                trainStationRemainingTicket.put("1", selectSeatMargin(trainId, 1, each.getStartStation(), each.getEndStation()));
-                                trainStationRemainingTicket.put("2", selectSeatMargin(trainId, 2, each.getStartStation(), each.getEndStation()));
-                                String actualKeySuffix = CacheUtil.buildKey(trainId, each.getStartStation(), each.getEndStation());
-                                trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + actualKeySuffix, trainStationRemainingTicket);
-                            }
-                        }
-                        case 1 -> {
-                            for (RouteDTO each : routeDTOList) {
-                                Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
-                                trainStationRemainingTicket.put("3", selectSeatMargin(trainId, 3, each.getStartStation(), each.getEndStation()));
-                                trainStationRemainingTicket.put("4", selectSeatMargin(trainId, 4, each.getStartStation(), each.getEndStation()));
-                                trainStationRemainingTicket.put("5", selectSeatMargin(trainId, 5, each.getStartStation(), each.getEndStation()));
-                                trainStationRemainingTicket.put("13", selectSeatMargin(trainId, 13, each.getStartStation(), each.getEndStation()));
-                                String actualKeySuffix = CacheUtil.buildKey(trainId, each.getStartStation(), each.getEndStation());
-                                trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + actualKeySuffix, trainStationRemainingTicket);
-                            }
-                        }
-                        case 2 -> {
-                            for (RouteDTO each : routeDTOList) {
-                                Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
-                                trainStationRemainingTicket.put("6", selectSeatMargin(trainId, 6, each.getStartStation(), each.getEndStation()));
-                                trainStationRemainingTicket.put("7", selectSeatMargin(trainId, 7, each.getStartStation(), each.getEndStation()));
-                                trainStationRemainingTicket.put("8", selectSeatMargin(trainId, 8, each.getStartStation(), each.getEndStation()));
-                                trainStationRemainingTicket.put("13", selectSeatMargin(trainId, 13, each.getStartStation(), each.getEndStation()));
-                                String actualKeySuffix = CacheUtil.buildKey(trainId, each.getStartStation(), each.getEndStation());
-                                trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + actualKeySuffix, trainStationRemainingTicket);
-                            }
-                        }
-                    }
+                List<String> trainStationAllList = trainStationService.listTrainStationAll(trainId);
+                List<Integer> seatTypes = VehicleTypeEnum.findSeatTypesByCode(trainDO.getTrainType());
+                if (trainStationAllList.size() > 1) {
+                    // 按座位类型以及区段位图聚合后，一次查询即可在内存中推算出所有站点区间的余票
+                    List<SeatSegmentMaskCountDTO> seatSegmentMaskCountList = seatSegmentMapper.listSeatSegmentMaskCount(Long.parseLong(trainId), seatTypes);
+                    trainStationRemainingTicketMaps.putAll(buildTrainStationRemainingTicket(trainId, trainStationAllList, seatTypes, seatSegmentMaskCountList));
                 } else {
                     Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
-                    VehicleTypeEnum.findSeatTypesByCode(trainDO.getTrainType())
-                            .forEach(each -> trainStationRemainingTicket.put(String.valueOf(each), "0"));
+                    seatTypes.forEach(each -> trainStationRemainingTicket.put(String.valueOf(each), "0"));
                     trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + keySuffix, trainStationRemainingTicket);
                 }
                 // TODO LUA 脚本执行
@@ -129,15 +101,138 @@ public class SeatMarginCacheLoader {
                 .orElse(new LinkedHashMap<>());
     }
 
-    private String selectSeatMargin(String trainId, Integer type, String departure, String arrival) {
-        LambdaQueryWrapper<SeatDO> queryWrapper = Wrappers.lambdaQuery(SeatDO.class)
-                .eq(SeatDO::getTrainId, trainId)
-                .eq(SeatDO::getSeatType, type)
-                .eq(SeatDO::getSeatStatus, SeatStatusEnum.AVAILABLE.getCode())
-                .eq(SeatDO::getStartStation, departure)
-                .eq(SeatDO::getEndStation, arrival);
-        return Optional.ofNullable(seatMapper.selectCount(queryWrapper))
-                .map(String::valueOf)
-                .orElse("0");
+    /**
+     * 批量加载多趟列车全部站点区间余票并回填缓存，所有列车仅一次聚合查询以及一次 Pipeline 写入
+     * 回填使用 HSETNX，不覆盖加载期间已由扣减或其它节点写入的余票
+     *
+     * @param trainIds 列车 ID 集合
+     * @return 缓存 Key 后缀（列车ID_出发站_到达站）到 座位类型 -> 余票数量 的映射
+     */
+    public Map<String, Map<String, String>> loadBatch(Collection<String> trainIds) {
+        return loadBatch(trainIds, false);
+    }
+
+    /**
+     * 批量重建多趟列车全部站点区间余票，用于后台刷新过期余票
+     * 查询数据库前先读取缓存旧值，按 数据库余票 - 旧值 的差值 HINCRBY 修正，重建期间落到缓存的扣减以及回补不会被覆盖
+     *
+     * @param trainIds 列车 ID 集合
+     * @return 缓存 Key 后缀（列车ID_出发站_到达站）到 座位类型 -> 余票数量 的映射
+     */
+    public Map<String, Map<String, String>> reloadBatch(Collection<String> trainIds) {
+        return loadBatch(trainIds, true);
+    }
+
+    private Map<String, Map<String, String>> loadBatch(Collection<String> trainIds, boolean reload) {
+        Map<String, Map<String, String>> result = new LinkedHashMap<>();
+        if (trainIds.isEmpty()) {
+            return result;
+        }
+        Map<String, List<String>> trainStationAllMap = new LinkedHashMap<>();
+        Map<String, List<Integer>> trainSeatTypesMap = new LinkedHashMap<>();
+        for (String each : trainIds) {
+            TrainDO trainDO = distributedCache.safeGet(
+                    TRAIN_INFO + each,
+                    TrainDO.class,
+                    () -> trainMapper.selectById(each),
+                    ADVANCE_TICKET_DAY,
+                    TimeUnit.DAYS
+            );
+            List<String> trainStationAllList = trainStationService.listTrainStationAll(each);
+            if (trainDO == null || trainStationAllList.size() < 2) {
+                continue;
+            }
+            trainStationAllMap.put(each, trainStationAllList);
+            trainSeatTypesMap.put(each, VehicleTypeEnum.findSeatTypesByCode(trainDO.getTrainType()));
+        }
+        if (trainStationAllMap.isEmpty()) {
+            return result;
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        Map<String, Map<Object, Object>> cachedRemainingTicketMap = reload
+                ? listCachedRemainingTicket(stringRedisTemplate, trainStationAllMap)
+                : Collections.emptyMap();
+        Map<Long, List<SeatSegmentMaskCountDTO>> trainSeatSegmentMaskCountMap = seatSegmentMapper.listTrainSeatSegmentMaskCount(trainStationAllMap.keySet().stream().map(Long::parseLong).toList())
+                .stream()
+                .collect(Collectors.groupingBy(SeatSegmentMaskCountDTO::getTrainId));
+        trainStationAllMap.forEach((trainId, trainStationAllList) -> {
+            List<SeatSegmentMaskCountDTO> seatSegmentMaskCountList = trainSeatSegmentMaskCountMap.getOrDefault(Long.parseLong(trainId), Collections.emptyList());
+            buildTrainStationRemainingTicket(trainId, trainStationAllList, trainSeatTypesMap.get(trainId), seatSegmentMaskCountList)
+                    .forEach((cacheKey, cacheMap) -> result.put(cacheKey.substring(TRAIN_STATION_REMAINING_TICKET.length()), cacheMap));
+        });
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                result.forEach((keySuffix, cacheMap) -> {
+                    String cacheKey = TRAIN_STATION_REMAINING_TICKET + keySuffix;
+                    Map<Object, Object> cachedMap = cachedRemainingTicketMap.getOrDefault(cacheKey, Collections.emptyMap());
+                    cacheMap.forEach((seatType, quantity) -> {
+                        Object cachedQuantity = cachedMap.get(seatType);
+                        if (cachedQuantity == null) {
+                            operations.opsForHash().putIfAbsent(cacheKey, seatType, quantity);
+                            return;
+                        }
+                        long delta = Long.parseLong(quantity) - Long.parseLong(cachedQuantity.toString());
+                        if (delta != 0) {
+                            operations.opsForHash().increment(cacheKey, seatType, delta);
+                        }
+                    });
+                });
+                return null;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 一次 Pipeline 读取多趟列车全部站点区间余票缓存
+     *
+     * @return 完整缓存 Key 到 座位类型 -> 余票数量 的映射，缓存不存在的 Key 映射为空
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<Object, Object>> listCachedRemainingTicket(StringRedisTemplate stringRedisTemplate, Map<String, List<String>> trainStationAllMap) {
+        List<String> cacheKeys = new ArrayList<>();
+        trainStationAllMap.forEach((trainId, trainStationAllList) -> {
+            for (int i = 0; i < trainStationAllList.size() - 1; i++) {
+                for (int j = i + 1; j < trainStationAllList.size(); j++) {
+                    cacheKeys.add(TRAIN_STATION_REMAINING_TICKET + CacheUtil.buildKey(trainId, trainStationAllList.get(i), trainStationAllList.get(j)));
+                }
+            }
+        });
+        List<Object> cachedMaps = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                cacheKeys.forEach(each -> operations.opsForHash().entries(each));
+                return null;
+            }
+        });
+        Map<String, Map<Object, Object>> result = new HashMap<>(cacheKeys.size() * 2);
+        for (int i = 0; i < cacheKeys.size(); i++) {
+            result.put(cacheKeys.get(i), (Map<Object, Object>) cachedMaps.get(i));
+        }
+        return result;
+    }
+
+    private Map<String, Map<String, String>> buildTrainStationRemainingTicket(String trainId, List<String> trainStationAllList, List<Integer> seatTypes,
+                                                                              List<SeatSegmentMaskCountDTO> seatSegmentMaskCountList) {
+        Map<String, Map<String, String>> trainStationRemainingTicketMaps = new LinkedHashMap<>();
+        for (int i = 0; i < trainStationAllList.size() - 1; i++) {
+            for (int j = i + 1; j < trainStationAllList.size(); j++) {
+                long rangeMask = SeatSegmentMaskUtil.rangeMask(i, j);
+                Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
+                for (Integer each : seatTypes) {
+                    int seatMargin = seatSegmentMaskCountList.stream()
+                            .filter(item -> Objects.equals(item.getSeatType(), each) && SeatSegmentMaskUtil.isAvailable(item.getSegmentMask(), rangeMask))
+                            .mapToInt(SeatSegmentMaskCountDTO::getSeatCount)
+                            .sum();
+                    trainStationRemainingTicket.put(String.valueOf(each), String.valueOf(seatMargin));
+                }
+                String actualKeySuffix = CacheUtil.buildKey(trainId, trainStationAllList.get(i), trainStationAllList.get(j));
+                trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + actualKeySuffix, trainStationRemainingTicket);
+            }
+        }
+        return trainStationRemainingTicketMaps;
     }
 }
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.SeatMarginRefreshProperties;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.opengoofy.index12306.framework.starter.common.threadpool.build.ThreadFactoryBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET_REFRESH_AFTER;
+
+/**
+ * 列车站点余票后台刷新
+ * 读取方发现余票过期或未命中时提交列车 ID 后立即返回缓存中的旧值，单个后台线程按批次重建余票
+ * 刷新前通过 SET NX 写入带新鲜期的刷新时间 Key 抢占刷新权，集群内同一列车同一新鲜期仅刷新一次
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatMarginRefresher implements InitializingBean, DisposableBean {
+
+    private final SeatMarginRefreshProperties seatMarginRefreshProperties;
+    private final SeatMarginCacheLoader seatMarginCacheLoader;
+    private final DistributedCache distributedCache;
+
+    private final Set<String> pendingTrainIds = ConcurrentHashMap.newKeySet();
+    private final Queue<String> pendingQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private ExecutorService refreshExecutor;
+
+    @Value("${framework.cache.redis.prefix:}")
+    private String cacheRedisPrefix;
+
+    /**
+     * 是否开启余票过期后台刷新
+     */
+    public boolean isEnabled() {
+        return seatMarginRefreshProperties.getEnabled();
+    }
+
+    /**
+     * 获取列车余票刷新时间 Key，用于读取方在 Pipeline 中判断余票是否过期，已包含缓存前缀
+     */
+    public byte[] refreshAfterKey(String trainId) {
+        return (cacheRedisPrefix + TRAIN_STATION_REMAINING_TICKET_REFRESH_AFTER + trainId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 提交列车余票后台刷新，立即返回
+     *
+     * @param trainIds 余票过期或未命中的列车 ID 集合
+     */
+    public void refreshAsync(Collection<String> trainIds) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (String each : trainIds) {
+            if (pendingTrainIds.size() >= seatMarginRefreshProperties.getMaxPendingTrains()) {
+                break;
+            }
+            if (pendingTrainIds.add(each)) {
+                pendingQueue.offer(each);
+            }
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!pendingQueue.isEmpty() && draining.compareAndSet(false, true)) {
+            refreshExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            List<String> batch = new ArrayList<>();
+            while (true) {
+                batch.clear();
+                String trainId;
+                while (batch.size() < seatMarginRefreshProperties.getBatchSize() && (trainId = pendingQueue.poll()) != null) {
+                    pendingTrainIds.remove(trainId);
+                    batch.add(trainId);
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                refresh(batch);
+            }
+        } finally {
+            draining.set(false);
+            // 释放标识与提交之间可能有新列车入队
+            scheduleDrain();
+        }
+    }
+
+    private void refresh(List<String> trainIds) {
+        List<String> claimedTrainIds = new ArrayList<>(trainIds.size());
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            long refreshAfter = seatMarginRefreshProperties.getRefreshAfter();
+            byte[] refreshAfterTime = String.valueOf(System.currentTimeMillis() + refreshAfter).getBytes(StandardCharsets.UTF_8);
+            List<Object> claimResults = stringRedisTemplate.executePipelined((RedisCallback<String>) connection -> {
+                trainIds.forEach(each -> connection.stringCommands().set(
+                        refreshAfterKey(each),
+                        refreshAfterTime,
+                        Expiration.milliseconds(refreshAfter),
+                        RedisStringCommands.SetOption.SET_IF_ABSENT
+                ));
+                return null;
+            });
+            for (int i = 0; i < trainIds.size(); i++) {
+                if (Boolean.TRUE.equals(claimResults.get(i))) {
+                    claimedTrainIds.add(trainIds.get(i));
+                }
+            }
+            if (!claimedTrainIds.isEmpty()) {
+                seatMarginCacheLoader.reloadBatch(claimedTrainIds);
+            }
+        } catch (Throwable ex) {
+            log.error("列车余票后台刷新失败，列车：{}", claimedTrainIds, ex);
+            releaseClaims(claimedTrainIds);
+        }
+    }
+
+    private void releaseClaims(List<String> claimedTrainIds) {
+        if (claimedTrainIds.isEmpty()) {
+            return;
+        }
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            stringRedisTemplate.delete(claimedTrainIds.stream().map(each -> TRAIN_STATION_REMAINING_TICKET_REFRESH_AFTER + each).toList());
+        } catch (Throwable ex) {
+            log.error("释放列车余票刷新权失败，列车：{}", claimedTrainIds, ex);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!isEnabled()) {
+            return;
+        }
+        refreshExecutor = Executors.newSingleThreadExecutor(
+                ThreadFactoryBuilder.builder()
+                        .prefix("seat-margin-refresh")
+                        .daemon(true)
+                        .build()
+        );
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache;
+
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.RegionDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.StationDO;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 车站与地区不可变索引
+ * 车站按加载顺序分配从 0 开始的连续整数 ID，车站 Code、名称以及所属地区名称按 ID 存放在数组中；构建完成后不再修改，可无锁并发读取
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class StationRegionIndex {
+
+    private final String[] stationCodes;
+    private final String[] stationNames;
+    private final String[] regionNames;
+    private final Map<String, Integer> stationIdByCode;
+    private final Set<String> locationCodes;
+
+    private StationRegionIndex(String[] stationCodes, String[] stationNames, String[] regionNames,
+                               Map<String, Integer> stationIdByCode, Set<String> locationCodes) {
+        this.stationCodes = stationCodes;
+        this.stationNames = stationNames;
+        this.regionNames = regionNames;
+        this.stationIdByCode = stationIdByCode;
+        this.locationCodes = locationCodes;
+    }
+
+    /**
+     * 根据地区以及车站构建索引，Code 重复的车站以先出现的为准
+     */
+    public static StationRegionIndex build(List<RegionDO> regionList, List<StationDO> stationList) {
+        int size = stationList.size();
+        String[] stationCodes = new String[size];
+        String[] stationNames = new String[size];
+        String[] regionNames = new String[size];
+        Map<String, Integer> stationIdByCode = new HashMap<>(size * 2);
+        Set<String> locationCodes = new HashSet<>((size + regionList.size()) * 2);
+        int count = 0;
+        for (StationDO each : stationList) {
+            if (each.getCode() == null || stationIdByCode.putIfAbsent(each.getCode(), count) != null) {
+                continue;
+            }
+            stationCodes[count] = each.getCode();
+            stationNames[count] = each.getName();
+            regionNames[count] = each.getRegionName();
+            locationCodes.add(each.getCode());
+            count++;
+        }
+        for (RegionDO each : regionList) {
+            if (each.getCode() != null) {
+                locationCodes.add(each.getCode());
+            }
+        }
+        return new StationRegionIndex(
+                trim(stationCodes, count),
+                trim(stationNames, count),
+                trim(regionNames, count),
+                Map.copyOf(stationIdByCode),
+                Set.copyOf(locationCodes)
+        );
+    }
+
+    /**
+     * 获取车站整数 ID
+     *
+     * @return 车站不存在时返回 -1
+     */
+    public int indexOf(String stationCode) {
+        Integer id = stationCode == null ? null : stationIdByCode.get(stationCode);
+        return id == null ? -1 : id;
+    }
+
+    public String getStationCode(int stationId) {
+        return stationCodes[stationId];
+    }
+
+    public String getStationName(int stationId) {
+        return stationNames[stationId];
+    }
+
+    /**
+     * 获取车站所属地区名称
+     *
+     * @return 车站不存在时返回 null
+     */
+    public String getRegionName(String stationCode) {
+        int stationId = indexOf(stationCode);
+        return stationId < 0 ? null : regionNames[stationId];
+    }
+
+    /**
+     * 车站或地区 Code 是否存在
+     */
+    public boolean containsLocation(String code) {
+        return code != null && locationCodes.contains(code);
+    }
+
+    public int size() {
+        return stationCodes.length;
+    }
+
+    private static String[] trim(String[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        String[] result = new String[length];
+        System.arraycopy(array, 0, result, 0, length);
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.StationRegionIndexProperties;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.RegionDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.StationDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.RegionMapper;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.StationMapper;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.opengoofy.index12306.framework.starter.common.threadpool.build.ThreadFactoryBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.STATION_REGION_VERSION;
+
+/**
+ * 车站地区常驻索引
+ * 启动时从车站表、地区表全量加载，查询路径直接读取本地不可变索引，缓存冷启动时不再经过 Redis 以及全局分布式锁；
+ * 后台线程拉取 Redis 中的版本号，车站或地区变更后在后台重建索引并整体替换引用，查询线程始终看到完整的新旧索引之一
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StationRegionIndexCache implements InitializingBean, DisposableBean {
+
+    private final StationRegionIndexProperties stationRegionIndexProperties;
+    private final StationMapper stationMapper;
+    private final RegionMapper regionMapper;
+    private final DistributedCache distributedCache;
+
+    private volatile StationRegionIndex index;
+    private volatile long version;
+    private volatile long lastLoadTime;
+    private ScheduledExecutorService scheduledExecutor;
+
+    /**
+     * 获取当前索引
+     *
+     * @return 未开启或尚未加载成功时返回 null，调用方回退原有逻辑
+     */
+    public StationRegionIndex get() {
+        return index;
+    }
+
+    /**
+     * 车站或地区变更后自增版本号，所有节点在下一次拉取版本号后重建索引
+     */
+    public void incrementVersion() {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        stringRedisTemplate.opsForValue().increment(STATION_REGION_VERSION);
+    }
+
+    private void refresh() {
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            String actual = stringRedisTemplate.opsForValue().get(STATION_REGION_VERSION);
+            long latestVersion = actual == null ? 0L : Long.parseLong(actual);
+            boolean expired = System.currentTimeMillis() - lastLoadTime >= stationRegionIndexProperties.getReloadInterval();
+            if (index == null || latestVersion != version || expired) {
+                reload();
+                version = latestVersion;
+            }
+        } catch (Throwable ex) {
+            log.error("刷新车站地区索引失败", ex);
+        }
+    }
+
+    private void reload() {
+        List<RegionDO> regionList = regionMapper.selectList(Wrappers.lambdaQuery(RegionDO.class)
+                .select(RegionDO::getCode, RegionDO::getName));
+        LambdaQueryWrapper<StationDO> queryWrapper = Wrappers.lambdaQuery(StationDO.class)
+                .select(StationDO::getCode, StationDO::getName, StationDO::getRegionName)
+                .orderByAsc(StationDO::getId);
+        List<StationDO> stationList = stationMapper.selectList(queryWrapper);
+        index = StationRegionIndex.build(regionList, stationList);
+        lastLoadTime = System.currentTimeMillis();
+        log.info("车站地区索引加载完成，车站数量：{}，地区数量：{}", index.size(), regionList.size());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!stationRegionIndexProperties.getEnabled()) {
+            return;
+        }
+        refresh();
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder()
+                        .prefix("station-region-index-refresh")
+                        .daemon(true)
+                        .build()
+        );
+        Long interval = stationRegionIndexProperties.getVersionRefreshInterval();
+        scheduledExecutor.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduledExecutor != null) {
+            scheduledExecutor.shutdownNow();
+        }
+    }
+}
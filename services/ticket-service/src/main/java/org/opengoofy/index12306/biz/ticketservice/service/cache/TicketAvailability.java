@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量余票读取结果
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class TicketAvailability {
+
+    private final Map<TicketAvailabilityKey, Integer> quantityMap;
+
+    /**
+     * 读取时缓存未命中的 Key，开启回填时已经过批量回填，回填后仍不存在以及未回填的 Key 不在 {@link #getQuantityMap()} 中
+     */
+    @Getter
+    private final List<TicketAvailabilityKey> misses;
+
+    TicketAvailability(Map<TicketAvailabilityKey, Integer> quantityMap, List<TicketAvailabilityKey> misses) {
+        this.quantityMap = Collections.unmodifiableMap(quantityMap);
+        this.misses = Collections.unmodifiableList(misses);
+    }
+
+    /**
+     * 获取余票数量，缓存以及回填均不存在时返回 null，表示余票未知，调用方不能视为无票
+     */
+    public Integer getQuantity(TicketAvailabilityKey key) {
+        return quantityMap.get(key);
+    }
+
+    /**
+     * 获取 Key 到余票数量的映射
+     */
+    public Map<TicketAvailabilityKey, Integer> getQuantityMap() {
+        return quantityMap;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CacheUtil;
+
+/**
+ * 余票读取 Key：列车 + 出发站 + 到达站 + 座位类型
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public final class TicketAvailabilityKey {
+
+    /**
+     * 列车 ID
+     */
+    private final String trainId;
+
+    /**
+     * 出发站点
+     */
+    private final String departure;
+
+    /**
+     * 到达站点
+     */
+    private final String arrival;
+
+    /**
+     * 座位类型
+     */
+    private final Integer seatType;
+
+    /**
+     * 列车区间余票缓存 Key 后缀，同一区间的不同座位类型共享一个 Hash
+     */
+    public String keySuffix() {
+        return CacheUtil.buildKey(trainId, departure, arrival);
+    }
+}
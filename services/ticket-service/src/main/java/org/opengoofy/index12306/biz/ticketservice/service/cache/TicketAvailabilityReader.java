@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.RequiredArgsConstructor;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
+
+/**
+ * 批量余票读取器
+ * 一页查询结果的全部 列车 + 区间 + 座位类型 余票通过一次 Pipeline HMGET 读取，同一区间的座位类型合并为一条命令
+ * 未命中的 Key 按列车汇总后一次批量回填，不再逐个 Key 加锁加载
+ * 开启余票过期后台刷新时，同一 Pipeline 内判断各列车余票是否过期，过期以及未命中的列车提交后台刷新，读取方不等待数据库，未命中的余票返回未知
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketAvailabilityReader {
+
+    private final DistributedCache distributedCache;
+    private final SeatMarginCacheLoader seatMarginCacheLoader;
+    private final SeatMarginRefresher seatMarginRefresher;
+
+    @Value("${framework.cache.redis.prefix:}")
+    private String cacheRedisPrefix;
+
+    /**
+     * 批量读取余票
+     *
+     * @param keys 余票读取 Key 集合
+     * @return 余票读取结果，包含未命中缓存的 Key
+     */
+    public TicketAvailability read(Collection<TicketAvailabilityKey> keys) {
+        return read(keys, true);
+    }
+
+    /**
+     * 批量读取余票
+     *
+     * @param keys     余票读取 Key 集合
+     * @param backfill 未命中缓存时是否从数据库回填，不回填时未命中的 Key 余票未知，开启余票过期后台刷新时改为提交后台刷新
+     * @return 余票读取结果，包含未命中缓存的 Key
+     */
+    public TicketAvailability read(Collection<TicketAvailabilityKey> keys, boolean backfill) {
+        Map<String, List<TicketAvailabilityKey>> segmentKeyMap = new LinkedHashMap<>();
+        for (TicketAvailabilityKey each : keys) {
+            List<TicketAvailabilityKey> segmentKeys = segmentKeyMap.computeIfAbsent(each.keySuffix(), key -> new ArrayList<>());
+            if (!segmentKeys.contains(each)) {
+                segmentKeys.add(each);
+            }
+        }
+        Map<TicketAvailabilityKey, Integer> quantityMap = new HashMap<>(keys.size() * 2);
+        List<TicketAvailabilityKey> misses = new ArrayList<>();
+        if (segmentKeyMap.isEmpty()) {
+            return new TicketAvailability(quantityMap, misses);
+        }
+        boolean staleWhileRevalidate = seatMarginRefresher.isEnabled();
+        List<String> trainIds = new ArrayList<>();
+        if (staleWhileRevalidate) {
+            Set<String> distinctTrainIds = new LinkedHashSet<>();
+            segmentKeyMap.values().forEach(each -> distinctTrainIds.add(each.get(0).getTrainId()));
+            trainIds.addAll(distinctTrainIds);
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        List<Object> segmentQuantityList = stringRedisTemplate.executePipelined((RedisCallback<String>) connection -> {
+            segmentKeyMap.forEach((keySuffix, segmentKeys) -> {
+                byte[][] fields = new byte[segmentKeys.size()][];
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = String.valueOf(segmentKeys.get(i).getSeatType()).getBytes(StandardCharsets.UTF_8);
+                }
+                connection.hashCommands().hMGet((cacheRedisPrefix + TRAIN_STATION_REMAINING_TICKET + keySuffix).getBytes(StandardCharsets.UTF_8), fields);
+            });
+            trainIds.forEach(each -> connection.keyCommands().exists(seatMarginRefresher.refreshAfterKey(each)));
+            return null;
+        });
+        int index = 0;
+        for (List<TicketAvailabilityKey> segmentKeys : segmentKeyMap.values()) {
+            List<?> quantities = (List<?>) segmentQuantityList.get(index++);
+            for (int i = 0; i < segmentKeys.size(); i++) {
+                Object quantity = quantities == null ? null : quantities.get(i);
+                if (quantity == null) {
+                    misses.add(segmentKeys.get(i));
+                } else {
+                    quantityMap.put(segmentKeys.get(i), Integer.parseInt(quantity.toString()));
+                }
+            }
+        }
+        if (staleWhileRevalidate) {
+            Set<String> refreshTrainIds = new LinkedHashSet<>();
+            for (String each : trainIds) {
+                if (!Boolean.TRUE.equals(segmentQuantityList.get(index++))) {
+                    refreshTrainIds.add(each);
+                }
+            }
+            misses.forEach(each -> refreshTrainIds.add(each.getTrainId()));
+            if (!refreshTrainIds.isEmpty()) {
+                seatMarginRefresher.refreshAsync(refreshTrainIds);
+            }
+        } else if (backfill && CollUtil.isNotEmpty(misses)) {
+            backfill(misses, quantityMap);
+        }
+        return new TicketAvailability(quantityMap, misses);
+    }
+
+    private void backfill(List<TicketAvailabilityKey> misses, Map<TicketAvailabilityKey, Integer> quantityMap) {
+        Set<String> trainIds = new LinkedHashSet<>();
+        misses.forEach(each -> trainIds.add(each.getTrainId()));
+        Map<String, Map<String, String>> trainStationRemainingTicketMap = seatMarginCacheLoader.loadBatch(trainIds);
+        for (TicketAvailabilityKey each : misses) {
+            Map<String, String> trainStationRemainingTicket = trainStationRemainingTicketMap.get(each.keySuffix());
+            String quantity = trainStationRemainingTicket == null ? null : trainStationRemainingTicket.get(String.valueOf(each.getSeatType()));
+            if (quantity != null) {
+                quantityMap.put(each, Integer.parseInt(quantity));
+            }
+        }
+    }
+}
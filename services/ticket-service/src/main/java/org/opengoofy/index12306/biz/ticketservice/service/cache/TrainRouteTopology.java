@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache;
+
+import lombok.Getter;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.RouteDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 列车线路拓扑，按经停顺序保存站点并建立站点到下标的映射，构建后不可变
+ * 全部 出发站 + 到达站 区间实体在构建时一次创建，经过区间以及需扣减区间按 出发站下标 + 到达站下标 首次计算后复用
+ * 返回的集合均不可修改，调用方之间共享
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class TrainRouteTopology {
+
+    /**
+     * 列车 ID
+     */
+    @Getter
+    private final String trainId;
+
+    /**
+     * 按经停顺序排列的站点名称
+     */
+    @Getter
+    private final List<String> stations;
+
+    private final Map<String, Integer> stationIndexMap;
+    private final RouteDTO[] routes;
+    private final AtomicReferenceArray<List<RouteDTO>> throughRouteTable;
+    private final AtomicReferenceArray<List<RouteDTO>> takeoutRouteTable;
+
+    public TrainRouteTopology(String trainId, List<String> stations) {
+        int size = stations.size();
+        this.trainId = trainId;
+        this.stations = List.copyOf(stations);
+        this.stationIndexMap = new HashMap<>(size * 2);
+        for (int i = size - 1; i >= 0; i--) {
+            // 与 List#indexOf 一致，重复站点取首次出现的下标
+            stationIndexMap.put(stations.get(i), i);
+        }
+        this.routes = new RouteDTO[size * size];
+        for (int i = 0; i < size - 1; i++) {
+            for (int j = i + 1; j < size; j++) {
+                routes[i * size + j] = new RouteDTO(stations.get(i), stations.get(j));
+            }
+        }
+        this.throughRouteTable = new AtomicReferenceArray<>(size * size);
+        this.takeoutRouteTable = new AtomicReferenceArray<>(size * size);
+    }
+
+    /**
+     * 获取站点下标
+     *
+     * @param station 站点名称
+     * @return 站点下标，不存在时返回 -1
+     */
+    public int indexOf(String station) {
+        Integer index = station == null ? null : stationIndexMap.get(station);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 计算出发站和终点站中间的站点（包含出发站和终点站），与 {@link org.opengoofy.index12306.biz.ticketservice.toolkit.StationCalculateUtil#throughStation} 结果一致
+     *
+     * @param departure 出发站
+     * @param arrival   到达站
+     * @return 出发站和终点站中间的区间
+     */
+    public List<RouteDTO> throughRoutes(String departure, String arrival) {
+        int startIndex = indexOf(departure);
+        int endIndex = indexOf(arrival);
+        if (startIndex < 0 || endIndex < 0 || startIndex >= endIndex) {
+            return Collections.emptyList();
+        }
+        int slot = startIndex * stations.size() + endIndex;
+        List<RouteDTO> result = throughRouteTable.get(slot);
+        if (result == null) {
+            result = buildThroughRoutes(startIndex, endIndex);
+            throughRouteTable.compareAndSet(slot, null, result);
+        }
+        return result;
+    }
+
+    /**
+     * 计算出发站和终点站需要扣减余票的站点，与 {@link org.opengoofy.index12306.biz.ticketservice.toolkit.StationCalculateUtil#takeoutStation} 结果一致
+     *
+     * @param departure 出发站
+     * @param arrival   到达站
+     * @return 需要扣减余票的区间
+     */
+    public List<RouteDTO> takeoutRoutes(String departure, String arrival) {
+        int startIndex = indexOf(departure);
+        int endIndex = indexOf(arrival);
+        if (startIndex < 0 || endIndex < 0 || startIndex >= endIndex) {
+            return Collections.emptyList();
+        }
+        int slot = startIndex * stations.size() + endIndex;
+        List<RouteDTO> result = takeoutRouteTable.get(slot);
+        if (result == null) {
+            result = buildTakeoutRoutes(startIndex, endIndex);
+            takeoutRouteTable.compareAndSet(slot, null, result);
+        }
+        return result;
+    }
+
+    private List<RouteDTO> buildThroughRoutes(int startIndex, int endIndex) {
+        int size = stations.size();
+        List<RouteDTO> result = new ArrayList<>();
+        for (int i = startIndex; i < endIndex; i++) {
+            for (int j = i + 1; j <= endIndex; j++) {
+                result.add(routes[i * size + j]);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private List<RouteDTO> buildTakeoutRoutes(int startIndex, int endIndex) {
+        int size = stations.size();
+        List<RouteDTO> result = new ArrayList<>();
+        for (int i = 0; i < startIndex; i++) {
+            for (int j = 1; j < size - startIndex; j++) {
+                result.add(routes[i * size + startIndex + j]);
+            }
+        }
+        for (int i = startIndex; i < endIndex; i++) {
+            for (int j = i + 1; j < size; j++) {
+                result.add(routes[i * size + j]);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
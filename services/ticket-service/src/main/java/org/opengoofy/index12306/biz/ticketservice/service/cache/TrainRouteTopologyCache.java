@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.TrainRouteCacheProperties;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainStationMapper;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.opengoofy.index12306.framework.starter.common.threadpool.build.ThreadFactoryBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_ROUTE_VERSION;
+
+/**
+ * 列车线路拓扑本地缓存
+ * 购票、取消、令牌桶、座位锁定以及延迟关单等流程共享同一列车线路拓扑，不再每次调用查询列车站点表并重新计算区间
+ * 各节点定时拉取 Redis 中的线路版本号，列车站点变更后版本号自增，淘汰全部本地拓扑
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrainRouteTopologyCache implements InitializingBean, DisposableBean {
+
+    private final TrainRouteCacheProperties trainRouteCacheProperties;
+    private final TrainStationMapper trainStationMapper;
+    private final DistributedCache distributedCache;
+
+    private Cache<String, TrainRouteTopology> topologyCache;
+    private volatile long version;
+    private ScheduledExecutorService scheduledExecutor;
+
+    /**
+     * 获取列车线路拓扑，未开启本地缓存时每次从数据库加载
+     *
+     * @param trainId 列车 ID
+     * @return 列车线路拓扑
+     */
+    public TrainRouteTopology get(String trainId) {
+        if (!trainRouteCacheProperties.getEnabled()) {
+            return load(trainId);
+        }
+        return topologyCache.get(trainId, this::load);
+    }
+
+    /**
+     * 列车站点变更后自增线路版本号，所有节点在下一次拉取版本号后淘汰本地拓扑
+     */
+    public void incrementVersion() {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        stringRedisTemplate.opsForValue().increment(TRAIN_ROUTE_VERSION);
+        if (trainRouteCacheProperties.getEnabled()) {
+            refreshVersion();
+        }
+    }
+
+    private TrainRouteTopology load(String trainId) {
+        LambdaQueryWrapper<TrainStationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationDO.class)
+                .eq(TrainStationDO::getTrainId, trainId)
+                .orderByAsc(TrainStationDO::getSequence)
+                .select(TrainStationDO::getDeparture);
+        List<String> stations = trainStationMapper.selectList(queryWrapper).stream()
+                .map(TrainStationDO::getDeparture)
+                .toList();
+        return new TrainRouteTopology(trainId, stations);
+    }
+
+    private void refreshVersion() {
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            String actual = stringRedisTemplate.opsForValue().get(TRAIN_ROUTE_VERSION);
+            long latestVersion = actual == null ? 0L : Long.parseLong(actual);
+            if (latestVersion != version) {
+                version = latestVersion;
+                topologyCache.invalidateAll();
+            }
+        } catch (Throwable ex) {
+            log.error("拉取列车线路版本号失败", ex);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!trainRouteCacheProperties.getEnabled()) {
+            return;
+        }
+        topologyCache = Caffeine.newBuilder()
+                .maximumSize(trainRouteCacheProperties.getMaximumSize())
+                .expireAfterWrite(trainRouteCacheProperties.getExpireAfterWrite(), TimeUnit.MILLISECONDS)
+                .build();
+        refreshVersion();
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder()
+                        .prefix("train-route-version-refresh")
+                        .daemon(true)
+                        .build()
+        );
+        Long interval = trainRouteCacheProperties.getVersionRefreshInterval();
+        scheduledExecutor.scheduleWithFixedDelay(this::refreshVersion, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduledExecutor != null) {
+            scheduledExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache.codec;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.StationDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.StationMapper;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CompactBinaryReader;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CompactBinaryWriter;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 站点名称字典，二进制缓存编码时以站点 ID 代替站点名称
+ * 编码规则：0 表示 null，1 表示后跟内联字符串（字典中不存在的站点），其余为站点 ID + 2；
+ * 解码遇到未知 ID 时最多每分钟重新加载一次字典，仍不存在则抛出异常，由缓存层按未命中处理
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StationNameDictionary {
+
+    private static final int NULL_TAG = 0;
+    private static final int INLINE_TAG = 1;
+    private static final int ID_OFFSET = 2;
+    private static final long RELOAD_INTERVAL_MILLIS = 60_000L;
+
+    private final StationMapper stationMapper;
+
+    private volatile Snapshot snapshot;
+    private volatile long lastLoadTime;
+
+    public void writeStation(CompactBinaryWriter writer, String name) {
+        if (name == null) {
+            writer.writeVarInt(NULL_TAG);
+            return;
+        }
+        Integer id = getSnapshot().idByName.get(name);
+        if (id == null) {
+            writer.writeVarInt(INLINE_TAG).writeString(name);
+            return;
+        }
+        writer.writeVarInt(id + ID_OFFSET);
+    }
+
+    public String readStation(CompactBinaryReader reader) {
+        int tag = reader.readVarInt();
+        if (tag == NULL_TAG) {
+            return null;
+        }
+        if (tag == INLINE_TAG) {
+            return reader.readString();
+        }
+        int id = tag - ID_OFFSET;
+        String name = getSnapshot().nameById.get(id);
+        if (name == null) {
+            reloadIfStale();
+            name = snapshot.nameById.get(id);
+        }
+        if (name == null) {
+            throw new IllegalArgumentException("Unknown station id in cache value: " + id);
+        }
+        return name;
+    }
+
+    /**
+     * 使用指定站点集合替换字典内容，ID 超出 int 范围的站点按内联字符串编码
+     */
+    public void refresh(List<StationDO> stationList) {
+        Map<String, Integer> idByName = new HashMap<>(stationList.size() * 2);
+        Map<Integer, String> nameById = new HashMap<>(stationList.size() * 2);
+        for (StationDO each : stationList) {
+            if (each.getId() == null || each.getName() == null || each.getId() < 0 || each.getId() > Integer.MAX_VALUE - ID_OFFSET) {
+                continue;
+            }
+            int id = each.getId().intValue();
+            idByName.putIfAbsent(each.getName(), id);
+            nameById.put(id, each.getName());
+        }
+        snapshot = new Snapshot(idByName, nameById);
+        lastLoadTime = System.currentTimeMillis();
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot actual = snapshot;
+        if (actual == null) {
+            synchronized (this) {
+                if ((actual = snapshot) == null) {
+                    reload();
+                    actual = snapshot;
+                }
+            }
+        }
+        return actual;
+    }
+
+    private synchronized void reloadIfStale() {
+        if (System.currentTimeMillis() - lastLoadTime > RELOAD_INTERVAL_MILLIS) {
+            reload();
+        }
+    }
+
+    private synchronized void reload() {
+        LambdaQueryWrapper<StationDO> queryWrapper = Wrappers.lambdaQuery(StationDO.class)
+                .select(StationDO::getId, StationDO::getName);
+        List<StationDO> stationList = stationMapper.selectList(queryWrapper);
+        refresh(stationList);
+        log.info("站点名称字典加载完成，站点数量：{}", stationList.size());
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, Integer> idByName;
+        private final Map<Integer, String> nameById;
+
+        private Snapshot(Map<String, Integer> idByName, Map<Integer, String> nameById) {
+            this.idByName = idByName;
+            this.nameById = nameById;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache.codec;
+
+import lombok.RequiredArgsConstructor;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatClassDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+import org.opengoofy.index12306.framework.starter.cache.core.CacheValueCodec;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CompactBinaryReader;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CompactBinaryWriter;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 车次查询结果缓存编解码器，对应缓存 Key {@code REGION_TRAIN_STATION} 的 Hash Value
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketListCacheValueCodec implements CacheValueCodec<TicketListDTO> {
+
+    private final StationNameDictionary stationNameDictionary;
+
+    @Override
+    public Class<TicketListDTO> type() {
+        return TicketListDTO.class;
+    }
+
+    @Override
+    public byte[] encode(TicketListDTO value) {
+        CompactBinaryWriter writer = new CompactBinaryWriter(96);
+        writer.writeString(value.getTrainId())
+                .writeString(value.getTrainNumber())
+                .writeString(value.getDepartureTime())
+                .writeString(value.getArrivalTime())
+                .writeString(value.getDuration())
+                .writeNullableInt(value.getDepartureMinute())
+                .writeNullableInt(value.getArrivalMinute())
+                .writeNullableInt(value.getDurationMinute())
+                .writeNullableInt(value.getDaysArrived());
+        stationNameDictionary.writeStation(writer, value.getDeparture());
+        stationNameDictionary.writeStation(writer, value.getArrival());
+        writer.writeNullableBoolean(value.getDepartureFlag())
+                .writeNullableBoolean(value.getArrivalFlag())
+                .writeNullableInt(value.getTrainType())
+                .writeString(value.getSaleTime())
+                .writeNullableInt(value.getSaleStatus())
+                .writeCollectionSize(value.getTrainTags());
+        if (value.getTrainTags() != null) {
+            value.getTrainTags().forEach(writer::writeString);
+        }
+        writer.writeString(value.getTrainBrand())
+                .writeCollectionSize(value.getSeatClassList());
+        if (value.getSeatClassList() != null) {
+            for (SeatClassDTO each : value.getSeatClassList()) {
+                writer.writeNullableInt(each.getType())
+                        .writeNullableInt(each.getQuantity())
+                        .writeString(each.getPrice() == null ? null : each.getPrice().toPlainString())
+                        .writeNullableBoolean(each.getCandidate());
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public TicketListDTO decode(byte[] bytes) {
+        CompactBinaryReader reader = new CompactBinaryReader(bytes);
+        TicketListDTO result = new TicketListDTO();
+        result.setTrainId(reader.readString());
+        result.setTrainNumber(reader.readString());
+        result.setDepartureTime(reader.readString());
+        result.setArrivalTime(reader.readString());
+        result.setDuration(reader.readString());
+        result.setDepartureMinute(reader.readNullableInt());
+        result.setArrivalMinute(reader.readNullableInt());
+        result.setDurationMinute(reader.readNullableInt());
+        result.setDaysArrived(reader.readNullableInt());
+        result.setDeparture(stationNameDictionary.readStation(reader));
+        result.setArrival(stationNameDictionary.readStation(reader));
+        result.setDepartureFlag(reader.readNullableBoolean());
+        result.setArrivalFlag(reader.readNullableBoolean());
+        result.setTrainType(reader.readNullableInt());
+        result.setSaleTime(reader.readString());
+        result.setSaleStatus(reader.readNullableInt());
+        int tagSize = reader.readCollectionSize();
+        if (tagSize >= 0) {
+            List<String> trainTags = new ArrayList<>(tagSize);
+            for (int i = 0; i < tagSize; i++) {
+                trainTags.add(reader.readString());
+            }
+            result.setTrainTags(trainTags);
+        }
+        result.setTrainBrand(reader.readString());
+        int seatClassSize = reader.readCollectionSize();
+        if (seatClassSize >= 0) {
+            List<SeatClassDTO> seatClassList = new ArrayList<>(seatClassSize);
+            for (int i = 0; i < seatClassSize; i++) {
+                Integer type = reader.readNullableInt();
+                Integer quantity = reader.readNullableInt();
+                String price = reader.readString();
+                Boolean candidate = reader.readNullableBoolean();
+                seatClassList.add(new SeatClassDTO(type, quantity, price == null ? null : new BigDecimal(price), candidate));
+            }
+            result.setSeatClassList(seatClassList);
+        }
+        return result;
+    }
+}
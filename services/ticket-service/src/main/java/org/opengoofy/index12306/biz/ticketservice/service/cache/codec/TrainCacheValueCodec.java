@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache.codec;
+
+import lombok.RequiredArgsConstructor;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.opengoofy.index12306.framework.starter.cache.core.CacheValueCodec;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CompactBinaryReader;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CompactBinaryWriter;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * 列车基础信息缓存编解码器，对应缓存 Key {@code TRAIN_INFO}
+ * 时间字段编码为毫秒时间戳，起止站点走站点字典；BaseDO 审计字段不参与缓存
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Component
+@RequiredArgsConstructor
+public class TrainCacheValueCodec implements CacheValueCodec<TrainDO> {
+
+    private final StationNameDictionary stationNameDictionary;
+
+    @Override
+    public Class<TrainDO> type() {
+        return TrainDO.class;
+    }
+
+    @Override
+    public byte[] encode(TrainDO value) {
+        CompactBinaryWriter writer = new CompactBinaryWriter();
+        writer.writeNullableLong(value.getId())
+                .writeString(value.getTrainNumber())
+                .writeNullableInt(value.getTrainType())
+                .writeString(value.getTrainTag())
+                .writeString(value.getTrainBrand());
+        stationNameDictionary.writeStation(writer, value.getStartStation());
+        stationNameDictionary.writeStation(writer, value.getEndStation());
+        writer.writeString(value.getStartRegion())
+                .writeString(value.getEndRegion())
+                .writeNullableLong(toMillis(value.getSaleTime()))
+                .writeNullableInt(value.getSaleStatus())
+                .writeNullableLong(toMillis(value.getDepartureTime()))
+                .writeNullableLong(toMillis(value.getArrivalTime()));
+        return writer.toByteArray();
+    }
+
+    @Override
+    public TrainDO decode(byte[] bytes) {
+        CompactBinaryReader reader = new CompactBinaryReader(bytes);
+        TrainDO result = new TrainDO();
+        result.setId(reader.readNullableLong());
+        result.setTrainNumber(reader.readString());
+        result.setTrainType(reader.readNullableInt());
+        result.setTrainTag(reader.readString());
+        result.setTrainBrand(reader.readString());
+        result.setStartStation(stationNameDictionary.readStation(reader));
+        result.setEndStation(stationNameDictionary.readStation(reader));
+        result.setStartRegion(reader.readString());
+        result.setEndRegion(reader.readString());
+        result.setSaleTime(toDate(reader.readNullableLong()));
+        result.setSaleStatus(reader.readNullableInt());
+        result.setDepartureTime(toDate(reader.readNullableLong()));
+        result.setArrivalTime(toDate(reader.readNullableLong()));
+        return result;
+    }
+
+    private static Long toMillis(Date date) {
+        return date == null ? null : date.getTime();
+    }
+
+    private static Date toDate(Long millis) {
+        return millis == null ? null : new Date(millis);
+    }
+}
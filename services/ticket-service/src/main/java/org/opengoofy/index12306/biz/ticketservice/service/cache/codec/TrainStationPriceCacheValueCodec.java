@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.cache.codec;
+
+import lombok.RequiredArgsConstructor;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationPriceDO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TrainStationPriceCacheDTO;
+import org.opengoofy.index12306.framework.starter.cache.core.CacheValueCodec;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CompactBinaryReader;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CompactBinaryWriter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 列车区间席别价格缓存编解码器，对应缓存 Key {@code TRAIN_STATION_PRICE}
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Component
+@RequiredArgsConstructor
+public class TrainStationPriceCacheValueCodec implements CacheValueCodec<TrainStationPriceCacheDTO> {
+
+    private final StationNameDictionary stationNameDictionary;
+
+    @Override
+    public Class<TrainStationPriceCacheDTO> type() {
+        return TrainStationPriceCacheDTO.class;
+    }
+
+    @Override
+    public byte[] encode(TrainStationPriceCacheDTO value) {
+        CompactBinaryWriter writer = new CompactBinaryWriter();
+        List<TrainStationPriceDO> priceList = value.getPriceList();
+        writer.writeCollectionSize(priceList);
+        if (priceList != null) {
+            for (TrainStationPriceDO each : priceList) {
+                writer.writeNullableLong(each.getId())
+                        .writeNullableLong(each.getTrainId())
+                        .writeNullableInt(each.getSeatType());
+                stationNameDictionary.writeStation(writer, each.getDeparture());
+                stationNameDictionary.writeStation(writer, each.getArrival());
+                writer.writeNullableInt(each.getPrice());
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public TrainStationPriceCacheDTO decode(byte[] bytes) {
+        CompactBinaryReader reader = new CompactBinaryReader(bytes);
+        int size = reader.readCollectionSize();
+        if (size < 0) {
+            return new TrainStationPriceCacheDTO(null);
+        }
+        List<TrainStationPriceDO> priceList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TrainStationPriceDO each = new TrainStationPriceDO();
+            each.setId(reader.readNullableLong());
+            each.setTrainId(reader.readNullableLong());
+            each.setSeatType(reader.readNullableInt());
+            each.setDeparture(stationNameDictionary.readStation(reader));
+            each.setArrival(stationNameDictionary.readStation(reader));
+            each.setPrice(reader.readNullableInt());
+            priceList.add(each);
+        }
+        return new TrainStationPriceCacheDTO(priceList);
+    }
+}
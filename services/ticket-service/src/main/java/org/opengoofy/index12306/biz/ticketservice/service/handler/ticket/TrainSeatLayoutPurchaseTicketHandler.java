@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.RequiredArgsConstructor;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.SeatService;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.base.AbstractTrainPurchaseTicketTemplate;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.SelectSeatDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayout;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayoutRegistry;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.select.SeatBitmapSelection;
+import org.opengoofy.index12306.biz.ticketservice.service.seatmap.TrainSeatSnapshot;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatIdUtil;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 列车座位布局购票组件，按列车类型 × 座位类型对应的座位布局统一选座
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Component
+@RequiredArgsConstructor
+public class TrainSeatLayoutPurchaseTicketHandler extends AbstractTrainPurchaseTicketTemplate {
+
+    public static final String TRAIN_SEAT_LAYOUT_MARK = "TRAIN_SEAT_LAYOUT";
+
+    private final SeatService seatService;
+
+    @Override
+    public String mark() {
+        return TRAIN_SEAT_LAYOUT_MARK;
+    }
+
+    @Override
+    protected List<TrainPurchaseTicketRespDTO> selectSeats(SelectSeatDTO requestParam) {
+        SeatLayout seatLayout = SeatLayoutRegistry.get(requestParam.getTrainType(), requestParam.getSeatType());
+        String trainId = requestParam.getRequestParam().getTrainId();
+        String departure = requestParam.getRequestParam().getDeparture();
+        String arrival = requestParam.getRequestParam().getArrival();
+        List<PurchaseTicketPassengerDetailDTO> passengerSeatDetails = requestParam.getPassengerSeatDetails();
+        TrainSeatSnapshot trainSeatSnapshot = seatService.snapshot(trainId, requestParam.getSeatType(), departure, arrival, seatLayout);
+        if (trainSeatSnapshot.getAvailableCount() < passengerSeatDetails.size()) {
+            throw new ServiceException("站点余票不足，请尝试更换座位类型或选择其它站点");
+        }
+        int rows = seatLayout.getRows();
+        List<String> trainCarriageList = trainSeatSnapshot.getCarriageNumbers();
+        int[] rowMasks = trainSeatSnapshot.getRowMasks();
+        int passengerSize = passengerSeatDetails.size();
+        int[] selectSeats = new int[passengerSize];
+        boolean selected = false;
+        List<String> chooseSeats = requestParam.getRequestParam().getChooseSeats();
+        if (CollUtil.isNotEmpty(chooseSeats) && chooseSeats.size() <= passengerSize) {
+            selected = selectByChooseSeats(seatLayout, chooseSeats, passengerSize, rowMasks, trainCarriageList.size(), selectSeats);
+        }
+        if (!selected && SeatBitmapSelection.select(seatLayout.preferredRunTable(), passengerSize, seatLayout.resolveGroupSize(passengerSize),
+                rowMasks, trainCarriageList.size(), rows, selectSeats) == 0) {
+            return Collections.emptyList();
+        }
+        List<TrainPurchaseTicketRespDTO> actualResult = new ArrayList<>(passengerSize);
+        for (int i = 0; i < passengerSize; i++) {
+            PurchaseTicketPassengerDetailDTO currentTicketPassenger = passengerSeatDetails.get(i);
+            String carriageNumber = trainCarriageList.get(SeatBitmapSelection.carriageIndex(selectSeats[i]));
+            int seatId = SeatIdUtil.encode(SeatIdUtil.parseCarriageNumber(carriageNumber), SeatBitmapSelection.row(selectSeats[i]), SeatBitmapSelection.column(selectSeats[i]));
+            TrainPurchaseTicketRespDTO result = new TrainPurchaseTicketRespDTO();
+            result.setSeatId(seatId);
+            result.setSeatNumber(seatLayout.formatSeatNumber(seatId));
+            result.setSeatType(currentTicketPassenger.getSeatType());
+            result.setCarriageNumber(carriageNumber);
+            result.setPassengerId(currentTicketPassenger.getPassengerId());
+            actualResult.add(result);
+        }
+        return actualResult;
+    }
+
+    /**
+     * 按用户选座图案选座，选座格式为列编号加排序号，例如 A1、F2，排序号表示选座之间的相对排
+     */
+    private boolean selectByChooseSeats(SeatLayout seatLayout, List<String> chooseSeats, int passengerSize, int[] rowMasks, int carriageCount, int[] out) {
+        int[] levels = new int[chooseSeats.size()];
+        int[] columns = new int[chooseSeats.size()];
+        int minLevel = Integer.MAX_VALUE;
+        int maxLevel = Integer.MIN_VALUE;
+        for (int i = 0; i < chooseSeats.size(); i++) {
+            String chooseSeat = chooseSeats.get(i);
+            if (chooseSeat == null || chooseSeat.length() < 2) {
+                return false;
+            }
+            columns[i] = seatLayout.columnIndex(chooseSeat.charAt(0));
+            try {
+                levels[i] = Integer.parseInt(chooseSeat.substring(1));
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+            if (columns[i] < 0) {
+                return false;
+            }
+            minLevel = Math.min(minLevel, levels[i]);
+            maxLevel = Math.max(maxLevel, levels[i]);
+        }
+        int patternRows = maxLevel - minLevel + 1;
+        if (patternRows > seatLayout.getRows()) {
+            return false;
+        }
+        int[] patternMasks = new int[patternRows];
+        for (int i = 0; i < chooseSeats.size(); i++) {
+            patternMasks[levels[i] - minLevel] |= 1 << columns[i];
+        }
+        return SeatBitmapSelection.selectPattern(patternMasks, patternRows, passengerSize, rowMasks, carriageCount, seatLayout.getRows(), out) != 0;
+    }
+}
@@ -17,33 +17,18 @@
 
 package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.base;
 
-import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.util.StrUtil;
-import org.opengoofy.index12306.biz.ticketservice.dto.domain.RouteDTO;
-import org.opengoofy.index12306.biz.ticketservice.dto.domain.TrainSeatBaseDTO;
-import org.opengoofy.index12306.biz.ticketservice.service.TrainStationService;
 import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.SelectSeatDTO;
 import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
-import org.opengoofy.index12306.framework.starter.bases.ApplicationContextHolder;
-import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
 import org.opengoofy.index12306.framework.starter.designpattern.strategy.AbstractExecuteStrategy;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.core.env.ConfigurableEnvironment;
-import org.springframework.data.redis.core.StringRedisTemplate;
 
 import java.util.List;
 
-import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
-
 /**
  * 抽象高铁购票模板基础服务
+ * 选座结果尚未占用座位，余票缓存在座位占用以及订单创建所在事务提交后扣减，参考 TicketServiceImpl
  * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
  */
-public abstract class AbstractTrainPurchaseTicketTemplate implements IPurchaseTicket, CommandLineRunner, AbstractExecuteStrategy<SelectSeatDTO, List<TrainPurchaseTicketRespDTO>> {
-
-    private DistributedCache distributedCache;
-    private String ticketAvailabilityCacheUpdateType;
-    private TrainStationService trainStationService;
+public abstract class AbstractTrainPurchaseTicketTemplate implements IPurchaseTicket, AbstractExecuteStrategy<SelectSeatDTO, List<TrainPurchaseTicketRespDTO>> {
 
     /**
      * 选择座位
@@ -53,39 +38,8 @@ public abstract class AbstractTrainPurchaseTicketTemplate implements IPurchaseTi
      */
     protected abstract List<TrainPurchaseTicketRespDTO> selectSeats(SelectSeatDTO requestParam);
 
-    protected TrainSeatBaseDTO buildTrainSeatBaseDTO(SelectSeatDTO requestParam) {
-        return TrainSeatBaseDTO.builder()
-                .trainId(requestParam.getRequestParam().getTrainId())
-                .departure(requestParam.getRequestParam().getDeparture())
-                .arrival(requestParam.getRequestParam().getArrival())
-                .chooseSeatList(requestParam.getRequestParam().getChooseSeats())
-                .passengerSeatDetails(requestParam.getPassengerSeatDetails())
-                .build();
-    }
-
     @Override
     public List<TrainPurchaseTicketRespDTO> executeResp(SelectSeatDTO requestParam) {
-        List<TrainPurchaseTicketRespDTO> actualResult = selectSeats(requestParam);
-        // 扣减车厢余票缓存，扣减站点余票缓存
-        if (CollUtil.isNotEmpty(actualResult) && !StrUtil.equals(ticketAvailabilityCacheUpdateType, "binlog")) {
-            String trainId = requestParam.getRequestParam().getTrainId();
-            String departure = requestParam.getRequestParam().getDeparture();
-            String arrival = requestParam.getRequestParam().getArrival();
-            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
-            List<RouteDTO> routeDTOList = trainStationService.listTakeoutTrainStationRoute(trainId, departure, arrival);
-            routeDTOList.forEach(each -> {
-                String keySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
-                stringRedisTemplate.opsForHash().increment(TRAIN_STATION_REMAINING_TICKET + keySuffix, String.valueOf(requestParam.getSeatType()), -actualResult.size());
-            });
-        }
-        return actualResult;
-    }
-
-    @Override
-    public void run(String... args) throws Exception {
-        distributedCache = ApplicationContextHolder.getBean(DistributedCache.class);
-        trainStationService = ApplicationContextHolder.getBean(TrainStationService.class);
-        ConfigurableEnvironment configurableEnvironment = ApplicationContextHolder.getBean(ConfigurableEnvironment.class);
-        ticketAvailabilityCacheUpdateType = configurableEnvironment.getProperty("ticket.availability.cache-update.type", "");
+        return selectSeats(requestParam);
     }
 }
@@ -36,6 +36,11 @@ import java.util.List;
 @Builder
 public final class SelectSeatDTO {
 
+    /**
+     * 列车类型
+     */
+    private Integer trainType;
+
     /**
      * 座位类型
      */
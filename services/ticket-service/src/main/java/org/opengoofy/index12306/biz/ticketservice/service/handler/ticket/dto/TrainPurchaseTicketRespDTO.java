@@ -18,6 +18,7 @@
 package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto;
 
 import lombok.Data;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatIdUtil;
 
 /**
  * 列车购票出参
@@ -71,6 +72,11 @@ public class TrainPurchaseTicketRespDTO {
      */
     private String seatNumber;
 
+    /**
+     * 座位标识，选座时生成，参考 {@link SeatIdUtil}
+     */
+    private Integer seatId;
+
     /**
      * 座位金额
      */
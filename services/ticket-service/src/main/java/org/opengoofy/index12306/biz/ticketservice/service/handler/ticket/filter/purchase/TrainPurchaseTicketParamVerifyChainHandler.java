@@ -18,7 +18,6 @@
 package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.filter.purchase;
 
 import cn.hutool.core.collection.CollUtil;
-import com.alibaba.fastjson2.JSON;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +26,7 @@ import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainMapper;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainStationMapper;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TrainStopoverCacheDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
 import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
 import org.opengoofy.index12306.framework.starter.common.toolkit.EnvironmentUtil;
@@ -81,22 +81,26 @@ public class TrainPurchaseTicketParamVerifyChainHandler implements TrainPurchase
             }
         }
         // 车站是否存在车次中，以及车站的顺序是否正确
-        String trainStationStopoverDetailStr = distributedCache.safeGet(
+        TrainStopoverCacheDTO trainStopover = distributedCache.safeGet(
                 TRAIN_STATION_STOPOVER_DETAIL + requestParam.getTrainId(),
-                String.class,
+                TrainStopoverCacheDTO.class,
                 () -> {
                     LambdaQueryWrapper<TrainStationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationDO.class)
                             .eq(TrainStationDO::getTrainId, requestParam.getTrainId())
                             .select(TrainStationDO::getDeparture);
                     List<TrainStationDO> actualTrainStationList = trainStationMapper.selectList(queryWrapper);
-                    return CollUtil.isNotEmpty(actualTrainStationList) ? JSON.toJSONString(actualTrainStationList) : null;
+                    return CollUtil.isNotEmpty(actualTrainStationList)
+                            ? new TrainStopoverCacheDTO(actualTrainStationList.stream().map(TrainStationDO::getDeparture).toList())
+                            : null;
                 },
                 Index12306Constant.ADVANCE_TICKET_DAY,
                 TimeUnit.DAYS
         );
-        List<TrainStationDO> trainDOList = JSON.parseArray(trainStationStopoverDetailStr, TrainStationDO.class);
+        if (trainStopover == null || CollUtil.isEmpty(trainStopover.getStationList())) {
+            throw new ClientException("列车车站数据错误");
+        }
         boolean validateStation = validateStation(
-                trainDOList.stream().map(TrainStationDO::getDeparture).toList(),
+                trainStopover.getStationList(),
                 requestParam.getDeparture(),
                 requestParam.getArrival()
         );
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.filter.query;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.TicketSortTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketPageQueryReqDTO;
+import org.opengoofy.index12306.framework.starter.convention.exception.ClientException;
+import org.springframework.stereotype.Component;
+
+import static org.opengoofy.index12306.biz.ticketservice.toolkit.MinuteOfDayUtil.parseTimeOfDay;
+
+/**
+ * 查询列车车票流程过滤器之筛选排序条件验证
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Component
+public class TrainTicketQueryParamFilterVerifyChainFilter implements TrainTicketQueryChainFilter<TicketPageQueryReqDTO> {
+
+    @Override
+    public void handler(TicketPageQueryReqDTO requestParam) {
+        if (requestParam.getSortType() != null && TicketSortTypeEnum.findByCode(requestParam.getSortType()) == null) {
+            throw new ClientException("排序类型不存在");
+        }
+        if (CollUtil.isNotEmpty(requestParam.getTrainTypes())) {
+            for (Integer each : requestParam.getTrainTypes()) {
+                if (VehicleTypeEnum.findNameByCode(each) == null) {
+                    throw new ClientException("列车类型不存在");
+                }
+            }
+        }
+        verifyTime(requestParam.getDepartureTimeBegin(), "出发时间段格式错误");
+        verifyTime(requestParam.getDepartureTimeEnd(), "出发时间段格式错误");
+        verifyTime(requestParam.getArrivalTimeBegin(), "到达时间段格式错误");
+        verifyTime(requestParam.getArrivalTimeEnd(), "到达时间段格式错误");
+    }
+
+    private void verifyTime(String time, String message) {
+        if (StrUtil.isNotBlank(time) && parseTimeOfDay(time) < 0) {
+            throw new ClientException(message);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return 15;
+    }
+}
@@ -27,6 +27,8 @@ import org.opengoofy.index12306.biz.ticketservice.dao.entity.StationDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.RegionMapper;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.StationMapper;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketPageQueryReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.StationRegionIndex;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.StationRegionIndexCache;
 import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
 import org.opengoofy.index12306.framework.starter.convention.exception.ClientException;
 import org.redisson.api.RLock;
@@ -54,6 +56,7 @@ public class TrainTicketQueryParamVerifyChainFilter implements TrainTicketQueryC
     private final StationMapper stationMapper;
     private final DistributedCache distributedCache;
     private final RedissonClient redissonClient;
+    private final StationRegionIndexCache stationRegionIndexCache;
 
     /**
      * 缓存数据为空并且已经加载过标识
@@ -62,6 +65,13 @@ public class TrainTicketQueryParamVerifyChainFilter implements TrainTicketQueryC
 
     @Override
     public void handler(TicketPageQueryReqDTO requestParam) {
+        // 车站地区常驻索引已加载时直接本地判断，未命中再回退 Redis，兼容索引重建前新增的车站
+        StationRegionIndex stationRegionIndex = stationRegionIndexCache.get();
+        if (stationRegionIndex != null
+                && stationRegionIndex.containsLocation(requestParam.getFromStation())
+                && stationRegionIndex.containsLocation(requestParam.getToStation())) {
+            return;
+        }
         StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
         HashOperations<String, Object, Object> hashOperations = stringRedisTemplate.opsForHash();
         List<Object> actualExistList = hashOperations.multiGet(
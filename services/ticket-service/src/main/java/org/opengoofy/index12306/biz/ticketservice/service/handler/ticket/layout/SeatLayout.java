@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout;
+
+import lombok.Getter;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.select.SeatBitmapSelection;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatIdUtil;
+
+import java.util.Arrays;
+
+/**
+ * 车厢座位布局，描述一种列车类型下某个座位类型车厢的排数、列编号、过道以及靠窗位置
+ * 座位号格式为两位排号加列编号，例如 01A、18F
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Getter
+public final class SeatLayout {
+
+    /**
+     * 列车类型
+     */
+    private final VehicleTypeEnum vehicleType;
+
+    /**
+     * 座位类型
+     */
+    private final VehicleSeatTypeEnum seatType;
+
+    /**
+     * 每节车厢排数
+     */
+    private final int rows;
+
+    /**
+     * 每排列数
+     */
+    private final int columns;
+
+    /**
+     * 过道掩码，第 c 位为 1 表示第 c 列与第 c + 1 列之间为过道
+     */
+    private final int aisleMask;
+
+    /**
+     * 靠窗掩码，第 c 位为 1 表示第 c 列靠窗
+     */
+    private final int windowMask;
+
+    /**
+     * 乘车人数小于该值时整体分配同一排连续座位，否则按 {@link #groupSize} 分组分配
+     */
+    private final int adjacentLimit;
+
+    /**
+     * 多人购票时邻座分组人数
+     */
+    private final int groupSize;
+
+    /**
+     * 优先选座查找表，连续座位不跨越过道，单人优先靠窗
+     */
+    @Getter(lombok.AccessLevel.NONE)
+    private final byte[][] preferredRunTable;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final char[] columnCodes;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final byte[] columnIndexes = new byte[128];
+
+    /**
+     * @param vehicleType   列车类型
+     * @param seatType      座位类型
+     * @param rows          每节车厢排数
+     * @param columnSpec    列编号，按从左到右顺序排列，| 表示过道，例如 ABC|DF
+     * @param windowAtEdges 两侧边缘列是否靠窗
+     * @param adjacentLimit 整体邻座人数上限（不含）
+     * @param groupSize     邻座分组人数
+     */
+    SeatLayout(VehicleTypeEnum vehicleType, VehicleSeatTypeEnum seatType, int rows, String columnSpec,
+               boolean windowAtEdges, int adjacentLimit, int groupSize) {
+        this.vehicleType = vehicleType;
+        this.seatType = seatType;
+        this.rows = rows;
+        this.adjacentLimit = adjacentLimit;
+        this.groupSize = groupSize;
+        Arrays.fill(columnIndexes, (byte) -1);
+        char[] codes = new char[columnSpec.length()];
+        int columnCount = 0;
+        int actualAisleMask = 0;
+        for (char each : columnSpec.toCharArray()) {
+            if (each == '|') {
+                actualAisleMask |= 1 << columnCount - 1;
+                continue;
+            }
+            columnIndexes[each] = (byte) columnCount;
+            codes[columnCount++] = each;
+        }
+        this.columns = columnCount;
+        this.columnCodes = Arrays.copyOf(codes, columnCount);
+        this.aisleMask = actualAisleMask;
+        this.windowMask = windowAtEdges ? 1 | 1 << columnCount - 1 : 0;
+        this.preferredRunTable = SeatBitmapSelection.buildRunTable(columnCount, aisleMask, windowMask);
+    }
+
+    /**
+     * 获取列编号对应的列下标
+     *
+     * @param columnCode 列编号，例如 A
+     * @return 列下标，不存在返回 -1
+     */
+    public int columnIndex(char columnCode) {
+        return columnCode < columnIndexes.length ? columnIndexes[columnCode] : -1;
+    }
+
+    /**
+     * 解析座位号中的排下标
+     *
+     * @param seatNumber 座位号，例如 01A
+     * @return 排下标，从 0 开始，不属于当前布局返回 -1
+     */
+    public int rowIndex(String seatNumber) {
+        int row = 0;
+        for (int i = 0; i < seatNumber.length() - 1; i++) {
+            char each = seatNumber.charAt(i);
+            if (each < '0' || each > '9') {
+                return -1;
+            }
+            row = row * 10 + each - '0';
+        }
+        return row >= 1 && row <= rows ? row - 1 : -1;
+    }
+
+    /**
+     * 解析座位号中的列下标
+     *
+     * @param seatNumber 座位号，例如 01A
+     * @return 列下标，不属于当前布局返回 -1
+     */
+    public int columnIndex(String seatNumber) {
+        return seatNumber.isEmpty() ? -1 : columnIndex(seatNumber.charAt(seatNumber.length() - 1));
+    }
+
+    /**
+     * 根据排下标以及列下标生成座位号
+     */
+    public String formatSeatNumber(int rowIndex, int columnIndex) {
+        int row = rowIndex + 1;
+        return (row <= 9 ? "0" : "") + row + columnCodes[columnIndex];
+    }
+
+    /**
+     * 根据座位标识生成座位号
+     *
+     * @param seatId 座位标识，参考 {@link SeatIdUtil}
+     * @return 座位号，例如 07C
+     */
+    public String formatSeatNumber(int seatId) {
+        return formatSeatNumber(SeatIdUtil.row(seatId), SeatIdUtil.column(seatId));
+    }
+
+    /**
+     * 解析车厢号以及座位号为座位标识
+     *
+     * @param carriageNumber 车厢号，例如 01
+     * @param seatNumber     座位号，例如 07C
+     * @return 座位标识，不属于当前布局返回 {@link SeatIdUtil#INVALID_SEAT_ID}
+     */
+    public int parseSeatId(String carriageNumber, String seatNumber) {
+        int carriage = SeatIdUtil.parseCarriageNumber(carriageNumber);
+        int row = rowIndex(seatNumber);
+        int column = columnIndex(seatNumber);
+        if (carriage < 0 || row < 0 || column < 0) {
+            return SeatIdUtil.INVALID_SEAT_ID;
+        }
+        return SeatIdUtil.encode(carriage, row, column);
+    }
+
+    /**
+     * 根据乘车人数获取邻座分组人数
+     */
+    public int resolveGroupSize(int passengerSize) {
+        return passengerSize < adjacentLimit ? passengerSize : groupSize;
+    }
+
+    /**
+     * 优先选座查找表，参考 {@link SeatBitmapSelection#buildRunTable(int, int, int)}
+     */
+    public byte[][] preferredRunTable() {
+        return preferredRunTable;
+    }
+}
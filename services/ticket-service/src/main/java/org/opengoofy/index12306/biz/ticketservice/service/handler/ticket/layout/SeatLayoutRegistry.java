@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout;
+
+import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum.BUSINESS_CLASS;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum.FIRST_CLASS;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum.FIRST_SLEEPER;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum.HARD_SEAT;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum.HARD_SLEEPER;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum.SECOND_CLASS;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum.SECOND_CLASS_CABIN_SEAT;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum.SECOND_SLEEPER;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum.SOFT_SLEEPER;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum.BULLET;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum.HIGH_SPEED_RAIN;
+import static org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum.REGULAR_TRAIN;
+
+/**
+ * 车厢座位布局注册表，按列车类型 × 座位类型维护座位布局
+ * 卧铺以包厢作为排、以铺位作为列，同一包厢内铺位视为相邻
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class SeatLayoutRegistry {
+
+    private static final Map<Integer, SeatLayout> SEAT_LAYOUT_MAP = new HashMap<>();
+
+    static {
+        // 复兴号：商务座 1+2、一等座 2+2、二等座 3+2
+        register(new SeatLayout(HIGH_SPEED_RAIN, BUSINESS_CLASS, 2, "A|CF", true, 3, 2));
+        register(new SeatLayout(HIGH_SPEED_RAIN, FIRST_CLASS, 7, "AC|DF", true, 5, 2));
+        register(new SeatLayout(HIGH_SPEED_RAIN, SECOND_CLASS, 18, "ABC|DF", true, 6, 3));
+        // 动车：座席 2+2，动卧每个包厢 4 个铺位
+        register(new SeatLayout(BULLET, BUSINESS_CLASS, 6, "AC|DF", true, 5, 2));
+        register(new SeatLayout(BULLET, FIRST_CLASS, 9, "AC|DF", true, 5, 2));
+        register(new SeatLayout(BULLET, SECOND_CLASS_CABIN_SEAT, 6, "AC|DF", true, 5, 2));
+        register(new SeatLayout(BULLET, FIRST_SLEEPER, 8, "ACDF", false, 5, 2));
+        register(new SeatLayout(BULLET, SECOND_SLEEPER, 9, "ACDF", false, 5, 2));
+        // 普通车：软卧每个包厢 4 个铺位，硬卧每个隔间 6 个铺位，硬座 3+2
+        register(new SeatLayout(REGULAR_TRAIN, SOFT_SLEEPER, 8, "ABCD", false, 5, 2));
+        register(new SeatLayout(REGULAR_TRAIN, HARD_SLEEPER, 11, "ABCDEF", false, 7, 3));
+        register(new SeatLayout(REGULAR_TRAIN, HARD_SEAT, 20, "ABC|DF", true, 6, 3));
+    }
+
+    private SeatLayoutRegistry() {
+    }
+
+    private static void register(SeatLayout seatLayout) {
+        SEAT_LAYOUT_MAP.put(buildKey(seatLayout.getVehicleType().getCode(), seatLayout.getSeatType().getCode()), seatLayout);
+    }
+
+    private static int buildKey(int vehicleType, int seatType) {
+        return vehicleType << 8 | seatType;
+    }
+
+    /**
+     * 获取车厢座位布局
+     *
+     * @param vehicleType 列车类型，参考 {@link VehicleTypeEnum}
+     * @param seatType    座位类型，参考 {@link VehicleSeatTypeEnum}
+     * @return 座位布局
+     */
+    public static SeatLayout get(Integer vehicleType, Integer seatType) {
+        SeatLayout seatLayout = find(vehicleType, seatType);
+        if (seatLayout == null) {
+            throw new ServiceException(String.format("当前车次%s暂不支持在线选座", VehicleSeatTypeEnum.findValueByCode(seatType)));
+        }
+        return seatLayout;
+    }
+
+    /**
+     * 查找车厢座位布局
+     *
+     * @param vehicleType 列车类型，参考 {@link VehicleTypeEnum}
+     * @param seatType    座位类型，参考 {@link VehicleSeatTypeEnum}
+     * @return 座位布局，未适配时返回 null
+     */
+    public static SeatLayout find(Integer vehicleType, Integer seatType) {
+        return vehicleType == null || seatType == null ? null : SEAT_LAYOUT_MAP.get(buildKey(vehicleType, seatType));
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.select;
+
+/**
+ * 位运算座位选择器
+ * 每排座位使用一个 int 表示空闲状态，第 c 位为 1 表示该排第 c 列（从 0 开始）座位空闲
+ * 多个车厢的排掩码按车厢顺序平铺在同一个数组中，第 c 个车厢第 r 排位于下标 c * rows + r
+ * 选座结果写入调用方提供的可复用 int 数组，每个元素由 {@link #encode(int, int, int)} 编码车厢下标、排号以及列号，选座过程不产生对象分配
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class SeatBitmapSelection {
+
+    /**
+     * 单排最大列数
+     */
+    public static final int MAX_COLUMNS = 8;
+
+    /**
+     * FIRST_RUN[k][mask] 为排掩码 mask 中首个连续 k 个空闲座位的起始列，不存在时为 -1
+     */
+    private static final byte[][] FIRST_RUN = new byte[MAX_COLUMNS + 1][1 << MAX_COLUMNS];
+
+    static {
+        for (int k = 0; k <= MAX_COLUMNS; k++) {
+            for (int mask = 0; mask < 1 << MAX_COLUMNS; mask++) {
+                FIRST_RUN[k][mask] = (byte) computeFirstRun(mask, k, 0);
+            }
+        }
+    }
+
+    private SeatBitmapSelection() {
+    }
+
+    /**
+     * 编码选座结果
+     *
+     * @param carriageIndex 车厢下标
+     * @param row           排号，从 0 开始
+     * @param column        列号，从 0 开始
+     * @return 编码后的座位
+     */
+    public static int encode(int carriageIndex, int row, int column) {
+        return carriageIndex << 16 | row << 8 | column;
+    }
+
+    public static int carriageIndex(int seat) {
+        return seat >>> 16;
+    }
+
+    public static int row(int seat) {
+        return seat >>> 8 & 0xFF;
+    }
+
+    public static int column(int seat) {
+        return seat & 0xFF;
+    }
+
+    /**
+     * 构建座位布局的优先选座查找表，连续座位不跨越过道，单人优先靠窗
+     *
+     * @param columns    每排列数
+     * @param aisleMask  过道掩码，第 c 位为 1 表示第 c 列与第 c + 1 列之间为过道
+     * @param windowMask 靠窗掩码，第 c 位为 1 表示第 c 列靠窗
+     * @return 查找表，table[k][mask] 为排掩码 mask 中首个满足条件的连续 k 个空闲座位起始列，不存在时为 -1
+     */
+    public static byte[][] buildRunTable(int columns, int aisleMask, int windowMask) {
+        if (columns <= 0 || columns > MAX_COLUMNS) {
+            throw new IllegalArgumentException("Unsupported seat columns: " + columns);
+        }
+        byte[][] runTable = new byte[columns + 1][1 << columns];
+        for (int k = 0; k <= columns; k++) {
+            for (int mask = 0; mask < 1 << columns; mask++) {
+                int start = computeFirstRun(mask, k, aisleMask);
+                if (k == 1 && windowMask != 0) {
+                    start = computeFirstRun(mask & windowMask, 1, 0);
+                }
+                runTable[k][mask] = (byte) start;
+            }
+        }
+        return runTable;
+    }
+
+    /**
+     * 查找排掩码中首个连续 numSeats 个空闲座位的起始列
+     *
+     * @param rowMask  排掩码
+     * @param numSeats 连续座位数量
+     * @return 起始列，不存在返回 -1
+     */
+    public static int firstRun(int rowMask, int numSeats) {
+        return firstRun(FIRST_RUN, rowMask, numSeats);
+    }
+
+    /**
+     * 使用指定查找表查找排掩码中首个连续 numSeats 个空闲座位的起始列
+     */
+    public static int firstRun(byte[][] runTable, int rowMask, int numSeats) {
+        if (numSeats <= 0 || numSeats >= runTable.length) {
+            return -1;
+        }
+        byte[] table = runTable[numSeats];
+        return table[rowMask & table.length - 1];
+    }
+
+    /**
+     * 统计车厢空闲座位数量
+     */
+    public static int vacantCount(int[] rowMasks, int offset, int rows) {
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            count += Integer.bitCount(rowMasks[offset + r]);
+        }
+        return count;
+    }
+
+    /**
+     * 车厢内按排顺序查找同一排连续 numSeats 个空闲座位
+     *
+     * @param numSeats      座位数量
+     * @param rowMasks      排掩码数组
+     * @param offset        车厢首排在排掩码数组中的下标
+     * @param rows          车厢排数
+     * @param carriageIndex 车厢下标，用于编码结果
+     * @param out           结果数组
+     * @param outOffset     结果写入起始下标
+     * @return 写入的座位数量，未找到返回 0
+     */
+    public static int adjacent(int numSeats, int[] rowMasks, int offset, int rows, int carriageIndex, int[] out, int outOffset) {
+        return adjacent(FIRST_RUN, numSeats, rowMasks, offset, rows, carriageIndex, out, outOffset);
+    }
+
+    /**
+     * 使用指定查找表在车厢内查找同一排连续座位，参数含义同 {@link #adjacent(int, int[], int, int, int, int[], int)}
+     */
+    public static int adjacent(byte[][] runTable, int numSeats, int[] rowMasks, int offset, int rows, int carriageIndex, int[] out, int outOffset) {
+        for (int r = 0; r < rows; r++) {
+            int start = firstRun(runTable, rowMasks[offset + r], numSeats);
+            if (start >= 0) {
+                for (int i = 0; i < numSeats; i++) {
+                    out[outOffset + i] = encode(carriageIndex, r, start + i);
+                }
+                return numSeats;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 车厢内按排、列顺序选择最多 numSeats 个空闲座位，不要求相邻
+     *
+     * @return 写入的座位数量，车厢空闲座位不足时小于 numSeats
+     */
+    public static int nonAdjacent(int numSeats, int[] rowMasks, int offset, int rows, int carriageIndex, int[] out, int outOffset) {
+        int written = 0;
+        for (int r = 0; r < rows && written < numSeats; r++) {
+            int mask = rowMasks[offset + r];
+            while (mask != 0 && written < numSeats) {
+                out[outOffset + written++] = encode(carriageIndex, r, Integer.numberOfTrailingZeros(mask));
+                mask &= mask - 1;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * 多车厢选座，参数含义同 {@link #select(byte[][], int, int, int[], int, int, int[])}，不区分座位偏好
+     */
+    public static int select(int numSeats, int groupSize, int[] rowMasks, int carriageCount, int rows, int[] out) {
+        return select(FIRST_RUN, numSeats, groupSize, rowMasks, carriageCount, rows, out);
+    }
+
+    /**
+     * 多车厢选座，依次尝试：同车厢符合偏好的邻座、同车厢邻座、同车厢不邻座、不同车厢不邻座
+     * 邻座阶段将乘车人按 groupSize 分组，同一车厢内每组分配同一排连续座位，groupSize 等于乘车人数时即整体邻座
+     * 选座过程中会临时修改排掩码，方法返回前恢复原值
+     *
+     * @param preferredRunTable 座位偏好查找表，参考 {@link #buildRunTable(int, int, int)}
+     * @param numSeats          乘车人数
+     * @param groupSize         邻座分组人数
+     * @param rowMasks          所有车厢排掩码
+     * @param carriageCount     车厢数量
+     * @param rows              每节车厢排数
+     * @param out               结果数组，长度不小于 numSeats
+     * @return 选座成功返回 numSeats，余票不足返回 0
+     */
+    public static int select(byte[][] preferredRunTable, int numSeats, int groupSize, int[] rowMasks, int carriageCount, int rows, int[] out) {
+        if (selectAdjacent(preferredRunTable, numSeats, groupSize, rowMasks, carriageCount, rows, out)) {
+            return numSeats;
+        }
+        if (preferredRunTable != FIRST_RUN && selectAdjacent(FIRST_RUN, numSeats, groupSize, rowMasks, carriageCount, rows, out)) {
+            return numSeats;
+        }
+        // 如果邻座算法无法匹配，尝试对用户进行降级分配：同车厢不邻座
+        for (int c = 0; c < carriageCount; c++) {
+            int offset = c * rows;
+            if (vacantCount(rowMasks, offset, rows) >= numSeats) {
+                return nonAdjacent(numSeats, rowMasks, offset, rows, c, out, 0);
+            }
+        }
+        // 如果同车厢也已无法匹配，则对用户座位再次降级：不同车厢不邻座
+        int written = 0;
+        for (int c = 0; c < carriageCount && written < numSeats; c++) {
+            written += nonAdjacent(numSeats - written, rowMasks, c * rows, rows, c, out, written);
+        }
+        return written == numSeats ? numSeats : 0;
+    }
+
+    /**
+     * 按选座图案在同一车厢内选座，图案之外的乘车人在同一车厢内按排、列顺序补足
+     *
+     * @param patternMasks  选座图案，patternMasks[d] 为图案第 d 排需要的列掩码
+     * @param patternRows   图案排数
+     * @param numSeats      乘车人数，不小于图案座位数量
+     * @param rowMasks      所有车厢排掩码
+     * @param carriageCount 车厢数量
+     * @param rows          每节车厢排数
+     * @param out           结果数组，长度不小于 numSeats
+     * @return 选座成功返回 numSeats，没有车厢满足图案返回 0
+     */
+    public static int selectPattern(int[] patternMasks, int patternRows, int numSeats, int[] rowMasks, int carriageCount, int rows, int[] out) {
+        for (int c = 0; c < carriageCount; c++) {
+            int offset = c * rows;
+            if (vacantCount(rowMasks, offset, rows) < numSeats) {
+                continue;
+            }
+            for (int r = 0; r + patternRows <= rows; r++) {
+                boolean matched = true;
+                for (int d = 0; d < patternRows && matched; d++) {
+                    matched = (rowMasks[offset + r + d] & patternMasks[d]) == patternMasks[d];
+                }
+                if (!matched) {
+                    continue;
+                }
+                int written = 0;
+                for (int d = 0; d < patternRows; d++) {
+                    int mask = patternMasks[d];
+                    while (mask != 0) {
+                        out[written++] = encode(c, r + d, Integer.numberOfTrailingZeros(mask));
+                        mask &= mask - 1;
+                    }
+                }
+                occupy(rowMasks, rows, out, 0, written);
+                int patternSeats = written;
+                written += nonAdjacent(numSeats - written, rowMasks, offset, rows, c, out, written);
+                release(rowMasks, rows, out, 0, patternSeats);
+                return numSeats;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean selectAdjacent(byte[][] runTable, int numSeats, int groupSize, int[] rowMasks, int carriageCount, int rows, int[] out) {
+        for (int c = 0; c < carriageCount; c++) {
+            int offset = c * rows;
+            int written = 0;
+            while (written < numSeats) {
+                int selected = adjacent(runTable, Math.min(groupSize, numSeats - written), rowMasks, offset, rows, c, out, written);
+                if (selected == 0) {
+                    break;
+                }
+                occupy(rowMasks, rows, out, written, written + selected);
+                written += selected;
+            }
+            release(rowMasks, rows, out, 0, written);
+            if (written == numSeats) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void occupy(int[] rowMasks, int rows, int[] seats, int from, int to) {
+        for (int i = from; i < to; i++) {
+            rowMasks[carriageIndex(seats[i]) * rows + row(seats[i])] &= ~(1 << column(seats[i]));
+        }
+    }
+
+    private static void release(int[] rowMasks, int rows, int[] seats, int from, int to) {
+        for (int i = from; i < to; i++) {
+            rowMasks[carriageIndex(seats[i]) * rows + row(seats[i])] |= 1 << column(seats[i]);
+        }
+    }
+
+    /**
+     * 移位求与：runs 第 j 位为 1 表示从第 j 列开始的 k 个座位均空闲，且中间不跨越 aisleMask 标记的过道
+     */
+    private static int computeFirstRun(int mask, int k, int aisleMask) {
+        if (k == 0) {
+            return -1;
+        }
+        int runs = mask;
+        int linked = ~aisleMask;
+        for (int i = 1; i < k; i++) {
+            runs &= mask >>> i;
+            runs &= linked >>> i - 1;
+        }
+        return runs == 0 ? -1 : Integer.numberOfTrailingZeros(runs);
+    }
+}
@@ -25,16 +25,22 @@ import com.google.common.collect.Lists;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketTokenBucketProperties;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketWaitingRoomProperties;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.SeatSegmentMapper;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainMapper;
 import org.opengoofy.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.domain.RouteDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatSegmentMaskCountDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatTypeCountDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.remote.dto.TicketOrderPassengerDetailRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.service.SeatService;
 import org.opengoofy.index12306.biz.ticketservice.service.TrainStationService;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TrainRouteTopology;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TrainRouteTopologyCache;
 import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.TokenResultDTO;
 import org.opengoofy.index12306.framework.starter.bases.Singleton;
 import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
@@ -42,12 +48,16 @@ import org.opengoofy.index12306.framework.starter.common.toolkit.Assert;
 import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -57,7 +67,10 @@ import java.util.stream.Collectors;
 
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.Index12306Constant.ADVANCE_TICKET_DAY;
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.LOCK_TICKET_AVAILABILITY_TOKEN_BUCKET;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET;
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_TOKEN_BUCKET;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_TOKEN_BUCKET_RECENT_TAKE;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_TOKEN_BUCKET_RECONCILE_DRIFT;
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_INFO;
 
 /**
@@ -67,16 +80,26 @@ import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKe
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public final class TicketAvailabilityTokenBucket {
+public final class TicketAvailabilityTokenBucket implements InitializingBean, DisposableBean {
 
     private final TrainStationService trainStationService;
     private final DistributedCache distributedCache;
     private final RedissonClient redissonClient;
     private final SeatService seatService;
     private final TrainMapper trainMapper;
+    private final SeatSegmentMapper seatSegmentMapper;
+    private final TrainRouteTopologyCache trainRouteTopologyCache;
+    private final TicketTokenBucketProperties ticketTokenBucketProperties;
+    private final TicketWaitingRoomProperties ticketWaitingRoomProperties;
+
+    private TicketTokenLeasePool ticketTokenLeasePool;
 
     private static final String LUA_TICKET_AVAILABILITY_TOKEN_BUCKET_PATH = "lua/ticket_availability_token_bucket.lua";
     private static final String LUA_TICKET_AVAILABILITY_ROLLBACK_TOKEN_BUCKET_PATH = "lua/ticket_availability_rollback_token_bucket.lua";
+    private static final String LUA_TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET_PATH = "lua/ticket_availability_segment_token_bucket.lua";
+    private static final String LUA_TICKET_AVAILABILITY_SEGMENT_ROLLBACK_TOKEN_BUCKET_PATH = "lua/ticket_availability_segment_rollback_token_bucket.lua";
+    private static final String LUA_TICKET_AVAILABILITY_RECONCILE_TOKEN_BUCKET_PATH = "lua/ticket_availability_reconcile_token_bucket.lua";
+    private static final long RECONCILE_DRIFT_EXPIRE_SECONDS = 86400L;
 
     /**
      * 获取车站间令牌桶中的令牌访问
@@ -87,40 +110,13 @@ public final class TicketAvailabilityTokenBucket {
      * @return 是否获取列车车票余量令牌桶中的令牌返回结果
      */
     public TokenResultDTO takeTokenFromBucket(PurchaseTicketReqDTO requestParam) {
-        TrainDO trainDO = distributedCache.safeGet(
-                TRAIN_INFO + requestParam.getTrainId(),
-                TrainDO.class,
-                () -> trainMapper.selectById(requestParam.getTrainId()),
-                ADVANCE_TICKET_DAY,
-                TimeUnit.DAYS);
-        List<RouteDTO> routeDTOList = trainStationService
-                .listTrainStationRoute(requestParam.getTrainId(), trainDO.getStartStation(), trainDO.getEndStation());
+        markRecentTake(requestParam.getTrainId());
+        if (ticketTokenBucketProperties.getSegmentIndexed()) {
+            return takeSegmentTokenFromBucket(requestParam);
+        }
         StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
         String tokenBucketHashKey = TICKET_AVAILABILITY_TOKEN_BUCKET + requestParam.getTrainId();
-        Boolean hasKey = distributedCache.hasKey(tokenBucketHashKey);
-        if (!hasKey) {
-            RLock lock = redissonClient.getLock(String.format(LOCK_TICKET_AVAILABILITY_TOKEN_BUCKET, requestParam.getTrainId()));
-            if (!lock.tryLock()) {
-                throw new ServiceException("购票异常，请稍候再试");
-            }
-            try {
-                Boolean hasKeyTwo = distributedCache.hasKey(tokenBucketHashKey);
-                if (!hasKeyTwo) {
-                    List<Integer> seatTypes = VehicleTypeEnum.findSeatTypesByCode(trainDO.getTrainType());
-                    Map<String, String> ticketAvailabilityTokenMap = new HashMap<>();
-                    for (RouteDTO each : routeDTOList) {
-                        List<SeatTypeCountDTO> seatTypeCountDTOList = seatService.listSeatTypeCount(Long.parseLong(requestParam.getTrainId()), each.getStartStation(), each.getEndStation(), seatTypes);
-                        for (SeatTypeCountDTO eachSeatTypeCountDTO : seatTypeCountDTOList) {
-                            String buildCacheKey = StrUtil.join("_", each.getStartStation(), each.getEndStation(), eachSeatTypeCountDTO.getSeatType());
-                            ticketAvailabilityTokenMap.put(buildCacheKey, String.valueOf(eachSeatTypeCountDTO.getSeatCount()));
-                        }
-                    }
-                    stringRedisTemplate.opsForHash().putAll(TICKET_AVAILABILITY_TOKEN_BUCKET + requestParam.getTrainId(), ticketAvailabilityTokenMap);
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
+        ensureTokensInitialized(requestParam.getTrainId(), tokenBucketHashKey);
         DefaultRedisScript<String> actual = Singleton.get(LUA_TICKET_AVAILABILITY_TOKEN_BUCKET_PATH, () -> {
             DefaultRedisScript<String> redisScript = new DefaultRedisScript<>();
             redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TICKET_AVAILABILITY_TOKEN_BUCKET_PATH)));
@@ -154,31 +150,52 @@ public final class TicketAvailabilityTokenBucket {
      * @param requestParam 回滚列车余量令牌入参
      */
     public void rollbackInBucket(TicketOrderDetailRespDTO requestParam) {
-        DefaultRedisScript<Long> actual = Singleton.get(LUA_TICKET_AVAILABILITY_ROLLBACK_TOKEN_BUCKET_PATH, () -> {
-            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
-            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TICKET_AVAILABILITY_ROLLBACK_TOKEN_BUCKET_PATH)));
-            redisScript.setResultType(Long.class);
-            return redisScript;
-        });
-        Assert.notNull(actual);
-        List<TicketOrderPassengerDetailRespDTO> passengerDetails = requestParam.getPassengerDetails();
-        Map<Integer, Long> seatTypeCountMap = passengerDetails.stream()
+        Map<Integer, Long> seatTypeCountMap = requestParam.getPassengerDetails().stream()
                 .collect(Collectors.groupingBy(TicketOrderPassengerDetailRespDTO::getSeatType, Collectors.counting()));
-        JSONArray seatTypeCountArray = seatTypeCountMap.entrySet().stream()
-                .map(entry -> {
-                    JSONObject jsonObject = new JSONObject();
-                    jsonObject.put("seatType", String.valueOf(entry.getKey()));
-                    jsonObject.put("count", String.valueOf(entry.getValue()));
-                    return jsonObject;
-                })
-                .collect(Collectors.toCollection(JSONArray::new));
-        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
-        String actualHashKey = TICKET_AVAILABILITY_TOKEN_BUCKET + requestParam.getTrainId();
-        String luaScriptKey = StrUtil.join("_", requestParam.getDeparture(), requestParam.getArrival());
-        List<RouteDTO> takeoutRouteDTOList = trainStationService.listTakeoutTrainStationRoute(String.valueOf(requestParam.getTrainId()), requestParam.getDeparture(), requestParam.getArrival());
-        Long result = stringRedisTemplate.execute(actual, Lists.newArrayList(actualHashKey, luaScriptKey), JSON.toJSONString(seatTypeCountArray), JSON.toJSONString(takeoutRouteDTOList));
+        rollbackInBucket(String.valueOf(requestParam.getTrainId()), requestParam.getDeparture(), requestParam.getArrival(), seatTypeCountMap);
+    }
+
+    /**
+     * 回滚购票请求已获取的列车余量令牌，获取令牌后选座、锁座或创建订单失败时触发
+     *
+     * @param requestParam 购票请求参数入参
+     */
+    public void rollbackInBucket(PurchaseTicketReqDTO requestParam) {
+        Map<Integer, Long> seatTypeCountMap = requestParam.getPassengers().stream()
+                .collect(Collectors.groupingBy(PurchaseTicketPassengerDetailDTO::getSeatType, Collectors.counting()));
+        rollbackInBucket(requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival(), seatTypeCountMap);
+    }
+
+    private void rollbackInBucket(String trainId, String departure, String arrival, Map<Integer, Long> seatTypeCountMap) {
+        Long result;
+        if (ticketTokenBucketProperties.getSegmentIndexed()) {
+            // 按区段下标回滚令牌，令牌桶不存在时无需回滚；开启本地租约时同样直接归还中心令牌桶
+            int[] segmentRange = resolveSegmentRange(trainRouteTopologyCache.get(trainId), departure, arrival);
+            result = executeSegmentRollback(trainId, segmentRange, seatTypeCountMap);
+        } else {
+            DefaultRedisScript<Long> actual = Singleton.get(LUA_TICKET_AVAILABILITY_ROLLBACK_TOKEN_BUCKET_PATH, () -> {
+                DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+                redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TICKET_AVAILABILITY_ROLLBACK_TOKEN_BUCKET_PATH)));
+                redisScript.setResultType(Long.class);
+                return redisScript;
+            });
+            Assert.notNull(actual);
+            JSONArray seatTypeCountArray = seatTypeCountMap.entrySet().stream()
+                    .map(entry -> {
+                        JSONObject jsonObject = new JSONObject();
+                        jsonObject.put("seatType", String.valueOf(entry.getKey()));
+                        jsonObject.put("count", String.valueOf(entry.getValue()));
+                        return jsonObject;
+                    })
+                    .collect(Collectors.toCollection(JSONArray::new));
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            String actualHashKey = TICKET_AVAILABILITY_TOKEN_BUCKET + trainId;
+            String luaScriptKey = StrUtil.join("_", departure, arrival);
+            List<RouteDTO> takeoutRouteDTOList = trainStationService.listTakeoutTrainStationRoute(trainId, departure, arrival);
+            result = stringRedisTemplate.execute(actual, Lists.newArrayList(actualHashKey, luaScriptKey), JSON.toJSONString(seatTypeCountArray), JSON.toJSONString(takeoutRouteDTOList));
+        }
         if (result == null || !Objects.equals(result, 0L)) {
-            log.error("回滚列车余票令牌失败，订单信息：{}", JSON.toJSONString(requestParam));
+            log.error("回滚列车余票令牌失败，列车：{}，出发站：{}，到达站：{}，座位类型数量：{}", trainId, departure, arrival, seatTypeCountMap);
             throw new ServiceException("回滚列车余票令牌失败");
         }
     }
@@ -189,16 +206,378 @@ public final class TicketAvailabilityTokenBucket {
      * @param requestParam 删除令牌容器参数
      */
     public void delTokenInBucket(PurchaseTicketReqDTO requestParam) {
+        if (!ticketTokenBucketProperties.getLazyInitializeEnabled()) {
+            // 购票请求不再构建令牌桶，直接按数据库重建，避免删除后到下次预热前无法购票
+            putTokenInBucket(requestParam.getTrainId());
+            return;
+        }
         StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
-        String tokenBucketHashKey = TICKET_AVAILABILITY_TOKEN_BUCKET + requestParam.getTrainId();
-        stringRedisTemplate.delete(tokenBucketHashKey);
+        stringRedisTemplate.delete(Lists.newArrayList(
+                TICKET_AVAILABILITY_TOKEN_BUCKET + requestParam.getTrainId(),
+                TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET + requestParam.getTrainId()));
+    }
+
+    /**
+     * 按区段下标获取令牌，每种座位类型仅保存 N-1 个相邻站点区段的令牌，乘车区段 [i, j) 内所有区段令牌均充足时整体扣减
+     */
+    private TokenResultDTO takeSegmentTokenFromBucket(PurchaseTicketReqDTO requestParam) {
+        TrainRouteTopology topology = trainRouteTopologyCache.get(requestParam.getTrainId());
+        int[] segmentRange = resolveSegmentRange(topology, requestParam.getDeparture(), requestParam.getArrival());
+        Map<Integer, Long> seatTypeCountMap = requestParam.getPassengers().stream()
+                .collect(Collectors.groupingBy(PurchaseTicketPassengerDetailDTO::getSeatType, Collectors.counting()));
+        List<String> tokenIsNullSeatTypeCounts;
+        if (ticketTokenLeasePool != null) {
+            // 优先扣减本地租约，租约耗尽时才访问中心令牌桶
+            tokenIsNullSeatTypeCounts = ticketTokenLeasePool.take(requestParam.getTrainId(), segmentRange[0], segmentRange[1], seatTypeCountMap);
+        } else {
+            ensureTokensInitialized(requestParam.getTrainId(), TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET + requestParam.getTrainId());
+            tokenIsNullSeatTypeCounts = executeSegmentTake(requestParam.getTrainId(), segmentRange, seatTypeCountMap);
+        }
+        if (tokenIsNullSeatTypeCounts == null) {
+            // 执行期间令牌桶被删除，按令牌不足处理，下次购票时重新初始化
+            return TokenResultDTO.builder().tokenIsNull(Boolean.TRUE).tokenIsNullSeatTypeCounts(new ArrayList<>()).build();
+        }
+        return TokenResultDTO.builder()
+                .tokenIsNull(!tokenIsNullSeatTypeCounts.isEmpty())
+                .tokenIsNullSeatTypeCounts(tokenIsNullSeatTypeCounts)
+                .build();
+    }
+
+    /**
+     * 执行区段令牌扣减脚本
+     *
+     * @return 令牌不足的 座位类型_购票数量 集合，令牌桶不存在时返回 null
+     */
+    private List<String> executeSegmentTake(String trainId, int[] segmentRange, Map<Integer, Long> seatTypeCountMap) {
+        DefaultRedisScript<List> actual = Singleton.get(LUA_TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET_PATH, () -> {
+            DefaultRedisScript<List> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET_PATH)));
+            redisScript.setResultType(List.class);
+            return redisScript;
+        });
+        Assert.notNull(actual);
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        List<?> shortages = stringRedisTemplate.execute(actual, Collections.singletonList(TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET + trainId), buildSegmentScriptArgs(segmentRange, seatTypeCountMap));
+        return shortages == null ? null : shortages.stream().map(String::valueOf).collect(Collectors.toList());
+    }
+
+    /**
+     * 执行区段令牌回滚脚本
+     */
+    private Long executeSegmentRollback(String trainId, int[] segmentRange, Map<Integer, Long> seatTypeCountMap) {
+        DefaultRedisScript<Long> actual = Singleton.get(LUA_TICKET_AVAILABILITY_SEGMENT_ROLLBACK_TOKEN_BUCKET_PATH, () -> {
+            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TICKET_AVAILABILITY_SEGMENT_ROLLBACK_TOKEN_BUCKET_PATH)));
+            redisScript.setResultType(Long.class);
+            return redisScript;
+        });
+        Assert.notNull(actual);
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        return stringRedisTemplate.execute(actual, Collections.singletonList(TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET + trainId), buildSegmentScriptArgs(segmentRange, seatTypeCountMap));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!ticketTokenBucketProperties.getSegmentIndexed() || !ticketTokenBucketProperties.getLeaseEnabled()) {
+            return;
+        }
+        // 租借中的令牌不在中心令牌桶内，令牌校正会把它们当作差异补回，等候室会把桶内清空误判为售罄
+        if (ticketTokenBucketProperties.getReconcileEnabled() || ticketWaitingRoomProperties.getEnabled()) {
+            throw new IllegalStateException("令牌租约不能与令牌增量校正或排队等候室同时开启");
+        }
+        ticketTokenLeasePool = new TicketTokenLeasePool(ticketTokenBucketProperties, new TicketTokenLeasePool.TokenLeaseSource() {
+
+            @Override
+            public boolean take(String trainId, int startIndex, int endIndex, Integer seatType, long count) {
+                ensureTokensInitialized(trainId, TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET + trainId);
+                List<String> shortages = executeSegmentTake(trainId, new int[]{startIndex, endIndex}, Map.of(seatType, count));
+                return shortages != null && shortages.isEmpty();
+            }
+
+            @Override
+            public void giveBack(String trainId, int startIndex, int endIndex, Integer seatType, long count) {
+                executeSegmentRollback(trainId, new int[]{startIndex, endIndex}, Map.of(seatType, count));
+            }
+        });
+        ticketTokenLeasePool.start();
+    }
+
+    @Override
+    public void destroy() {
+        if (ticketTokenLeasePool != null) {
+            ticketTokenLeasePool.shutdown();
+        }
+    }
+
+    /**
+     * 购票时保证令牌桶已存在，关闭购票时初始化后令牌桶只能由预热任务构建，购票请求不承担构建开销
+     */
+    private void ensureTokensInitialized(String trainId, String tokenBucketHashKey) {
+        if (distributedCache.hasKey(tokenBucketHashKey)) {
+            return;
+        }
+        if (!ticketTokenBucketProperties.getLazyInitializeEnabled()) {
+            throw new ServiceException("列车余票令牌预热中，请稍候再试");
+        }
+        RLock lock = redissonClient.getLock(String.format(LOCK_TICKET_AVAILABILITY_TOKEN_BUCKET, trainId));
+        if (!lock.tryLock()) {
+            throw new ServiceException("购票异常，请稍候再试");
+        }
+        try {
+            if (!distributedCache.hasKey(tokenBucketHashKey)) {
+                StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+                stringRedisTemplate.opsForHash().putAll(tokenBucketHashKey, buildTokens(trainId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String getTokenBucketHashKey(String trainId) {
+        return ticketTokenBucketProperties.getSegmentIndexed()
+                ? TICKET_AVAILABILITY_SEGMENT_TOKEN_BUCKET + trainId
+                : TICKET_AVAILABILITY_TOKEN_BUCKET + trainId;
     }
 
-    public void putTokenInBucket() {
+    private TrainDO loadTrain(String trainId) {
+        return distributedCache.safeGet(
+                TRAIN_INFO + trainId,
+                TrainDO.class,
+                () -> trainMapper.selectById(trainId),
+                ADVANCE_TICKET_DAY,
+                TimeUnit.DAYS);
+    }
+
+    /**
+     * 按当前令牌桶存储方式从数据库推算列车全部令牌
+     */
+    private Map<String, String> buildTokens(String trainId) {
+        return ticketTokenBucketProperties.getSegmentIndexed()
+                ? buildSegmentTokens(trainId)
+                : buildRouteTokens(trainId);
+    }
 
+    /**
+     * 按站点区间逐一查询座位数量，Field 为 出发站_到达站_座位类型
+     */
+    private Map<String, String> buildRouteTokens(String trainId) {
+        TrainDO trainDO = loadTrain(trainId);
+        List<RouteDTO> routeDTOList = trainStationService
+                .listTrainStationRoute(trainId, trainDO.getStartStation(), trainDO.getEndStation());
+        List<Integer> seatTypes = VehicleTypeEnum.findSeatTypesByCode(trainDO.getTrainType());
+        Map<String, String> ticketAvailabilityTokenMap = new HashMap<>();
+        for (RouteDTO each : routeDTOList) {
+            List<SeatTypeCountDTO> seatTypeCountDTOList = seatService.listSeatTypeCount(Long.parseLong(trainId), each.getStartStation(), each.getEndStation(), seatTypes);
+            for (SeatTypeCountDTO eachSeatTypeCountDTO : seatTypeCountDTOList) {
+                String buildCacheKey = StrUtil.join("_", each.getStartStation(), each.getEndStation(), eachSeatTypeCountDTO.getSeatType());
+                ticketAvailabilityTokenMap.put(buildCacheKey, String.valueOf(eachSeatTypeCountDTO.getSeatCount()));
+            }
+        }
+        return ticketAvailabilityTokenMap;
     }
 
-    public void initializeTokens() {
+    /**
+     * 一次聚合查询座位类型以及区段位图，推算每种座位类型在每个相邻站点区段的可售座位数量作为令牌
+     */
+    private Map<String, String> buildSegmentTokens(String trainId) {
+        TrainDO trainDO = loadTrain(trainId);
+        TrainRouteTopology topology = trainRouteTopologyCache.get(trainId);
+        List<Integer> seatTypes = VehicleTypeEnum.findSeatTypesByCode(trainDO.getTrainType());
+        int segmentSize = topology.getStations().size() - 1;
+        Map<Integer, long[]> seatTypeCapacityMap = new HashMap<>();
+        seatTypes.forEach(each -> seatTypeCapacityMap.put(each, new long[segmentSize]));
+        List<SeatSegmentMaskCountDTO> seatSegmentMaskCountList = seatSegmentMapper.listSeatSegmentMaskCount(Long.parseLong(trainId), seatTypes);
+        for (SeatSegmentMaskCountDTO each : seatSegmentMaskCountList) {
+            long[] capacities = seatTypeCapacityMap.get(each.getSeatType());
+            if (capacities == null) {
+                continue;
+            }
+            long segmentMask = each.getSegmentMask() == null ? 0L : each.getSegmentMask();
+            for (int segment = 0; segment < segmentSize; segment++) {
+                if ((segmentMask >>> segment & 1L) == 0L) {
+                    capacities[segment] += each.getSeatCount();
+                }
+            }
+        }
+        Map<String, String> ticketAvailabilityTokenMap = new HashMap<>();
+        seatTypeCapacityMap.forEach((seatType, capacities) -> {
+            for (int segment = 0; segment < segmentSize; segment++) {
+                ticketAvailabilityTokenMap.put(seatType + "_" + segment, String.valueOf(capacities[segment]));
+            }
+        });
+        return ticketAvailabilityTokenMap;
+    }
+
+    private int[] resolveSegmentRange(TrainRouteTopology topology, String departure, String arrival) {
+        int startIndex = topology.indexOf(departure);
+        int endIndex = topology.indexOf(arrival);
+        if (startIndex < 0 || endIndex < 0 || startIndex >= endIndex) {
+            throw new ServiceException(String.format("列车站点区间不存在：%s - %s", departure, arrival));
+        }
+        return new int[]{startIndex, endIndex};
+    }
+
+    private Object[] buildSegmentScriptArgs(int[] segmentRange, Map<Integer, Long> seatTypeCountMap) {
+        Object[] args = new Object[2 + seatTypeCountMap.size() * 2];
+        args[0] = String.valueOf(segmentRange[0]);
+        args[1] = String.valueOf(segmentRange[1]);
+        int index = 2;
+        for (Map.Entry<Integer, Long> entry : seatTypeCountMap.entrySet()) {
+            args[index++] = String.valueOf(entry.getKey());
+            args[index++] = String.valueOf(entry.getValue());
+        }
+        return args;
+    }
+
+    /**
+     * 判断列车令牌是否已全部售罄
+     *
+     * @param trainId 列车 ID
+     * @return 令牌桶存在且所有 Field 均无令牌返回 true
+     */
+    public boolean isTokenEmpty(String trainId) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        List<Object> tokenList = stringRedisTemplate.opsForHash().values(getTokenBucketHashKey(trainId));
+        return !tokenList.isEmpty() && tokenList.stream().allMatch(each -> Long.parseLong(each.toString()) <= 0L);
+    }
+
+    /**
+     * 令牌不足且与数据库座位库存不一致时刷新令牌，开启令牌校正时按增量校正，否则删除令牌桶
+     *
+     * @param requestParam 购票请求参数
+     */
+    public void refreshTokenInBucket(PurchaseTicketReqDTO requestParam) {
+        if (ticketTokenBucketProperties.getReconcileEnabled()) {
+            reconcileTokens(requestParam.getTrainId());
+            return;
+        }
+        delTokenInBucket(requestParam);
+    }
 
+    /**
+     * 开启令牌校正时在扣减令牌前写入近期扣减标记，标记在静默期后过期
+     * 先写标记再扣减，校正任务不会在扣减与标记之间读到在途请求造成的偏差
+     */
+    private void markRecentTake(String trainId) {
+        if (!ticketTokenBucketProperties.getReconcileEnabled()) {
+            return;
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        stringRedisTemplate.opsForValue().set(TICKET_AVAILABILITY_TOKEN_BUCKET_RECENT_TAKE + trainId, "1", ticketTokenBucketProperties.getReconcileQuietPeriod(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 按数据库座位库存增量校正令牌桶，仅对不一致的 Field 执行 HINCRBY，令牌桶始终存在，不会引发集中重建
+     * 校正增量基于读取时的令牌计算，读取后的并发扣减、回滚不会被覆盖
+     * 已扣减令牌但尚未提交座位等在途请求同样表现为偏差，静默期内有令牌扣减的列车跳过本轮校正，
+     * 偏差需连续两轮同向出现才校正，且校正量不超过两轮偏差中的较小值
+     *
+     * @param trainId 列车 ID
+     * @return 校正的 Field 数量
+     */
+    public int reconcileTokens(String trainId) {
+        String tokenBucketHashKey = getTokenBucketHashKey(trainId);
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(TICKET_AVAILABILITY_TOKEN_BUCKET_RECENT_TAKE + trainId))) {
+            // 持续售票的列车在途请求不断，偏差无法与真实不一致区分，等待售票停歇后再校正，上一轮遗留偏差保留
+            return 0;
+        }
+        // 先查询数据库再读取令牌，两次读取之间以及尚未提交的购票只表现为单轮偏差，由下一轮确认后才校正
+        Map<String, String> expectedTokenMap = buildTokens(trainId);
+        Map<Object, Object> actualTokenMap = stringRedisTemplate.opsForHash().entries(tokenBucketHashKey);
+        if (actualTokenMap.isEmpty()) {
+            initializeTokens(trainId);
+            return 0;
+        }
+        List<String> args = new ArrayList<>();
+        long totalDrift = 0L;
+        long maxDrift = 0L;
+        for (Map.Entry<String, String> each : expectedTokenMap.entrySet()) {
+            Object actualToken = actualTokenMap.get(each.getKey());
+            long delta = Long.parseLong(each.getValue()) - (actualToken == null ? 0L : Long.parseLong(actualToken.toString()));
+            if (delta != 0L) {
+                args.add(each.getKey());
+                args.add(String.valueOf(delta));
+                totalDrift += Math.abs(delta);
+                maxDrift = Math.max(maxDrift, Math.abs(delta));
+            }
+        }
+        // 没有偏差时同样执行脚本，清空上一轮遗留偏差
+        args.add(0, String.valueOf(RECONCILE_DRIFT_EXPIRE_SECONDS));
+        DefaultRedisScript<Long> actual = Singleton.get(LUA_TICKET_AVAILABILITY_RECONCILE_TOKEN_BUCKET_PATH, () -> {
+            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TICKET_AVAILABILITY_RECONCILE_TOKEN_BUCKET_PATH)));
+            redisScript.setResultType(Long.class);
+            return redisScript;
+        });
+        Assert.notNull(actual);
+        Long adjusted = stringRedisTemplate.execute(actual, Lists.newArrayList(tokenBucketHashKey, TICKET_AVAILABILITY_TOKEN_BUCKET_RECONCILE_DRIFT + trainId), args.toArray());
+        if (adjusted == null || adjusted < 0L) {
+            // 读取后令牌桶被删除，按数据库重新初始化
+            initializeTokens(trainId);
+            return 0;
+        }
+        if (adjusted > 0L || totalDrift > 0L) {
+            log.info("列车余票令牌校正完成，列车ID：{}，校正Field数量：{}，本轮观测偏差总量：{}，最大偏差：{}", trainId, adjusted, totalDrift, maxDrift);
+        }
+        return adjusted.intValue();
+    }
+
+    /**
+     * 按数据库座位库存重建令牌桶，覆盖已有令牌，一般在未开售或令牌与数据库不一致时触发
+     *
+     * @param trainId 列车 ID
+     */
+    public void putTokenInBucket(String trainId) {
+        RLock lock = redissonClient.getLock(String.format(LOCK_TICKET_AVAILABILITY_TOKEN_BUCKET, trainId));
+        lock.lock();
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            stringRedisTemplate.opsForHash().putAll(getTokenBucketHashKey(trainId), buildTokens(trainId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 初始化令牌桶，令牌桶已存在时不做修改，可重复执行
+     *
+     * @param trainId 列车 ID
+     * @return 本次是否新建令牌桶
+     */
+    public boolean initializeTokens(String trainId) {
+        String tokenBucketHashKey = getTokenBucketHashKey(trainId);
+        if (distributedCache.hasKey(tokenBucketHashKey)) {
+            return false;
+        }
+        RLock lock = redissonClient.getLock(String.format(LOCK_TICKET_AVAILABILITY_TOKEN_BUCKET, trainId));
+        lock.lock();
+        try {
+            if (distributedCache.hasKey(tokenBucketHashKey)) {
+                return false;
+            }
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            stringRedisTemplate.opsForHash().putAll(tokenBucketHashKey, buildTokens(trainId));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 校验令牌桶与数据库座位库存是否一致，存在未完成订单时可能短暂不一致
+     *
+     * @param trainId 列车 ID
+     * @return 令牌桶存在且每个 Field 与数据库推算结果一致返回 true
+     */
+    public boolean verifyTokens(String trainId) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        Map<Object, Object> actualTokenMap = stringRedisTemplate.opsForHash().entries(getTokenBucketHashKey(trainId));
+        Map<String, String> expectedTokenMap = buildTokens(trainId);
+        if (actualTokenMap.size() != expectedTokenMap.size()) {
+            return false;
+        }
+        return expectedTokenMap.entrySet().stream()
+                .allMatch(each -> Objects.equals(each.getValue(), actualTokenMap.get(each.getKey())));
     }
 }
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.tokenbucket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketTokenBucketProperties;
+import org.opengoofy.index12306.framework.starter.common.threadpool.build.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 节点本地令牌租约池
+ * 按 列车_起始下标_结束下标_座位类型 从中心令牌桶批量租借令牌，购票优先扣减本地计数，租约耗尽后才访问 Redis
+ * 租约在有效期内耗尽时下一次租借数量翻倍，到期仍有剩余时归还中心令牌桶并从最小数量重新开始，节点关闭时归还全部租约
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+final class TicketTokenLeasePool {
+
+    private final TicketTokenBucketProperties ticketTokenBucketProperties;
+    private final TokenLeaseSource tokenLeaseSource;
+    private final Map<String, TokenLease> leaseMap = new ConcurrentHashMap<>();
+    private ScheduledExecutorService returnExecutor;
+
+    TicketTokenLeasePool(TicketTokenBucketProperties ticketTokenBucketProperties, TokenLeaseSource tokenLeaseSource) {
+        this.ticketTokenBucketProperties = ticketTokenBucketProperties;
+        this.tokenLeaseSource = tokenLeaseSource;
+    }
+
+    /**
+     * 获取乘车区段令牌，多个座位类型要么全部获取成功，要么全部退回本地租约
+     *
+     * @param trainId          列车 ID
+     * @param startIndex       起始站下标（含）
+     * @param endIndex         到达站下标（不含）
+     * @param seatTypeCountMap 座位类型 -> 购票数量
+     * @return 令牌不足的 座位类型_购票数量 集合，全部获取成功返回空集合
+     */
+    List<String> take(String trainId, int startIndex, int endIndex, Map<Integer, Long> seatTypeCountMap) {
+        Map<Integer, Long> takenMap = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Long> entry : seatTypeCountMap.entrySet()) {
+            if (!take(trainId, startIndex, endIndex, entry.getKey(), entry.getValue())) {
+                takenMap.forEach((seatType, count) -> putBack(trainId, startIndex, endIndex, seatType, count));
+                List<String> shortages = new ArrayList<>();
+                shortages.add(entry.getKey() + "_" + entry.getValue());
+                return shortages;
+            }
+            takenMap.put(entry.getKey(), entry.getValue());
+        }
+        return new ArrayList<>();
+    }
+
+    private boolean take(String trainId, int startIndex, int endIndex, Integer seatType, long count) {
+        String leaseKey = buildLeaseKey(trainId, startIndex, endIndex, seatType);
+        TokenLease lease = leaseMap.get(leaseKey);
+        if (lease != null && lease.tryTake(count)) {
+            return true;
+        }
+        int minSize = ticketTokenBucketProperties.getLeaseMinSize();
+        int leaseSize = lease == null ? minSize : Math.min(ticketTokenBucketProperties.getLeaseMaxSize(), Math.max(minSize, lease.size * 2));
+        long leaseCount = Math.max(leaseSize, count);
+        if (!tokenLeaseSource.take(trainId, startIndex, endIndex, seatType, leaseCount)) {
+            // 中心令牌不足一个租约时只获取本次购票所需数量，不在本地囤积
+            if (leaseCount == count || !tokenLeaseSource.take(trainId, startIndex, endIndex, seatType, count)) {
+                return false;
+            }
+            leaseCount = count;
+        }
+        long surplus = leaseCount - count;
+        long expireTime = System.currentTimeMillis() + ticketTokenBucketProperties.getLeaseTtl();
+        leaseMap.compute(leaseKey, (key, value) -> {
+            TokenLease actual = value == null ? new TokenLease(trainId, startIndex, endIndex, seatType) : value;
+            actual.remaining.addAndGet(surplus);
+            actual.size = leaseSize;
+            actual.expireTime = expireTime;
+            return actual;
+        });
+        return true;
+    }
+
+    private void putBack(String trainId, int startIndex, int endIndex, Integer seatType, long count) {
+        String leaseKey = buildLeaseKey(trainId, startIndex, endIndex, seatType);
+        boolean[] putBack = {false};
+        leaseMap.computeIfPresent(leaseKey, (key, value) -> {
+            value.remaining.addAndGet(count);
+            putBack[0] = true;
+            return value;
+        });
+        if (!putBack[0]) {
+            tokenLeaseSource.giveBack(trainId, startIndex, endIndex, seatType, count);
+        }
+    }
+
+    /**
+     * 开启定时归还到期租约
+     */
+    void start() {
+        returnExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder()
+                        .prefix("ticket-token-lease-return")
+                        .daemon(true)
+                        .build()
+        );
+        long interval = ticketTokenBucketProperties.getLeaseReturnInterval();
+        returnExecutor.scheduleWithFixedDelay(() -> returnLeases(false), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止定时任务并归还全部租约
+     */
+    void shutdown() {
+        if (returnExecutor != null) {
+            returnExecutor.shutdownNow();
+        }
+        returnLeases(true);
+    }
+
+    private void returnLeases(boolean all) {
+        long now = System.currentTimeMillis();
+        leaseMap.forEach((leaseKey, lease) -> {
+            if (!all && lease.expireTime > now) {
+                return;
+            }
+            // 先从租约池移除再清空剩余令牌，移除后不会再有线程向该租约追加令牌
+            if (!leaseMap.remove(leaseKey, lease)) {
+                return;
+            }
+            long remaining = lease.remaining.getAndSet(0L);
+            if (remaining <= 0L) {
+                return;
+            }
+            try {
+                tokenLeaseSource.giveBack(lease.trainId, lease.startIndex, lease.endIndex, lease.seatType, remaining);
+            } catch (Throwable ex) {
+                log.error("归还列车余票令牌租约失败，列车ID：{}，座位类型：{}，数量：{}", lease.trainId, lease.seatType, remaining, ex);
+            }
+        });
+    }
+
+    private String buildLeaseKey(String trainId, int startIndex, int endIndex, Integer seatType) {
+        return trainId + "_" + startIndex + "_" + endIndex + "_" + seatType;
+    }
+
+    /**
+     * 中心令牌桶租借以及归还令牌
+     */
+    interface TokenLeaseSource {
+
+        /**
+         * 从中心令牌桶整体扣减乘车区段令牌
+         *
+         * @return 令牌充足并扣减成功返回 true
+         */
+        boolean take(String trainId, int startIndex, int endIndex, Integer seatType, long count);
+
+        /**
+         * 向中心令牌桶归还乘车区段令牌
+         */
+        void giveBack(String trainId, int startIndex, int endIndex, Integer seatType, long count);
+    }
+
+    private static final class TokenLease {
+
+        private final String trainId;
+        private final int startIndex;
+        private final int endIndex;
+        private final Integer seatType;
+        private final AtomicLong remaining = new AtomicLong();
+        private volatile int size;
+        private volatile long expireTime;
+
+        private TokenLease(String trainId, int startIndex, int endIndex, Integer seatType) {
+            this.trainId = trainId;
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
+            this.seatType = seatType;
+        }
+
+        private boolean tryTake(long count) {
+            for (; ; ) {
+                long current = remaining.get();
+                if (current < count) {
+                    return false;
+                }
+                if (remaining.compareAndSet(current, current - count)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -19,25 +19,40 @@ package org.opengoofy.index12306.biz.ticketservice.service.impl;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
-import org.opengoofy.index12306.biz.ticketservice.common.enums.SeatStatusEnum;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.SeatDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.mapper.SeatMapper;
-import org.opengoofy.index12306.biz.ticketservice.dto.domain.RouteDTO;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.SeatSegmentMapper;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.CarriageSeatCountDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatTypeCountDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.SeatUnlockReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.service.SeatService;
 import org.opengoofy.index12306.biz.ticketservice.service.TrainStationService;
+import org.opengoofy.index12306.biz.ticketservice.service.affinity.TrainOwnerForwardClient;
+import org.opengoofy.index12306.biz.ticketservice.service.affinity.TrainOwnershipManager;
 import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayout;
+import org.opengoofy.index12306.biz.ticketservice.service.seatmap.RedisSeatBitmapStore;
+import org.opengoofy.index12306.biz.ticketservice.service.seatmap.SeatSegmentWriteCommand;
+import org.opengoofy.index12306.biz.ticketservice.service.seatmap.TrainSeatMap;
+import org.opengoofy.index12306.biz.ticketservice.service.seatmap.TrainSeatMapManager;
+import org.opengoofy.index12306.biz.ticketservice.service.seatmap.TrainSeatSnapshot;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatSegmentMaskUtil;
 import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_CARRIAGE_REMAINING_TICKET;
@@ -50,26 +65,44 @@ import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKe
 @RequiredArgsConstructor
 public class SeatServiceImpl extends ServiceImpl<SeatMapper, SeatDO> implements SeatService {
 
-    private final SeatMapper seatMapper;
+    private final SeatSegmentMapper seatSegmentMapper;
     private final TrainStationService trainStationService;
     private final DistributedCache distributedCache;
+    private final TrainSeatMapManager trainSeatMapManager;
+    private final TrainOwnershipManager trainOwnershipManager;
+    private final TrainOwnerForwardClient trainOwnerForwardClient;
+    private final RedisSeatBitmapStore redisSeatBitmapStore;
+
+    /**
+     * 是否开启内存座位图，开启后需保证同一列车的购票请求只由一个节点处理
+     */
+    @Value("${ticket.seat-map.enabled:false}")
+    private boolean seatMapEnabled;
 
     @Override
-    public List<String> listAvailableSeat(String trainId, String carriageNumber, Integer seatType, String departure, String arrival) {
-        LambdaQueryWrapper<SeatDO> queryWrapper = Wrappers.lambdaQuery(SeatDO.class)
-                .eq(SeatDO::getTrainId, trainId)
-                .eq(SeatDO::getCarriageNumber, carriageNumber)
-                .eq(SeatDO::getSeatType, seatType)
-                .eq(SeatDO::getStartStation, departure)
-                .eq(SeatDO::getEndStation, arrival)
-                .eq(SeatDO::getSeatStatus, SeatStatusEnum.AVAILABLE.getCode())
-                .select(SeatDO::getSeatNumber);
-        List<SeatDO> seatDOList = seatMapper.selectList(queryWrapper);
-        return seatDOList.stream().map(SeatDO::getSeatNumber).collect(Collectors.toList());
+    public TrainSeatSnapshot snapshot(String trainId, Integer seatType, String departure, String arrival, SeatLayout seatLayout) {
+        if (redisSeatBitmapStore.isEnabled()) {
+            return redisSeatBitmapStore.snapshot(trainId, seatType, departure, arrival);
+        }
+        if (useSeatMap(trainId)) {
+            TrainSeatMap trainSeatMap = trainSeatMapManager.get(Long.parseLong(trainId), seatType);
+            return trainSeatMap.snapshot(trainSeatMap.rangeMask(departure, arrival));
+        }
+        long rangeMask = getRangeMask(trainId, departure, arrival);
+        TrainSeatSnapshot.Builder builder = TrainSeatSnapshot.builder(seatLayout.getRows());
+        seatSegmentMapper.listAvailableSeat(Long.parseLong(trainId), seatType, rangeMask)
+                .forEach(each -> builder.add(each.getCarriageNumber(), seatLayout.parseSeatId(each.getCarriageNumber(), each.getSeatNumber())));
+        return builder.build();
     }
 
     @Override
     public List<Integer> listSeatRemainingTicket(String trainId, String departure, String arrival, List<String> trainCarriageList) {
+        if (useSeatMap(trainId)) {
+            List<Integer> result = listSeatRemainingTicketInSeatMap(trainId, departure, arrival, trainCarriageList);
+            if (result != null) {
+                return result;
+            }
+        }
         String keySuffix = StrUtil.join("_", trainId, departure, arrival);
         if (distributedCache.hasKey(TRAIN_STATION_CARRIAGE_REMAINING_TICKET + keySuffix)) {
             StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
@@ -79,64 +112,313 @@ public class SeatServiceImpl extends ServiceImpl<SeatMapper, SeatDO> implements
                 return trainStationCarriageRemainingTicket.stream().map(each -> Integer.parseInt(each.toString())).collect(Collectors.toList());
             }
         }
-        SeatDO seatDO = SeatDO.builder()
-                .trainId(Long.parseLong(trainId))
-                .startStation(departure)
-                .endStation(arrival)
-                .build();
-        return seatMapper.listSeatRemainingTicket(seatDO, trainCarriageList);
+        long rangeMask = getRangeMask(trainId, departure, arrival);
+        Map<String, Integer> carriageSeatCountMap = seatSegmentMapper.listCarriageSeatCount(Long.parseLong(trainId), rangeMask, trainCarriageList).stream()
+                .collect(Collectors.toMap(CarriageSeatCountDTO::getCarriageNumber, CarriageSeatCountDTO::getSeatCount));
+        return trainCarriageList.stream()
+                .map(each -> carriageSeatCountMap.getOrDefault(each, 0))
+                .collect(Collectors.toList());
     }
 
     @Override
     public List<String> listUsableCarriageNumber(String trainId, Integer carriageType, String departure, String arrival) {
-        LambdaQueryWrapper<SeatDO> queryWrapper = Wrappers.lambdaQuery(SeatDO.class)
-                .eq(SeatDO::getTrainId, trainId)
-                .eq(SeatDO::getSeatType, carriageType)
-                .eq(SeatDO::getStartStation, departure)
-                .eq(SeatDO::getEndStation, arrival)
-                .eq(SeatDO::getSeatStatus, SeatStatusEnum.AVAILABLE.getCode())
-                .groupBy(SeatDO::getCarriageNumber)
-                .select(SeatDO::getCarriageNumber);
-        List<SeatDO> seatDOList = seatMapper.selectList(queryWrapper);
-        return seatDOList.stream().map(SeatDO::getCarriageNumber).collect(Collectors.toList());
+        if (useSeatMap(trainId)) {
+            TrainSeatMap trainSeatMap = trainSeatMapManager.get(Long.parseLong(trainId), carriageType);
+            return trainSeatMap.listUsableCarriageNumber(trainSeatMap.rangeMask(departure, arrival));
+        }
+        long rangeMask = getRangeMask(trainId, departure, arrival);
+        return seatSegmentMapper.listUsableCarriageNumber(Long.parseLong(trainId), carriageType, rangeMask);
     }
 
     @Override
     public List<SeatTypeCountDTO> listSeatTypeCount(Long trainId, String startStation, String endStation, List<Integer> seatTypes) {
-        return seatMapper.listSeatTypeCount(trainId, startStation, endStation, seatTypes);
+        if (useSeatMap(String.valueOf(trainId))) {
+            List<SeatTypeCountDTO> result = new ArrayList<>();
+            for (Integer each : seatTypes) {
+                TrainSeatMap trainSeatMap = trainSeatMapManager.get(trainId, each);
+                int seatCount = trainSeatMap.countAvailable(trainSeatMap.rangeMask(startStation, endStation));
+                if (seatCount > 0) {
+                    result.add(new SeatTypeCountDTO(each, seatCount));
+                }
+            }
+            return result;
+        }
+        long rangeMask = getRangeMask(String.valueOf(trainId), startStation, endStation);
+        return seatSegmentMapper.listSeatTypeCount(trainId, rangeMask, seatTypes);
     }
 
     @Override
     public void lockSeat(String trainId, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketRespList) {
-        List<RouteDTO> routeList = trainStationService.listTakeoutTrainStationRoute(trainId, departure, arrival);
-        trainPurchaseTicketRespList.forEach(each -> routeList.forEach(item -> {
-            LambdaUpdateWrapper<SeatDO> updateWrapper = Wrappers.lambdaUpdate(SeatDO.class)
-                    .eq(SeatDO::getTrainId, trainId)
-                    .eq(SeatDO::getCarriageNumber, each.getCarriageNumber())
-                    .eq(SeatDO::getStartStation, item.getStartStation())
-                    .eq(SeatDO::getEndStation, item.getEndStation())
-                    .eq(SeatDO::getSeatNumber, each.getSeatNumber());
-            SeatDO updateSeatDO = SeatDO.builder()
-                    .seatStatus(SeatStatusEnum.LOCKED.getCode())
-                    .build();
-            seatMapper.update(updateSeatDO, updateWrapper);
-        }));
+        if (redisSeatBitmapStore.isEnabled()) {
+            lockSeatInRedis(trainId, departure, arrival, trainPurchaseTicketRespList);
+            return;
+        }
+        if (useSeatMap(trainId)) {
+            lockSeatInSeatMap(trainId, departure, arrival, trainPurchaseTicketRespList);
+            return;
+        }
+        long rangeMask = getRangeMask(trainId, departure, arrival);
+        occupyInDatabase(trainPurchaseTicketRespList.stream()
+                .map(each -> buildWriteCommand(trainId, each, rangeMask, true))
+                .collect(Collectors.toList()));
     }
 
     @Override
     public void unlock(String trainId, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
-        List<RouteDTO> routeList = trainStationService.listTakeoutTrainStationRoute(trainId, departure, arrival);
-        trainPurchaseTicketResults.forEach(each -> routeList.forEach(item -> {
-            LambdaUpdateWrapper<SeatDO> updateWrapper = Wrappers.lambdaUpdate(SeatDO.class)
-                    .eq(SeatDO::getTrainId, trainId)
-                    .eq(SeatDO::getCarriageNumber, each.getCarriageNumber())
-                    .eq(SeatDO::getStartStation, item.getStartStation())
-                    .eq(SeatDO::getEndStation, item.getEndStation())
-                    .eq(SeatDO::getSeatNumber, each.getSeatNumber());
-            SeatDO updateSeatDO = SeatDO.builder()
-                    .seatStatus(SeatStatusEnum.AVAILABLE.getCode())
-                    .build();
-            seatMapper.update(updateSeatDO, updateWrapper);
-        }));
+        if (redisSeatBitmapStore.isEnabled()) {
+            unlockInRedis(trainId, departure, arrival, trainPurchaseTicketResults);
+            return;
+        }
+        if (seatMapEnabled && trainOwnershipManager.isEnabled()) {
+            // 座位图只在列车归属节点内存中维护，解锁操作需交由归属节点执行
+            trainOwnershipManager.execute(
+                    trainId,
+                    false,
+                    () -> {
+                        unlockInSeatMap(trainId, departure, arrival, trainPurchaseTicketResults);
+                        return null;
+                    },
+                    owner -> {
+                        trainOwnerForwardClient.unlockSeat(owner, new SeatUnlockReqDTO(trainId, departure, arrival, trainPurchaseTicketResults));
+                        return null;
+                    }
+            );
+            return;
+        }
+        if (seatMapEnabled) {
+            unlockInSeatMap(trainId, departure, arrival, trainPurchaseTicketResults);
+            return;
+        }
+        long rangeMask = getRangeMask(trainId, departure, arrival);
+        trainPurchaseTicketResults.forEach(each ->
+                seatSegmentMapper.releaseSeatSegment(Long.parseLong(trainId), each.getCarriageNumber(), each.getSeatNumber(), rangeMask));
+    }
+
+    @Override
+    public void unlockOnOwner(SeatUnlockReqDTO requestParam) {
+        String trainId = requestParam.getTrainId();
+        trainOwnershipManager.execute(
+                trainId,
+                true,
+                () -> {
+                    unlockInSeatMap(trainId, requestParam.getDeparture(), requestParam.getArrival(), requestParam.getTrainPurchaseTicketResults());
+                    return null;
+                },
+                null
+        );
+    }
+
+    /**
+     * 开启列车归属节点路由后，只有归属节点的座位图是权威数据，其余节点回退到数据库查询
+     */
+    private boolean useSeatMap(String trainId) {
+        return seatMapEnabled && !redisSeatBitmapStore.isEnabled() && (!trainOwnershipManager.isEnabled() || trainOwnershipManager.isLocalOwner(trainId));
+    }
+
+    /**
+     * 从已加载的座位图统计车厢余票，车厢号在列车内唯一
+     * 存在未被已加载座位图覆盖的车厢时返回 null，由缓存或数据库统计，避免将未加载座位类型的车厢误判为无票
+     */
+    private List<Integer> listSeatRemainingTicketInSeatMap(String trainId, String departure, String arrival, List<String> trainCarriageList) {
+        List<TrainSeatMap> trainSeatMaps = trainSeatMapManager.listLoaded(Long.parseLong(trainId));
+        if (CollUtil.isEmpty(trainSeatMaps)) {
+            return null;
+        }
+        long rangeMask = trainSeatMaps.get(0).rangeMask(departure, arrival);
+        List<Integer> result = new ArrayList<>(trainCarriageList.size());
+        for (String each : trainCarriageList) {
+            TrainSeatMap trainSeatMap = trainSeatMaps.stream()
+                    .filter(item -> item.containsCarriage(each))
+                    .findFirst()
+                    .orElse(null);
+            if (trainSeatMap == null) {
+                return null;
+            }
+            result.add(trainSeatMap.countAvailable(each, rangeMask));
+        }
+        return result;
+    }
+
+    private void lockSeatInRedis(String trainId, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketRespList) {
+        Map<Integer, List<TrainPurchaseTicketRespDTO>> seatTypeMap = trainPurchaseTicketRespList.stream()
+                .collect(Collectors.groupingBy(TrainPurchaseTicketRespDTO::getSeatType, LinkedHashMap::new, Collectors.toList()));
+        List<Map.Entry<Integer, List<TrainPurchaseTicketRespDTO>>> claimedList = new ArrayList<>(seatTypeMap.size());
+        for (Map.Entry<Integer, List<TrainPurchaseTicketRespDTO>> each : seatTypeMap.entrySet()) {
+            try {
+                redisSeatBitmapStore.claim(trainId, each.getKey(), departure, arrival, each.getValue());
+            } catch (RuntimeException ex) {
+                claimedList.forEach(item -> redisSeatBitmapStore.release(trainId, item.getKey(), departure, arrival, item.getValue()));
+                throw ex;
+            }
+            claimedList.add(each);
+        }
+        long rangeMask = redisSeatBitmapStore.rangeMask(trainId, departure, arrival);
+        List<SeatSegmentWriteCommand> occupiedCommands = trainPurchaseTicketRespList.stream()
+                .map(each -> buildWriteCommand(trainId, each, rangeMask, true))
+                .collect(Collectors.toList());
+        Runnable releaseClaims = () -> claimedList.forEach(item -> redisSeatBitmapStore.release(trainId, item.getKey(), departure, arrival, item.getValue()));
+        // Redis 中立即占用座位，区段占用与订单在同一事务内写入 MySQL，MySQL 条件更新失败或事务回滚则释放 Redis 占用
+        SeatSegmentWriteCommand conflict;
+        try {
+            conflict = tryOccupyInDatabase(occupiedCommands);
+        } catch (RuntimeException ex) {
+            releaseClaims.run();
+            throw ex;
+        }
+        if (conflict != null) {
+            releaseClaims.run();
+            // Redis 占用成功而 MySQL 拒绝，说明位图落后于 MySQL，事务结束后按 MySQL 最新区段位图补回该座位
+            Runnable repair = () -> redisSeatBitmapStore.repair(trainId, conflict.getSeatType(), conflict.getCarriageNumber(), conflict.getSeatNumber());
+            afterTransactionCompletion(repair, repair);
+            throw seatOccupied(conflict);
+        }
+        afterTransactionCompletion(
+                () -> {
+                },
+                releaseClaims
+        );
+    }
+
+    private void unlockInRedis(String trainId, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        long rangeMask = redisSeatBitmapStore.rangeMask(trainId, departure, arrival);
+        List<SeatSegmentWriteCommand> releasedCommands = trainPurchaseTicketResults.stream()
+                .map(each -> buildWriteCommand(trainId, each, rangeMask, false))
+                .collect(Collectors.toList());
+        releaseInDatabase(releasedCommands);
+        afterTransactionCompletion(
+                () -> trainPurchaseTicketResults.stream()
+                        .collect(Collectors.groupingBy(TrainPurchaseTicketRespDTO::getSeatType))
+                        .forEach((seatType, seats) -> redisSeatBitmapStore.release(trainId, seatType, departure, arrival, seats)),
+                () -> {
+                }
+        );
+    }
+
+    private void lockSeatInSeatMap(String trainId, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketRespList) {
+        List<SeatSegmentWriteCommand> occupiedCommands = new ArrayList<>(trainPurchaseTicketRespList.size());
+        for (TrainPurchaseTicketRespDTO each : trainPurchaseTicketRespList) {
+            TrainSeatMap trainSeatMap = trainSeatMapManager.get(Long.parseLong(trainId), each.getSeatType());
+            long rangeMask = trainSeatMap.rangeMask(departure, arrival);
+            boolean occupied = each.getSeatId() != null
+                    ? trainSeatMap.tryOccupy(each.getSeatId(), rangeMask)
+                    : trainSeatMap.tryOccupy(each.getCarriageNumber(), each.getSeatNumber(), rangeMask);
+            if (!occupied) {
+                releaseInSeatMap(occupiedCommands);
+                throw new ServiceException(String.format("车厢 %s 座位 %s 已被占用，请重新购票", each.getCarriageNumber(), each.getSeatNumber()));
+            }
+            occupiedCommands.add(buildWriteCommand(trainId, each, rangeMask, true));
+        }
+        // 内存中立即占用座位，区段占用与订单在同一事务内写入 MySQL，MySQL 条件更新失败或事务回滚则释放内存占用
+        try {
+            occupyInDatabase(occupiedCommands);
+        } catch (RuntimeException ex) {
+            releaseInSeatMap(occupiedCommands);
+            throw ex;
+        }
+        afterTransactionCompletion(
+                () -> {
+                },
+                () -> releaseInSeatMap(occupiedCommands)
+        );
+    }
+
+    private void unlockInSeatMap(String trainId, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        List<SeatSegmentWriteCommand> releasedCommands = new ArrayList<>(trainPurchaseTicketResults.size());
+        for (TrainPurchaseTicketRespDTO each : trainPurchaseTicketResults) {
+            TrainSeatMap trainSeatMap = trainSeatMapManager.get(Long.parseLong(trainId), each.getSeatType());
+            releasedCommands.add(buildWriteCommand(trainId, each, trainSeatMap.rangeMask(departure, arrival), false));
+        }
+        releaseInDatabase(releasedCommands);
+        // 内存释放在事务提交后生效，避免事务回滚后座位被提前放出
+        afterTransactionCompletion(
+                () -> releaseInSeatMap(releasedCommands),
+                () -> {
+                }
+        );
+    }
+
+    /**
+     * 在当前事务内占用 MySQL 座位区段，区段已被占用时释放本次已占用的区段并抛出异常
+     * 条件更新是座位占用的最终校验，内存座位图或 Redis 位图重建后与数据库短暂不一致也不会超卖
+     */
+    private void occupyInDatabase(List<SeatSegmentWriteCommand> commands) {
+        SeatSegmentWriteCommand conflict = tryOccupyInDatabase(commands);
+        if (conflict != null) {
+            throw seatOccupied(conflict);
+        }
+    }
+
+    /**
+     * 在当前事务内占用 MySQL 座位区段，参考 {@link #occupyInDatabase(List)}
+     *
+     * @return 全部占用成功返回 null，否则返回已被占用的座位，本次已占用的区段已释放
+     */
+    private SeatSegmentWriteCommand tryOccupyInDatabase(List<SeatSegmentWriteCommand> commands) {
+        List<SeatSegmentWriteCommand> occupiedList = new ArrayList<>(commands.size());
+        for (SeatSegmentWriteCommand each : commands) {
+            int updated = seatSegmentMapper.occupySeatSegment(each.getTrainId(), each.getCarriageNumber(), each.getSeatNumber(), each.getRangeMask());
+            if (updated <= 0) {
+                // 占用失败需要释放当前请求已占用的座位，调用方捕获异常后继续使用当前事务时不会残留部分占用
+                releaseInDatabase(occupiedList);
+                return each;
+            }
+            occupiedList.add(each);
+        }
+        return null;
+    }
+
+    private static ServiceException seatOccupied(SeatSegmentWriteCommand command) {
+        return new ServiceException(String.format("车厢 %s 座位 %s 已被占用，请重新购票", command.getCarriageNumber(), command.getSeatNumber()));
+    }
+
+    private void releaseInDatabase(List<SeatSegmentWriteCommand> commands) {
+        commands.forEach(each ->
+                seatSegmentMapper.releaseSeatSegment(each.getTrainId(), each.getCarriageNumber(), each.getSeatNumber(), each.getRangeMask()));
+    }
+
+    private void releaseInSeatMap(List<SeatSegmentWriteCommand> commands) {
+        commands.forEach(each -> {
+            TrainSeatMap trainSeatMap = trainSeatMapManager.get(each.getTrainId(), each.getSeatType());
+            if (each.getSeatId() != null) {
+                trainSeatMap.release(each.getSeatId(), each.getRangeMask());
+            } else {
+                trainSeatMap.release(each.getCarriageNumber(), each.getSeatNumber(), each.getRangeMask());
+            }
+        });
+    }
+
+    private SeatSegmentWriteCommand buildWriteCommand(String trainId, TrainPurchaseTicketRespDTO trainPurchaseTicketResp, long rangeMask, boolean occupy) {
+        return SeatSegmentWriteCommand.builder()
+                .trainId(Long.parseLong(trainId))
+                .seatType(trainPurchaseTicketResp.getSeatType())
+                .carriageNumber(trainPurchaseTicketResp.getCarriageNumber())
+                .seatNumber(trainPurchaseTicketResp.getSeatNumber())
+                .seatId(trainPurchaseTicketResp.getSeatId())
+                .rangeMask(rangeMask)
+                .occupy(occupy)
+                .build();
+    }
+
+    private void afterTransactionCompletion(Runnable committedAction, Runnable rolledBackAction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committedAction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCompletion(int status) {
+                if (Objects.equals(status, STATUS_COMMITTED)) {
+                    committedAction.run();
+                } else {
+                    rolledBackAction.run();
+                }
+            }
+        });
+    }
+
+    private long getRangeMask(String trainId, String departure, String arrival) {
+        List<String> trainStationAllList = trainStationService.listTrainStationAll(trainId);
+        return SeatSegmentMaskUtil.rangeMask(trainStationAllList, departure, arrival);
     }
 }
@@ -34,7 +34,7 @@ import org.opengoofy.index12306.biz.ticketservice.common.enums.RefundTypeEnum;
 import org.opengoofy.index12306.biz.ticketservice.common.enums.SourceEnum;
 import org.opengoofy.index12306.biz.ticketservice.common.enums.TicketChainMarkEnum;
 import org.opengoofy.index12306.biz.ticketservice.common.enums.TicketStatusEnum;
-import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketBatchQueryProperties;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.StationDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.TicketDO;
 import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
@@ -49,16 +49,23 @@ import org.opengoofy.index12306.biz.ticketservice.dto.domain.PurchaseTicketPasse
 import org.opengoofy.index12306.biz.ticketservice.dto.domain.RouteDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatClassDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatTypeCountDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketBatchQueryResultDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketAvailabilityChangeDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TrainStationPriceCacheDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.CancelTicketOrderReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.RefundTicketReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketBatchQueryReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketOrderItemQueryReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketPageQueryReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketTransferQueryReqDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.resp.RefundTicketRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketBatchQueryRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketOrderDetailRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPageQueryRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketTransferQueryRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.remote.PayRemoteService;
 import org.opengoofy.index12306.biz.ticketservice.remote.TicketOrderRemoteService;
 import org.opengoofy.index12306.biz.ticketservice.remote.dto.PayInfoRespDTO;
@@ -70,17 +77,35 @@ import org.opengoofy.index12306.biz.ticketservice.remote.dto.TicketOrderPassenge
 import org.opengoofy.index12306.biz.ticketservice.service.SeatService;
 import org.opengoofy.index12306.biz.ticketservice.service.TicketService;
 import org.opengoofy.index12306.biz.ticketservice.service.TrainStationService;
-import org.opengoofy.index12306.biz.ticketservice.service.cache.SeatMarginCacheLoader;
+import org.opengoofy.index12306.biz.ticketservice.service.affinity.TrainOwnerForwardClient;
+import org.opengoofy.index12306.biz.ticketservice.service.affinity.TrainOwnerOutcomeUnknownException;
+import org.opengoofy.index12306.biz.ticketservice.service.batch.PurchaseTicketsBatchCoalescer;
+import org.opengoofy.index12306.biz.ticketservice.service.batch.PurchaseTicketsBatchItem;
+import org.opengoofy.index12306.biz.ticketservice.service.affinity.TrainOwnershipManager;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.StationRegionIndex;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.StationRegionIndexCache;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailability;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailabilityKey;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailabilityReader;
 import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.TokenResultDTO;
 import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
 import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.select.TrainSeatTypeSelector;
 import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
+import org.opengoofy.index12306.biz.ticketservice.service.push.TicketAvailabilityPublisher;
+import org.opengoofy.index12306.biz.ticketservice.service.search.TicketSearchFilter;
+import org.opengoofy.index12306.biz.ticketservice.service.search.TicketSearchResultCache;
+import org.opengoofy.index12306.biz.ticketservice.service.search.TicketTransferSearchService;
+import org.opengoofy.index12306.biz.ticketservice.service.seatmap.RedisSeatBitmapStore;
+import org.opengoofy.index12306.biz.ticketservice.service.waitingroom.TicketWaitingRoomService;
 import org.opengoofy.index12306.biz.ticketservice.toolkit.DateUtil;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.MinuteOfDayUtil;
 import org.opengoofy.index12306.biz.ticketservice.toolkit.TimeStringComparator;
 import org.opengoofy.index12306.framework.starter.bases.ApplicationContextHolder;
+import org.opengoofy.index12306.framework.starter.cache.CacheValueCodecRegistry;
 import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
 import org.opengoofy.index12306.framework.starter.cache.toolkit.CacheUtil;
 import org.opengoofy.index12306.framework.starter.common.toolkit.BeanUtil;
+import org.opengoofy.index12306.framework.starter.convention.exception.ClientException;
 import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
 import org.opengoofy.index12306.framework.starter.convention.result.Result;
 import org.opengoofy.index12306.framework.starter.designpattern.chain.AbstractChainContext;
@@ -96,15 +121,24 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -114,7 +148,9 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.Index12306Constant.ADVANCE_TICKET_DAY;
 import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.LOCK_PURCHASE_TICKETS;
@@ -148,13 +184,25 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
     private final SeatService seatService;
     private final TrainStationService trainStationService;
     private final TrainSeatTypeSelector trainSeatTypeSelector;
-    private final SeatMarginCacheLoader seatMarginCacheLoader;
     private final AbstractChainContext<TicketPageQueryReqDTO> ticketPageQueryAbstractChainContext;
     private final AbstractChainContext<PurchaseTicketReqDTO> purchaseTicketAbstractChainContext;
     private final AbstractChainContext<RefundTicketReqDTO> refundReqDTOAbstractChainContext;
     private final RedissonClient redissonClient;
     private final ConfigurableEnvironment environment;
     private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
+    private final TicketWaitingRoomService ticketWaitingRoomService;
+    private final TrainOwnershipManager trainOwnershipManager;
+    private final TrainOwnerForwardClient trainOwnerForwardClient;
+    private final PurchaseTicketsBatchCoalescer purchaseTicketsBatchCoalescer;
+    private final RedisSeatBitmapStore redisSeatBitmapStore;
+    private final TicketSearchResultCache ticketSearchResultCache;
+    private final TicketTransferSearchService ticketTransferSearchService;
+    private final TicketAvailabilityReader ticketAvailabilityReader;
+    private final TicketAvailabilityPublisher ticketAvailabilityPublisher;
+    private final CacheValueCodecRegistry cacheValueCodecRegistry;
+    private final TicketBatchQueryProperties ticketBatchQueryProperties;
+    private final StationRegionIndexCache stationRegionIndexCache;
+    private final PlatformTransactionManager transactionManager;
     private TicketService ticketService;
 
     @Value("${ticket.availability.cache-update.type:}")
@@ -166,9 +214,45 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
     public TicketPageQueryRespDTO pageListTicketQueryV1(TicketPageQueryReqDTO requestParam) {
         // 责任链模式 验证城市名称是否存在、不存在加载缓存以及出发日期不能小于当前日期等等
         ticketPageQueryAbstractChainContext.handler(TicketChainMarkEnum.TRAIN_QUERY_FILTER.name(), requestParam);
-        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        if (ticketSearchResultCache.isEnabled()) {
+            // 静态结果常驻本地缓存，仅余票数量每次查询批量读取
+            return ticketSearchResultCache.query(requestParam, () -> loadStationRegions(requestParam), this::loadSearchTicketList);
+        }
         // 列车查询逻辑较为复杂，详细解析文章查看 https://nageoffer.com/12306/question
         // v1 版本存在严重的性能深渊问题，v2 版本完美的解决了该问题。通过 Jmeter 压测聚合报告得知，性能提升在 300% - 500%+
+        List<Object> stationDetails = loadStationRegions(requestParam);
+        List<TicketListDTO> seatResults = loadRegionTicketList(stationDetails);
+        List<List<TrainStationPriceDO>> trainStationPriceList = new ArrayList<>(seatResults.size());
+        List<TicketAvailabilityKey> availabilityKeys = new ArrayList<>();
+        for (TicketListDTO each : seatResults) {
+            List<TrainStationPriceDO> trainStationPriceDOList = loadTrainStationPrice(each);
+            trainStationPriceList.add(trainStationPriceDOList);
+            trainStationPriceDOList.forEach(item -> availabilityKeys.add(buildAvailabilityKey(item)));
+        }
+        // 整页余票一次批量读取，未命中的按列车一次回填
+        TicketAvailability ticketAvailability = ticketAvailabilityReader.read(availabilityKeys);
+        for (int i = 0; i < seatResults.size(); i++) {
+            List<SeatClassDTO> seatClassList = new ArrayList<>();
+            trainStationPriceList.get(i).forEach(item -> seatClassList.add(new SeatClassDTO(
+                    item.getSeatType(),
+                    ticketAvailability.getQuantity(buildAvailabilityKey(item)),
+                    new BigDecimal(item.getPrice()).divide(new BigDecimal("100"), 1, RoundingMode.HALF_UP),
+                    false
+            )));
+            seatResults.get(i).setSeatClassList(seatClassList);
+        }
+        return buildTicketPageQueryResp(requestParam, seatResults);
+    }
+
+    /**
+     * 获取出发地、目的地所属地区，缓存不存在时从车站表加载
+     */
+    private List<Object> loadStationRegions(TicketPageQueryReqDTO requestParam) {
+        List<Object> indexedStationDetails = resolveStationRegionsByIndex(requestParam.getFromStation(), requestParam.getToStation());
+        if (indexedStationDetails != null) {
+            return indexedStationDetails;
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
         List<Object> stationDetails = stringRedisTemplate.opsForHash()
                 .multiGet(REGION_TRAIN_STATION_MAPPING, Lists.newArrayList(requestParam.getFromStation(), requestParam.getToStation()));
         long count = stationDetails.stream().filter(Objects::isNull).count();
@@ -192,15 +276,38 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
                 lock.unlock();
             }
         }
-        List<TicketListDTO> seatResults = new ArrayList<>();
+        return stationDetails;
+    }
+
+    /**
+     * 通过本地车站地区常驻索引解析出发地、目的地所属地区
+     *
+     * @return 索引未开启、尚未加载或车站不在索引中时返回 null，由调用方回退 Redis 查询
+     */
+    private List<Object> resolveStationRegionsByIndex(String fromStation, String toStation) {
+        StationRegionIndex stationRegionIndex = stationRegionIndexCache.get();
+        if (stationRegionIndex == null) {
+            return null;
+        }
+        String fromRegion = stationRegionIndex.getRegionName(fromStation);
+        String toRegion = stationRegionIndex.getRegionName(toStation);
+        return fromRegion == null || toRegion == null ? null : Lists.newArrayList(fromRegion, toRegion);
+    }
+
+    /**
+     * 获取出发地区到目的地区的车次集合，按出发时间排序，缓存不存在时从列车站点关系表加载
+     */
+    private List<TicketListDTO> loadRegionTicketList(List<Object> stationDetails) {
         String buildRegionTrainStationHashKey = String.format(REGION_TRAIN_STATION, stationDetails.get(0), stationDetails.get(1));
-        Map<Object, Object> regionTrainStationAllMap = stringRedisTemplate.opsForHash().entries(buildRegionTrainStationHashKey);
-        if (MapUtil.isEmpty(regionTrainStationAllMap)) {
+        List<TicketListDTO> seatResults = readRegionTicketList(buildRegionTrainStationHashKey);
+        if (CollUtil.isEmpty(seatResults)) {
             RLock lock = redissonClient.getLock(LOCK_REGION_TRAIN_STATION);
             lock.lock();
             try {
-                regionTrainStationAllMap = stringRedisTemplate.opsForHash().entries(buildRegionTrainStationHashKey);
-                if (MapUtil.isEmpty(regionTrainStationAllMap)) {
+                seatResults = readRegionTicketList(buildRegionTrainStationHashKey);
+                if (CollUtil.isEmpty(seatResults)) {
+                    seatResults = new ArrayList<>();
+                    Map<byte[], byte[]> regionTrainStationAllMap = new HashMap<>();
                     LambdaQueryWrapper<TrainStationRelationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationRelationDO.class)
                             .eq(TrainStationRelationDO::getStartRegion, stationDetails.get(0))
                             .eq(TrainStationRelationDO::getEndRegion, stationDetails.get(1));
@@ -218,6 +325,7 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
                         result.setDepartureTime(convertDateToLocalTime(each.getDepartureTime(), "HH:mm"));
                         result.setArrivalTime(convertDateToLocalTime(each.getArrivalTime(), "HH:mm"));
                         result.setDuration(DateUtil.calculateHourDifference(each.getDepartureTime(), each.getArrivalTime()));
+                        MinuteOfDayUtil.fill(result);
                         result.setDeparture(each.getDeparture());
                         result.setArrival(each.getArrival());
                         result.setDepartureFlag(each.getDepartureFlag());
@@ -232,51 +340,121 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
                         result.setSaleStatus(new Date().after(trainDO.getSaleTime()) ? 0 : 1);
                         result.setSaleTime(convertDateToLocalTime(trainDO.getSaleTime(), "MM-dd HH:mm"));
                         seatResults.add(result);
-                        regionTrainStationAllMap.put(CacheUtil.buildKey(String.valueOf(each.getTrainId()), each.getDeparture(), each.getArrival()), JSON.toJSONString(result));
+                        String hashField = CacheUtil.buildKey(String.valueOf(each.getTrainId()), each.getDeparture(), each.getArrival());
+                        regionTrainStationAllMap.put(hashField.getBytes(StandardCharsets.UTF_8), encodeCacheValue(result));
+                    }
+                    if (MapUtil.isNotEmpty(regionTrainStationAllMap)) {
+                        byte[] rawKey = (cacheRedisPrefix + buildRegionTrainStationHashKey).getBytes();
+                        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+                        stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+                            connection.hashCommands().hMSet(rawKey, regionTrainStationAllMap);
+                            return null;
+                        });
                     }
-                    stringRedisTemplate.opsForHash().putAll(buildRegionTrainStationHashKey, regionTrainStationAllMap);
                 }
             } finally {
                 lock.unlock();
             }
         }
-        seatResults = CollUtil.isEmpty(seatResults)
-                ? regionTrainStationAllMap.values().stream().map(each -> JSON.parseObject(each.toString(), TicketListDTO.class)).toList()
-                : seatResults;
-        seatResults = seatResults.stream().sorted(new TimeStringComparator()).toList();
+        return seatResults.stream().sorted(new TimeStringComparator()).toList();
+    }
+
+    /**
+     * 读取出发地区到目的地区的车次缓存，Hash Value 兼容二进制与 JSON 两种格式
+     *
+     * @return 缓存不存在时返回空集合；存在无法解码的车次时返回 null，由调用方重建
+     */
+    private List<TicketListDTO> readRegionTicketList(String regionTrainStationHashKey) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        byte[] rawKey = (cacheRedisPrefix + regionTrainStationHashKey).getBytes();
+        Map<byte[], byte[]> regionTrainStationAllMap = stringRedisTemplate.execute(
+                (RedisCallback<Map<byte[], byte[]>>) connection -> connection.hashCommands().hGetAll(rawKey));
+        if (MapUtil.isEmpty(regionTrainStationAllMap)) {
+            return new ArrayList<>();
+        }
+        List<TicketListDTO> result = new ArrayList<>(regionTrainStationAllMap.size());
+        for (byte[] each : regionTrainStationAllMap.values()) {
+            TicketListDTO ticketListDTO = cacheValueCodecRegistry.decode(each, TicketListDTO.class);
+            if (ticketListDTO == null) {
+                return null;
+            }
+            result.add(MinuteOfDayUtil.fill(ticketListDTO));
+        }
+        return result;
+    }
+
+    /**
+     * 按缓存值编解码配置编码，未开启二进制写入时回退为 JSON
+     */
+    private byte[] encodeCacheValue(Object value) {
+        byte[] encoded = cacheValueCodecRegistry.encode(value);
+        return encoded != null ? encoded : JSON.toJSONBytes(value);
+    }
+
+    /**
+     * 获取车次出发站到到达站的各席别价格
+     */
+    private List<TrainStationPriceDO> loadTrainStationPrice(TicketListDTO each) {
+        TrainStationPriceCacheDTO trainStationPriceCache = distributedCache.safeGet(
+                String.format(TRAIN_STATION_PRICE, each.getTrainId(), each.getDeparture(), each.getArrival()),
+                TrainStationPriceCacheDTO.class,
+                () -> {
+                    LambdaQueryWrapper<TrainStationPriceDO> trainStationPriceQueryWrapper = Wrappers.lambdaQuery(TrainStationPriceDO.class)
+                            .eq(TrainStationPriceDO::getDeparture, each.getDeparture())
+                            .eq(TrainStationPriceDO::getArrival, each.getArrival())
+                            .eq(TrainStationPriceDO::getTrainId, each.getTrainId());
+                    return new TrainStationPriceCacheDTO(trainStationPriceMapper.selectList(trainStationPriceQueryWrapper));
+                },
+                ADVANCE_TICKET_DAY,
+                TimeUnit.DAYS
+        );
+        return trainStationPriceCache == null || trainStationPriceCache.getPriceList() == null
+                ? Collections.emptyList()
+                : trainStationPriceCache.getPriceList();
+    }
+
+    /**
+     * 构建车票查询静态结果，席别集合仅包含席别类型以及价格，余票数量由查询时合并
+     */
+    private List<TicketListDTO> loadSearchTicketList(List<Object> stationDetails) {
+        List<TicketListDTO> seatResults = loadRegionTicketList(stationDetails);
         for (TicketListDTO each : seatResults) {
-            String trainStationPriceStr = distributedCache.safeGet(
-                    String.format(TRAIN_STATION_PRICE, each.getTrainId(), each.getDeparture(), each.getArrival()),
-                    String.class,
-                    () -> {
-                        LambdaQueryWrapper<TrainStationPriceDO> trainStationPriceQueryWrapper = Wrappers.lambdaQuery(TrainStationPriceDO.class)
-                                .eq(TrainStationPriceDO::getDeparture, each.getDeparture())
-                                .eq(TrainStationPriceDO::getArrival, each.getArrival())
-                                .eq(TrainStationPriceDO::getTrainId, each.getTrainId());
-                        return JSON.toJSONString(trainStationPriceMapper.selectList(trainStationPriceQueryWrapper));
-                    },
-                    ADVANCE_TICKET_DAY,
-                    TimeUnit.DAYS
-            );
-            List<TrainStationPriceDO> trainStationPriceDOList = JSON.parseArray(trainStationPriceStr, TrainStationPriceDO.class);
-            List<SeatClassDTO> seatClassList = new ArrayList<>();
-            trainStationPriceDOList.forEach(item -> {
-                String seatType = String.valueOf(item.getSeatType());
-                String keySuffix = StrUtil.join("_", each.getTrainId(), item.getDeparture(), item.getArrival());
-                Object quantityObj = stringRedisTemplate.opsForHash().get(TRAIN_STATION_REMAINING_TICKET + keySuffix, seatType);
-                int quantity = Optional.ofNullable(quantityObj)
-                        .map(Object::toString)
-                        .map(Integer::parseInt)
-                        .orElseGet(() -> {
-                            Map<String, String> seatMarginMap = seatMarginCacheLoader.load(String.valueOf(each.getTrainId()), seatType, item.getDeparture(), item.getArrival());
-                            return Optional.ofNullable(seatMarginMap.get(String.valueOf(item.getSeatType()))).map(Integer::parseInt).orElse(0);
-                        });
-                seatClassList.add(new SeatClassDTO(item.getSeatType(), quantity, new BigDecimal(item.getPrice()).divide(new BigDecimal("100"), 1, RoundingMode.HALF_UP), false));
-            });
+            List<SeatClassDTO> seatClassList = loadTrainStationPrice(each).stream()
+                    .map(item -> SeatClassDTO.builder()
+                            .type(item.getSeatType())
+                            .price(new BigDecimal(item.getPrice()).divide(new BigDecimal("100"), 1, RoundingMode.HALF_UP))
+                            .build())
+                    .toList();
             each.setSeatClassList(seatClassList);
         }
+        return seatResults;
+    }
+
+    /**
+     * 管道批量获取多个车次区间的席别价格，与入参顺序一一对应，缓存缺失或无法解码时回源重建
+     */
+    private List<List<TrainStationPriceDO>> loadTrainStationPriceList(List<TicketListDTO> ticketList) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        List<String> trainStationPriceKeys = ticketList.stream()
+                .map(each -> String.format(cacheRedisPrefix + TRAIN_STATION_PRICE, each.getTrainId(), each.getDeparture(), each.getArrival()))
+                .toList();
+        List<Object> trainStationPriceObjs = stringRedisTemplate.executePipelined((RedisCallback<String>) connection -> {
+            trainStationPriceKeys.forEach(each -> connection.stringCommands().get(each.getBytes()));
+            return null;
+        }, RedisSerializer.byteArray());
+        List<List<TrainStationPriceDO>> trainStationPriceList = new ArrayList<>(trainStationPriceObjs.size());
+        for (int i = 0; i < trainStationPriceObjs.size(); i++) {
+            TrainStationPriceCacheDTO trainStationPriceCache = cacheValueCodecRegistry.decode((byte[]) trainStationPriceObjs.get(i), TrainStationPriceCacheDTO.class);
+            trainStationPriceList.add(trainStationPriceCache == null || trainStationPriceCache.getPriceList() == null
+                    ? loadTrainStationPrice(ticketList.get(i))
+                    : trainStationPriceCache.getPriceList());
+        }
+        return trainStationPriceList;
+    }
+
+    private TicketPageQueryRespDTO buildTicketPageQueryResp(TicketPageQueryReqDTO requestParam, List<TicketListDTO> seatResults) {
         return TicketPageQueryRespDTO.builder()
-                .trainList(seatResults)
+                .trainList(TicketSearchFilter.of(requestParam).apply(seatResults))
                 .departureStationList(buildDepartureStationList(seatResults))
                 .arrivalStationList(buildArrivalStationList(seatResults))
                 .trainBrandList(buildTrainBrandList(seatResults))
@@ -284,6 +462,15 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
                 .build();
     }
 
+    private TicketAvailabilityKey buildAvailabilityKey(TrainStationPriceDO trainStationPriceDO) {
+        return new TicketAvailabilityKey(
+                String.valueOf(trainStationPriceDO.getTrainId()),
+                trainStationPriceDO.getDeparture(),
+                trainStationPriceDO.getArrival(),
+                trainStationPriceDO.getSeatType()
+        );
+    }
+
     @Override
     public TicketPageQueryRespDTO pageListTicketQueryV2(TicketPageQueryReqDTO requestParam) {
         // 责任链模式 验证城市名称是否存在、不存在加载缓存以及出发日期不能小于当前日期等等
@@ -292,63 +479,141 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
         // 列车查询逻辑较为复杂，详细解析文章查看 https://nageoffer.com/12306/question
         // v2 版本更符合企业级高并发真实场景解决方案，完美解决了 v1 版本性能深渊问题。通过 Jmeter 压测聚合报告得知，性能提升在 300% - 500%+
         // 其实还能有 v3 版本，性能估计在原基础上还能进一步提升一倍。不过 v3 版本太过于复杂，不易读且不易扩展，就不写具体的代码了。面试中 v2 版本已经够和面试官吹的了
-        List<Object> stationDetails = stringRedisTemplate.opsForHash()
-                .multiGet(REGION_TRAIN_STATION_MAPPING, Lists.newArrayList(requestParam.getFromStation(), requestParam.getToStation()));
-        String buildRegionTrainStationHashKey = String.format(REGION_TRAIN_STATION, stationDetails.get(0), stationDetails.get(1));
-        Map<Object, Object> regionTrainStationAllMap = stringRedisTemplate.opsForHash().entries(buildRegionTrainStationHashKey);
-        List<TicketListDTO> seatResults = regionTrainStationAllMap.values().stream()
-                .map(each -> JSON.parseObject(each.toString(), TicketListDTO.class))
-                .sorted(new TimeStringComparator())
-                .toList();
-        List<String> trainStationPriceKeys = seatResults.stream()
-                .map(each -> String.format(cacheRedisPrefix + TRAIN_STATION_PRICE, each.getTrainId(), each.getDeparture(), each.getArrival()))
-                .toList();
-        List<Object> trainStationPriceObjs = stringRedisTemplate.executePipelined((RedisCallback<String>) connection -> {
-            trainStationPriceKeys.forEach(each -> connection.stringCommands().get(each.getBytes()));
-            return null;
-        });
-        List<TrainStationPriceDO> trainStationPriceDOList = new ArrayList<>();
-        List<String> trainStationRemainingKeyList = new ArrayList<>();
-        for (Object each : trainStationPriceObjs) {
-            List<TrainStationPriceDO> trainStationPriceList = JSON.parseArray(each.toString(), TrainStationPriceDO.class);
-            trainStationPriceDOList.addAll(trainStationPriceList);
-            for (TrainStationPriceDO item : trainStationPriceList) {
-                String trainStationRemainingKey = cacheRedisPrefix + TRAIN_STATION_REMAINING_TICKET + StrUtil.join("_", item.getTrainId(), item.getDeparture(), item.getArrival());
-                trainStationRemainingKeyList.add(trainStationRemainingKey);
-            }
+        List<Object> stationDetails = resolveStationRegionsByIndex(requestParam.getFromStation(), requestParam.getToStation());
+        if (stationDetails == null) {
+            stationDetails = stringRedisTemplate.opsForHash()
+                    .multiGet(REGION_TRAIN_STATION_MAPPING, Lists.newArrayList(requestParam.getFromStation(), requestParam.getToStation()));
         }
-        List<Object> trainStationRemainingObjs = stringRedisTemplate.executePipelined((RedisCallback<String>) connection -> {
-            for (int i = 0; i < trainStationRemainingKeyList.size(); i++) {
-                connection.hashCommands().hGet(trainStationRemainingKeyList.get(i).getBytes(), trainStationPriceDOList.get(i).getSeatType().toString().getBytes());
-            }
-            return null;
-        });
-        for (TicketListDTO each : seatResults) {
-            List<Integer> seatTypesByCode = VehicleTypeEnum.findSeatTypesByCode(each.getTrainType());
-            List<Object> remainingTicket = new ArrayList<>(trainStationRemainingObjs.subList(0, seatTypesByCode.size()));
-            List<TrainStationPriceDO> trainStationPriceDOSub = new ArrayList<>(trainStationPriceDOList.subList(0, seatTypesByCode.size()));
-            trainStationRemainingObjs.subList(0, seatTypesByCode.size()).clear();
-            trainStationPriceDOList.subList(0, seatTypesByCode.size()).clear();
+        String buildRegionTrainStationHashKey = String.format(REGION_TRAIN_STATION, stationDetails.get(0), stationDetails.get(1));
+        List<TicketListDTO> regionTicketList = readRegionTicketList(buildRegionTrainStationHashKey);
+        // 存在无法解码的车次缓存时走加锁重建逻辑
+        List<TicketListDTO> seatResults = regionTicketList == null
+                ? loadRegionTicketList(stationDetails)
+                : regionTicketList.stream().sorted(new TimeStringComparator()).toList();
+        List<List<TrainStationPriceDO>> trainStationPriceList = loadTrainStationPriceList(seatResults);
+        List<TicketAvailabilityKey> availabilityKeys = new ArrayList<>();
+        trainStationPriceList.forEach(each -> each.forEach(item -> availabilityKeys.add(buildAvailabilityKey(item))));
+        TicketAvailability ticketAvailability = ticketAvailabilityReader.read(availabilityKeys);
+        for (int i = 0; i < seatResults.size(); i++) {
             List<SeatClassDTO> seatClassList = new ArrayList<>();
-            for (int i = 0; i < trainStationPriceDOSub.size(); i++) {
-                TrainStationPriceDO trainStationPriceDO = trainStationPriceDOSub.get(i);
+            for (TrainStationPriceDO trainStationPriceDO : trainStationPriceList.get(i)) {
                 SeatClassDTO seatClassDTO = SeatClassDTO.builder()
                         .type(trainStationPriceDO.getSeatType())
-                        .quantity(Integer.parseInt(remainingTicket.get(i).toString()))
+                        .quantity(ticketAvailability.getQuantity(buildAvailabilityKey(trainStationPriceDO)))
                         .price(new BigDecimal(trainStationPriceDO.getPrice()).divide(new BigDecimal("100"), 1, RoundingMode.HALF_UP))
                         .candidate(false)
                         .build();
                 seatClassList.add(seatClassDTO);
             }
-            each.setSeatClassList(seatClassList);
+            seatResults.get(i).setSeatClassList(seatClassList);
         }
-        return TicketPageQueryRespDTO.builder()
-                .trainList(seatResults)
-                .departureStationList(buildDepartureStationList(seatResults))
-                .arrivalStationList(buildArrivalStationList(seatResults))
-                .trainBrandList(buildTrainBrandList(seatResults))
-                .seatClassTypeList(buildSeatClassList(seatResults))
-                .build();
+        return buildTicketPageQueryResp(requestParam, seatResults);
+    }
+
+    @Override
+    public TicketTransferQueryRespDTO listTransferTicketQuery(TicketTransferQueryReqDTO requestParam) {
+        // 复用车票查询责任链校验出发地、目的地以及出发日期
+        ticketPageQueryAbstractChainContext.handler(TicketChainMarkEnum.TRAIN_QUERY_FILTER.name(), requestParam);
+        return ticketTransferSearchService.query(requestParam);
+    }
+
+    @Override
+    public TicketBatchQueryRespDTO batchListTicketQuery(TicketBatchQueryReqDTO requestParam) {
+        if (!ticketBatchQueryProperties.getEnabled()) {
+            throw new ClientException("暂未开放批量车票查询");
+        }
+        List<TicketPageQueryReqDTO> queryList = requestParam.getQueryList();
+        if (CollUtil.isEmpty(queryList)) {
+            throw new ClientException("查询条件不能为空");
+        }
+        if (queryList.size() > ticketBatchQueryProperties.getMaxQueries()) {
+            throw new ClientException(String.format("单次最多查询%d组条件", ticketBatchQueryProperties.getMaxQueries()));
+        }
+        // 逐组校验查询条件，单组校验失败仅在对应结果中返回原因，不影响其余查询
+        List<TicketBatchQueryResultDTO> resultList = new ArrayList<>(queryList.size());
+        List<Integer> validIndexes = new ArrayList<>(queryList.size());
+        for (int i = 0; i < queryList.size(); i++) {
+            TicketPageQueryReqDTO each = queryList.get(i);
+            TicketBatchQueryResultDTO result = TicketBatchQueryResultDTO.builder()
+                    .fromStation(each.getFromStation())
+                    .toStation(each.getToStation())
+                    .departureDate(each.getDepartureDate())
+                    .build();
+            try {
+                ticketPageQueryAbstractChainContext.handler(TicketChainMarkEnum.TRAIN_QUERY_FILTER.name(), each);
+                validIndexes.add(i);
+            } catch (ClientException ex) {
+                result.setMessage(ex.getErrorMessage());
+            }
+            resultList.add(result);
+        }
+        if (validIndexes.isEmpty()) {
+            return new TicketBatchQueryRespDTO(resultList);
+        }
+        // 所有出发地、目的地所属地区一次批量获取，相同地区对的车次、价格只加载一次
+        Map<String, Object> stationRegionMap = loadStationRegionMap(validIndexes.stream().map(queryList::get).toList());
+        Map<String, List<TicketListDTO>> regionTicketMap = new LinkedHashMap<>();
+        for (Integer index : validIndexes) {
+            TicketPageQueryReqDTO each = queryList.get(index);
+            List<Object> stationDetails = Lists.newArrayList(stationRegionMap.get(each.getFromStation()), stationRegionMap.get(each.getToStation()));
+            regionTicketMap.computeIfAbsent(stationDetails.get(0) + "_" + stationDetails.get(1), key -> loadRegionTicketList(stationDetails));
+        }
+        List<TicketListDTO> seatResults = regionTicketMap.values().stream().flatMap(List::stream).toList();
+        List<List<TrainStationPriceDO>> trainStationPriceList = loadTrainStationPriceList(seatResults);
+        List<TicketAvailabilityKey> availabilityKeys = new ArrayList<>();
+        trainStationPriceList.forEach(each -> each.forEach(item -> availabilityKeys.add(buildAvailabilityKey(item))));
+        // 全部查询条件的余票一次批量读取
+        TicketAvailability ticketAvailability = ticketAvailabilityReader.read(availabilityKeys);
+        for (int i = 0; i < seatResults.size(); i++) {
+            List<SeatClassDTO> seatClassList = new ArrayList<>();
+            trainStationPriceList.get(i).forEach(item -> seatClassList.add(new SeatClassDTO(
+                    item.getSeatType(),
+                    ticketAvailability.getQuantity(buildAvailabilityKey(item)),
+                    new BigDecimal(item.getPrice()).divide(new BigDecimal("100"), 1, RoundingMode.HALF_UP),
+                    false
+            )));
+            seatResults.get(i).setSeatClassList(seatClassList);
+        }
+        for (Integer index : validIndexes) {
+            TicketPageQueryReqDTO each = queryList.get(index);
+            String regionKey = stationRegionMap.get(each.getFromStation()) + "_" + stationRegionMap.get(each.getToStation());
+            resultList.get(index).setQueryResult(buildTicketPageQueryResp(each, regionTicketMap.get(regionKey)));
+        }
+        return new TicketBatchQueryRespDTO(resultList);
+    }
+
+    /**
+     * 批量获取车站所属地区，缓存中缺失的车站按单次查询逻辑加锁加载
+     */
+    private Map<String, Object> loadStationRegionMap(List<TicketPageQueryReqDTO> queryList) {
+        List<Object> stationCodes = queryList.stream()
+                .flatMap(each -> Stream.of(each.getFromStation(), each.getToStation()))
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, Object> stationRegionMap = new HashMap<>(stationCodes.size() * 2);
+        StationRegionIndex stationRegionIndex = stationRegionIndexCache.get();
+        if (stationRegionIndex != null) {
+            stationCodes.forEach(each -> Optional.ofNullable(stationRegionIndex.getRegionName(each.toString()))
+                    .ifPresent(region -> stationRegionMap.put(each.toString(), region)));
+            stationCodes.removeIf(each -> stationRegionMap.containsKey(each.toString()));
+        }
+        if (!stationCodes.isEmpty()) {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            List<Object> regionList = stringRedisTemplate.opsForHash().multiGet(REGION_TRAIN_STATION_MAPPING, stationCodes);
+            for (int i = 0; i < stationCodes.size(); i++) {
+                if (regionList.get(i) != null) {
+                    stationRegionMap.put(stationCodes.get(i).toString(), regionList.get(i));
+                }
+            }
+        }
+        for (TicketPageQueryReqDTO each : queryList) {
+            if (!stationRegionMap.containsKey(each.getFromStation()) || !stationRegionMap.containsKey(each.getToStation())) {
+                List<Object> stationDetails = loadStationRegions(each);
+                stationRegionMap.put(each.getFromStation(), stationDetails.get(0));
+                stationRegionMap.put(each.getToStation(), stationDetails.get(1));
+            }
+        }
+        return stationRegionMap;
     }
 
     @ILog
@@ -399,9 +664,19 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
     public TicketPurchaseRespDTO purchaseTicketsV2(PurchaseTicketReqDTO requestParam) {
         // 责任链模式，验证 1：参数必填 2：参数正确性 3：乘客是否已买当前车次等...
         purchaseTicketAbstractChainContext.handler(TicketChainMarkEnum.TRAIN_PURCHASE_TICKET_FILTER.name(), requestParam);
+        // 开启购票排队时仅放行用户可以进入令牌扣减，售罄后重试请求在排队入口即被拦截
+        long admission = ticketWaitingRoomService.checkAdmission(requestParam.getTrainId());
         // 为什么需要令牌限流？余票缓存限流不可以么？详情查看：https://nageoffer.com/12306/question
-        TokenResultDTO tokenResult = ticketAvailabilityTokenBucket.takeTokenFromBucket(requestParam);
+        TokenResultDTO tokenResult;
+        try {
+            tokenResult = ticketAvailabilityTokenBucket.takeTokenFromBucket(requestParam);
+        } catch (RuntimeException ex) {
+            ticketWaitingRoomService.restoreAdmission(requestParam.getTrainId(), admission);
+            throw ex;
+        }
         if (tokenResult.getTokenIsNull()) {
+            // 余票不足属于确定的购票结果，放行资格不再归还，避免无票区段反复重试
+            ticketWaitingRoomService.closeIfSoldOut(requestParam.getTrainId());
             Object ifPresentObj = tokenTicketsRefreshMap.getIfPresent(requestParam.getTrainId());
             if (ifPresentObj == null) {
                 synchronized (TicketService.class) {
@@ -416,12 +691,71 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
         }
         // v1 版本购票存在 4 个较为严重的问题，v2 版本相比较 v1 版本更具有业务特点以及性能，整体提升较大
         // 写了详细的 v2 版本购票升级指南，详情查看：https://nageoffer.com/12306/question
+        try {
+            if (trainOwnershipManager.isEnabled()) {
+                // 列车归属节点持有列车租约，同一列车的购票请求都在归属节点内串行执行，不再需要分布式锁
+                return trainOwnershipManager.execute(
+                        requestParam.getTrainId(),
+                        false,
+                        () -> executePurchaseTicketsOnLocal(requestParam, false),
+                        owner -> trainOwnerForwardClient.purchaseTickets(owner, requestParam)
+                );
+            }
+            // Redis 座位位图通过 Lua 脚本原子占用座位，跨节点不会超卖，只保留节点内本地锁减少选座冲突
+            return executePurchaseTicketsOnLocal(requestParam, !redisSeatBitmapStore.isEnabled());
+        } catch (RuntimeException ex) {
+            // 已获取令牌但选座、锁座或创建订单失败，归还令牌避免令牌桶泄漏
+            // 归属节点调用超时等结果未知的场景归属节点可能已完成购票，不归还令牌避免重复归还，偏少的令牌由令牌校正或刷新补回
+            if (!(ex instanceof TrainOwnerOutcomeUnknownException)) {
+                rollbackTokenQuietly(requestParam);
+            }
+            ticketWaitingRoomService.restoreAdmission(requestParam.getTrainId(), admission);
+            throw ex;
+        }
+    }
+
+    private void rollbackTokenQuietly(PurchaseTicketReqDTO requestParam) {
+        try {
+            ticketAvailabilityTokenBucket.rollbackInBucket(requestParam);
+        } catch (Throwable ex) {
+            log.error("[购票] 列车 {} 购票失败后回滚令牌失败", requestParam.getTrainId(), ex);
+        }
+    }
+
+    @Override
+    public TicketPurchaseRespDTO purchaseTicketsV2OnOwner(PurchaseTicketReqDTO requestParam) {
+        return trainOwnershipManager.execute(
+                requestParam.getTrainId(),
+                true,
+                () -> executePurchaseTicketsOnLocal(requestParam, false),
+                null
+        );
+    }
+
+    private TicketPurchaseRespDTO executePurchaseTicketsOnLocal(PurchaseTicketReqDTO requestParam, boolean distributed) {
+        Set<Integer> seatTypes = requestParam.getPassengers().stream()
+                .map(PurchaseTicketPassengerDetailDTO::getSeatType)
+                .collect(Collectors.toSet());
+        // 只合并单一座位类型的购票请求，多座位类型请求需要同时持有多把锁，仍按单个请求执行
+        if (purchaseTicketsBatchCoalescer.isEnabled() && seatTypes.size() == 1) {
+            String batchKey = StrUtil.join("_", requestParam.getTrainId(), seatTypes.iterator().next());
+            return purchaseTicketsBatchCoalescer.submit(
+                    batchKey,
+                    requestParam,
+                    batchItems -> executeWithPurchaseLock(requestParam.getTrainId(), seatTypes, distributed, () -> {
+                        ticketService.executePurchaseTicketsBatch(batchItems);
+                        return null;
+                    })
+            );
+        }
+        return executeWithPurchaseLock(requestParam.getTrainId(), seatTypes, distributed, () -> ticketService.executePurchaseTickets(requestParam));
+    }
+
+    private <T> T executeWithPurchaseLock(String trainId, Set<Integer> seatTypes, boolean distributed, Supplier<T> action) {
         List<ReentrantLock> localLockList = new ArrayList<>();
         List<RLock> distributedLockList = new ArrayList<>();
-        Map<Integer, List<PurchaseTicketPassengerDetailDTO>> seatTypeMap = requestParam.getPassengers().stream()
-                .collect(Collectors.groupingBy(PurchaseTicketPassengerDetailDTO::getSeatType));
-        seatTypeMap.forEach((searType, count) -> {
-            String lockKey = environment.resolvePlaceholders(String.format(LOCK_PURCHASE_TICKETS_V2, requestParam.getTrainId(), searType));
+        seatTypes.forEach(searType -> {
+            String lockKey = environment.resolvePlaceholders(String.format(LOCK_PURCHASE_TICKETS_V2, trainId, searType));
             ReentrantLock localLock = localLockMap.getIfPresent(lockKey);
             if (localLock == null) {
                 synchronized (TicketService.class) {
@@ -432,13 +766,15 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
                 }
             }
             localLockList.add(localLock);
-            RLock distributedLock = redissonClient.getFairLock(lockKey);
-            distributedLockList.add(distributedLock);
+            if (distributed) {
+                RLock distributedLock = redissonClient.getFairLock(lockKey);
+                distributedLockList.add(distributedLock);
+            }
         });
         try {
             localLockList.forEach(ReentrantLock::lock);
             distributedLockList.forEach(RLock::lock);
-            return ticketService.executePurchaseTickets(requestParam);
+            return action.get();
         } finally {
             localLockList.forEach(localLock -> {
                 try {
@@ -458,17 +794,113 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
     @Override
     @Transactional(rollbackFor = Throwable.class)
     public TicketPurchaseRespDTO executePurchaseTickets(PurchaseTicketReqDTO requestParam) {
-        List<TicketOrderDetailRespDTO> ticketOrderDetailResults = new ArrayList<>();
+        TrainDO trainDO = getTrainDO(requestParam.getTrainId());
+        List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults = trainSeatTypeSelector.select(trainDO.getTrainType(), requestParam);
+        saveBatch(buildTicketDOList(requestParam, trainPurchaseTicketResults));
+        TicketPurchaseRespDTO ticketPurchaseResp = createTicketOrder(requestParam, trainDO, trainPurchaseTicketResults);
+        decrementRemainingTicketAfterCommit(requestParam, trainPurchaseTicketResults);
+        return ticketPurchaseResp;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Throwable.class)
+    public void executePurchaseTicketsBatch(List<PurchaseTicketsBatchItem> batchItems) {
+        TrainDO trainDO = getTrainDO(batchItems.get(0).getRequestParam().getTrainId());
+        // 批次共用一个事务提交，每个请求在各自的保存点内执行，单个请求失败只回滚自身写入，不影响批次内其它请求
+        TransactionTemplate nestedTransactionTemplate = new TransactionTemplate(transactionManager);
+        nestedTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        for (PurchaseTicketsBatchItem each : batchItems) {
+            PurchaseTicketReqDTO requestParam = each.getRequestParam();
+            UserContext.setUser(each.getUserInfo());
+            try {
+                nestedTransactionTemplate.executeWithoutResult(status -> {
+                    List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults = trainSeatTypeSelector.select(trainDO.getTrainType(), requestParam);
+                    each.setTrainPurchaseTicketResults(trainPurchaseTicketResults);
+                    each.setTicketDOList(buildTicketDOList(requestParam, trainPurchaseTicketResults));
+                    saveBatch(each.getTicketDOList());
+                    each.setResponse(createTicketOrder(requestParam, trainDO, trainPurchaseTicketResults));
+                    decrementRemainingTicketAfterCommit(requestParam, trainPurchaseTicketResults);
+                });
+            } catch (Throwable ex) {
+                unlockRolledBackSeatQuietly(each);
+                each.getFuture().completeExceptionally(ex);
+            } finally {
+                UserContext.removeUser();
+            }
+        }
+    }
+
+    /**
+     * 批次内单个请求回滚到保存点后释放其内存座位图或 Redis 位图中的座位占用
+     * 选座时注册的回滚回调只感知批次事务的最终结果，保存点回滚不会触发，需要在此显式释放
+     */
+    private void unlockRolledBackSeatQuietly(PurchaseTicketsBatchItem batchItem) {
+        List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults = batchItem.getTrainPurchaseTicketResults();
+        if (CollUtil.isEmpty(trainPurchaseTicketResults)) {
+            return;
+        }
+        PurchaseTicketReqDTO requestParam = batchItem.getRequestParam();
+        try {
+            seatService.unlock(requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival(), trainPurchaseTicketResults);
+        } catch (Throwable ex) {
+            log.error("[批量购票] 列车 {} 请求回滚后释放座位失败", requestParam.getTrainId(), ex);
+        }
+    }
+
+    /**
+     * 购票事务提交后扣减站点余票缓存并推送余票变更
+     * 座位在事务内才真正占用，选座冲突、订单创建失败或事务回滚时不扣减，避免余票缓存泄漏
+     */
+    private void decrementRemainingTicketAfterCommit(PurchaseTicketReqDTO requestParam, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        if (StrUtil.equals(ticketAvailabilityCacheUpdateType, "binlog")) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            decrementRemainingTicket(requestParam, trainPurchaseTicketResults);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                decrementRemainingTicket(requestParam, trainPurchaseTicketResults);
+            }
+        });
+    }
+
+    private void decrementRemainingTicket(PurchaseTicketReqDTO requestParam, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
         String trainId = requestParam.getTrainId();
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            Map<Integer, Long> seatTypeCountMap = trainPurchaseTicketResults.stream()
+                    .collect(Collectors.groupingBy(TrainPurchaseTicketRespDTO::getSeatType, Collectors.counting()));
+            List<RouteDTO> routeDTOList = trainStationService.listTakeoutTrainStationRoute(trainId, requestParam.getDeparture(), requestParam.getArrival());
+            List<TicketAvailabilityChangeDTO> changes = new ArrayList<>();
+            routeDTOList.forEach(each -> {
+                String keySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
+                seatTypeCountMap.forEach((seatType, count) -> {
+                    Long quantity = stringRedisTemplate.opsForHash().increment(TRAIN_STATION_REMAINING_TICKET + keySuffix, String.valueOf(seatType), -count);
+                    changes.add(new TicketAvailabilityChangeDTO(trainId, each.getStartStation(), each.getEndStation(), seatType, quantity.intValue()));
+                });
+            });
+            ticketAvailabilityPublisher.publish(trainId, changes);
+        } catch (Throwable ex) {
+            log.error("[购票] 列车 {} 扣减站点余票缓存失败，等待余票缓存定时刷新", trainId, ex);
+        }
+    }
+
+    private TrainDO getTrainDO(String trainId) {
         // 节假日高并发购票Redis能扛得住么？详情查看：https://nageoffer.com/12306/question
-        TrainDO trainDO = distributedCache.safeGet(
+        return distributedCache.safeGet(
                 TRAIN_INFO + trainId,
                 TrainDO.class,
                 () -> trainMapper.selectById(trainId),
                 ADVANCE_TICKET_DAY,
                 TimeUnit.DAYS);
-        List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults = trainSeatTypeSelector.select(trainDO.getTrainType(), requestParam);
-        List<TicketDO> ticketDOList = trainPurchaseTicketResults.stream()
+    }
+
+    private List<TicketDO> buildTicketDOList(PurchaseTicketReqDTO requestParam, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        return trainPurchaseTicketResults.stream()
                 .map(each -> TicketDO.builder()
                         .username(UserContext.getUsername())
                         .trainId(Long.parseLong(requestParam.getTrainId()))
@@ -478,7 +910,11 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
                         .ticketStatus(TicketStatusEnum.UNPAID.getCode())
                         .build())
                 .toList();
-        saveBatch(ticketDOList);
+    }
+
+    private TicketPurchaseRespDTO createTicketOrder(PurchaseTicketReqDTO requestParam, TrainDO trainDO, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        String trainId = requestParam.getTrainId();
+        List<TicketOrderDetailRespDTO> ticketOrderDetailResults = new ArrayList<>();
         Result<String> ticketOrderResult;
         try {
             List<TicketOrderItemCreateRemoteReqDTO> orderItemCreateRemoteReqDTOList = new ArrayList<>();
@@ -566,13 +1002,16 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
                 Map<Integer, List<TicketOrderPassengerDetailRespDTO>> seatTypeMap = trainPurchaseTicketResults.stream()
                         .collect(Collectors.groupingBy(TicketOrderPassengerDetailRespDTO::getSeatType));
                 List<RouteDTO> routeDTOList = trainStationService.listTakeoutTrainStationRoute(trainId, departure, arrival);
+                List<TicketAvailabilityChangeDTO> changes = new ArrayList<>();
                 routeDTOList.forEach(each -> {
                     String keySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
                     seatTypeMap.forEach((seatType, ticketOrderPassengerDetailRespDTOList) -> {
-                        stringRedisTemplate.opsForHash()
+                        Long quantity = stringRedisTemplate.opsForHash()
                                 .increment(TRAIN_STATION_REMAINING_TICKET + keySuffix, String.valueOf(seatType), ticketOrderPassengerDetailRespDTOList.size());
+                        changes.add(new TicketAvailabilityChangeDTO(trainId, each.getStartStation(), each.getEndStation(), seatType, quantity.intValue()));
                     });
                 });
+                ticketAvailabilityPublisher.publish(trainId, changes);
             } catch (Throwable ex) {
                 log.error("[取消关闭订单] 订单号：{} 回滚列车Cache余票失败", requestParam.getOrderSn(), ex);
                 throw ex;
@@ -672,7 +1111,7 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
                 for (SeatTypeCountDTO each : seatTypeCountDTOList) {
                     Integer tokenCount = tokenCountMap.get(each.getSeatType());
                     if (tokenCount <= each.getSeatCount()) {
-                        ticketAvailabilityTokenBucket.delTokenInBucket(requestParam);
+                        ticketAvailabilityTokenBucket.refreshTokenInBucket(requestParam);
                         break;
                     }
                 }
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.push;
+
+import cn.hutool.core.collection.CollUtil;
+import com.alibaba.fastjson2.JSON;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketAvailabilityPushProperties;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketAvailabilityChangeDTO;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_CHANNEL;
+
+/**
+ * 余票变更发布者
+ * 余票缓存变更后按列车发布到 Redis 频道，持有该列车订阅的节点收到后推送给客户端
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketAvailabilityPublisher {
+
+    private final TicketAvailabilityPushProperties ticketAvailabilityPushProperties;
+    private final DistributedCache distributedCache;
+
+    /**
+     * 发布列车余票变更，推送失败不影响购票以及退票主流程
+     *
+     * @param trainId 列车 ID
+     * @param changes 同一列车的区间余票变更集合
+     */
+    public void publish(String trainId, List<TicketAvailabilityChangeDTO> changes) {
+        if (!ticketAvailabilityPushProperties.getEnabled() || CollUtil.isEmpty(changes)) {
+            return;
+        }
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            stringRedisTemplate.convertAndSend(TICKET_AVAILABILITY_CHANNEL + trainId, JSON.toJSONString(changes));
+        } catch (Throwable ex) {
+            log.error("列车 {} 余票变更发布失败", trainId, ex);
+        }
+    }
+}
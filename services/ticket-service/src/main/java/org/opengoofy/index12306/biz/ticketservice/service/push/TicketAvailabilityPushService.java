@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.push;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketAvailabilityPushProperties;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketAvailabilityChangeDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketAvailabilitySubscribeReqDTO;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CacheUtil;
+import org.opengoofy.index12306.framework.starter.common.threadpool.build.ThreadFactoryBuilder;
+import org.opengoofy.index12306.framework.starter.convention.exception.ClientException;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_CHANNEL;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
+
+/**
+ * 余票变更推送服务
+ * 客户端通过 SSE 订阅 列车集合 + 乘车区间，订阅建立时推送一次余票快照，之后仅推送该区间的余票变更
+ * 节点仅订阅本地存在客户端的列车频道，最后一个客户端断开后取消频道订阅
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketAvailabilityPushService implements InitializingBean, DisposableBean {
+
+    private static final String EVENT_SNAPSHOT = "snapshot";
+    private static final String EVENT_CHANGE = "change";
+
+    private final TicketAvailabilityPushProperties ticketAvailabilityPushProperties;
+    private final DistributedCache distributedCache;
+
+    @Value("${framework.cache.redis.prefix:}")
+    private String cacheRedisPrefix;
+
+    /**
+     * 列车 ID 到本节点订阅集合的映射，映射存在即代表本节点已订阅该列车频道
+     */
+    private final Map<String, Set<Subscription>> trainSubscriptionMap = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final MessageListener messageListener = this::onMessage;
+
+    private RedisMessageListenerContainer listenerContainer;
+    private ScheduledExecutorService heartbeatExecutor;
+
+    /**
+     * 订阅列车区间余票变更
+     *
+     * @param requestParam 订阅请求参数
+     * @return SSE 连接
+     */
+    public SseEmitter subscribe(TicketAvailabilitySubscribeReqDTO requestParam) {
+        if (!ticketAvailabilityPushProperties.getEnabled()) {
+            throw new ServiceException("余票推送未开启，请使用车票查询获取余票");
+        }
+        if (CollUtil.isEmpty(requestParam.getTrainIds()) || StrUtil.hasBlank(requestParam.getDeparture(), requestParam.getArrival())) {
+            throw new ClientException("订阅列车以及乘车区间不能为空");
+        }
+        List<String> trainIds = requestParam.getTrainIds().stream().filter(StrUtil::isNotBlank).distinct().toList();
+        if (trainIds.size() > ticketAvailabilityPushProperties.getMaxTrainsPerSubscription()) {
+            throw new ClientException("订阅列车数量超出限制");
+        }
+        if (subscriptions.size() >= ticketAvailabilityPushProperties.getMaxSubscriptions()) {
+            throw new ServiceException("余票推送订阅已满，请稍后重试");
+        }
+        SseEmitter emitter = new SseEmitter(ticketAvailabilityPushProperties.getSubscriptionTimeout());
+        Subscription subscription = new Subscription(emitter, trainIds, requestParam.getDeparture(), requestParam.getArrival());
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(ex -> unsubscribe(subscription));
+        subscriptions.add(subscription);
+        for (String each : trainIds) {
+            trainSubscriptionMap.compute(each, (trainId, trainSubscriptions) -> {
+                if (trainSubscriptions == null) {
+                    trainSubscriptions = ConcurrentHashMap.newKeySet();
+                    listenerContainer.addMessageListener(messageListener, new ChannelTopic(TICKET_AVAILABILITY_CHANNEL + trainId));
+                }
+                trainSubscriptions.add(subscription);
+                return trainSubscriptions;
+            });
+        }
+        // 先订阅频道再读取快照，快照发送期间到达的变更在快照之后发送，客户端以最后收到的数量为准
+        synchronized (subscription) {
+            subscription.send(EVENT_SNAPSHOT, loadSnapshot(subscription));
+        }
+        return emitter;
+    }
+
+    private List<TicketAvailabilityChangeDTO> loadSnapshot(Subscription subscription) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        List<Object> remainingTicketList = stringRedisTemplate.executePipelined((RedisCallback<String>) connection -> {
+            for (String each : subscription.trainIds) {
+                String cacheKey = cacheRedisPrefix + TRAIN_STATION_REMAINING_TICKET + CacheUtil.buildKey(each, subscription.departure, subscription.arrival);
+                connection.hashCommands().hGetAll(cacheKey.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        List<TicketAvailabilityChangeDTO> result = new ArrayList<>();
+        for (int i = 0; i < subscription.trainIds.size(); i++) {
+            String trainId = subscription.trainIds.get(i);
+            Map<?, ?> remainingTicketMap = (Map<?, ?>) remainingTicketList.get(i);
+            if (remainingTicketMap == null) {
+                continue;
+            }
+            remainingTicketMap.forEach((seatType, quantity) -> result.add(new TicketAvailabilityChangeDTO(
+                    trainId,
+                    subscription.departure,
+                    subscription.arrival,
+                    Integer.parseInt(seatType.toString()),
+                    Integer.parseInt(quantity.toString())
+            )));
+        }
+        return result;
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String trainId = channel.substring(TICKET_AVAILABILITY_CHANNEL.length());
+        Set<Subscription> trainSubscriptions = trainSubscriptionMap.get(trainId);
+        if (CollUtil.isEmpty(trainSubscriptions)) {
+            return;
+        }
+        List<TicketAvailabilityChangeDTO> changes = JSON.parseArray(new String(message.getBody(), StandardCharsets.UTF_8), TicketAvailabilityChangeDTO.class);
+        for (Subscription each : trainSubscriptions) {
+            List<TicketAvailabilityChangeDTO> matchedChanges = changes.stream()
+                    .filter(item -> Objects.equals(item.getDeparture(), each.departure) && Objects.equals(item.getArrival(), each.arrival))
+                    .toList();
+            if (!matchedChanges.isEmpty()) {
+                synchronized (each) {
+                    each.send(EVENT_CHANGE, matchedChanges);
+                }
+            }
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (!subscription.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriptions.remove(subscription);
+        for (String each : subscription.trainIds) {
+            trainSubscriptionMap.computeIfPresent(each, (trainId, trainSubscriptions) -> {
+                trainSubscriptions.remove(subscription);
+                if (trainSubscriptions.isEmpty()) {
+                    listenerContainer.removeMessageListener(messageListener, new ChannelTopic(TICKET_AVAILABILITY_CHANNEL + trainId));
+                    return null;
+                }
+                return trainSubscriptions;
+            });
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscription each : subscriptions) {
+            synchronized (each) {
+                each.heartbeat();
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!ticketAvailabilityPushProperties.getEnabled()) {
+            return;
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(Objects.requireNonNull(stringRedisTemplate.getConnectionFactory()));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder()
+                        .prefix("ticket-availability-push-heartbeat")
+                        .daemon(true)
+                        .build()
+        );
+        Long interval = ticketAvailabilityPushProperties.getHeartbeatInterval();
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (heartbeatExecutor != null) {
+            heartbeatExecutor.shutdownNow();
+        }
+        new ArrayList<>(subscriptions).forEach(each -> each.emitter.complete());
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    /**
+     * 客户端订阅，发送需在订阅对象上同步，SseEmitter 不支持并发发送
+     */
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        private final List<String> trainIds;
+        private final String departure;
+        private final String arrival;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private Subscription(SseEmitter emitter, List<String> trainIds, String departure, String arrival) {
+            this.emitter = emitter;
+            this.trainIds = trainIds;
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+
+        private void send(String eventName, List<TicketAvailabilityChangeDTO> changes) {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(JSON.toJSONString(changes)));
+            } catch (IOException | IllegalStateException ex) {
+                emitter.completeWithError(ex);
+                unsubscribe(this);
+            }
+        }
+
+        private void heartbeat() {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException ex) {
+                emitter.completeWithError(ex);
+                unsubscribe(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.search;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.TicketSortTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatClassDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketPageQueryReqDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.opengoofy.index12306.biz.ticketservice.toolkit.MinuteOfDayUtil.MINUTES_OF_DAY;
+import static org.opengoofy.index12306.biz.ticketservice.toolkit.MinuteOfDayUtil.parseTimeOfDay;
+
+/**
+ * 车票查询结果筛选排序
+ * 请求参数在构建时一次换算为分钟数以及列车类型位图，筛选与排序均基于车次预先计算的分钟数等基本类型
+ * 排序 Key 与车次下标拼接为 long 后对基本类型数组排序，相同 Key 保持原有出发时间顺序
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class TicketSearchFilter {
+
+    /**
+     * 无法计算排序 Key 的车次排在最后
+     */
+    private static final int UNKNOWN_SORT_KEY = Integer.MAX_VALUE;
+
+    private final TicketSortTypeEnum sortType;
+    private final int trainTypeMask;
+    private final int departureBegin;
+    private final int departureEnd;
+    private final int arrivalBegin;
+    private final int arrivalEnd;
+    private final boolean onlyHasSeat;
+
+    private TicketSearchFilter(TicketSortTypeEnum sortType, int trainTypeMask, int departureBegin, int departureEnd,
+                               int arrivalBegin, int arrivalEnd, boolean onlyHasSeat) {
+        this.sortType = sortType;
+        this.trainTypeMask = trainTypeMask;
+        this.departureBegin = departureBegin;
+        this.departureEnd = departureEnd;
+        this.arrivalBegin = arrivalBegin;
+        this.arrivalEnd = arrivalEnd;
+        this.onlyHasSeat = onlyHasSeat;
+    }
+
+    /**
+     * 根据车票查询参数构建筛选排序条件，参数合法性已由查询责任链校验
+     *
+     * @param requestParam 车票查询参数
+     * @return 筛选排序条件
+     */
+    public static TicketSearchFilter of(TicketPageQueryReqDTO requestParam) {
+        TicketSortTypeEnum sortType = TicketSortTypeEnum.findByCode(requestParam.getSortType());
+        int trainTypeMask = 0;
+        if (CollUtil.isNotEmpty(requestParam.getTrainTypes())) {
+            for (Integer each : requestParam.getTrainTypes()) {
+                trainTypeMask |= 1 << each;
+            }
+        }
+        boolean departureWindow = StrUtil.isNotBlank(requestParam.getDepartureTimeBegin()) || StrUtil.isNotBlank(requestParam.getDepartureTimeEnd());
+        boolean arrivalWindow = StrUtil.isNotBlank(requestParam.getArrivalTimeBegin()) || StrUtil.isNotBlank(requestParam.getArrivalTimeEnd());
+        return new TicketSearchFilter(
+                sortType == null ? TicketSortTypeEnum.DEPARTURE_TIME : sortType,
+                trainTypeMask,
+                departureWindow ? windowBegin(requestParam.getDepartureTimeBegin()) : -1,
+                departureWindow ? windowEnd(requestParam.getDepartureTimeEnd()) : -1,
+                arrivalWindow ? windowBegin(requestParam.getArrivalTimeBegin()) : -1,
+                arrivalWindow ? windowEnd(requestParam.getArrivalTimeEnd()) : -1,
+                Boolean.TRUE.equals(requestParam.getOnlyHasSeat())
+        );
+    }
+
+    /**
+     * 是否为默认条件，即不筛选且按出发时间排序，车次集合本身已按出发时间有序时可直接返回
+     */
+    public boolean isDefault() {
+        return sortType == TicketSortTypeEnum.DEPARTURE_TIME
+                && trainTypeMask == 0
+                && departureBegin < 0
+                && arrivalBegin < 0
+                && !onlyHasSeat;
+    }
+
+    /**
+     * 筛选并排序车次集合，车次需已补全分钟数，余票筛选需已合并余票数量
+     *
+     * @param ticketList 按出发时间排序的车次集合
+     * @return 筛选排序后的车次集合
+     */
+    public List<TicketListDTO> apply(List<TicketListDTO> ticketList) {
+        if (isDefault()) {
+            return ticketList;
+        }
+        int size = ticketList.size();
+        long[] sortKeys = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            TicketListDTO each = ticketList.get(i);
+            if (matches(each)) {
+                sortKeys[count++] = ((long) sortKey(each) << 32) | i;
+            }
+        }
+        if (sortType != TicketSortTypeEnum.DEPARTURE_TIME) {
+            Arrays.sort(sortKeys, 0, count);
+        }
+        List<TicketListDTO> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(ticketList.get((int) sortKeys[i]));
+        }
+        return result;
+    }
+
+    private boolean matches(TicketListDTO ticketList) {
+        if (trainTypeMask != 0) {
+            Integer trainType = ticketList.getTrainType();
+            if (trainType == null || trainType < 0 || trainType >= Integer.SIZE || (trainTypeMask & (1 << trainType)) == 0) {
+                return false;
+            }
+        }
+        if (departureBegin >= 0 && !inWindow(ticketList.getDepartureMinute(), departureBegin, departureEnd)) {
+            return false;
+        }
+        if (arrivalBegin >= 0 && !inWindow(ticketList.getArrivalMinute(), arrivalBegin, arrivalEnd)) {
+            return false;
+        }
+        return !onlyHasSeat || hasSeat(ticketList);
+    }
+
+    private int sortKey(TicketListDTO ticketList) {
+        return switch (sortType) {
+            case DEPARTURE_TIME -> 0;
+            case ARRIVAL_TIME -> {
+                int arrivalMinute = ticketList.getArrivalMinute();
+                int daysArrived = ticketList.getDaysArrived() == null ? 0 : ticketList.getDaysArrived();
+                yield arrivalMinute < 0 ? UNKNOWN_SORT_KEY : daysArrived * MINUTES_OF_DAY + arrivalMinute;
+            }
+            case DURATION -> {
+                int durationMinute = ticketList.getDurationMinute();
+                yield durationMinute < 0 ? UNKNOWN_SORT_KEY : durationMinute;
+            }
+            case PRICE -> lowestPrice(ticketList);
+        };
+    }
+
+    /**
+     * 车次最低席别价格，单位分
+     */
+    private int lowestPrice(TicketListDTO ticketList) {
+        int lowestPrice = UNKNOWN_SORT_KEY;
+        List<SeatClassDTO> seatClassList = ticketList.getSeatClassList();
+        if (seatClassList == null) {
+            return lowestPrice;
+        }
+        for (SeatClassDTO each : seatClassList) {
+            BigDecimal price = each.getPrice();
+            if (price != null) {
+                lowestPrice = Math.min(lowestPrice, price.movePointRight(2).intValue());
+            }
+        }
+        return lowestPrice;
+    }
+
+    private static boolean hasSeat(TicketListDTO ticketList) {
+        List<SeatClassDTO> seatClassList = ticketList.getSeatClassList();
+        if (seatClassList == null) {
+            return false;
+        }
+        for (SeatClassDTO each : seatClassList) {
+            // 余票为空表示余票仍在加载，不能视为无票过滤掉
+            if (each.getQuantity() == null || each.getQuantity() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 时间段开始大于结束时视为跨越零点，例如 22:00 - 02:00
+     */
+    private static boolean inWindow(int minute, int begin, int end) {
+        if (minute < 0) {
+            return false;
+        }
+        return begin <= end ? minute >= begin && minute <= end : minute >= begin || minute <= end;
+    }
+
+    private static int windowBegin(String time) {
+        return StrUtil.isBlank(time) ? 0 : parseTimeOfDay(time);
+    }
+
+    private static int windowEnd(String time) {
+        return StrUtil.isBlank(time) ? MINUTES_OF_DAY - 1 : parseTimeOfDay(time);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.search;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.Getter;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatClassDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailabilityKey;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 车票查询静态结果页，出发地 + 目的地 + 出发日期 维度不可变
+ * 持有排序后的车次、时刻、席别价格、余票读取 Key 以及筛选项，查询时仅需合并余票数量
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Getter
+public final class TicketSearchPage {
+
+    private final long version;
+    private final List<Row> rows;
+    private final List<String> departureStationList;
+    private final List<String> arrivalStationList;
+    private final List<Integer> trainBrandList;
+    private final List<Integer> seatClassTypeList;
+
+    private TicketSearchPage(long version, List<Row> rows, List<String> departureStationList, List<String> arrivalStationList,
+                             List<Integer> trainBrandList, List<Integer> seatClassTypeList) {
+        this.version = version;
+        this.rows = rows;
+        this.departureStationList = departureStationList;
+        this.arrivalStationList = arrivalStationList;
+        this.trainBrandList = trainBrandList;
+        this.seatClassTypeList = seatClassTypeList;
+    }
+
+    /**
+     * 构建静态结果页
+     *
+     * @param version    构建时的查询结果版本号
+     * @param ticketList 已排序车次集合，席别集合仅需包含席别类型以及价格
+     * @return 静态结果页
+     */
+    public static TicketSearchPage of(long version, List<TicketListDTO> ticketList) {
+        List<Row> rows = new ArrayList<>(ticketList.size());
+        Set<String> departureStations = new LinkedHashSet<>();
+        Set<String> arrivalStations = new LinkedHashSet<>();
+        Set<Integer> trainBrands = new LinkedHashSet<>();
+        Set<Integer> seatClassTypes = new LinkedHashSet<>();
+        for (TicketListDTO each : ticketList) {
+            List<SeatClassDTO> seatClassList = each.getSeatClassList();
+            List<TicketAvailabilityKey> availabilityKeys = new ArrayList<>(seatClassList.size());
+            BigDecimal[] prices = new BigDecimal[seatClassList.size()];
+            for (int i = 0; i < seatClassList.size(); i++) {
+                SeatClassDTO seatClass = seatClassList.get(i);
+                availabilityKeys.add(new TicketAvailabilityKey(each.getTrainId(), each.getDeparture(), each.getArrival(), seatClass.getType()));
+                prices[i] = seatClass.getPrice();
+                seatClassTypes.add(seatClass.getType());
+            }
+            rows.add(new Row(each, Collections.unmodifiableList(availabilityKeys), prices));
+            departureStations.add(each.getDeparture());
+            arrivalStations.add(each.getArrival());
+            if (StrUtil.isNotBlank(each.getTrainBrand())) {
+                StrUtil.split(each.getTrainBrand(), ",").forEach(item -> trainBrands.add(Integer.parseInt(item)));
+            }
+        }
+        return new TicketSearchPage(
+                version,
+                Collections.unmodifiableList(rows),
+                List.copyOf(departureStations),
+                List.copyOf(arrivalStations),
+                List.copyOf(trainBrands),
+                List.copyOf(seatClassTypes)
+        );
+    }
+
+    /**
+     * 车次静态结果
+     */
+    @Getter
+    public static final class Row {
+
+        private final TicketListDTO template;
+        private final List<TicketAvailabilityKey> availabilityKeys;
+        private final BigDecimal[] prices;
+
+        private Row(TicketListDTO template, List<TicketAvailabilityKey> availabilityKeys, BigDecimal[] prices) {
+            this.template = template;
+            this.availabilityKeys = availabilityKeys;
+            this.prices = prices;
+        }
+
+        /**
+         * 基于静态结果创建本次查询返回的车次实体，静态结果在多次查询间共享不可修改
+         *
+         * @param seatClassList 合并余票后的席别集合
+         * @return 车次实体
+         */
+        public TicketListDTO newTicket(List<SeatClassDTO> seatClassList) {
+            TicketListDTO result = new TicketListDTO();
+            result.setTrainId(template.getTrainId());
+            result.setTrainNumber(template.getTrainNumber());
+            result.setDepartureTime(template.getDepartureTime());
+            result.setArrivalTime(template.getArrivalTime());
+            result.setDuration(template.getDuration());
+            result.setDepartureMinute(template.getDepartureMinute());
+            result.setArrivalMinute(template.getArrivalMinute());
+            result.setDurationMinute(template.getDurationMinute());
+            result.setDaysArrived(template.getDaysArrived());
+            result.setDeparture(template.getDeparture());
+            result.setArrival(template.getArrival());
+            result.setDepartureFlag(template.getDepartureFlag());
+            result.setArrivalFlag(template.getArrivalFlag());
+            result.setTrainType(template.getTrainType());
+            result.setSaleTime(template.getSaleTime());
+            result.setSaleStatus(template.getSaleStatus());
+            result.setTrainTags(template.getTrainTags());
+            result.setTrainBrand(template.getTrainBrand());
+            result.setSeatClassList(seatClassList);
+            return result;
+        }
+    }
+}
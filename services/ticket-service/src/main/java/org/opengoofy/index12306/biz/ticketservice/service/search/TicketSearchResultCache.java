@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.search;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketSearchCacheProperties;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatClassDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketPageQueryReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPageQueryRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailability;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailabilityKey;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailabilityReader;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.opengoofy.index12306.framework.starter.common.threadpool.build.ThreadFactoryBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_SEARCH_VERSION;
+
+/**
+ * 车票查询本地结果缓存
+ * 出发地 + 目的地 + 出发日期 维度的静态结果页常驻 Caffeine，查询时一次内存读取加一次批量余票读取
+ * 静态结果携带版本号，各节点定时拉取 Redis 中的版本号，版本变更后淘汰全部本地结果
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketSearchResultCache implements InitializingBean, DisposableBean {
+
+    private final TicketSearchCacheProperties ticketSearchCacheProperties;
+    private final DistributedCache distributedCache;
+    private final TicketAvailabilityReader ticketAvailabilityReader;
+
+    private Cache<String, TicketSearchPage> pageCache;
+    private Cache<String, List<Object>> stationRegionCache;
+    private volatile long version;
+    private ScheduledExecutorService scheduledExecutor;
+
+    /**
+     * 是否开启车票查询本地结果缓存
+     */
+    public boolean isEnabled() {
+        return ticketSearchCacheProperties.getEnabled();
+    }
+
+    /**
+     * 查询车票，静态结果取自本地缓存，余票数量每次查询实时合并
+     *
+     * @param requestParam     车票查询参数
+     * @param regionLoader     出发地、目的地所属地区加载逻辑，本地未缓存时调用
+     * @param ticketListLoader 根据出发地区、目的地区加载已排序车次集合，席别集合仅需包含席别类型以及价格
+     * @return 车票查询结果
+     */
+    public TicketPageQueryRespDTO query(TicketPageQueryReqDTO requestParam,
+                                        Supplier<List<Object>> regionLoader,
+                                        Function<List<Object>, List<TicketListDTO>> ticketListLoader) {
+        String stationKey = StrUtil.join("_", requestParam.getFromStation(), requestParam.getToStation());
+        List<Object> regions = stationRegionCache.getIfPresent(stationKey);
+        if (regions == null) {
+            regions = regionLoader.get();
+            if (regions.stream().allMatch(Objects::nonNull)) {
+                stationRegionCache.put(stationKey, regions);
+            }
+        }
+        List<Object> finalRegions = regions;
+        String pageKey = StrUtil.join("_", regions.get(0), regions.get(1), DateUtil.formatDate(requestParam.getDepartureDate()));
+        TicketSearchPage page = pageCache.getIfPresent(pageKey);
+        if (page != null && page.getVersion() != version) {
+            // 构建期间版本号发生变更，结果可能基于旧数据，丢弃后重新构建
+            pageCache.asMap().remove(pageKey, page);
+            page = null;
+        }
+        if (page == null) {
+            page = pageCache.get(pageKey, key -> {
+                long buildVersion = version;
+                return TicketSearchPage.of(buildVersion, ticketListLoader.apply(finalRegions));
+            });
+        }
+        return render(page, TicketSearchFilter.of(requestParam));
+    }
+
+    /**
+     * 静态数据变更后自增查询结果版本号，所有节点在下一次拉取版本号后淘汰本地结果
+     */
+    public void incrementVersion() {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        stringRedisTemplate.opsForValue().increment(TICKET_SEARCH_VERSION);
+        if (isEnabled()) {
+            refreshVersion();
+        }
+    }
+
+    private TicketPageQueryRespDTO render(TicketSearchPage page, TicketSearchFilter ticketSearchFilter) {
+        List<TicketSearchPage.Row> rows = page.getRows();
+        List<TicketAvailabilityKey> availabilityKeys = new ArrayList<>();
+        rows.forEach(each -> availabilityKeys.addAll(each.getAvailabilityKeys()));
+        TicketAvailability ticketAvailability = ticketAvailabilityReader.read(availabilityKeys);
+        List<TicketListDTO> trainList = new ArrayList<>(rows.size());
+        for (TicketSearchPage.Row each : rows) {
+            List<TicketAvailabilityKey> rowKeys = each.getAvailabilityKeys();
+            List<SeatClassDTO> seatClassList = new ArrayList<>(rowKeys.size());
+            for (int i = 0; i < rowKeys.size(); i++) {
+                seatClassList.add(SeatClassDTO.builder()
+                        .type(rowKeys.get(i).getSeatType())
+                        .quantity(ticketAvailability.getQuantity(rowKeys.get(i)))
+                        .price(each.getPrices()[i])
+                        .candidate(false)
+                        .build());
+            }
+            trainList.add(each.newTicket(seatClassList));
+        }
+        return TicketPageQueryRespDTO.builder()
+                .trainList(ticketSearchFilter.apply(trainList))
+                .departureStationList(page.getDepartureStationList())
+                .arrivalStationList(page.getArrivalStationList())
+                .trainBrandList(page.getTrainBrandList())
+                .seatClassTypeList(page.getSeatClassTypeList())
+                .build();
+    }
+
+    private void refreshVersion() {
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            String actual = stringRedisTemplate.opsForValue().get(TICKET_SEARCH_VERSION);
+            long latestVersion = actual == null ? 0L : Long.parseLong(actual);
+            if (latestVersion != version) {
+                version = latestVersion;
+                pageCache.invalidateAll();
+                stationRegionCache.invalidateAll();
+            }
+        } catch (Throwable ex) {
+            log.error("拉取车票查询结果版本号失败", ex);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!isEnabled()) {
+            return;
+        }
+        pageCache = Caffeine.newBuilder()
+                .maximumSize(ticketSearchCacheProperties.getMaximumSize())
+                .expireAfterWrite(ticketSearchCacheProperties.getExpireAfterWrite(), TimeUnit.MILLISECONDS)
+                .build();
+        stationRegionCache = Caffeine.newBuilder()
+                .maximumSize(ticketSearchCacheProperties.getMaximumSize())
+                .expireAfterWrite(ticketSearchCacheProperties.getExpireAfterWrite(), TimeUnit.MILLISECONDS)
+                .build();
+        refreshVersion();
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder()
+                        .prefix("ticket-search-version-refresh")
+                        .daemon(true)
+                        .build()
+        );
+        Long interval = ticketSearchCacheProperties.getVersionRefreshInterval();
+        scheduledExecutor.scheduleWithFixedDelay(this::refreshVersion, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduledExecutor != null) {
+            scheduledExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.search;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketTransferSearchProperties;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.RegionMapper;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.StationMapper;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainMapper;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainStationMapper;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainStationPriceMapper;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatClassDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TransferJourneyDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketTransferQueryReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketTransferQueryRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailability;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailabilityKey;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.TicketAvailabilityReader;
+import org.opengoofy.index12306.framework.starter.common.threadpool.build.ThreadFactoryBuilder;
+import org.opengoofy.index12306.framework.starter.convention.exception.ClientException;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.opengoofy.index12306.biz.ticketservice.toolkit.MinuteOfDayUtil.MINUTES_OF_DAY;
+
+/**
+ * 一次换乘车票查询
+ * 换乘路线图在后台线程全量构建并定时重建，查询仅访问内存中的路线图，余票仅读取余票缓存不回填数据库
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketTransferSearchService implements InitializingBean, DisposableBean {
+
+    /**
+     * 仅显示有票方案时，按最大返回数量的倍数预读候选方案余票
+     */
+    private static final int ONLY_HAS_SEAT_CANDIDATE_FACTOR = 4;
+
+    private final TicketTransferSearchProperties ticketTransferSearchProperties;
+    private final TrainMapper trainMapper;
+    private final TrainStationMapper trainStationMapper;
+    private final StationMapper stationMapper;
+    private final RegionMapper regionMapper;
+    private final TrainStationPriceMapper trainStationPriceMapper;
+    private final TicketAvailabilityReader ticketAvailabilityReader;
+
+    private volatile TransferRouteGraph transferRouteGraph;
+    private ScheduledExecutorService scheduledExecutor;
+
+    /**
+     * 查询一次换乘方案
+     *
+     * @param requestParam 换乘查询参数，已通过车票查询责任链校验
+     * @return 按全程历时升序的换乘方案
+     */
+    public TicketTransferQueryRespDTO query(TicketTransferQueryReqDTO requestParam) {
+        if (!ticketTransferSearchProperties.getEnabled()) {
+            throw new ClientException("暂未开放换乘查询");
+        }
+        TransferRouteGraph graph = transferRouteGraph;
+        if (graph == null) {
+            throw new ServiceException("换乘线路加载中，请稍后再试");
+        }
+        String fromRegion = graph.getRegion(requestParam.getFromStation());
+        String toRegion = graph.getRegion(requestParam.getToStation());
+        int minConnectionTime = requestParam.getMinConnectionTime() == null
+                ? ticketTransferSearchProperties.getMinConnectionTime()
+                : Math.max(requestParam.getMinConnectionTime(), 0);
+        int maxConnectionTime = Math.min(ticketTransferSearchProperties.getMaxConnectionTime(), MINUTES_OF_DAY - 1);
+        if (fromRegion == null || toRegion == null || minConnectionTime > maxConnectionTime) {
+            return new TicketTransferQueryRespDTO(List.of());
+        }
+        List<TransferRouteGraph.Journey> journeys = graph.search(fromRegion, toRegion, minConnectionTime, maxConnectionTime);
+        boolean onlyHasSeat = Boolean.TRUE.equals(requestParam.getOnlyHasSeat());
+        int maxResults = ticketTransferSearchProperties.getMaxResults();
+        int candidateSize = Math.min(journeys.size(), onlyHasSeat ? maxResults * ONLY_HAS_SEAT_CANDIDATE_FACTOR : maxResults);
+        List<TransferRouteGraph.Journey> candidates = journeys.subList(0, candidateSize);
+        List<TicketAvailabilityKey> availabilityKeys = new ArrayList<>();
+        for (TransferRouteGraph.Journey each : candidates) {
+            addAvailabilityKeys(graph, each.getFirstTrain(), each.getBoardingIndex(), each.getTransferIndex(), availabilityKeys);
+            addAvailabilityKeys(graph, each.getSecondTrain(), each.getDepartureIndex(), each.getAlightingIndex(), availabilityKeys);
+        }
+        // 余票缓存未命中时不回填，避免换乘查询放大数据库访问，未命中的席别余票为空，表示余票未知
+        TicketAvailability ticketAvailability = ticketAvailabilityReader.read(availabilityKeys, false);
+        List<TransferJourneyDTO> journeyList = new ArrayList<>();
+        for (TransferRouteGraph.Journey each : candidates) {
+            TicketListDTO firstLeg = buildLeg(graph, each.getFirstTrain(), each.getBoardingIndex(), each.getTransferIndex(), ticketAvailability);
+            TicketListDTO secondLeg = buildLeg(graph, each.getSecondTrain(), each.getDepartureIndex(), each.getAlightingIndex(), ticketAvailability);
+            if (onlyHasSeat && !(hasSeat(firstLeg) && hasSeat(secondLeg))) {
+                continue;
+            }
+            journeyList.add(TransferJourneyDTO.builder()
+                    .transferStation(firstLeg.getArrival())
+                    .connectionMinute(each.getConnectionMinute())
+                    .durationMinute(each.getDurationMinute())
+                    .legList(List.of(firstLeg, secondLeg))
+                    .build());
+            if (journeyList.size() >= maxResults) {
+                break;
+            }
+        }
+        return new TicketTransferQueryRespDTO(journeyList);
+    }
+
+    private void addAvailabilityKeys(TransferRouteGraph graph, TransferRouteGraph.Train train, int departureIndex, int arrivalIndex,
+                                     List<TicketAvailabilityKey> availabilityKeys) {
+        for (int seatType : seatTypes(graph, train, departureIndex, arrivalIndex)) {
+            availabilityKeys.add(new TicketAvailabilityKey(train.getTrainId(), train.getStations()[departureIndex], train.getStations()[arrivalIndex], seatType));
+        }
+    }
+
+    private int[] seatTypes(TransferRouteGraph graph, TransferRouteGraph.Train train, int departureIndex, int arrivalIndex) {
+        TransferRouteGraph.SegmentPrice segmentPrice = graph.getSegmentPrice(train, departureIndex, arrivalIndex);
+        if (segmentPrice != null) {
+            return segmentPrice.getSeatTypes();
+        }
+        List<Integer> seatTypes = VehicleTypeEnum.findSeatTypesByCode(train.getTrainType());
+        return seatTypes == null ? new int[0] : seatTypes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private TicketListDTO buildLeg(TransferRouteGraph graph, TransferRouteGraph.Train train, int departureIndex, int arrivalIndex,
+                                   TicketAvailability ticketAvailability) {
+        String departure = train.getStations()[departureIndex];
+        String arrival = train.getStations()[arrivalIndex];
+        TransferRouteGraph.SegmentPrice segmentPrice = graph.getSegmentPrice(train, departureIndex, arrivalIndex);
+        int[] seatTypes = seatTypes(graph, train, departureIndex, arrivalIndex);
+        List<SeatClassDTO> seatClassList = new ArrayList<>(seatTypes.length);
+        for (int i = 0; i < seatTypes.length; i++) {
+            seatClassList.add(SeatClassDTO.builder()
+                    .type(seatTypes[i])
+                    .quantity(ticketAvailability.getQuantity(new TicketAvailabilityKey(train.getTrainId(), departure, arrival, seatTypes[i])))
+                    .price(segmentPrice == null ? null : new BigDecimal(segmentPrice.getPrices()[i]).divide(new BigDecimal("100"), 1, RoundingMode.HALF_UP))
+                    .candidate(false)
+                    .build());
+        }
+        int departureMinute = train.departureMinuteOfDay(departureIndex);
+        int arrivalMinute = train.arrivalMinuteOfDay(arrivalIndex);
+        int durationMinute = train.travelMinute(departureIndex, arrivalIndex);
+        TicketListDTO result = new TicketListDTO();
+        result.setTrainId(train.getTrainId());
+        result.setTrainNumber(train.getTrainNumber());
+        result.setDepartureTime(formatMinute(departureMinute));
+        result.setArrivalTime(formatMinute(arrivalMinute));
+        result.setDuration(formatMinute(durationMinute));
+        result.setDepartureMinute(departureMinute);
+        result.setArrivalMinute(arrivalMinute);
+        result.setDurationMinute(durationMinute);
+        result.setDaysArrived(train.daysArrived(departureIndex, arrivalIndex));
+        result.setDeparture(departure);
+        result.setArrival(arrival);
+        result.setDepartureFlag(departureIndex == 0);
+        result.setArrivalFlag(arrivalIndex == train.getStations().length - 1);
+        result.setTrainType(train.getTrainType());
+        result.setTrainBrand(train.getTrainBrand());
+        if (StrUtil.isNotBlank(train.getTrainTag())) {
+            result.setTrainTags(StrUtil.split(train.getTrainTag(), ","));
+        }
+        result.setSeatClassList(seatClassList);
+        return result;
+    }
+
+    /**
+     * 席别余票未知时视为可能有票，避免余票缓存未加载的列车被仅显示有票条件过滤
+     */
+    private static boolean hasSeat(TicketListDTO ticketList) {
+        return ticketList.getSeatClassList().stream().anyMatch(each -> each.getQuantity() == null || each.getQuantity() > 0);
+    }
+
+    private static String formatMinute(int minute) {
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+
+    private void rebuild() {
+        try {
+            long startTime = System.currentTimeMillis();
+            transferRouteGraph = TransferRouteGraph.build(
+                    trainMapper.selectList(Wrappers.emptyWrapper()),
+                    trainStationMapper.selectList(Wrappers.emptyWrapper()),
+                    stationMapper.selectList(Wrappers.emptyWrapper()),
+                    regionMapper.selectList(Wrappers.emptyWrapper()),
+                    trainStationPriceMapper.selectList(Wrappers.emptyWrapper())
+            );
+            log.info("换乘路线图构建完成，耗时：{}ms", System.currentTimeMillis() - startTime);
+        } catch (Throwable ex) {
+            log.error("换乘路线图构建失败", ex);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!ticketTransferSearchProperties.getEnabled()) {
+            return;
+        }
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder()
+                        .prefix("ticket-transfer-graph-refresh")
+                        .daemon(true)
+                        .build()
+        );
+        scheduledExecutor.scheduleWithFixedDelay(this::rebuild, 0L, ticketTransferSearchProperties.getRefreshInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduledExecutor != null) {
+            scheduledExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.search;
+
+import lombok.Getter;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.RegionDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.StationDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationPriceDO;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CacheUtil;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.opengoofy.index12306.biz.ticketservice.toolkit.MinuteOfDayUtil.MINUTES_OF_DAY;
+
+/**
+ * 一次换乘路线图，启动以及定时刷新时由列车、列车站点、车站、地区以及区间价格全量构建，构建后不可变
+ * 每个车次按站点顺序保存站点、所属地区以及相对始发的分钟偏移量，每个车站按出发时刻排序保存经停车次
+ * 查询时从出发地区经停车次出发，在换乘车站按到站时刻二分定位等待时间窗口内的出发车次，全程不访问数据库以及缓存
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class TransferRouteGraph {
+
+    private final Train[] trains;
+    private final Map<String, String> codeRegionMap;
+    private final Map<String, long[]> regionBoardingMap;
+    private final Map<String, StationDepartures> stationDeparturesMap;
+    private final Map<String, SegmentPrice> segmentPriceMap;
+
+    private TransferRouteGraph(Train[] trains, Map<String, String> codeRegionMap, Map<String, long[]> regionBoardingMap,
+                               Map<String, StationDepartures> stationDeparturesMap, Map<String, SegmentPrice> segmentPriceMap) {
+        this.trains = trains;
+        this.codeRegionMap = codeRegionMap;
+        this.regionBoardingMap = regionBoardingMap;
+        this.stationDeparturesMap = stationDeparturesMap;
+        this.segmentPriceMap = segmentPriceMap;
+    }
+
+    /**
+     * 构建换乘路线图
+     *
+     * @param trainList        列车集合
+     * @param trainStationList 列车站点集合
+     * @param stationList      车站集合，用于车站编码转换为所属地区
+     * @param regionList       地区集合，用于地区编码转换为地区名称
+     * @param priceList        列车区间价格集合
+     * @return 换乘路线图
+     */
+    public static TransferRouteGraph build(List<TrainDO> trainList, List<TrainStationDO> trainStationList, List<StationDO> stationList,
+                                           List<RegionDO> regionList, List<TrainStationPriceDO> priceList) {
+        Map<String, String> codeRegionMap = new HashMap<>();
+        regionList.forEach(each -> codeRegionMap.put(each.getCode(), each.getName()));
+        stationList.forEach(each -> codeRegionMap.put(each.getCode(), each.getRegionName()));
+        Map<Long, TrainDO> trainMap = trainList.stream().collect(Collectors.toMap(TrainDO::getId, each -> each, (a, b) -> a));
+        Map<Long, List<TrainStationDO>> trainStationMap = trainStationList.stream()
+                .filter(each -> trainMap.containsKey(each.getTrainId()))
+                .collect(Collectors.groupingBy(TrainStationDO::getTrainId, LinkedHashMap::new, Collectors.toList()));
+        List<Train> trains = new ArrayList<>(trainStationMap.size());
+        trainStationMap.forEach((trainId, stops) -> {
+            stops.sort(Comparator.comparing(TrainStationDO::getSequence));
+            if (stops.size() > 1) {
+                trains.add(Train.of(trainMap.get(trainId), stops));
+            }
+        });
+        Map<String, List<Long>> regionBoardingRefs = new HashMap<>();
+        Map<String, List<long[]>> stationDepartureRefs = new HashMap<>();
+        for (int t = 0; t < trains.size(); t++) {
+            Train train = trains.get(t);
+            for (int i = 0; i < train.stations.length - 1; i++) {
+                long ref = stopRef(t, i);
+                if (train.regions[i] != null) {
+                    regionBoardingRefs.computeIfAbsent(train.regions[i], key -> new ArrayList<>()).add(ref);
+                }
+                stationDepartureRefs.computeIfAbsent(train.stations[i], key -> new ArrayList<>())
+                        .add(new long[]{train.departureMinuteOfDay(i), ref});
+            }
+        }
+        Map<String, long[]> regionBoardingMap = new HashMap<>(regionBoardingRefs.size() * 2);
+        regionBoardingRefs.forEach((region, refs) -> regionBoardingMap.put(region, refs.stream().mapToLong(Long::longValue).toArray()));
+        Map<String, StationDepartures> stationDeparturesMap = new HashMap<>(stationDepartureRefs.size() * 2);
+        stationDepartureRefs.forEach((station, refs) -> stationDeparturesMap.put(station, StationDepartures.of(refs)));
+        Map<String, List<TrainStationPriceDO>> segmentPriceRefs = priceList.stream()
+                .collect(Collectors.groupingBy(each -> CacheUtil.buildKey(String.valueOf(each.getTrainId()), each.getDeparture(), each.getArrival())));
+        Map<String, SegmentPrice> segmentPriceMap = new HashMap<>(segmentPriceRefs.size() * 2);
+        segmentPriceRefs.forEach((keySuffix, prices) -> segmentPriceMap.put(keySuffix, SegmentPrice.of(prices)));
+        return new TransferRouteGraph(trains.toArray(new Train[0]), codeRegionMap, regionBoardingMap, stationDeparturesMap, segmentPriceMap);
+    }
+
+    /**
+     * 车站或地区编码转换为地区名称
+     */
+    public String getRegion(String code) {
+        return codeRegionMap.get(code);
+    }
+
+    /**
+     * 获取车次区间各席别价格
+     */
+    public SegmentPrice getSegmentPrice(Train train, int departureIndex, int arrivalIndex) {
+        return segmentPriceMap.get(CacheUtil.buildKey(train.trainId, train.stations[departureIndex], train.stations[arrivalIndex]));
+    }
+
+    /**
+     * 查询出发地区到目的地区的一次换乘方案，同一对车次仅保留全程历时最短的方案
+     *
+     * @param fromRegion        出发地区
+     * @param toRegion          目的地区
+     * @param minConnectionTime 最短换乘时间，单位分钟
+     * @param maxConnectionTime 最长换乘等待时间，单位分钟，小于一天
+     * @return 按全程历时升序的换乘方案
+     */
+    public List<Journey> search(String fromRegion, String toRegion, int minConnectionTime, int maxConnectionTime) {
+        long[] boardingRefs = regionBoardingMap.get(fromRegion);
+        if (boardingRefs == null || Objects.equals(fromRegion, toRegion)) {
+            return List.of();
+        }
+        Map<Long, Journey> bestJourneyMap = new HashMap<>();
+        for (long boardingRef : boardingRefs) {
+            int firstTrainIndex = trainIndex(boardingRef);
+            int boardingIndex = stopIndex(boardingRef);
+            Train firstTrain = trains[firstTrainIndex];
+            if (firstTrain.firstStopInRegion(toRegion, boardingIndex + 1) >= 0) {
+                // 首段车次可直达目的地区，属于直达车次查询范围，途中站点换乘不再作为换乘方案
+                continue;
+            }
+            for (int j = boardingIndex + 1; j < firstTrain.stations.length; j++) {
+                String region = firstTrain.regions[j];
+                StationDepartures departures = stationDeparturesMap.get(firstTrain.stations[j]);
+                if (departures == null || Objects.equals(region, fromRegion)) {
+                    continue;
+                }
+                int arrivalMinute = firstTrain.arrivalMinuteOfDay(j);
+                int lower = arrivalMinute + minConnectionTime;
+                int upper = arrivalMinute + maxConnectionTime;
+                int transferIndex = j;
+                TransferVisitor visitor = (minute, departureRef) -> {
+                    int secondTrainIndex = trainIndex(departureRef);
+                    if (secondTrainIndex == firstTrainIndex) {
+                        return;
+                    }
+                    Train secondTrain = trains[secondTrainIndex];
+                    int departureIndex = stopIndex(departureRef);
+                    int alightingIndex = secondTrain.firstStopInRegion(toRegion, departureIndex + 1);
+                    if (alightingIndex < 0) {
+                        return;
+                    }
+                    int connectionMinute = Math.floorMod(minute - arrivalMinute, MINUTES_OF_DAY);
+                    int durationMinute = firstTrain.travelMinute(boardingIndex, transferIndex)
+                            + connectionMinute
+                            + secondTrain.travelMinute(departureIndex, alightingIndex);
+                    long pairKey = ((long) firstTrainIndex << 32) | secondTrainIndex;
+                    Journey actual = bestJourneyMap.get(pairKey);
+                    if (actual == null || durationMinute < actual.durationMinute) {
+                        bestJourneyMap.put(pairKey, new Journey(firstTrain, boardingIndex, transferIndex,
+                                secondTrain, departureIndex, alightingIndex, connectionMinute, durationMinute));
+                    }
+                };
+                if (upper < MINUTES_OF_DAY) {
+                    departures.visit(lower, upper, visitor);
+                } else if (lower >= MINUTES_OF_DAY) {
+                    departures.visit(lower - MINUTES_OF_DAY, upper - MINUTES_OF_DAY, visitor);
+                } else {
+                    departures.visit(lower, MINUTES_OF_DAY - 1, visitor);
+                    departures.visit(0, upper - MINUTES_OF_DAY, visitor);
+                }
+            }
+        }
+        List<Journey> result = new ArrayList<>(bestJourneyMap.values());
+        result.sort(Comparator.comparingInt(Journey::getDurationMinute)
+                .thenComparingInt(each -> each.getFirstTrain().departureMinuteOfDay(each.getBoardingIndex())));
+        return result;
+    }
+
+    private static long stopRef(int trainIndex, int stopIndex) {
+        return ((long) trainIndex << 32) | stopIndex;
+    }
+
+    private static int trainIndex(long stopRef) {
+        return (int) (stopRef >>> 32);
+    }
+
+    private static int stopIndex(long stopRef) {
+        return (int) stopRef;
+    }
+
+    @FunctionalInterface
+    private interface TransferVisitor {
+
+        void visit(int departureMinute, long departureRef);
+    }
+
+    /**
+     * 车次时刻，分钟偏移量相对始发站出发时间计算，跨天车次同样适用
+     */
+    @Getter
+    public static final class Train {
+
+        private final String trainId;
+        private final String trainNumber;
+        private final Integer trainType;
+        private final String trainBrand;
+        private final String trainTag;
+        private final String[] stations;
+        private final String[] regions;
+        private final int startMinuteOfDay;
+        private final int[] arrivalOffsets;
+        private final int[] departureOffsets;
+
+        private Train(TrainDO train, String[] stations, String[] regions, int startMinuteOfDay, int[] arrivalOffsets, int[] departureOffsets) {
+            this.trainId = String.valueOf(train.getId());
+            this.trainNumber = train.getTrainNumber();
+            this.trainType = train.getTrainType();
+            this.trainBrand = train.getTrainBrand();
+            this.trainTag = train.getTrainTag();
+            this.stations = stations;
+            this.regions = regions;
+            this.startMinuteOfDay = startMinuteOfDay;
+            this.arrivalOffsets = arrivalOffsets;
+            this.departureOffsets = departureOffsets;
+        }
+
+        private static Train of(TrainDO train, List<TrainStationDO> stops) {
+            int size = stops.size();
+            String[] stations = new String[size];
+            String[] regions = new String[size];
+            int[] arrivalOffsets = new int[size];
+            int[] departureOffsets = new int[size];
+            Date startTime = stops.get(0).getDepartureTime() == null ? stops.get(0).getArrivalTime() : stops.get(0).getDepartureTime();
+            long startEpochMinute = epochMinute(startTime);
+            for (int i = 0; i < size; i++) {
+                TrainStationDO stop = stops.get(i);
+                stations[i] = stop.getDeparture();
+                regions[i] = stop.getStartRegion();
+                // 始发站无到站时间、终点站无出站时间时取另一时间
+                Date arrivalTime = stop.getArrivalTime() == null ? stop.getDepartureTime() : stop.getArrivalTime();
+                Date departureTime = stop.getDepartureTime() == null ? arrivalTime : stop.getDepartureTime();
+                arrivalOffsets[i] = (int) (epochMinute(arrivalTime) - startEpochMinute);
+                departureOffsets[i] = (int) (epochMinute(departureTime) - startEpochMinute);
+            }
+            LocalDateTime start = startTime.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+            int startMinuteOfDay = start.getHour() * 60 + start.getMinute();
+            return new Train(train, stations, regions, startMinuteOfDay, arrivalOffsets, departureOffsets);
+        }
+
+        private static long epochMinute(Date date) {
+            return date.getTime() / 60000L;
+        }
+
+        /**
+         * 站点出发时刻当日分钟数
+         */
+        public int departureMinuteOfDay(int index) {
+            return (startMinuteOfDay + departureOffsets[index]) % MINUTES_OF_DAY;
+        }
+
+        /**
+         * 站点到达时刻当日分钟数
+         */
+        public int arrivalMinuteOfDay(int index) {
+            return (startMinuteOfDay + arrivalOffsets[index]) % MINUTES_OF_DAY;
+        }
+
+        /**
+         * 区间运行分钟数
+         */
+        public int travelMinute(int departureIndex, int arrivalIndex) {
+            return arrivalOffsets[arrivalIndex] - departureOffsets[departureIndex];
+        }
+
+        /**
+         * 区间到达天数
+         */
+        public int daysArrived(int departureIndex, int arrivalIndex) {
+            return (startMinuteOfDay + arrivalOffsets[arrivalIndex]) / MINUTES_OF_DAY
+                    - (startMinuteOfDay + departureOffsets[departureIndex]) / MINUTES_OF_DAY;
+        }
+
+        private int firstStopInRegion(String region, int fromIndex) {
+            for (int i = fromIndex; i < regions.length; i++) {
+                if (Objects.equals(regions[i], region)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * 车站出发车次，按出发时刻当日分钟数升序
+     */
+    private static final class StationDepartures {
+
+        private final int[] departureMinutes;
+        private final long[] departureRefs;
+
+        private StationDepartures(int[] departureMinutes, long[] departureRefs) {
+            this.departureMinutes = departureMinutes;
+            this.departureRefs = departureRefs;
+        }
+
+        private static StationDepartures of(List<long[]> refs) {
+            refs.sort(Comparator.comparingLong(each -> each[0]));
+            int[] departureMinutes = new int[refs.size()];
+            long[] departureRefs = new long[refs.size()];
+            for (int i = 0; i < refs.size(); i++) {
+                departureMinutes[i] = (int) refs.get(i)[0];
+                departureRefs[i] = refs.get(i)[1];
+            }
+            return new StationDepartures(departureMinutes, departureRefs);
+        }
+
+        private void visit(int lower, int upper, TransferVisitor visitor) {
+            int index = Arrays.binarySearch(departureMinutes, lower);
+            if (index < 0) {
+                index = -index - 1;
+            } else {
+                while (index > 0 && departureMinutes[index - 1] == lower) {
+                    index--;
+                }
+            }
+            for (; index < departureMinutes.length && departureMinutes[index] <= upper; index++) {
+                visitor.visit(departureMinutes[index], departureRefs[index]);
+            }
+        }
+    }
+
+    /**
+     * 车次区间各席别价格，价格单位分
+     */
+    @Getter
+    public static final class SegmentPrice {
+
+        private final int[] seatTypes;
+        private final int[] prices;
+
+        private SegmentPrice(int[] seatTypes, int[] prices) {
+            this.seatTypes = seatTypes;
+            this.prices = prices;
+        }
+
+        private static SegmentPrice of(List<TrainStationPriceDO> priceList) {
+            int[] seatTypes = new int[priceList.size()];
+            int[] prices = new int[priceList.size()];
+            for (int i = 0; i < priceList.size(); i++) {
+                seatTypes[i] = priceList.get(i).getSeatType();
+                prices[i] = priceList.get(i).getPrice();
+            }
+            return new SegmentPrice(seatTypes, prices);
+        }
+    }
+
+    /**
+     * 一次换乘方案，首段车次 boardingIndex 上车 transferIndex 下车，换乘车次 departureIndex 上车 alightingIndex 下车
+     */
+    @Getter
+    public static final class Journey {
+
+        private final Train firstTrain;
+        private final int boardingIndex;
+        private final int transferIndex;
+        private final Train secondTrain;
+        private final int departureIndex;
+        private final int alightingIndex;
+        private final int connectionMinute;
+        private final int durationMinute;
+
+        private Journey(Train firstTrain, int boardingIndex, int transferIndex, Train secondTrain,
+                        int departureIndex, int alightingIndex, int connectionMinute, int durationMinute) {
+            this.firstTrain = firstTrain;
+            this.boardingIndex = boardingIndex;
+            this.transferIndex = transferIndex;
+            this.secondTrain = secondTrain;
+            this.departureIndex = departureIndex;
+            this.alightingIndex = alightingIndex;
+            this.connectionMinute = connectionMinute;
+            this.durationMinute = durationMinute;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.seatmap;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.SeatInventoryProperties;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.SeatSegmentDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.SeatSegmentMapper;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainMapper;
+import org.opengoofy.index12306.biz.ticketservice.service.TrainStationService;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayout;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayoutRegistry;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.select.SeatBitmapSelection;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatIdUtil;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatSegmentMaskUtil;
+import org.opengoofy.index12306.framework.starter.bases.Singleton;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CacheUtil;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.Index12306Constant.ADVANCE_TICKET_DAY;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.LOCK_TRAIN_SEAT_STATUS_LOAD;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_CARRIAGE_SEAT_STATUS;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_INFO;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_SEAT_STATUS_LOADED;
+
+/**
+ * Redis 座位位图存储
+ * 每个 列车 + 车厢 + 区段 对应一个位图，座位位偏移为 排下标 * {@link SeatBitmapSelection#MAX_COLUMNS} + 列下标，位为 1 表示区段已占用
+ * 占用、释放座位通过 Lua 脚本一次性校验并修改乘车区间内所有区段，多节点购票无需分布式锁即可保证座位不超卖
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisSeatBitmapStore {
+
+    private static final String LUA_SEAT_BITMAP_CLAIM_PATH = "lua/seat_bitmap_claim.lua";
+    private static final String LUA_SEAT_BITMAP_RELEASE_PATH = "lua/seat_bitmap_release.lua";
+
+    private final SeatInventoryProperties seatInventoryProperties;
+    private final DistributedCache distributedCache;
+    private final RedissonClient redissonClient;
+    private final SeatSegmentMapper seatSegmentMapper;
+    private final TrainMapper trainMapper;
+    private final TrainStationService trainStationService;
+
+    /**
+     * 列车座位目录，座位布局以及车厢座位在列车售卖期间不变，首次访问时加载并初始化 Redis 位图
+     */
+    private final Cache<String, SeatCatalog> seatCatalogCache = Caffeine.newBuilder()
+            .expireAfterAccess(ADVANCE_TICKET_DAY, TimeUnit.DAYS)
+            .build();
+
+    /**
+     * 是否使用 Redis 座位位图存储
+     */
+    public boolean isEnabled() {
+        return Objects.equals(seatInventoryProperties.getType(), SeatInventoryProperties.TYPE_REDIS);
+    }
+
+    /**
+     * 获取列车乘车区段座位快照，所有车厢所有区段位图通过一次 MGET 读取
+     *
+     * @param trainId   列车 ID
+     * @param seatType  座位类型
+     * @param departure 出发站
+     * @param arrival   到达站
+     * @return 座位快照
+     */
+    public TrainSeatSnapshot snapshot(String trainId, Integer seatType, String departure, String arrival) {
+        SeatCatalog seatCatalog = getSeatCatalog(trainId, seatType);
+        long rangeMask = rangeMask(trainId, departure, arrival);
+        int segmentStart = Long.numberOfTrailingZeros(rangeMask);
+        int segmentCount = Long.bitCount(rangeMask);
+        byte[][] keys = new byte[seatCatalog.carriageNumbers.length * segmentCount][];
+        for (int i = 0; i < seatCatalog.carriageNumbers.length; i++) {
+            for (int s = 0; s < segmentCount; s++) {
+                keys[i * segmentCount + s] = buildKey(trainId, seatCatalog.carriageNumbers[i], segmentStart + s).getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        TrainSeatSnapshot.Builder builder = TrainSeatSnapshot.builder(seatCatalog.seatLayout.getRows());
+        if (keys.length == 0) {
+            return builder.build();
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        List<byte[]> bitmaps = stringRedisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(keys));
+        for (int i = 0; i < seatCatalog.carriageNumbers.length; i++) {
+            byte[] occupied = new byte[0];
+            for (int s = 0; s < segmentCount; s++) {
+                occupied = or(occupied, bitmaps == null ? null : bitmaps.get(i * segmentCount + s));
+            }
+            for (int seatId : seatCatalog.seatIds[i]) {
+                if (!getBit(occupied, bitOffset(seatId))) {
+                    builder.add(seatCatalog.carriageNumbers[i], seatId);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 原子占用乘车区段内同一座位类型的座位，任一座位任一区段已被占用时全部不占用
+     *
+     * @param trainId                     列车 ID
+     * @param seatType                    座位类型
+     * @param departure                   出发站
+     * @param arrival                     到达站
+     * @param trainPurchaseTicketRespList 乘车人以及座位信息
+     */
+    public void claim(String trainId, Integer seatType, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketRespList) {
+        DefaultRedisScript<Long> actual = Singleton.get(LUA_SEAT_BITMAP_CLAIM_PATH, () -> {
+            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_SEAT_BITMAP_CLAIM_PATH)));
+            redisScript.setResultType(Long.class);
+            return redisScript;
+        });
+        Long result = execute(actual, trainId, seatType, departure, arrival, trainPurchaseTicketRespList);
+        if (result != null && result < 0) {
+            // Redis 位图已丢失但本地座位目录仍在，重新加载目录以按 MySQL 区段位图重建位图
+            seatCatalogCache.invalidate(CacheUtil.buildKey(trainId, String.valueOf(seatType)));
+            getSeatCatalog(trainId, seatType);
+            result = execute(actual, trainId, seatType, departure, arrival, trainPurchaseTicketRespList);
+        }
+        if (result == null || result != 0) {
+            TrainPurchaseTicketRespDTO conflict = result == null || result < 0 ? trainPurchaseTicketRespList.get(0) : trainPurchaseTicketRespList.get(result.intValue() - 1);
+            throw new ServiceException(String.format("车厢 %s 座位 %s 已被占用，请重新购票", conflict.getCarriageNumber(), conflict.getSeatNumber()));
+        }
+    }
+
+    /**
+     * 释放乘车区段内同一座位类型的座位
+     *
+     * @param trainId                    列车 ID
+     * @param seatType                   座位类型
+     * @param departure                  出发站
+     * @param arrival                    到达站
+     * @param trainPurchaseTicketResults 乘车人以及座位信息
+     */
+    public void release(String trainId, Integer seatType, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        DefaultRedisScript<Long> actual = Singleton.get(LUA_SEAT_BITMAP_RELEASE_PATH, () -> {
+            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_SEAT_BITMAP_RELEASE_PATH)));
+            redisScript.setResultType(Long.class);
+            return redisScript;
+        });
+        execute(actual, trainId, seatType, departure, arrival, trainPurchaseTicketResults);
+    }
+
+    /**
+     * 按 MySQL 区段位图补齐座位在 Redis 位图中的占用，只置位不清位
+     * Redis 占用成功而 MySQL 条件更新拒绝时调用，说明位图重建时该座位的占用尚未提交，需在购票事务结束后调用以读取最新提交的区段位图
+     *
+     * @param trainId        列车 ID
+     * @param seatType       座位类型
+     * @param carriageNumber 车厢号
+     * @param seatNumber     座位号
+     */
+    public void repair(String trainId, Integer seatType, String carriageNumber, String seatNumber) {
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(String.format(TRAIN_SEAT_STATUS_LOADED, trainId, seatType)))) {
+                // 位图未初始化，下次访问时整体按 MySQL 重建
+                return;
+            }
+            LambdaQueryWrapper<SeatSegmentDO> queryWrapper = Wrappers.lambdaQuery(SeatSegmentDO.class)
+                    .eq(SeatSegmentDO::getTrainId, Long.parseLong(trainId))
+                    .eq(SeatSegmentDO::getCarriageNumber, carriageNumber)
+                    .eq(SeatSegmentDO::getSeatNumber, seatNumber)
+                    .select(SeatSegmentDO::getSegmentMask);
+            SeatSegmentDO seatSegmentDO = seatSegmentMapper.selectOne(queryWrapper);
+            long segmentMask = seatSegmentDO == null || seatSegmentDO.getSegmentMask() == null ? 0L : seatSegmentDO.getSegmentMask();
+            int seatId = getSeatCatalog(trainId, seatType).seatLayout.parseSeatId(carriageNumber, seatNumber);
+            if (segmentMask == 0L || seatId == SeatIdUtil.INVALID_SEAT_ID) {
+                return;
+            }
+            long offset = bitOffset(seatId);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                long remaining = segmentMask;
+                while (remaining != 0) {
+                    int segment = Long.numberOfTrailingZeros(remaining);
+                    connection.stringCommands().setBit(buildKey(trainId, carriageNumber, segment).getBytes(StandardCharsets.UTF_8), offset, true);
+                    remaining &= remaining - 1;
+                }
+                return null;
+            });
+        } catch (Throwable ex) {
+            log.warn("按 MySQL 区段位图补齐 Redis 座位位图失败，列车：{}，车厢：{}，座位：{}", trainId, carriageNumber, seatNumber, ex);
+        }
+    }
+
+    /**
+     * 计算出发站到到达站的乘车区段位图
+     */
+    public long rangeMask(String trainId, String departure, String arrival) {
+        return SeatSegmentMaskUtil.rangeMask(trainStationService.listTrainStationAll(trainId), departure, arrival);
+    }
+
+    private Long execute(DefaultRedisScript<Long> redisScript, String trainId, Integer seatType, String departure, String arrival, List<TrainPurchaseTicketRespDTO> seats) {
+        long rangeMask = rangeMask(trainId, departure, arrival);
+        int segmentStart = Long.numberOfTrailingZeros(rangeMask);
+        int segmentCount = Long.bitCount(rangeMask);
+        Map<String, Integer> carriageGroupMap = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>();
+        keys.add(String.format(TRAIN_SEAT_STATUS_LOADED, trainId, seatType));
+        List<String> args = new ArrayList<>(seats.size() * 2 + 1);
+        args.add(String.valueOf(segmentCount));
+        for (TrainPurchaseTicketRespDTO each : seats) {
+            int seatId = resolveSeatId(trainId, seatType, each);
+            Integer group = carriageGroupMap.get(each.getCarriageNumber());
+            if (group == null) {
+                group = carriageGroupMap.size();
+                carriageGroupMap.put(each.getCarriageNumber(), group);
+                for (int s = 0; s < segmentCount; s++) {
+                    keys.add(buildKey(trainId, each.getCarriageNumber(), segmentStart + s));
+                }
+            }
+            args.add(String.valueOf(group));
+            args.add(String.valueOf(bitOffset(seatId)));
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        return stringRedisTemplate.execute(redisScript, keys, args.toArray());
+    }
+
+    private int resolveSeatId(String trainId, Integer seatType, TrainPurchaseTicketRespDTO trainPurchaseTicketResp) {
+        if (trainPurchaseTicketResp.getSeatId() != null) {
+            return trainPurchaseTicketResp.getSeatId();
+        }
+        // 订单取消等场景的座位信息来源于订单记录，仅有车厢号以及座位号
+        SeatCatalog seatCatalog = getSeatCatalog(trainId, seatType);
+        int seatId = seatCatalog.seatLayout.parseSeatId(trainPurchaseTicketResp.getCarriageNumber(), trainPurchaseTicketResp.getSeatNumber());
+        if (seatId == SeatIdUtil.INVALID_SEAT_ID) {
+            throw new ServiceException(String.format("车厢 %s 座位 %s 不存在", trainPurchaseTicketResp.getCarriageNumber(), trainPurchaseTicketResp.getSeatNumber()));
+        }
+        return seatId;
+    }
+
+    private SeatCatalog getSeatCatalog(String trainId, Integer seatType) {
+        return seatCatalogCache.get(CacheUtil.buildKey(trainId, String.valueOf(seatType)), key -> loadSeatCatalog(trainId, seatType));
+    }
+
+    /**
+     * 加载列车座位目录，Redis 位图未初始化时按 MySQL 区段位图初始化
+     * 重建只置位不清位，重建时尚未提交的占用可能缺失，由购票事务内的 MySQL 条件更新兜底拒绝并通过 {@link #repair} 补回
+     */
+    private SeatCatalog loadSeatCatalog(String trainId, Integer seatType) {
+        TrainDO trainDO = distributedCache.safeGet(
+                TRAIN_INFO + trainId,
+                TrainDO.class,
+                () -> trainMapper.selectById(trainId),
+                ADVANCE_TICKET_DAY,
+                TimeUnit.DAYS
+        );
+        SeatLayout seatLayout = SeatLayoutRegistry.get(trainDO.getTrainType(), seatType);
+        RLock lock = redissonClient.getLock(String.format(LOCK_TRAIN_SEAT_STATUS_LOAD, trainId, seatType));
+        lock.lock();
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            String loadedKey = String.format(TRAIN_SEAT_STATUS_LOADED, trainId, seatType);
+            boolean loaded = Boolean.TRUE.equals(stringRedisTemplate.hasKey(loadedKey));
+            LambdaQueryWrapper<SeatSegmentDO> queryWrapper = Wrappers.lambdaQuery(SeatSegmentDO.class)
+                    .eq(SeatSegmentDO::getTrainId, Long.parseLong(trainId))
+                    .eq(SeatSegmentDO::getSeatType, seatType)
+                    .orderByAsc(SeatSegmentDO::getCarriageNumber, SeatSegmentDO::getSeatNumber)
+                    .select(SeatSegmentDO::getCarriageNumber, SeatSegmentDO::getSeatNumber, SeatSegmentDO::getSegmentMask);
+            List<SeatSegmentDO> seatSegmentDOList = seatSegmentMapper.selectList(queryWrapper);
+            Map<String, List<Integer>> carriageSeatIdMap = new LinkedHashMap<>();
+            List<byte[]> occupiedKeys = new ArrayList<>();
+            List<Long> occupiedOffsets = new ArrayList<>();
+            for (SeatSegmentDO each : seatSegmentDOList) {
+                int seatId = seatLayout.parseSeatId(each.getCarriageNumber(), each.getSeatNumber());
+                if (seatId == SeatIdUtil.INVALID_SEAT_ID) {
+                    continue;
+                }
+                carriageSeatIdMap.computeIfAbsent(each.getCarriageNumber(), k -> new ArrayList<>()).add(seatId);
+                long segmentMask = each.getSegmentMask() == null ? 0L : each.getSegmentMask();
+                while (!loaded && segmentMask != 0) {
+                    int segment = Long.numberOfTrailingZeros(segmentMask);
+                    occupiedKeys.add(buildKey(trainId, each.getCarriageNumber(), segment).getBytes(StandardCharsets.UTF_8));
+                    occupiedOffsets.add(bitOffset(seatId));
+                    segmentMask &= segmentMask - 1;
+                }
+            }
+            if (!loaded) {
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (int i = 0; i < occupiedKeys.size(); i++) {
+                        connection.stringCommands().setBit(occupiedKeys.get(i), occupiedOffsets.get(i), true);
+                    }
+                    connection.stringCommands().set(loadedKey.getBytes(StandardCharsets.UTF_8), "1".getBytes(StandardCharsets.UTF_8));
+                    return null;
+                });
+            }
+            String[] carriageNumbers = carriageSeatIdMap.keySet().toArray(new String[0]);
+            int[][] seatIds = new int[carriageNumbers.length][];
+            for (int i = 0; i < carriageNumbers.length; i++) {
+                seatIds[i] = carriageSeatIdMap.get(carriageNumbers[i]).stream().mapToInt(Integer::intValue).toArray();
+            }
+            return new SeatCatalog(seatLayout, carriageNumbers, seatIds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String buildKey(String trainId, String carriageNumber, int segment) {
+        return String.format(TRAIN_CARRIAGE_SEAT_STATUS, trainId, carriageNumber, segment);
+    }
+
+    private static long bitOffset(int seatId) {
+        return (long) SeatIdUtil.row(seatId) * SeatBitmapSelection.MAX_COLUMNS + SeatIdUtil.column(seatId);
+    }
+
+    private static byte[] or(byte[] left, byte[] right) {
+        if (right == null || right.length == 0) {
+            return left;
+        }
+        byte[] result = left.length >= right.length ? left.clone() : right.clone();
+        byte[] shorter = left.length >= right.length ? right : left;
+        for (int i = 0; i < shorter.length; i++) {
+            result[i] |= shorter[i];
+        }
+        return result;
+    }
+
+    /**
+     * Redis 位图第 0 位为首字节最高位
+     */
+    private static boolean getBit(byte[] bitmap, long offset) {
+        int index = (int) (offset >>> 3);
+        return index < bitmap.length && (bitmap[index] & (0x80 >>> (offset & 7))) != 0;
+    }
+
+    private static final class SeatCatalog {
+
+        private final SeatLayout seatLayout;
+        private final String[] carriageNumbers;
+        private final int[][] seatIds;
+
+        private SeatCatalog(SeatLayout seatLayout, String[] carriageNumbers, int[][] seatIds) {
+            this.seatLayout = seatLayout;
+            this.carriageNumbers = carriageNumbers;
+            this.seatIds = seatIds;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.seatmap;
+
+import lombok.Getter;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayout;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatIdUtil;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatSegmentMaskUtil;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列车座位图，按 列车 + 座位类型 维度常驻内存
+ * 每节车厢使用一个 long[] 保存座位区段占用位图，通过 CAS 占用区段，不同区段的并发购票互不阻塞
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class TrainSeatMap {
+
+    private static final VarHandle SEGMENT_MASK_HANDLE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * 列车 ID
+     */
+    @Getter
+    private final Long trainId;
+
+    /**
+     * 座位类型
+     */
+    @Getter
+    private final Integer seatType;
+
+    /**
+     * 列车经停站点集合，按经停顺序排列
+     */
+    private final List<String> stations;
+
+    /**
+     * 车厢号集合，按车厢号顺序排列
+     */
+    private final String[] carriageNumbers;
+
+    /**
+     * 车厢座位号集合，与 segmentMasks 下标一一对应
+     */
+    private final String[][] seatNumbers;
+
+    /**
+     * 车厢座位区段占用位图
+     */
+    private final long[][] segmentMasks;
+
+    /**
+     * 车厢号 -> 车厢下标
+     */
+    private final Map<String, Integer> carriageIndexMap;
+
+    /**
+     * 车厢下标 -> 座位号 -> 座位下标
+     */
+    private final List<Map<String, Integer>> seatIndexMaps;
+
+    /**
+     * 车厢座位标识集合，与 segmentMasks 下标一一对应，座位号不属于座位布局时为 {@link SeatIdUtil#INVALID_SEAT_ID}
+     */
+    private final int[][] seatIds;
+
+    /**
+     * 车厢号数值 -> 车厢下标，不存在为 -1
+     */
+    private final int[] carriageIndexes;
+
+    /**
+     * 车厢下标 -> 排下标 * 列数 + 列下标 -> 座位下标，不存在为 -1
+     */
+    private final int[][] seatIndexes;
+
+    /**
+     * 座位布局排数，未适配座位布局时为 0
+     */
+    private final int rows;
+
+    /**
+     * 座位布局列数，未适配座位布局时为 0
+     */
+    private final int columns;
+
+    public TrainSeatMap(Long trainId, Integer seatType, List<String> stations, String[] carriageNumbers, String[][] seatNumbers, long[][] segmentMasks,
+                        SeatLayout seatLayout) {
+        this.trainId = trainId;
+        this.seatType = seatType;
+        this.stations = List.copyOf(stations);
+        this.carriageNumbers = carriageNumbers;
+        this.seatNumbers = seatNumbers;
+        this.segmentMasks = segmentMasks;
+        this.carriageIndexMap = new HashMap<>(carriageNumbers.length);
+        this.seatIndexMaps = new ArrayList<>(carriageNumbers.length);
+        this.seatIds = new int[carriageNumbers.length][];
+        this.seatIndexes = new int[carriageNumbers.length][];
+        this.rows = seatLayout == null ? 0 : seatLayout.getRows();
+        this.columns = seatLayout == null ? 0 : seatLayout.getColumns();
+        int maxCarriageNumber = -1;
+        for (int i = 0; i < carriageNumbers.length; i++) {
+            carriageIndexMap.put(carriageNumbers[i], i);
+            maxCarriageNumber = Math.max(maxCarriageNumber, SeatIdUtil.parseCarriageNumber(carriageNumbers[i]));
+            Map<String, Integer> seatIndexMap = new HashMap<>(seatNumbers[i].length);
+            seatIds[i] = new int[seatNumbers[i].length];
+            seatIndexes[i] = new int[rows * columns];
+            Arrays.fill(seatIndexes[i], -1);
+            for (int j = 0; j < seatNumbers[i].length; j++) {
+                seatIndexMap.put(seatNumbers[i][j], j);
+                int seatId = seatLayout == null ? SeatIdUtil.INVALID_SEAT_ID : seatLayout.parseSeatId(carriageNumbers[i], seatNumbers[i][j]);
+                seatIds[i][j] = seatId;
+                if (seatId != SeatIdUtil.INVALID_SEAT_ID) {
+                    seatIndexes[i][SeatIdUtil.row(seatId) * columns + SeatIdUtil.column(seatId)] = j;
+                }
+            }
+            seatIndexMaps.add(seatIndexMap);
+        }
+        this.carriageIndexes = new int[maxCarriageNumber + 1];
+        Arrays.fill(carriageIndexes, -1);
+        for (int i = 0; i < carriageNumbers.length; i++) {
+            int carriageNumber = SeatIdUtil.parseCarriageNumber(carriageNumbers[i]);
+            if (carriageNumber >= 0) {
+                carriageIndexes[carriageNumber] = i;
+            }
+        }
+    }
+
+    /**
+     * 计算出发站到到达站的乘车区段位图
+     */
+    public long rangeMask(String departure, String arrival) {
+        return SeatSegmentMaskUtil.rangeMask(stations, departure, arrival);
+    }
+
+    /**
+     * 查询乘车区段有余票的车厢号集合
+     */
+    public List<String> listUsableCarriageNumber(long rangeMask) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < carriageNumbers.length; i++) {
+            if (countAvailable(i, rangeMask) > 0) {
+                result.add(carriageNumbers[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 生成乘车区段座位快照，座位号不属于座位布局的座位不计入
+     *
+     * @param rangeMask 乘车区段位图
+     * @return 座位快照
+     */
+    public TrainSeatSnapshot snapshot(long rangeMask) {
+        TrainSeatSnapshot.Builder builder = TrainSeatSnapshot.builder(rows);
+        for (int i = 0; i < carriageNumbers.length; i++) {
+            long[] masks = segmentMasks[i];
+            int[] carriageSeatIds = seatIds[i];
+            for (int j = 0; j < masks.length; j++) {
+                if (carriageSeatIds[j] != SeatIdUtil.INVALID_SEAT_ID && SeatSegmentMaskUtil.isAvailable((long) SEGMENT_MASK_HANDLE.getVolatile(masks, j), rangeMask)) {
+                    builder.add(carriageNumbers[i], carriageSeatIds[j]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 座位图是否包含车厢
+     */
+    public boolean containsCarriage(String carriageNumber) {
+        return carriageIndexMap.containsKey(carriageNumber);
+    }
+
+    /**
+     * 统计车厢乘车区段可用座位数量，车厢不存在返回 0
+     */
+    public int countAvailable(String carriageNumber, long rangeMask) {
+        Integer carriageIndex = carriageIndexMap.get(carriageNumber);
+        return carriageIndex == null ? 0 : countAvailable(carriageIndex, rangeMask);
+    }
+
+    /**
+     * 统计整列车乘车区段可用座位数量
+     */
+    public int countAvailable(long rangeMask) {
+        int count = 0;
+        for (int i = 0; i < carriageNumbers.length; i++) {
+            count += countAvailable(i, rangeMask);
+        }
+        return count;
+    }
+
+    private int countAvailable(int carriageIndex, long rangeMask) {
+        long[] masks = segmentMasks[carriageIndex];
+        int count = 0;
+        for (int i = 0; i < masks.length; i++) {
+            if (SeatSegmentMaskUtil.isAvailable((long) SEGMENT_MASK_HANDLE.getVolatile(masks, i), rangeMask)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 占用座位乘车区段
+     *
+     * @return 区段已被其它请求占用或座位不存在返回 false
+     */
+    public boolean tryOccupy(String carriageNumber, String seatNumber, long rangeMask) {
+        return tryOccupy(position(carriageNumber, seatNumber), rangeMask);
+    }
+
+    /**
+     * 按座位标识占用座位乘车区段
+     *
+     * @return 区段已被其它请求占用或座位不存在返回 false
+     */
+    public boolean tryOccupy(int seatId, long rangeMask) {
+        return tryOccupy(position(seatId), rangeMask);
+    }
+
+    private boolean tryOccupy(int[] position, long rangeMask) {
+        if (position == null) {
+            return false;
+        }
+        long[] masks = segmentMasks[position[0]];
+        long current;
+        do {
+            current = (long) SEGMENT_MASK_HANDLE.getVolatile(masks, position[1]);
+            if (!SeatSegmentMaskUtil.isAvailable(current, rangeMask)) {
+                return false;
+            }
+        } while (!SEGMENT_MASK_HANDLE.compareAndSet(masks, position[1], current, current | rangeMask));
+        return true;
+    }
+
+    /**
+     * 释放座位乘车区段
+     */
+    public void release(String carriageNumber, String seatNumber, long rangeMask) {
+        release(position(carriageNumber, seatNumber), rangeMask);
+    }
+
+    /**
+     * 按座位标识释放座位乘车区段
+     */
+    public void release(int seatId, long rangeMask) {
+        release(position(seatId), rangeMask);
+    }
+
+    private void release(int[] position, long rangeMask) {
+        if (position == null) {
+            return;
+        }
+        long[] masks = segmentMasks[position[0]];
+        long current;
+        do {
+            current = (long) SEGMENT_MASK_HANDLE.getVolatile(masks, position[1]);
+        } while (!SEGMENT_MASK_HANDLE.compareAndSet(masks, position[1], current, current & ~rangeMask));
+    }
+
+    private int[] position(String carriageNumber, String seatNumber) {
+        Integer carriageIndex = carriageIndexMap.get(carriageNumber);
+        if (carriageIndex == null) {
+            return null;
+        }
+        Integer seatIndex = seatIndexMaps.get(carriageIndex).get(seatNumber);
+        return seatIndex == null ? null : new int[]{carriageIndex, seatIndex};
+    }
+
+    private int[] position(int seatId) {
+        int carriageNumber = SeatIdUtil.carriageNumber(seatId);
+        if (seatId == SeatIdUtil.INVALID_SEAT_ID || carriageNumber >= carriageIndexes.length || carriageIndexes[carriageNumber] < 0) {
+            return null;
+        }
+        int carriageIndex = carriageIndexes[carriageNumber];
+        int row = SeatIdUtil.row(seatId);
+        int column = SeatIdUtil.column(seatId);
+        int cell = row * columns + column;
+        if (column >= columns || cell >= seatIndexes[carriageIndex].length || seatIndexes[carriageIndex][cell] < 0) {
+            return null;
+        }
+        return new int[]{carriageIndex, seatIndexes[carriageIndex][cell]};
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.seatmap;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.SeatSegmentDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.SeatSegmentMapper;
+import org.opengoofy.index12306.biz.ticketservice.dao.mapper.TrainMapper;
+import org.opengoofy.index12306.biz.ticketservice.service.TrainStationService;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayout;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayoutRegistry;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CacheUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.Index12306Constant.ADVANCE_TICKET_DAY;
+
+/**
+ * 列车座位图管理器，首次访问时从 MySQL 加载并常驻内存
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Component
+@RequiredArgsConstructor
+public class TrainSeatMapManager {
+
+    private final SeatSegmentMapper seatSegmentMapper;
+    private final TrainStationService trainStationService;
+    private final TrainMapper trainMapper;
+
+    private final Cache<String, TrainSeatMap> trainSeatMapCache = Caffeine.newBuilder()
+            .expireAfterAccess(ADVANCE_TICKET_DAY, TimeUnit.DAYS)
+            .build();
+
+    /**
+     * 获取列车座位图，不存在时加载
+     *
+     * @param trainId  列车 ID
+     * @param seatType 座位类型
+     * @return 列车座位图
+     */
+    public TrainSeatMap get(Long trainId, Integer seatType) {
+        return trainSeatMapCache.get(CacheUtil.buildKey(String.valueOf(trainId), String.valueOf(seatType)), key -> load(trainId, seatType));
+    }
+
+    /**
+     * 获取列车已加载的所有座位类型座位图
+     *
+     * @param trainId 列车 ID
+     * @return 已加载的座位图集合
+     */
+    public List<TrainSeatMap> listLoaded(Long trainId) {
+        String keyPrefix = trainId + "_";
+        return trainSeatMapCache.asMap().entrySet().stream()
+                .filter(each -> each.getKey().startsWith(keyPrefix))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+
+    /**
+     * 移除列车所有座位类型的座位图，下次访问时重新加载
+     *
+     * @param trainId 列车 ID
+     */
+    public void invalidate(Long trainId) {
+        String keyPrefix = trainId + "_";
+        trainSeatMapCache.asMap().keySet().removeIf(each -> each.startsWith(keyPrefix));
+    }
+
+    private TrainSeatMap load(Long trainId, Integer seatType) {
+        LambdaQueryWrapper<SeatSegmentDO> queryWrapper = Wrappers.lambdaQuery(SeatSegmentDO.class)
+                .eq(SeatSegmentDO::getTrainId, trainId)
+                .eq(SeatSegmentDO::getSeatType, seatType)
+                .orderByAsc(SeatSegmentDO::getCarriageNumber, SeatSegmentDO::getSeatNumber)
+                .select(SeatSegmentDO::getCarriageNumber, SeatSegmentDO::getSeatNumber, SeatSegmentDO::getSegmentMask);
+        List<SeatSegmentDO> seatSegmentDOList = seatSegmentMapper.selectList(queryWrapper);
+        Map<String, List<SeatSegmentDO>> carriageSeatMap = new LinkedHashMap<>();
+        seatSegmentDOList.forEach(each -> carriageSeatMap.computeIfAbsent(each.getCarriageNumber(), key -> new ArrayList<>()).add(each));
+        String[] carriageNumbers = carriageSeatMap.keySet().toArray(new String[0]);
+        String[][] seatNumbers = new String[carriageNumbers.length][];
+        long[][] segmentMasks = new long[carriageNumbers.length][];
+        for (int i = 0; i < carriageNumbers.length; i++) {
+            List<SeatSegmentDO> carriageSeats = carriageSeatMap.get(carriageNumbers[i]);
+            seatNumbers[i] = new String[carriageSeats.size()];
+            segmentMasks[i] = new long[carriageSeats.size()];
+            for (int j = 0; j < carriageSeats.size(); j++) {
+                seatNumbers[i][j] = carriageSeats.get(j).getSeatNumber();
+                segmentMasks[i][j] = carriageSeats.get(j).getSegmentMask();
+            }
+        }
+        List<String> trainStationAllList = trainStationService.listTrainStationAll(String.valueOf(trainId));
+        TrainDO trainDO = trainMapper.selectById(trainId);
+        SeatLayout seatLayout = trainDO == null ? null : SeatLayoutRegistry.find(trainDO.getTrainType(), seatType);
+        return new TrainSeatMap(trainId, seatType, trainStationAllList, carriageNumbers, seatNumbers, segmentMasks, seatLayout);
+    }
+}
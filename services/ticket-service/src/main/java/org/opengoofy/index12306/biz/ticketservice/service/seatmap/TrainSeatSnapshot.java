@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.seatmap;
+
+import lombok.Getter;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatIdUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 列车乘车区段座位快照，一次读取即可得到某座位类型所有车厢的可用座位
+ * 每节车厢按排保存列掩码，rowMasks[c * rows + r] 第 k 位为 1 表示第 c 节车厢第 r 排第 k 列可售
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Getter
+public final class TrainSeatSnapshot {
+
+    /**
+     * 每节车厢排数
+     */
+    private final int rows;
+
+    /**
+     * 有余票的车厢号集合，按车厢号顺序排列
+     */
+    private final List<String> carriageNumbers;
+
+    /**
+     * 车厢排掩码
+     */
+    private final int[] rowMasks;
+
+    /**
+     * 可用座位总数
+     */
+    private final int availableCount;
+
+    private TrainSeatSnapshot(int rows, List<String> carriageNumbers, int[] rowMasks, int availableCount) {
+        this.rows = rows;
+        this.carriageNumbers = carriageNumbers;
+        this.rowMasks = rowMasks;
+        this.availableCount = availableCount;
+    }
+
+    /**
+     * 创建座位快照构建器
+     *
+     * @param rows 每节车厢排数
+     */
+    public static Builder builder(int rows) {
+        return new Builder(rows);
+    }
+
+    /**
+     * 座位快照构建器，座位按车厢号分组添加时无需查找车厢下标
+     */
+    public static final class Builder {
+
+        private final int rows;
+        private final List<String> carriageNumbers = new ArrayList<>();
+        private int[] rowMasks;
+        private int availableCount;
+
+        private Builder(int rows) {
+            this.rows = rows;
+            this.rowMasks = new int[rows * 16];
+        }
+
+        /**
+         * 添加可用座位
+         *
+         * @param carriageNumber 车厢号
+         * @param seatId         座位标识，参考 {@link SeatIdUtil}
+         */
+        public Builder add(String carriageNumber, int seatId) {
+            if (seatId == SeatIdUtil.INVALID_SEAT_ID || SeatIdUtil.row(seatId) >= rows) {
+                return this;
+            }
+            int carriageIndex = carriageNumbers.size() - 1;
+            if (carriageIndex < 0 || !carriageNumbers.get(carriageIndex).equals(carriageNumber)) {
+                carriageIndex = carriageNumbers.indexOf(carriageNumber);
+                if (carriageIndex < 0) {
+                    carriageIndex = carriageNumbers.size();
+                    carriageNumbers.add(carriageNumber);
+                    if (rowMasks.length < carriageNumbers.size() * rows) {
+                        rowMasks = Arrays.copyOf(rowMasks, rowMasks.length * 2);
+                    }
+                }
+            }
+            rowMasks[carriageIndex * rows + SeatIdUtil.row(seatId)] |= 1 << SeatIdUtil.column(seatId);
+            availableCount++;
+            return this;
+        }
+
+        public TrainSeatSnapshot build() {
+            return new TrainSeatSnapshot(rows, List.copyOf(carriageNumbers), Arrays.copyOf(rowMasks, carriageNumbers.size() * rows), availableCount);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.service.waitingroom;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opengoofy.index12306.biz.ticketservice.config.TicketWaitingRoomProperties;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketWaitingRoomRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
+import org.opengoofy.index12306.framework.starter.bases.Singleton;
+import org.opengoofy.index12306.framework.starter.cache.DistributedCache;
+import org.opengoofy.index12306.framework.starter.common.toolkit.Assert;
+import org.opengoofy.index12306.framework.starter.convention.exception.ClientException;
+import org.opengoofy.index12306.frameworks.starter.user.core.UserContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_WAITING_ROOM_ADMISSION;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_WAITING_ROOM_CLOSED;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_WAITING_ROOM_POSITION;
+import static org.opengoofy.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_WAITING_ROOM_SEQUENCE;
+
+/**
+ * 购票排队服务
+ * 用户先进入列车排队获取排队序号，放行序号按配置速率随时间推进，序号不大于放行序号的用户可发起一次购票
+ * 令牌桶已空时关闭排队，客户端停止轮询，避免售罄后反复重试放大请求
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketWaitingRoomService {
+
+    private static final String LUA_TICKET_WAITING_ROOM_PATH = "lua/ticket_waiting_room.lua";
+    private static final String MODE_QUERY = "0";
+    private static final String MODE_ENTER = "1";
+    private static final String MODE_CONSUME = "2";
+
+    private final TicketWaitingRoomProperties ticketWaitingRoomProperties;
+    private final DistributedCache distributedCache;
+    private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
+
+    /**
+     * 进入列车排队，已在排队中时返回原排队序号
+     *
+     * @param trainId 列车 ID
+     * @return 排队情况
+     */
+    public TicketWaitingRoomRespDTO enter(String trainId) {
+        checkEnabled();
+        TicketWaitingRoomRespDTO result = execute(trainId, MODE_ENTER);
+        if (result.getPosition() < 0) {
+            throw new ClientException("当前排队人数过多，请稍后再试");
+        }
+        return result;
+    }
+
+    /**
+     * 查询排队情况，仅访问一次 Redis，供客户端轮询
+     *
+     * @param trainId 列车 ID
+     * @return 排队情况
+     */
+    public TicketWaitingRoomRespDTO position(String trainId) {
+        checkEnabled();
+        return execute(trainId, MODE_QUERY);
+    }
+
+    /**
+     * 校验用户是否已放行，放行后在同一 Lua 脚本内消费排队序号，每次放行仅能发起一次购票
+     *
+     * @param trainId 列车 ID
+     * @return 已消费的排队序号，未开启购票排队返回 0
+     */
+    public long checkAdmission(String trainId) {
+        if (!ticketWaitingRoomProperties.getEnabled()) {
+            return 0L;
+        }
+        TicketWaitingRoomRespDTO result = execute(trainId, MODE_CONSUME);
+        if (result.getClosed()) {
+            throw new ClientException("列车站点已无余票");
+        }
+        if (result.getPosition() <= 0) {
+            throw new ClientException("请先进入购票排队");
+        }
+        if (!result.getAdmitted()) {
+            throw new ClientException("购票排队中，前方还有 " + result.getAheadCount() + " 人");
+        }
+        return result.getPosition();
+    }
+
+    /**
+     * 购票未成功时归还已消费的排队序号，用户可凭原放行资格重新购票，用户已重新排队时保留新序号
+     *
+     * @param trainId  列车 ID
+     * @param position 已消费的排队序号
+     */
+    public void restoreAdmission(String trainId, long position) {
+        if (position <= 0) {
+            return;
+        }
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            stringRedisTemplate.opsForValue().setIfAbsent(
+                    String.format(TICKET_WAITING_ROOM_POSITION, trainId, UserContext.getUsername()),
+                    String.valueOf(position),
+                    ticketWaitingRoomProperties.getQueueTimeout(),
+                    TimeUnit.SECONDS);
+        } catch (Throwable ex) {
+            log.error("[购票排队] 列车 {} 归还排队序号 {} 失败", trainId, position, ex);
+        }
+    }
+
+    /**
+     * 令牌不足时判断列车令牌是否已全部售罄，售罄则关闭排队
+     *
+     * @param trainId 列车 ID
+     */
+    public void closeIfSoldOut(String trainId) {
+        if (!ticketWaitingRoomProperties.getEnabled() || !ticketAvailabilityTokenBucket.isTokenEmpty(trainId)) {
+            return;
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        stringRedisTemplate.opsForValue().set(TICKET_WAITING_ROOM_CLOSED + trainId, "1", ticketWaitingRoomProperties.getCloseTimeout(), TimeUnit.SECONDS);
+    }
+
+    private TicketWaitingRoomRespDTO execute(String trainId, String mode) {
+        String username = UserContext.getUsername();
+        if (username == null) {
+            throw new ClientException("用户未登录");
+        }
+        DefaultRedisScript<List> actual = Singleton.get(LUA_TICKET_WAITING_ROOM_PATH, () -> {
+            DefaultRedisScript<List> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TICKET_WAITING_ROOM_PATH)));
+            redisScript.setResultType(List.class);
+            return redisScript;
+        });
+        Assert.notNull(actual);
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        List<String> keys = List.of(
+                TICKET_WAITING_ROOM_SEQUENCE + trainId,
+                TICKET_WAITING_ROOM_ADMISSION + trainId,
+                String.format(TICKET_WAITING_ROOM_POSITION, trainId, username),
+                TICKET_WAITING_ROOM_CLOSED + trainId);
+        List<?> resultList = stringRedisTemplate.execute(actual, keys,
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(ticketWaitingRoomProperties.getAdmitRate()),
+                mode,
+                String.valueOf(ticketWaitingRoomProperties.getQueueTimeout()),
+                String.valueOf(ticketWaitingRoomProperties.getMaxQueueSize()));
+        Assert.notNull(resultList);
+        long position = ((Number) resultList.get(0)).longValue();
+        long admitted = ((Number) resultList.get(1)).longValue();
+        boolean closed = ((Number) resultList.get(2)).longValue() == 1L;
+        long aheadCount = position > admitted ? position - admitted - 1 : 0L;
+        return TicketWaitingRoomRespDTO.builder()
+                .trainId(trainId)
+                .position(position)
+                .aheadCount(aheadCount)
+                .estimatedWaitTime(position > admitted ? (aheadCount + 1) / Math.max(1, ticketWaitingRoomProperties.getAdmitRate()) : 0L)
+                .admitted(position > 0 && position <= admitted)
+                .closed(closed)
+                .build();
+    }
+
+    private void checkEnabled() {
+        if (!ticketWaitingRoomProperties.getEnabled()) {
+            throw new ClientException("购票排队未开启");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.toolkit;
+
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+
+/**
+ * 车次时刻分钟数工具类，"HH:mm" 格式时刻按字符直接换算为分钟数，不创建中间对象
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class MinuteOfDayUtil {
+
+    /**
+     * 一天的分钟数
+     */
+    public static final int MINUTES_OF_DAY = 24 * 60;
+
+    /**
+     * 解析 "HH:mm" 格式时刻为分钟数，小时位允许超过 24 用于表示历时
+     *
+     * @param time 时刻字符串
+     * @return 分钟数，格式不合法时返回 -1
+     */
+    public static int parse(String time) {
+        if (time == null) {
+            return -1;
+        }
+        int separator = time.indexOf(':');
+        if (separator <= 0 || time.length() - separator != 3) {
+            return -1;
+        }
+        int hours = 0;
+        for (int i = 0; i < separator; i++) {
+            int digit = time.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            hours = hours * 10 + digit;
+        }
+        int tens = time.charAt(separator + 1) - '0';
+        int units = time.charAt(separator + 2) - '0';
+        if (tens < 0 || tens > 5 || units < 0 || units > 9) {
+            return -1;
+        }
+        return hours * 60 + tens * 10 + units;
+    }
+
+    /**
+     * 解析 "HH:mm" 格式的当日时刻为分钟数，超出一天范围视为不合法
+     *
+     * @param time 时刻字符串
+     * @return 分钟数，格式不合法时返回 -1
+     */
+    public static int parseTimeOfDay(String time) {
+        int minutes = parse(time);
+        return minutes < MINUTES_OF_DAY ? minutes : -1;
+    }
+
+    /**
+     * 补全车次出发、到达以及历时分钟数，缓存中历史版本的车次不包含分钟数时按时刻字符串换算一次
+     *
+     * @param ticketList 车次实体
+     * @return 补全后的车次实体
+     */
+    public static TicketListDTO fill(TicketListDTO ticketList) {
+        if (ticketList.getDepartureMinute() == null) {
+            ticketList.setDepartureMinute(parseTimeOfDay(ticketList.getDepartureTime()));
+        }
+        if (ticketList.getArrivalMinute() == null) {
+            ticketList.setArrivalMinute(parseTimeOfDay(ticketList.getArrivalTime()));
+        }
+        if (ticketList.getDurationMinute() == null) {
+            ticketList.setDurationMinute(parse(ticketList.getDuration()));
+        }
+        return ticketList;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.toolkit;
+
+/**
+ * 座位标识编码工具
+ * 座位标识使用一个 int 表示：高 16 位为车厢号，中间 8 位为排下标，低 8 位为列下标，排、列下标参考车厢座位布局
+ * 选座、锁座链路统一使用座位标识，仅在对外返回以及持久化时转换为 01、07C 形式的车厢号以及座位号
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class SeatIdUtil {
+
+    /**
+     * 无效座位标识
+     */
+    public static final int INVALID_SEAT_ID = -1;
+
+    /**
+     * 编码座位标识
+     *
+     * @param carriageNumber 车厢号
+     * @param row            排下标，从 0 开始
+     * @param column         列下标，从 0 开始
+     * @return 座位标识
+     */
+    public static int encode(int carriageNumber, int row, int column) {
+        return carriageNumber << 16 | row << 8 | column;
+    }
+
+    /**
+     * 解析座位标识中的车厢号
+     */
+    public static int carriageNumber(int seatId) {
+        return seatId >>> 16;
+    }
+
+    /**
+     * 解析座位标识中的排下标
+     */
+    public static int row(int seatId) {
+        return seatId >>> 8 & 0xFF;
+    }
+
+    /**
+     * 解析座位标识中的列下标
+     */
+    public static int column(int seatId) {
+        return seatId & 0xFF;
+    }
+
+    /**
+     * 解析车厢号，例如 01 解析为 1
+     *
+     * @param carriageNumber 车厢号
+     * @return 车厢号数值，非数字车厢号返回 -1
+     */
+    public static int parseCarriageNumber(String carriageNumber) {
+        if (carriageNumber == null || carriageNumber.isEmpty() || carriageNumber.length() > 4) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = 0; i < carriageNumber.length(); i++) {
+            char each = carriageNumber.charAt(i);
+            if (each < '0' || each > '9') {
+                return -1;
+            }
+            result = result * 10 + each - '0';
+        }
+        return result;
+    }
+
+    /**
+     * 格式化车厢号，例如 1 格式化为 01
+     */
+    public static String formatCarriageNumber(int carriageNumber) {
+        return (carriageNumber <= 9 ? "0" : "") + carriageNumber;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice.toolkit;
+
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+
+import java.util.List;
+
+/**
+ * 座位区段位图计算工具
+ * 列车按经停顺序拆分为 N-1 个区段，区段 k 表示第 k 站到第 k+1 站，座位占用情况使用一个 long 位图表示
+ * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
+ */
+public final class SeatSegmentMaskUtil {
+
+    /**
+     * 位图支持的最大站点数量，long 最高位为符号位，63 个区段即 64 个站点
+     */
+    public static final int MAX_STATION_SIZE = 64;
+
+    /**
+     * 计算出发站下标到到达站下标之间经过的区段位图 [startIndex, endIndex)
+     *
+     * @param startIndex 出发站下标
+     * @param endIndex   到达站下标
+     * @return 区段位图
+     */
+    public static long rangeMask(int startIndex, int endIndex) {
+        if (startIndex < 0 || endIndex >= MAX_STATION_SIZE || startIndex >= endIndex) {
+            throw new IllegalArgumentException(String.format("Illegal segment range [%d, %d)", startIndex, endIndex));
+        }
+        return ((1L << (endIndex - startIndex)) - 1) << startIndex;
+    }
+
+    /**
+     * 根据列车经停站点计算出发站到达站之间经过的区段位图
+     *
+     * @param stations  列车所有经停站点（按经停顺序）
+     * @param departure 出发站
+     * @param arrival   到达站
+     * @return 区段位图
+     */
+    public static long rangeMask(List<String> stations, String departure, String arrival) {
+        int startIndex = stations.indexOf(departure);
+        int endIndex = stations.indexOf(arrival);
+        if (startIndex < 0 || endIndex < 0 || startIndex >= endIndex) {
+            throw new ServiceException(String.format("列车站点区间不存在：%s - %s", departure, arrival));
+        }
+        return rangeMask(startIndex, endIndex);
+    }
+
+    /**
+     * 判断座位在指定区段内是否可售
+     *
+     * @param segmentMask 座位已占用区段位图
+     * @param rangeMask   乘车区段位图
+     * @return 区段内全部空闲返回 true
+     */
+    public static boolean isAvailable(long segmentMask, long rangeMask) {
+        return (segmentMask & rangeMask) == 0;
+    }
+}
@@ -19,22 +19,16 @@ package org.opengoofy.index12306.biz.ticketservice.toolkit;
 
 import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
 
 /**
- * 自定义时间比较器
+ * 自定义时间比较器，按预先换算的出发时间分钟数比较，避免每次比较解析时刻字符串
  * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
  */
 public class TimeStringComparator implements Comparator<TicketListDTO> {
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
-
     @Override
     public int compare(TicketListDTO ticketList1, TicketListDTO ticketList2) {
-        LocalTime localTime1 = LocalTime.parse(ticketList1.getDepartureTime(), FORMATTER);
-        LocalTime localTime2 = LocalTime.parse(ticketList2.getDepartureTime(), FORMATTER);
-        return localTime1.compareTo(localTime2);
+        return Integer.compare(ticketList1.getDepartureMinute(), ticketList2.getDepartureMinute());
     }
 }
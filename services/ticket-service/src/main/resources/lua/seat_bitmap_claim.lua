@@ -0,0 +1,25 @@
+-- KEYS[1]：列车座位位图已初始化标识，KEYS[2..]：按车厢分组的区段座位位图 Key，每节车厢连续 ARGV[1] 个区段
+-- ARGV[1]：乘车区段数量，ARGV[2 * i]、ARGV[2 * i + 1]：第 i 个座位所在车厢在 KEYS 中的分组下标（从 0 开始）以及座位位偏移
+-- 位图未初始化返回 -1；所有座位在所有乘车区段均空闲时一次性占用并返回 0，否则不做修改并返回第一个冲突座位的序号（从 1 开始）
+if redis.call('exists', KEYS[1]) == 0 then
+    return -1
+end
+local segmentCount = tonumber(ARGV[1])
+local seatCount = (#ARGV - 1) / 2
+for i = 1, seatCount do
+    local base = 1 + tonumber(ARGV[2 * i]) * segmentCount
+    local offset = tonumber(ARGV[2 * i + 1])
+    for s = 1, segmentCount do
+        if redis.call('getbit', KEYS[base + s], offset) == 1 then
+            return i
+        end
+    end
+end
+for i = 1, seatCount do
+    local base = 1 + tonumber(ARGV[2 * i]) * segmentCount
+    local offset = tonumber(ARGV[2 * i + 1])
+    for s = 1, segmentCount do
+        redis.call('setbit', KEYS[base + s], offset, 1)
+    end
+end
+return 0
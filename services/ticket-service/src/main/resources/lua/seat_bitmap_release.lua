@@ -0,0 +1,15 @@
+-- KEYS、ARGV 与 seat_bitmap_claim.lua 一致
+-- 位图未初始化时无需释放，初始化时会以 MySQL 区段位图为准，否则释放所有座位在所有乘车区段的占用并返回释放的座位数量
+if redis.call('exists', KEYS[1]) == 0 then
+    return 0
+end
+local segmentCount = tonumber(ARGV[1])
+local seatCount = (#ARGV - 1) / 2
+for i = 1, seatCount do
+    local base = 1 + tonumber(ARGV[2 * i]) * segmentCount
+    local offset = tonumber(ARGV[2 * i + 1])
+    for s = 1, segmentCount do
+        redis.call('setbit', KEYS[base + s], offset, 0)
+    end
+end
+return seatCount
@@ -0,0 +1,35 @@
+-- KEYS[1]：列车令牌桶 Hash
+-- KEYS[2]：列车令牌桶上一轮校正遗留偏差 Hash
+-- ARGV[1]：遗留偏差过期时间，单位秒
+-- ARGV[2 * i]、ARGV[2 * i + 1]：第 i 组存在偏差的令牌 Field 以及本轮观测偏差（期望令牌 - 实际令牌）
+-- 令牌桶不存在时不做修改返回 -1；偏差需连续两轮同向出现才校正，校正量取两轮偏差绝对值较小者，剩余偏差留待下一轮确认
+-- 已扣减令牌但尚未提交座位、已释放座位但尚未归还令牌的请求只会出现在单轮观测中，不会被重复计入令牌
+if redis.call('exists', KEYS[1]) == 0 then
+    return -1
+end
+local previous = {}
+local previousList = redis.call('hgetall', KEYS[2])
+for i = 1, #previousList, 2 do
+    previous[previousList[i]] = tonumber(previousList[i + 1])
+end
+redis.call('del', KEYS[2])
+local adjusted = 0
+for i = 2, #ARGV, 2 do
+    local field = ARGV[i]
+    local drift = tonumber(ARGV[i + 1])
+    local last = previous[field]
+    local delta = 0
+    if last ~= nil and drift * last > 0 then
+        delta = math.min(math.abs(drift), math.abs(last))
+        if drift < 0 then
+            delta = -delta
+        end
+        redis.call('hincrby', KEYS[1], field, delta)
+        adjusted = adjusted + 1
+    end
+    if drift ~= delta then
+        redis.call('hset', KEYS[2], field, drift - delta)
+    end
+end
+redis.call('expire', KEYS[2], ARGV[1])
+return adjusted
@@ -0,0 +1,16 @@
+-- KEYS[1]：按区段下标存储的列车令牌桶 Hash，Field 为 座位类型_区段下标
+-- ARGV[1]、ARGV[2]：乘车区段起始下标（含）以及结束下标（不含），ARGV[2 * i + 1]、ARGV[2 * i + 2]：第 i 组座位类型以及回滚数量
+-- 令牌桶不存在时说明已被删除并将按数据库重新初始化，无需回滚，直接返回 0
+if redis.call('exists', KEYS[1]) == 0 then
+    return 0
+end
+local startIndex = tonumber(ARGV[1])
+local endIndex = tonumber(ARGV[2])
+for i = 3, #ARGV, 2 do
+    local seatType = ARGV[i]
+    local count = tonumber(ARGV[i + 1])
+    for segment = startIndex, endIndex - 1 do
+        redis.call('hincrby', KEYS[1], seatType .. '_' .. segment, count)
+    end
+end
+return 0
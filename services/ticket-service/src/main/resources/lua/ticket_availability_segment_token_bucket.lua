@@ -0,0 +1,36 @@
+-- KEYS[1]：按区段下标存储的列车令牌桶 Hash，Field 为 座位类型_区段下标
+-- ARGV[1]、ARGV[2]：乘车区段起始下标（含）以及结束下标（不含），ARGV[2 * i + 1]、ARGV[2 * i + 2]：第 i 组座位类型以及购票数量
+-- 令牌桶不存在返回 nil；各座位类型在 [起始下标, 结束下标) 内所有区段的令牌均不小于购票数量时整体扣减并返回空数组，
+-- 否则不做修改并返回令牌不足的 座位类型_购票数量 集合
+if redis.call('exists', KEYS[1]) == 0 then
+    return nil
+end
+local startIndex = tonumber(ARGV[1])
+local endIndex = tonumber(ARGV[2])
+local shortages = {}
+for i = 3, #ARGV, 2 do
+    local seatType = ARGV[i]
+    local count = tonumber(ARGV[i + 1])
+    local fields = {}
+    for segment = startIndex, endIndex - 1 do
+        fields[#fields + 1] = seatType .. '_' .. segment
+    end
+    local capacities = redis.call('hmget', KEYS[1], unpack(fields))
+    for _, capacity in ipairs(capacities) do
+        if (tonumber(capacity) or 0) < count then
+            shortages[#shortages + 1] = seatType .. '_' .. count
+            break
+        end
+    end
+end
+if #shortages > 0 then
+    return shortages
+end
+for i = 3, #ARGV, 2 do
+    local seatType = ARGV[i]
+    local count = tonumber(ARGV[i + 1])
+    for segment = startIndex, endIndex - 1 do
+        redis.call('hincrby', KEYS[1], seatType .. '_' .. segment, -count)
+    end
+end
+return shortages
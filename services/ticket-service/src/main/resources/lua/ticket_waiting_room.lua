@@ -0,0 +1,43 @@
+-- KEYS[1]：列车排队序号，KEYS[2]：列车放行进度 Hash，KEYS[3]：用户排队序号，KEYS[4]：列车排队关闭标识
+-- ARGV[1]：当前时间戳（毫秒），ARGV[2]：每秒放行人数，ARGV[3]：操作类型 0：仅查询 1：进入排队 2：校验放行并消费排队序号，ARGV[4]：排队数据有效期（秒），ARGV[5]：最大排队人数
+-- 返回 {用户排队序号, 已放行序号, 是否关闭}，用户未排队返回序号 0，排队人数已满返回序号 -1
+local now = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local position = tonumber(redis.call('get', KEYS[3]) or '0')
+local sequence = tonumber(redis.call('get', KEYS[1]) or '0')
+local admitted = tonumber(redis.call('hget', KEYS[2], 'admitted') or '0')
+local lastTime = tonumber(redis.call('hget', KEYS[2], 'lastTime') or ARGV[1])
+if redis.call('exists', KEYS[4]) == 1 then
+    return {position, admitted, 1}
+end
+-- 按距上次放行的时间推进放行序号，无需后台任务，放行序号不超过已发放的排队序号
+-- 放行时间只推进已放行人数对应的时长，不足一人的零头留到下次累计，实际放行速率才能达到配置值
+local add = math.floor((now - lastTime) * rate / 1000)
+if redis.call('exists', KEYS[2]) == 0 then
+    redis.call('hset', KEYS[2], 'admitted', admitted, 'lastTime', ARGV[1])
+    redis.call('expire', KEYS[2], ARGV[4])
+elseif add > 0 then
+    if admitted + add >= sequence then
+        -- 已全部放行时不累计空闲时长，避免之后入队的用户被一次性放行
+        admitted = sequence
+        lastTime = now
+    else
+        admitted = admitted + add
+        lastTime = lastTime + math.floor(add * 1000 / rate)
+    end
+    redis.call('hset', KEYS[2], 'admitted', admitted, 'lastTime', string.format('%d', lastTime))
+    redis.call('expire', KEYS[2], ARGV[4])
+end
+if ARGV[3] == '1' and position == 0 then
+    if sequence - admitted >= tonumber(ARGV[5]) then
+        return {-1, admitted, 0}
+    end
+    position = redis.call('incr', KEYS[1])
+    redis.call('expire', KEYS[1], ARGV[4])
+    redis.call('set', KEYS[3], position, 'EX', ARGV[4])
+end
+-- 校验放行与消费排队序号在同一脚本内完成，并发请求只有一个能消费到序号
+if ARGV[3] == '2' and position > 0 and position <= admitted then
+    redis.call('del', KEYS[3])
+end
+return {position, admitted, 0}
@@ -0,0 +1,8 @@
+-- KEYS[1]：列车归属租约 Key，ARGV[1]：当前节点标识，ARGV[2]：租约有效期（毫秒）
+-- 租约空闲或已被当前节点持有时获取（续期）租约，否则返回当前持有租约的节点
+local owner = redis.call('get', KEYS[1])
+if owner == false or owner == ARGV[1] then
+    redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2])
+    return ARGV[1]
+end
+return owner
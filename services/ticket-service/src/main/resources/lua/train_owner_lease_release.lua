@@ -0,0 +1,6 @@
+-- KEYS[1]：列车归属租约 Key，ARGV[1]：当前节点标识
+-- 仅允许持有租约的节点释放租约
+if redis.call('get', KEYS[1]) == ARGV[1] then
+    return redis.call('del', KEYS[1])
+end
+return 0
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import com.alibaba.fastjson2.JSON;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.StationDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationPriceDO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TrainStationPriceCacheDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.codec.StationNameDictionary;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.codec.TicketListCacheValueCodec;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.codec.TrainCacheValueCodec;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.codec.TrainStationPriceCacheValueCodec;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.MinuteOfDayUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存值编解码基准测试：FastJson2 与紧凑二进制编码 {@link TicketListCacheValueCodec} 等对比
+ * 运行 main 方法即可，初始化时打印单条缓存值在两种格式下的字节数，基准方法对比解码耗时
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueCodecBenchmark {
+
+    private static final String[] STATIONS = {"北京南", "济南西", "南京南", "杭州东", "宁波", "上海虹桥", "天津南", "徐州东"};
+
+    private TicketListCacheValueCodec ticketListCodec;
+    private TrainCacheValueCodec trainCodec;
+    private TrainStationPriceCacheValueCodec trainStationPriceCodec;
+
+    private byte[] ticketListJson;
+    private byte[] ticketListBinary;
+    private byte[] trainJson;
+    private byte[] trainBinary;
+    private byte[] trainStationPriceJson;
+    private byte[] trainStationPriceBinary;
+
+    @Setup
+    public void setup() {
+        List<StationDO> stationList = new ArrayList<>();
+        for (int i = 0; i < STATIONS.length; i++) {
+            StationDO stationDO = new StationDO();
+            stationDO.setId((long) i + 1);
+            stationDO.setName(STATIONS[i]);
+            stationList.add(stationDO);
+        }
+        StationNameDictionary stationNameDictionary = new StationNameDictionary(null);
+        stationNameDictionary.refresh(stationList);
+        ticketListCodec = new TicketListCacheValueCodec(stationNameDictionary);
+        trainCodec = new TrainCacheValueCodec(stationNameDictionary);
+        trainStationPriceCodec = new TrainStationPriceCacheValueCodec(stationNameDictionary);
+
+        TicketListDTO ticketListDTO = new TicketListDTO();
+        ticketListDTO.setTrainId("1");
+        ticketListDTO.setTrainNumber("G35");
+        ticketListDTO.setDepartureTime("06:55");
+        ticketListDTO.setArrivalTime("11:29");
+        ticketListDTO.setDuration("04:34");
+        MinuteOfDayUtil.fill(ticketListDTO);
+        ticketListDTO.setDaysArrived(0);
+        ticketListDTO.setDeparture("北京南");
+        ticketListDTO.setArrival("杭州东");
+        ticketListDTO.setDepartureFlag(true);
+        ticketListDTO.setArrivalFlag(false);
+        ticketListDTO.setTrainType(0);
+        ticketListDTO.setSaleTime("05-01 14:30");
+        ticketListDTO.setSaleStatus(0);
+        ticketListDTO.setTrainTags(List.of("复兴号", "静音车厢"));
+        ticketListDTO.setTrainBrand("0,1,2");
+        ticketListJson = JSON.toJSONString(ticketListDTO).getBytes(StandardCharsets.UTF_8);
+        ticketListBinary = ticketListCodec.encode(ticketListDTO);
+
+        TrainDO trainDO = new TrainDO();
+        trainDO.setId(1L);
+        trainDO.setTrainNumber("G35");
+        trainDO.setTrainType(0);
+        trainDO.setTrainTag("复兴号,静音车厢");
+        trainDO.setTrainBrand("0,1,2");
+        trainDO.setStartStation("北京南");
+        trainDO.setEndStation("杭州东");
+        trainDO.setStartRegion("北京");
+        trainDO.setEndRegion("杭州");
+        trainDO.setSaleTime(new Date());
+        trainDO.setSaleStatus(0);
+        trainDO.setDepartureTime(new Date());
+        trainDO.setArrivalTime(new Date());
+        trainJson = JSON.toJSONString(trainDO).getBytes(StandardCharsets.UTF_8);
+        trainBinary = trainCodec.encode(trainDO);
+
+        List<TrainStationPriceDO> priceList = new ArrayList<>();
+        for (int seatType = 0; seatType < 3; seatType++) {
+            TrainStationPriceDO priceDO = new TrainStationPriceDO();
+            priceDO.setId(1000L + seatType);
+            priceDO.setTrainId(1L);
+            priceDO.setSeatType(seatType);
+            priceDO.setDeparture("北京南");
+            priceDO.setArrival("杭州东");
+            priceDO.setPrice(62600 - seatType * 20000);
+            priceList.add(priceDO);
+        }
+        TrainStationPriceCacheDTO trainStationPriceCache = new TrainStationPriceCacheDTO(priceList);
+        trainStationPriceJson = JSON.toJSONString(trainStationPriceCache).getBytes(StandardCharsets.UTF_8);
+        trainStationPriceBinary = trainStationPriceCodec.encode(trainStationPriceCache);
+
+        System.out.printf("%nticketList: json=%dB, binary=%dB%ntrain: json=%dB, binary=%dB%ntrainStationPrice: json=%dB, binary=%dB%n",
+                ticketListJson.length, ticketListBinary.length,
+                trainJson.length, trainBinary.length,
+                trainStationPriceJson.length, trainStationPriceBinary.length);
+    }
+
+    @Benchmark
+    public void ticketListByJson(Blackhole blackhole) {
+        blackhole.consume(JSON.parseObject(ticketListJson, TicketListDTO.class));
+    }
+
+    @Benchmark
+    public void ticketListByCodec(Blackhole blackhole) {
+        blackhole.consume(ticketListCodec.decode(ticketListBinary));
+    }
+
+    @Benchmark
+    public void trainByJson(Blackhole blackhole) {
+        blackhole.consume(JSON.parseObject(trainJson, TrainDO.class));
+    }
+
+    @Benchmark
+    public void trainByCodec(Blackhole blackhole) {
+        blackhole.consume(trainCodec.decode(trainBinary));
+    }
+
+    @Benchmark
+    public void trainStationPriceByJson(Blackhole blackhole) {
+        blackhole.consume(JSON.parseObject(trainStationPriceJson, TrainStationPriceCacheDTO.class));
+    }
+
+    @Benchmark
+    public void trainStationPriceByCodec(Blackhole blackhole) {
+        blackhole.consume(trainStationPriceCodec.decode(trainStationPriceBinary));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheValueCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.StationDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationPriceDO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatClassDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TrainStationPriceCacheDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.codec.StationNameDictionary;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.codec.TicketListCacheValueCodec;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.codec.TrainCacheValueCodec;
+import org.opengoofy.index12306.biz.ticketservice.service.cache.codec.TrainStationPriceCacheValueCodec;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CompactBinaryReader;
+import org.opengoofy.index12306.framework.starter.cache.toolkit.CompactBinaryWriter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CacheValueCodecTests {
+
+    private static final String[] STATIONS = {"北京南", "济南西", "南京南", "杭州东"};
+
+    private StationNameDictionary stationNameDictionary;
+
+    @BeforeEach
+    void setUp() {
+        List<StationDO> stationList = new ArrayList<>();
+        for (int i = 0; i < STATIONS.length; i++) {
+            StationDO stationDO = new StationDO();
+            stationDO.setId((long) i + 1);
+            stationDO.setName(STATIONS[i]);
+            stationList.add(stationDO);
+        }
+        stationNameDictionary = new StationNameDictionary(null);
+        stationNameDictionary.refresh(stationList);
+    }
+
+    @Test
+    void testCompactBinaryRoundTrip() {
+        byte[] bytes = new CompactBinaryWriter()
+                .writeInt(Integer.MIN_VALUE)
+                .writeInt(-1)
+                .writeLong(Long.MAX_VALUE)
+                .writeVarInt(300)
+                .writeNullableInt(null)
+                .writeNullableLong(-12306L)
+                .writeNullableBoolean(null)
+                .writeNullableBoolean(false)
+                .writeString(null)
+                .writeString("")
+                .writeString("上海虹桥")
+                .writeCollectionSize(null)
+                .writeCollectionSize(List.of())
+                .toByteArray();
+        CompactBinaryReader reader = new CompactBinaryReader(bytes);
+        assertEquals(Integer.MIN_VALUE, reader.readInt());
+        assertEquals(-1, reader.readInt());
+        assertEquals(Long.MAX_VALUE, reader.readLong());
+        assertEquals(300, reader.readVarInt());
+        assertNull(reader.readNullableInt());
+        assertEquals(-12306L, reader.readNullableLong());
+        assertNull(reader.readNullableBoolean());
+        assertEquals(Boolean.FALSE, reader.readNullableBoolean());
+        assertNull(reader.readString());
+        assertEquals("", reader.readString());
+        assertEquals("上海虹桥", reader.readString());
+        assertEquals(-1, reader.readCollectionSize());
+        assertEquals(0, reader.readCollectionSize());
+        assertFalse(reader.hasRemaining());
+    }
+
+    @Test
+    void testTicketListRoundTrip() {
+        TicketListCacheValueCodec codec = new TicketListCacheValueCodec(stationNameDictionary);
+        TicketListDTO ticketListDTO = new TicketListDTO();
+        ticketListDTO.setTrainId("1");
+        ticketListDTO.setTrainNumber("G35");
+        ticketListDTO.setDepartureTime("06:55");
+        ticketListDTO.setArrivalTime("11:29");
+        ticketListDTO.setDuration("04:34");
+        ticketListDTO.setDepartureMinute(415);
+        ticketListDTO.setArrivalMinute(689);
+        ticketListDTO.setDurationMinute(274);
+        ticketListDTO.setDaysArrived(0);
+        ticketListDTO.setDeparture("北京南");
+        // 字典中不存在的站点按内联字符串编码
+        ticketListDTO.setArrival("宁波");
+        ticketListDTO.setDepartureFlag(true);
+        ticketListDTO.setArrivalFlag(false);
+        ticketListDTO.setTrainType(0);
+        ticketListDTO.setSaleTime("05-01 14:30");
+        ticketListDTO.setSaleStatus(0);
+        ticketListDTO.setTrainTags(List.of("复兴号", "静音车厢"));
+        ticketListDTO.setTrainBrand("0,1,2");
+        ticketListDTO.setSeatClassList(List.of(
+                new SeatClassDTO(0, 12, new BigDecimal("626.50"), false),
+                new SeatClassDTO(2, 0, null, null)));
+        assertEquals(ticketListDTO, codec.decode(codec.encode(ticketListDTO)));
+
+        TicketListDTO emptyDTO = new TicketListDTO();
+        assertEquals(emptyDTO, codec.decode(codec.encode(emptyDTO)));
+    }
+
+    @Test
+    void testTrainRoundTrip() {
+        TrainCacheValueCodec codec = new TrainCacheValueCodec(stationNameDictionary);
+        TrainDO trainDO = new TrainDO();
+        trainDO.setId(1L);
+        trainDO.setTrainNumber("G35");
+        trainDO.setTrainType(0);
+        trainDO.setTrainTag("复兴号,静音车厢");
+        trainDO.setTrainBrand("0,1,2");
+        trainDO.setStartStation("北京南");
+        trainDO.setEndStation("杭州东");
+        trainDO.setStartRegion("北京");
+        trainDO.setEndRegion("杭州");
+        trainDO.setSaleTime(new Date(1714545000000L));
+        trainDO.setSaleStatus(0);
+        trainDO.setDepartureTime(new Date(1714604100000L));
+        trainDO.setArrivalTime(null);
+        assertEquals(trainDO, codec.decode(codec.encode(trainDO)));
+    }
+
+    @Test
+    void testTrainStationPriceRoundTrip() {
+        TrainStationPriceCacheValueCodec codec = new TrainStationPriceCacheValueCodec(stationNameDictionary);
+        List<TrainStationPriceDO> priceList = new ArrayList<>();
+        for (int seatType = 0; seatType < 3; seatType++) {
+            TrainStationPriceDO priceDO = new TrainStationPriceDO();
+            priceDO.setId(1000L + seatType);
+            priceDO.setTrainId(1L);
+            priceDO.setSeatType(seatType);
+            priceDO.setDeparture("济南西");
+            priceDO.setArrival("南京南");
+            priceDO.setPrice(62600 - seatType * 20000);
+            priceList.add(priceDO);
+        }
+        TrainStationPriceCacheDTO trainStationPriceCache = new TrainStationPriceCacheDTO(priceList);
+        assertEquals(trainStationPriceCache.getPriceList(), codec.decode(codec.encode(trainStationPriceCache)).getPriceList());
+        assertNull(codec.decode(codec.encode(new TrainStationPriceCacheDTO(null))).getPriceList());
+    }
+}
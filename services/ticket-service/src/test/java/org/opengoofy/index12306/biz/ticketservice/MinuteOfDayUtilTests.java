@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import org.junit.jupiter.api.Test;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.MinuteOfDayUtil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MinuteOfDayUtilTests {
+
+    @Test
+    void testParse() {
+        assertEquals(0, MinuteOfDayUtil.parse("00:00"));
+        assertEquals(485, MinuteOfDayUtil.parse("08:05"));
+        assertEquals(1439, MinuteOfDayUtil.parse("23:59"));
+        // 历时允许超过 24 小时
+        assertEquals(1590, MinuteOfDayUtil.parse("26:30"));
+        assertEquals(125, MinuteOfDayUtil.parse("2:05"));
+    }
+
+    @Test
+    void testParseRejectsMalformedTime() {
+        assertEquals(-1, MinuteOfDayUtil.parse(null));
+        assertEquals(-1, MinuteOfDayUtil.parse(""));
+        assertEquals(-1, MinuteOfDayUtil.parse("0805"));
+        assertEquals(-1, MinuteOfDayUtil.parse(":05"));
+        assertEquals(-1, MinuteOfDayUtil.parse("08:5"));
+        assertEquals(-1, MinuteOfDayUtil.parse("08:60"));
+        assertEquals(-1, MinuteOfDayUtil.parse("a8:05"));
+        assertEquals(-1, MinuteOfDayUtil.parse("08:0x"));
+    }
+
+    @Test
+    void testParseTimeOfDay() {
+        assertEquals(1439, MinuteOfDayUtil.parseTimeOfDay("23:59"));
+        assertEquals(-1, MinuteOfDayUtil.parseTimeOfDay("24:00"));
+        assertEquals(-1, MinuteOfDayUtil.parseTimeOfDay("26:30"));
+    }
+
+    @Test
+    void testFillOnlyMissingMinutes() {
+        TicketListDTO ticketList = new TicketListDTO();
+        ticketList.setDepartureTime("08:00");
+        ticketList.setArrivalTime("12:35");
+        ticketList.setDuration("04:35");
+        ticketList.setArrivalMinute(100);
+        MinuteOfDayUtil.fill(ticketList);
+        assertEquals(480, ticketList.getDepartureMinute());
+        assertEquals(100, ticketList.getArrivalMinute());
+        assertEquals(275, ticketList.getDurationMinute());
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import org.junit.jupiter.api.Test;
+import org.opengoofy.index12306.biz.ticketservice.config.PurchaseTicketsBatchProperties;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.batch.PurchaseTicketsBatchCoalescer;
+import org.opengoofy.index12306.biz.ticketservice.service.batch.PurchaseTicketsBatchItem;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+import org.opengoofy.index12306.frameworks.starter.user.core.UserContext;
+import org.opengoofy.index12306.frameworks.starter.user.core.UserInfoDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PurchaseTicketsBatchCoalescerTests {
+
+    @Test
+    void testSingleRequestRunsAsOwnBatch() {
+        PurchaseTicketsBatchCoalescer coalescer = newCoalescer(0L, 32);
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        TicketPurchaseRespDTO response = submitAs("1", coalescer, "1_0", respondWithUserId(batchSizes));
+        assertEquals("1", response.getOrderSn());
+        assertEquals(List.of(1), batchSizes);
+    }
+
+    @Test
+    void testConcurrentRequestsAreCoalescedIntoOneBatch() throws Exception {
+        int threads = 4;
+        PurchaseTicketsBatchCoalescer coalescer = newCoalescer(5000L, threads);
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        Map<Integer, String> orderSnMap = new ConcurrentHashMap<>();
+        runConcurrently(threads, index -> orderSnMap.put(index, submitAs(String.valueOf(index), coalescer, "1_0", respondWithUserId(batchSizes)).getOrderSn()));
+        // 批次达到最大数量后立即执行，不必等满收集窗口
+        assertEquals(List.of(threads), batchSizes);
+        for (int i = 0; i < threads; i++) {
+            assertEquals(String.valueOf(i), orderSnMap.get(i));
+        }
+    }
+
+    @Test
+    void testFailedItemDoesNotFailOtherItems() throws Exception {
+        int threads = 4;
+        PurchaseTicketsBatchCoalescer coalescer = newCoalescer(5000L, threads);
+        Consumer<List<PurchaseTicketsBatchItem>> batchExecutor = batchItems -> batchItems.forEach(each -> {
+            if (each.getUserInfo().getUserId().equals("0")) {
+                each.getFuture().completeExceptionally(new ServiceException("座位已被占用"));
+                return;
+            }
+            each.setResponse(new TicketPurchaseRespDTO(each.getUserInfo().getUserId(), List.of()));
+        });
+        Map<Integer, Object> resultMap = new ConcurrentHashMap<>();
+        runConcurrently(threads, index -> {
+            try {
+                resultMap.put(index, submitAs(String.valueOf(index), coalescer, "1_0", batchExecutor).getOrderSn());
+            } catch (ServiceException ex) {
+                resultMap.put(index, ex);
+            }
+        });
+        assertTrue(resultMap.get(0) instanceof ServiceException);
+        for (int i = 1; i < threads; i++) {
+            assertEquals(String.valueOf(i), resultMap.get(i));
+        }
+    }
+
+    @Test
+    void testBatchExecutorExceptionFailsEveryItem() {
+        PurchaseTicketsBatchCoalescer coalescer = newCoalescer(0L, 32);
+        ServiceException ex = assertThrows(ServiceException.class, () -> submitAs("1", coalescer, "1_0", batchItems -> {
+            throw new ServiceException("批次事务提交失败");
+        }));
+        assertEquals("批次事务提交失败", ex.getMessage());
+    }
+
+    @Test
+    void testDifferentKeysUseSeparateBatches() throws Exception {
+        PurchaseTicketsBatchCoalescer coalescer = newCoalescer(200L, 32);
+        Map<String, List<Integer>> batchSizeMap = new ConcurrentHashMap<>();
+        runConcurrently(2, index -> {
+            String batchKey = "1_" + index;
+            List<Integer> batchSizes = batchSizeMap.computeIfAbsent(batchKey, key -> Collections.synchronizedList(new ArrayList<>()));
+            submitAs(String.valueOf(index), coalescer, batchKey, respondWithUserId(batchSizes));
+        });
+        assertEquals(List.of(1), batchSizeMap.get("1_0"));
+        assertEquals(List.of(1), batchSizeMap.get("1_1"));
+    }
+
+    @Test
+    void testSubmitterUserContextIsRestoredAfterLeadingBatch() {
+        PurchaseTicketsBatchCoalescer coalescer = newCoalescer(0L, 32);
+        submitAs("1", coalescer, "1_0", batchItems -> batchItems.forEach(each -> {
+            UserContext.setUser(each.getUserInfo());
+            each.setResponse(new TicketPurchaseRespDTO(UserContext.getUserId(), List.of()));
+            UserContext.removeUser();
+        }));
+        assertEquals("1", UserContext.getUserId());
+        UserContext.removeUser();
+    }
+
+    private static PurchaseTicketsBatchCoalescer newCoalescer(Long window, Integer maxSize) {
+        PurchaseTicketsBatchProperties properties = new PurchaseTicketsBatchProperties();
+        properties.setEnabled(true);
+        properties.setWindow(window);
+        properties.setMaxSize(maxSize);
+        return new PurchaseTicketsBatchCoalescer(properties);
+    }
+
+    private static Consumer<List<PurchaseTicketsBatchItem>> respondWithUserId(List<Integer> batchSizes) {
+        return batchItems -> {
+            batchSizes.add(batchItems.size());
+            batchItems.forEach(each -> each.setResponse(new TicketPurchaseRespDTO(each.getUserInfo().getUserId(), List.of())));
+        };
+    }
+
+    private static TicketPurchaseRespDTO submitAs(String userId, PurchaseTicketsBatchCoalescer coalescer, String batchKey, Consumer<List<PurchaseTicketsBatchItem>> batchExecutor) {
+        UserContext.setUser(UserInfoDTO.builder().userId(userId).username("user" + userId).build());
+        return coalescer.submit(batchKey, new PurchaseTicketReqDTO(), batchExecutor);
+    }
+
+    private static void runConcurrently(int threads, IndexedTask task) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+                    try {
+                        task.run(index);
+                    } finally {
+                        UserContext.removeUser();
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> each : futures) {
+                each.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private interface IndexedTask {
+
+        void run(int index);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import org.junit.jupiter.api.Test;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.select.SeatBitmapSelection;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.select.SeatBitmapSelection.encode;
+
+class SeatBitmapSelectionTests {
+
+    /**
+     * 二等座 A B C | D F，第 2 列与第 3 列之间为过道，A、F 靠窗
+     */
+    private static final int COLUMNS = 5;
+    private static final int AISLE_MASK = 1 << 2;
+    private static final int WINDOW_MASK = 0b10001;
+
+    @Test
+    void testEncodeRoundTrip() {
+        int seat = encode(7, 17, 4);
+        assertEquals(7, SeatBitmapSelection.carriageIndex(seat));
+        assertEquals(17, SeatBitmapSelection.row(seat));
+        assertEquals(4, SeatBitmapSelection.column(seat));
+    }
+
+    @Test
+    void testAdjacentWithinRow() {
+        int[] rowMasks = {0b10101, 0b00110, 0b11111};
+        int[] out = new int[2];
+        assertEquals(2, SeatBitmapSelection.adjacent(2, rowMasks, 0, 3, 0, out, 0));
+        assertArrayEquals(new int[]{encode(0, 1, 1), encode(0, 1, 2)}, out);
+        assertEquals(0, SeatBitmapSelection.adjacent(4, new int[]{0b10111, 0b11011}, 0, 2, 0, out, 0));
+    }
+
+    @Test
+    void testRunTableSkipsAisle() {
+        byte[][] runTable = SeatBitmapSelection.buildRunTable(COLUMNS, AISLE_MASK, 0);
+        assertEquals(2, SeatBitmapSelection.firstRun(0b01100, 2));
+        assertEquals(-1, SeatBitmapSelection.firstRun(runTable, 0b01100, 2));
+        assertEquals(3, SeatBitmapSelection.firstRun(runTable, 0b11100, 2));
+        assertEquals(0, SeatBitmapSelection.firstRun(runTable, 0b00111, 3));
+        assertEquals(-1, SeatBitmapSelection.firstRun(runTable, 0b01110, 3));
+    }
+
+    @Test
+    void testRunTablePrefersWindow() {
+        byte[][] runTable = SeatBitmapSelection.buildRunTable(COLUMNS, AISLE_MASK, WINDOW_MASK);
+        assertEquals(4, SeatBitmapSelection.firstRun(runTable, 0b11110, 1));
+        assertEquals(-1, SeatBitmapSelection.firstRun(runTable, 0b01110, 1));
+        assertEquals(1, SeatBitmapSelection.firstRun(0b01110, 1));
+    }
+
+    @Test
+    void testBuildRunTableRejectsUnsupportedColumns() {
+        assertThrows(IllegalArgumentException.class, () -> SeatBitmapSelection.buildRunTable(SeatBitmapSelection.MAX_COLUMNS + 1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> SeatBitmapSelection.buildRunTable(0, 0, 0));
+    }
+
+    @Test
+    void testSelectGroupsAdjacentSeatsAndRestoresMasks() {
+        int[] rowMasks = {0b00011, 0b11000};
+        int[] out = new int[4];
+        assertEquals(4, SeatBitmapSelection.select(4, 2, rowMasks, 1, 2, out));
+        assertArrayEquals(new int[]{encode(0, 0, 0), encode(0, 0, 1), encode(0, 1, 3), encode(0, 1, 4)}, out);
+        assertArrayEquals(new int[]{0b00011, 0b11000}, rowMasks);
+    }
+
+    @Test
+    void testSelectFallsBackAcrossCarriages() {
+        int[] rowMasks = {0b00001, 0b00000, 0b10000, 0b00000};
+        int[] out = new int[2];
+        assertEquals(2, SeatBitmapSelection.select(2, 2, rowMasks, 2, 2, out));
+        assertArrayEquals(new int[]{encode(0, 0, 0), encode(1, 0, 4)}, out);
+        assertEquals(0, SeatBitmapSelection.select(3, 3, rowMasks, 2, 2, new int[3]));
+    }
+
+    @Test
+    void testSelectPatternFillsRemainingInSameCarriage() {
+        int[] rowMasks = {0b00000, 0b00011, 0b00001};
+        int[] out = new int[3];
+        assertEquals(3, SeatBitmapSelection.selectPattern(new int[]{0b00001, 0b00001}, 2, 3, rowMasks, 1, 3, out));
+        assertArrayEquals(new int[]{encode(0, 1, 0), encode(0, 2, 0), encode(0, 1, 1)}, out);
+        assertArrayEquals(new int[]{0b00000, 0b00011, 0b00001}, rowMasks);
+    }
+
+    @Test
+    void testSelectPatternWithoutMatchingCarriage() {
+        int[] rowMasks = {0b11110, 0b11110};
+        assertEquals(0, SeatBitmapSelection.selectPattern(new int[]{0b00001}, 1, 1, rowMasks, 1, 2, new int[1]));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import org.junit.jupiter.api.Test;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatIdUtil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeatIdUtilTests {
+
+    @Test
+    void testSeatIdRoundTrip() {
+        int seatId = SeatIdUtil.encode(16, 17, 4);
+        assertEquals(16, SeatIdUtil.carriageNumber(seatId));
+        assertEquals(17, SeatIdUtil.row(seatId));
+        assertEquals(4, SeatIdUtil.column(seatId));
+    }
+
+    @Test
+    void testCarriageNumberRoundTrip() {
+        for (int carriageNumber = 1; carriageNumber <= 20; carriageNumber++) {
+            assertEquals(carriageNumber, SeatIdUtil.parseCarriageNumber(SeatIdUtil.formatCarriageNumber(carriageNumber)));
+        }
+        assertEquals("01", SeatIdUtil.formatCarriageNumber(1));
+        assertEquals("12", SeatIdUtil.formatCarriageNumber(12));
+    }
+
+    @Test
+    void testParseInvalidCarriageNumber() {
+        assertEquals(-1, SeatIdUtil.parseCarriageNumber(null));
+        assertEquals(-1, SeatIdUtil.parseCarriageNumber(""));
+        assertEquals(-1, SeatIdUtil.parseCarriageNumber("A1"));
+        assertEquals(-1, SeatIdUtil.parseCarriageNumber("12345"));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import org.junit.jupiter.api.Test;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.SeatSegmentMaskUtil;
+import org.opengoofy.index12306.framework.starter.convention.exception.ServiceException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatSegmentMaskUtilTests {
+
+    @Test
+    void testRangeMask() {
+        assertEquals(0b1L, SeatSegmentMaskUtil.rangeMask(0, 1));
+        assertEquals(0b11100L, SeatSegmentMaskUtil.rangeMask(2, 5));
+        assertEquals(Long.MAX_VALUE, SeatSegmentMaskUtil.rangeMask(0, SeatSegmentMaskUtil.MAX_STATION_SIZE - 1));
+        assertEquals(0b110L, SeatSegmentMaskUtil.rangeMask(List.of("北京南", "济南西", "南京南", "上海虹桥"), "济南西", "上海虹桥"));
+    }
+
+    @Test
+    void testRangeMaskRejectsIllegalRange() {
+        assertThrows(IllegalArgumentException.class, () -> SeatSegmentMaskUtil.rangeMask(2, 2));
+        assertThrows(IllegalArgumentException.class, () -> SeatSegmentMaskUtil.rangeMask(-1, 2));
+        assertThrows(IllegalArgumentException.class, () -> SeatSegmentMaskUtil.rangeMask(0, SeatSegmentMaskUtil.MAX_STATION_SIZE));
+        assertThrows(ServiceException.class, () -> SeatSegmentMaskUtil.rangeMask(List.of("北京南", "济南西"), "济南西", "北京南"));
+    }
+
+    @Test
+    void testSegmentAvailability() {
+        long soldBeijingToJinan = SeatSegmentMaskUtil.rangeMask(0, 1);
+        assertTrue(SeatSegmentMaskUtil.isAvailable(soldBeijingToJinan, SeatSegmentMaskUtil.rangeMask(1, 3)));
+        assertFalse(SeatSegmentMaskUtil.isAvailable(soldBeijingToJinan, SeatSegmentMaskUtil.rangeMask(0, 2)));
+        assertTrue(SeatSegmentMaskUtil.isAvailable(0L, SeatSegmentMaskUtil.rangeMask(0, 3)));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * 座位区段库存热点查询基准测试：打印 SeatSegmentMapper 各查询的执行计划以及耗时分位数
+ * 需连接已导入数据的 MySQL，连接信息通过 -Djdbc.url / -Djdbc.username / -Djdbc.password 指定，默认同 application.yaml
+ * 已执行 resources/db/upgrade/12306-ticket-seat-index.sql 时，每条查询额外以 IGNORE INDEX 忽略覆盖索引作为对照组；
+ * 未执行升级脚本时仅输出当前表结构下的结果，执行升级脚本后再次运行即可对比前后差异
+ */
+public class SeatSegmentQueryBenchmark {
+
+    private static final String COVERING_INDEXES = "idx_train_seat_type_mask, idx_train_carriage_mask";
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURE_ITERATIONS = 2000;
+
+    public static void main(String[] args) throws SQLException {
+        String url = System.getProperty("jdbc.url", "jdbc:mysql://127.0.0.1:3306/12306_ticket?characterEncoding=utf-8&serverTimezone=GMT%2B8&allowPublicKeyRetrieval=true");
+        long trainId = Long.getLong("trainId", 1L);
+        int seatType = Integer.getInteger("seatType", 0);
+        long rangeMask = Long.getLong("rangeMask", 0b11L);
+        try (Connection connection = DriverManager.getConnection(url, System.getProperty("jdbc.username", "root"), System.getProperty("jdbc.password", "root"))) {
+            List<String> carriageNumbers = listCarriageNumber(connection, trainId);
+            String carriagePlaceholders = placeholders(carriageNumbers.size());
+            List<QueryCase> queryCases = List.of(
+                    new QueryCase("listAvailableSeat",
+                            "select carriage_number, seat_number from t_seat_segment %s where train_id = ? and seat_type = ? and del_flag = 0 and (segment_mask & ?) = 0 order by carriage_number, seat_number",
+                            List.of(trainId, seatType, rangeMask)),
+                    new QueryCase("listCarriageSeatCount",
+                            "select carriage_number, count(*) from t_seat_segment %s where train_id = ? and carriage_number in " + carriagePlaceholders + " and del_flag = 0 and (segment_mask & ?) = 0 group by carriage_number",
+                            concat(List.of(trainId), carriageNumbers, List.of(rangeMask))),
+                    new QueryCase("listUsableCarriageNumber",
+                            "select carriage_number from t_seat_segment %s where train_id = ? and seat_type = ? and del_flag = 0 and (segment_mask & ?) = 0 group by carriage_number order by carriage_number",
+                            List.of(trainId, seatType, rangeMask)),
+                    new QueryCase("listSeatTypeCount",
+                            "select seat_type, count(*) from t_seat_segment %s where train_id = ? and seat_type in (?, ?, ?) and del_flag = 0 and (segment_mask & ?) = 0 group by seat_type",
+                            List.of(trainId, 0, 1, 2, rangeMask)),
+                    new QueryCase("listSeatSegmentMaskCount",
+                            "select seat_type, segment_mask, count(*) from t_seat_segment %s where train_id = ? and seat_type in (?, ?, ?) and del_flag = 0 group by seat_type, segment_mask",
+                            List.of(trainId, 0, 1, 2))
+            );
+            boolean upgraded = hasCoveringIndex(connection);
+            System.out.printf("trainId=%d, seatType=%d, rangeMask=%s, carriages=%d, coveringIndex=%s%n",
+                    trainId, seatType, Long.toBinaryString(rangeMask), carriageNumbers.size(), upgraded);
+            for (QueryCase each : queryCases) {
+                if (upgraded) {
+                    run(connection, each, "ignore-covering", "IGNORE INDEX (" + COVERING_INDEXES + ")");
+                }
+                run(connection, each, upgraded ? "covering" : "current", "");
+            }
+        }
+    }
+
+    private static void run(Connection connection, QueryCase queryCase, String label, String indexHint) throws SQLException {
+        String sql = String.format(queryCase.sql(), indexHint);
+        System.out.printf("%n==== %s [%s] ====%n", queryCase.name(), label);
+        try (PreparedStatement statement = prepare(connection, "EXPLAIN " + sql, queryCase.params());
+             ResultSet resultSet = statement.executeQuery()) {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            while (resultSet.next()) {
+                StringJoiner row = new StringJoiner(" | ");
+                for (String column : List.of("type", "key", "rows", "filtered", "Extra")) {
+                    row.add(column + "=" + resultSet.getString(findColumn(metaData, column)));
+                }
+                System.out.println(row);
+            }
+        }
+        long[] elapsed = new long[MEASURE_ITERATIONS];
+        try (PreparedStatement statement = prepare(connection, sql, queryCase.params())) {
+            for (int i = 0; i < WARMUP_ITERATIONS + MEASURE_ITERATIONS; i++) {
+                long start = System.nanoTime();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        // 读取完整结果集，计入网络传输耗时
+                    }
+                }
+                if (i >= WARMUP_ITERATIONS) {
+                    elapsed[i - WARMUP_ITERATIONS] = System.nanoTime() - start;
+                }
+            }
+        }
+        Arrays.sort(elapsed);
+        System.out.printf("p50=%.3fms p95=%.3fms p99=%.3fms%n",
+                elapsed[MEASURE_ITERATIONS / 2] / 1e6, elapsed[MEASURE_ITERATIONS * 95 / 100] / 1e6, elapsed[MEASURE_ITERATIONS * 99 / 100] / 1e6);
+    }
+
+    private static boolean hasCoveringIndex(Connection connection) throws SQLException {
+        try (PreparedStatement statement = prepare(connection,
+                "select count(*) from information_schema.statistics where table_schema = database() and table_name = 't_seat_segment' and index_name = 'idx_train_seat_type_mask'", List.of());
+             ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() && resultSet.getInt(1) > 0;
+        }
+    }
+
+    private static List<String> listCarriageNumber(Connection connection, long trainId) throws SQLException {
+        List<String> result = new ArrayList<>();
+        try (PreparedStatement statement = prepare(connection, "select distinct carriage_number from t_seat_segment where train_id = ?", List.of(trainId));
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                result.add(resultSet.getString(1));
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalStateException("列车 " + trainId + " 不存在座位区段数据");
+        }
+        return result;
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, List<?> params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(i + 1, params.get(i));
+        }
+        return statement;
+    }
+
+    private static int findColumn(ResultSetMetaData metaData, String label) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (label.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("EXPLAIN 结果缺少列 " + label);
+    }
+
+    private static String placeholders(int size) {
+        StringJoiner joiner = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < size; i++) {
+            joiner.add("?");
+        }
+        return joiner.toString();
+    }
+
+    private static List<Object> concat(List<?>... lists) {
+        List<Object> result = new ArrayList<>();
+        for (List<?> each : lists) {
+            result.addAll(each);
+        }
+        return result;
+    }
+
+    private record QueryCase(String name, String sql, List<?> params) {
+    }
+}
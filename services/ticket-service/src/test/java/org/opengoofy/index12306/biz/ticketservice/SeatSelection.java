@@ -15,7 +15,7 @@
  * limitations under the License.
  */
 
-package org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.select;
+package org.opengoofy.index12306.biz.ticketservice;
 
 import cn.hutool.core.collection.CollUtil;
 
@@ -23,10 +23,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * 座位选择器
+ * 二维数组扫描座位选择器，已由 {@link org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.select.SeatBitmapSelection} 替代，仅作为基准测试对照
  * 公众号：马丁玩编程，回复：加群，添加马哥微信（备注：12306）获取项目资料
  */
-public class SeatSelection {
+class SeatSelection {
 
     public static int[][] adjacent(int numSeats, int[][] seatLayout) {
         int numRows = seatLayout.length;
@@ -104,31 +104,4 @@ public class SeatSelection {
         }
         return actualSeat;
     }
-
-    public static void main(String[] args) {
-        int[][] seatLayout = {
-                {1, 1, 1, 1},
-                {1, 1, 1, 0},
-                {1, 1, 1, 0},
-                {0, 0, 0, 0}
-        };
-        int[][] select = adjacent(2, seatLayout);
-        System.out.println("成功预订相邻座位，座位位置为：");
-        assert select != null;
-        for (int[] ints : select) {
-            System.out.printf("第 %d 排，第 %d 列%n", ints[0], ints[1]);
-        }
-
-        int[][] seatLayoutTwo = {
-                {1, 0, 1, 1},
-                {1, 1, 0, 0},
-                {1, 1, 1, 0},
-                {0, 0, 0, 0}
-        };
-        int[][] selectTwo = nonAdjacent(3, seatLayoutTwo);
-        System.out.println("成功预订不相邻座位，座位位置为：");
-        for (int[] ints : selectTwo) {
-            System.out.printf("第 %d 排，第 %d 列%n", ints[0], ints[1]);
-        }
-    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.select.SeatBitmapSelection;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二等座选座基准测试：二维数组扫描 {@link SeatSelection} 与排掩码位运算 {@link SeatBitmapSelection} 对比
+ * 运行 main 方法即可，车厢为 18 排 5 列，按 occupancy 比例随机占座
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatSelectionBenchmark {
+
+    private static final int CARRIAGE_COUNT = 8;
+    private static final int ROWS = 18;
+    private static final int COLUMNS = 5;
+
+    @Param({"0.5", "0.9"})
+    private double occupancy;
+
+    @Param({"2", "5"})
+    private int numSeats;
+
+    private int[][][] seatLayouts;
+    private int[] rowMasks;
+    private int[] workingRowMasks;
+    private int[] selectSeats;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(12306);
+        seatLayouts = new int[CARRIAGE_COUNT][ROWS][COLUMNS];
+        rowMasks = new int[CARRIAGE_COUNT * ROWS];
+        for (int c = 0; c < CARRIAGE_COUNT; c++) {
+            for (int r = 0; r < ROWS; r++) {
+                for (int k = 0; k < COLUMNS; k++) {
+                    boolean occupied = random.nextDouble() < occupancy;
+                    seatLayouts[c][r][k] = occupied ? 1 : 0;
+                    if (!occupied) {
+                        rowMasks[c * ROWS + r] |= 1 << k;
+                    }
+                }
+            }
+        }
+        workingRowMasks = rowMasks.clone();
+        selectSeats = new int[numSeats];
+    }
+
+    @Benchmark
+    public void adjacentBy2dArray(Blackhole blackhole) {
+        for (int c = 0; c < CARRIAGE_COUNT; c++) {
+            int[][] select = SeatSelection.adjacent(numSeats, seatLayouts[c]);
+            if (select != null) {
+                blackhole.consume(select);
+                return;
+            }
+        }
+    }
+
+    @Benchmark
+    public int adjacentByBitmap() {
+        for (int c = 0; c < CARRIAGE_COUNT; c++) {
+            int selected = SeatBitmapSelection.adjacent(numSeats, rowMasks, c * ROWS, ROWS, c, selectSeats, 0);
+            if (selected > 0) {
+                return selectSeats[0];
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public void nonAdjacentBy2dArray(Blackhole blackhole) {
+        blackhole.consume(SeatSelection.nonAdjacent(numSeats, seatLayouts[CARRIAGE_COUNT - 1]));
+    }
+
+    @Benchmark
+    public int nonAdjacentByBitmap() {
+        return SeatBitmapSelection.nonAdjacent(numSeats, rowMasks, (CARRIAGE_COUNT - 1) * ROWS, ROWS, CARRIAGE_COUNT - 1, selectSeats, 0);
+    }
+
+    @Benchmark
+    public int selectByBitmap() {
+        return SeatBitmapSelection.select(numSeats, numSeats, workingRowMasks, CARRIAGE_COUNT, ROWS, selectSeats);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SeatSelectionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import org.junit.jupiter.api.Test;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.TicketSortTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.SeatClassDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.domain.TicketListDTO;
+import org.opengoofy.index12306.biz.ticketservice.dto.req.TicketPageQueryReqDTO;
+import org.opengoofy.index12306.biz.ticketservice.service.search.TicketSearchFilter;
+import org.opengoofy.index12306.biz.ticketservice.toolkit.MinuteOfDayUtil;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketSearchFilterTests {
+
+    private final List<TicketListDTO> ticketList = List.of(
+            ticket("G1", 0, "06:30", "11:10", "04:40", 0, seat(2, 10, "553.5")),
+            ticket("D2", 1, "08:00", "14:20", "06:20", 0, seat(2, 0, "309")),
+            ticket("G3", 0, "13:05", "17:29", "04:24", 0, seat(1, 3, "933"), seat(2, 0, "553.5")),
+            ticket("Z4", 2, "21:30", "07:15", "09:45", 1, seat(6, 5, "465.5")),
+            ticket("G5", 0, "23:40", "04:00", "04:20", 1, seat(2, 0, "600"))
+    );
+
+    @Test
+    void testDefaultFilterReturnsOriginalList() {
+        TicketSearchFilter ticketSearchFilter = TicketSearchFilter.of(new TicketPageQueryReqDTO());
+        assertTrue(ticketSearchFilter.isDefault());
+        assertSame(ticketList, ticketSearchFilter.apply(ticketList));
+    }
+
+    @Test
+    void testFilterByTrainType() {
+        TicketPageQueryReqDTO requestParam = new TicketPageQueryReqDTO();
+        requestParam.setTrainTypes(List.of(1, 2));
+        assertTrainNumbers(List.of("D2", "Z4"), requestParam);
+    }
+
+    @Test
+    void testFilterByDepartureWindow() {
+        TicketPageQueryReqDTO requestParam = new TicketPageQueryReqDTO();
+        requestParam.setDepartureTimeBegin("08:00");
+        requestParam.setDepartureTimeEnd("13:05");
+        assertTrainNumbers(List.of("D2", "G3"), requestParam);
+        // 只传开始时间时结束时间为当日结束
+        requestParam.setDepartureTimeEnd(null);
+        requestParam.setDepartureTimeBegin("21:00");
+        assertTrainNumbers(List.of("Z4", "G5"), requestParam);
+    }
+
+    @Test
+    void testFilterByWindowAcrossMidnight() {
+        TicketPageQueryReqDTO requestParam = new TicketPageQueryReqDTO();
+        requestParam.setArrivalTimeBegin("22:00");
+        requestParam.setArrivalTimeEnd("08:00");
+        assertTrainNumbers(List.of("Z4", "G5"), requestParam);
+    }
+
+    @Test
+    void testFilterOnlyHasSeat() {
+        TicketPageQueryReqDTO requestParam = new TicketPageQueryReqDTO();
+        requestParam.setOnlyHasSeat(true);
+        assertFalse(TicketSearchFilter.of(requestParam).isDefault());
+        assertTrainNumbers(List.of("G1", "G3", "Z4"), requestParam);
+    }
+
+    @Test
+    void testFilterOnlyHasSeatKeepsUnknownQuantity() {
+        TicketListDTO loading = ticket("K6", 2, "09:00", "18:00", "09:00", 0, seat(6, null, "200.0"), seat(4, 0, "120.0"));
+        TicketPageQueryReqDTO requestParam = new TicketPageQueryReqDTO();
+        requestParam.setOnlyHasSeat(true);
+        List<TicketListDTO> result = TicketSearchFilter.of(requestParam).apply(List.of(loading, ticketList.get(1)));
+        // 余票尚未加载的车次保留，确定无票的车次过滤
+        assertEquals(List.of("K6"), result.stream().map(TicketListDTO::getTrainNumber).toList());
+    }
+
+    @Test
+    void testSortByArrivalTimeAcrossDays() {
+        TicketPageQueryReqDTO requestParam = new TicketPageQueryReqDTO();
+        requestParam.setSortType(TicketSortTypeEnum.ARRIVAL_TIME.getCode());
+        assertTrainNumbers(List.of("G1", "D2", "G3", "G5", "Z4"), requestParam);
+    }
+
+    @Test
+    void testSortByDuration() {
+        TicketPageQueryReqDTO requestParam = new TicketPageQueryReqDTO();
+        requestParam.setSortType(TicketSortTypeEnum.DURATION.getCode());
+        assertTrainNumbers(List.of("G5", "G3", "G1", "D2", "Z4"), requestParam);
+    }
+
+    @Test
+    void testSortByLowestPriceKeepsDepartureOrderOnTies() {
+        TicketPageQueryReqDTO requestParam = new TicketPageQueryReqDTO();
+        requestParam.setSortType(TicketSortTypeEnum.PRICE.getCode());
+        // G1 与 G3 最低价相同，保持出发时间顺序
+        assertTrainNumbers(List.of("D2", "Z4", "G1", "G3", "G5"), requestParam);
+    }
+
+    @Test
+    void testUnknownSortKeySortsLast() {
+        TicketListDTO unknown = ticket("K6", 2, "09:00", "bad", "bad", 0);
+        List<TicketListDTO> actual = List.of(unknown, ticketList.get(0), ticketList.get(1));
+        TicketPageQueryReqDTO requestParam = new TicketPageQueryReqDTO();
+        requestParam.setSortType(TicketSortTypeEnum.DURATION.getCode());
+        List<TicketListDTO> result = TicketSearchFilter.of(requestParam).apply(actual);
+        assertEquals(List.of("G1", "D2", "K6"), result.stream().map(TicketListDTO::getTrainNumber).toList());
+        requestParam.setSortType(TicketSortTypeEnum.PRICE.getCode());
+        result = TicketSearchFilter.of(requestParam).apply(actual);
+        assertEquals(List.of("D2", "G1", "K6"), result.stream().map(TicketListDTO::getTrainNumber).toList());
+    }
+
+    private void assertTrainNumbers(List<String> expected, TicketPageQueryReqDTO requestParam) {
+        List<TicketListDTO> result = TicketSearchFilter.of(requestParam).apply(ticketList);
+        assertEquals(expected, result.stream().map(TicketListDTO::getTrainNumber).toList());
+    }
+
+    private static TicketListDTO ticket(String trainNumber, int trainType, String departureTime, String arrivalTime,
+                                        String duration, int daysArrived, SeatClassDTO... seatClasses) {
+        TicketListDTO ticket = new TicketListDTO();
+        ticket.setTrainNumber(trainNumber);
+        ticket.setTrainType(trainType);
+        ticket.setDepartureTime(departureTime);
+        ticket.setArrivalTime(arrivalTime);
+        ticket.setDuration(duration);
+        ticket.setDaysArrived(daysArrived);
+        ticket.setSeatClassList(List.of(seatClasses));
+        return MinuteOfDayUtil.fill(ticket);
+    }
+
+    private static SeatClassDTO seat(int type, Integer quantity, String price) {
+        return SeatClassDTO.builder()
+                .type(type)
+                .quantity(quantity)
+                .price(new BigDecimal(price))
+                .candidate(false)
+                .build();
+    }
+}
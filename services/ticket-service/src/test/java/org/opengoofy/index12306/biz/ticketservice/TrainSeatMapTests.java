@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import org.junit.jupiter.api.Test;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayout;
+import org.opengoofy.index12306.biz.ticketservice.service.handler.ticket.layout.SeatLayoutRegistry;
+import org.opengoofy.index12306.biz.ticketservice.service.seatmap.TrainSeatMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrainSeatMapTests {
+
+    private static final List<String> STATIONS = List.of("北京南", "济南西", "南京南", "合肥南", "上海虹桥");
+
+    private static final SeatLayout SECOND_CLASS = SeatLayoutRegistry.get(VehicleTypeEnum.HIGH_SPEED_RAIN.getCode(), VehicleSeatTypeEnum.SECOND_CLASS.getCode());
+
+    @Test
+    void testOccupyOverlappingSegmentsConflict() {
+        TrainSeatMap trainSeatMap = newTrainSeatMap();
+        long beijingToNanjing = trainSeatMap.rangeMask("北京南", "南京南");
+        assertTrue(trainSeatMap.tryOccupy("01", "01A", beijingToNanjing));
+        assertFalse(trainSeatMap.tryOccupy("01", "01A", trainSeatMap.rangeMask("济南西", "合肥南")));
+        assertTrue(trainSeatMap.tryOccupy("01", "01A", trainSeatMap.rangeMask("南京南", "上海虹桥")));
+        assertFalse(trainSeatMap.tryOccupy("01", "01A", trainSeatMap.rangeMask("合肥南", "上海虹桥")));
+    }
+
+    @Test
+    void testReleaseOnlyFreesReleasedSegments() {
+        TrainSeatMap trainSeatMap = newTrainSeatMap();
+        long beijingToJinan = trainSeatMap.rangeMask("北京南", "济南西");
+        long nanjingToShanghai = trainSeatMap.rangeMask("南京南", "上海虹桥");
+        assertTrue(trainSeatMap.tryOccupy("01", "01A", beijingToJinan));
+        assertTrue(trainSeatMap.tryOccupy("01", "01A", nanjingToShanghai));
+        trainSeatMap.release("01", "01A", beijingToJinan);
+        assertTrue(trainSeatMap.tryOccupy("01", "01A", trainSeatMap.rangeMask("北京南", "南京南")));
+        assertFalse(trainSeatMap.tryOccupy("01", "01A", trainSeatMap.rangeMask("合肥南", "上海虹桥")));
+    }
+
+    @Test
+    void testOccupyBySeatId() {
+        TrainSeatMap trainSeatMap = newTrainSeatMap();
+        long rangeMask = trainSeatMap.rangeMask("北京南", "上海虹桥");
+        int seatId = SECOND_CLASS.parseSeatId("02", "03F");
+        assertTrue(trainSeatMap.tryOccupy(seatId, rangeMask));
+        assertFalse(trainSeatMap.tryOccupy("02", "03F", rangeMask));
+        trainSeatMap.release(seatId, rangeMask);
+        assertTrue(trainSeatMap.tryOccupy("02", "03F", rangeMask));
+    }
+
+    @Test
+    void testUnknownSeatIsNotOccupied() {
+        TrainSeatMap trainSeatMap = newTrainSeatMap();
+        long rangeMask = trainSeatMap.rangeMask("北京南", "上海虹桥");
+        assertFalse(trainSeatMap.tryOccupy("03", "01A", rangeMask));
+        assertFalse(trainSeatMap.tryOccupy("01", "19A", rangeMask));
+        assertFalse(trainSeatMap.tryOccupy(SECOND_CLASS.parseSeatId("03", "01A"), rangeMask));
+        assertTrue(trainSeatMap.containsCarriage("02"));
+        assertFalse(trainSeatMap.containsCarriage("03"));
+    }
+
+    @Test
+    void testCountAvailableAndUsableCarriage() {
+        TrainSeatMap trainSeatMap = newTrainSeatMap(2, 2);
+        long rangeMask = trainSeatMap.rangeMask("济南西", "合肥南");
+        assertEquals(20, trainSeatMap.countAvailable(rangeMask));
+        for (int row = 0; row < 2; row++) {
+            for (int column = 0; column < SECOND_CLASS.getColumns(); column++) {
+                assertTrue(trainSeatMap.tryOccupy("01", SECOND_CLASS.formatSeatNumber(row, column), rangeMask));
+            }
+        }
+        assertEquals(0, trainSeatMap.countAvailable("01", rangeMask));
+        assertEquals(10, trainSeatMap.countAvailable("02", rangeMask));
+        assertEquals(0, trainSeatMap.countAvailable("03", rangeMask));
+        assertEquals(List.of("02"), trainSeatMap.listUsableCarriageNumber(rangeMask));
+        // 北京南到济南西区段未被占用，两节车厢座位均可售
+        assertEquals(20, trainSeatMap.countAvailable(trainSeatMap.rangeMask("北京南", "济南西")));
+    }
+
+    @Test
+    void testConcurrentOccupySameSegmentOnlyOneWins() throws Exception {
+        int threads = 16;
+        for (int round = 0; round < 50; round++) {
+            TrainSeatMap trainSeatMap = newTrainSeatMap();
+            long rangeMask = trainSeatMap.rangeMask("济南西", "合肥南");
+            AtomicInteger successCount = new AtomicInteger();
+            runConcurrently(threads, index -> {
+                if (trainSeatMap.tryOccupy("01", "05C", rangeMask)) {
+                    successCount.incrementAndGet();
+                }
+            });
+            assertEquals(1, successCount.get());
+        }
+    }
+
+    @Test
+    void testConcurrentOccupyDisjointSegmentsAllWin() throws Exception {
+        int segmentCount = STATIONS.size() - 1;
+        for (int round = 0; round < 50; round++) {
+            TrainSeatMap trainSeatMap = newTrainSeatMap();
+            AtomicInteger successCount = new AtomicInteger();
+            runConcurrently(segmentCount, index -> {
+                if (trainSeatMap.tryOccupy("01", "05C", trainSeatMap.rangeMask(STATIONS.get(index), STATIONS.get(index + 1)))) {
+                    successCount.incrementAndGet();
+                }
+            });
+            // CAS 失败后按最新位图重试，并发占用互不相交的区段不会丢失任何一次占用
+            assertEquals(segmentCount, successCount.get());
+            assertFalse(trainSeatMap.tryOccupy("01", "05C", trainSeatMap.rangeMask("北京南", "济南西")));
+            assertEquals(18 * SECOND_CLASS.getColumns() - 1, trainSeatMap.countAvailable("01", trainSeatMap.rangeMask("合肥南", "上海虹桥")));
+        }
+    }
+
+    private static TrainSeatMap newTrainSeatMap() {
+        return newTrainSeatMap(2, 18);
+    }
+
+    private static TrainSeatMap newTrainSeatMap(int carriageCount, int rows) {
+        String[] carriageNumbers = new String[carriageCount];
+        String[][] seatNumbers = new String[carriageCount][];
+        long[][] segmentMasks = new long[carriageCount][];
+        for (int i = 0; i < carriageCount; i++) {
+            carriageNumbers[i] = String.format("%02d", i + 1);
+            List<String> carriageSeatNumbers = new ArrayList<>();
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < SECOND_CLASS.getColumns(); column++) {
+                    carriageSeatNumbers.add(SECOND_CLASS.formatSeatNumber(row, column));
+                }
+            }
+            seatNumbers[i] = carriageSeatNumbers.toArray(new String[0]);
+            segmentMasks[i] = new long[seatNumbers[i].length];
+        }
+        return new TrainSeatMap(1L, VehicleSeatTypeEnum.SECOND_CLASS.getCode(), STATIONS, carriageNumbers, seatNumbers, segmentMasks, SECOND_CLASS);
+    }
+
+    private static void runConcurrently(int threads, IndexedTask task) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> each : futures) {
+                each.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private interface IndexedTask {
+
+        void run(int index);
+    }
+}
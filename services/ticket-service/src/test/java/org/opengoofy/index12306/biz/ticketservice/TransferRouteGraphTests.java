@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengoofy.index12306.biz.ticketservice;
+
+import org.junit.jupiter.api.Test;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.RegionDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.StationDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationDO;
+import org.opengoofy.index12306.biz.ticketservice.dao.entity.TrainStationPriceDO;
+import org.opengoofy.index12306.biz.ticketservice.service.search.TransferRouteGraph;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransferRouteGraphTests {
+
+    private final List<TrainDO> trainList = new ArrayList<>();
+    private final List<TrainStationDO> trainStationList = new ArrayList<>();
+
+    @Test
+    void testSearchKeepsOneTransferPerTrainPair() {
+        // G1 北京南 08:00 -> 济南西 09:30/09:32 -> 南京南 11:30
+        addTrain(1L, "G1",
+                stop("北京南", "北京", null, "2023-06-01T08:00"),
+                stop("济南西", "济南", "2023-06-01T09:30", "2023-06-01T09:32"),
+                stop("南京南", "南京", "2023-06-01T11:30", null));
+        // G2 南京南 12:00 -> 上海虹桥 13:00
+        addTrain(2L, "G2",
+                stop("南京南", "南京", null, "2023-06-01T12:00"),
+                stop("上海虹桥", "上海", "2023-06-01T13:00", null));
+        // G3 济南西 10:00 -> 南京南 12:10/12:12 -> 上海虹桥 13:20，可在济南西或南京南换乘
+        addTrain(3L, "G3",
+                stop("济南西", "济南", null, "2023-06-01T10:00"),
+                stop("南京南", "南京", "2023-06-01T12:10", "2023-06-01T12:12"),
+                stop("上海虹桥", "上海", "2023-06-01T13:20", null));
+        TransferRouteGraph graph = build();
+
+        List<TransferRouteGraph.Journey> journeys = graph.search("北京", "上海", 10, 120);
+        assertEquals(2, journeys.size());
+        assertJourney(journeys.get(0), "G1", "南京南", "G2", 30, 300);
+        // G1 与 G3 在济南西、南京南均可换乘，同一对车次仅保留一个方案
+        assertJourney(journeys.get(1), "G1", "济南西", "G3", 30, 320);
+    }
+
+    @Test
+    void testSearchRespectsConnectionWindow() {
+        addTrain(1L, "G1",
+                stop("北京南", "北京", null, "2023-06-01T08:00"),
+                stop("南京南", "南京", "2023-06-01T11:30", null));
+        // 换乘 5 分钟
+        addTrain(2L, "G2",
+                stop("南京南", "南京", null, "2023-06-01T11:35"),
+                stop("上海虹桥", "上海", "2023-06-01T12:50", null));
+        // 换乘 3 小时
+        addTrain(3L, "G3",
+                stop("南京南", "南京", null, "2023-06-01T14:30"),
+                stop("上海虹桥", "上海", "2023-06-01T15:40", null));
+        TransferRouteGraph graph = build();
+
+        assertTrue(graph.search("北京", "上海", 10, 120).isEmpty());
+        List<TransferRouteGraph.Journey> shortConnections = graph.search("北京", "上海", 5, 120);
+        assertEquals(1, shortConnections.size());
+        assertJourney(shortConnections.get(0), "G1", "南京南", "G2", 5, 290);
+        List<TransferRouteGraph.Journey> longConnections = graph.search("北京", "上海", 10, 180);
+        assertEquals(1, longConnections.size());
+        assertJourney(longConnections.get(0), "G1", "南京南", "G3", 180, 460);
+    }
+
+    @Test
+    void testSearchConnectsAcrossMidnight() {
+        addTrain(1L, "Z1",
+                stop("北京", "北京", null, "2023-06-01T20:00"),
+                stop("徐州", "徐州", "2023-06-01T23:50", null));
+        addTrain(2L, "K2",
+                stop("徐州", "徐州", null, "2023-06-02T00:20"),
+                stop("上海", "上海", "2023-06-02T05:20", null));
+        TransferRouteGraph graph = build();
+
+        List<TransferRouteGraph.Journey> journeys = graph.search("北京", "上海", 10, 120);
+        assertEquals(1, journeys.size());
+        assertJourney(journeys.get(0), "Z1", "徐州", "K2", 30, 560);
+    }
+
+    @Test
+    void testDirectTrainIsNotATransfer() {
+        addTrain(1L, "G1",
+                stop("北京南", "北京", null, "2023-06-01T08:00"),
+                stop("南京南", "南京", "2023-06-01T11:30", "2023-06-01T11:32"),
+                stop("上海虹桥", "上海", "2023-06-01T12:30", null));
+        addTrain(2L, "G2",
+                stop("南京南", "南京", null, "2023-06-01T12:00"),
+                stop("上海虹桥", "上海", "2023-06-01T13:00", null));
+        TransferRouteGraph graph = build();
+
+        // G1 可直达上海，属于直达车次查询范围，不与 G2 组成换乘方案
+        assertTrue(graph.search("北京", "上海", 10, 120).isEmpty());
+        assertTrue(graph.search("北京", "北京", 10, 120).isEmpty());
+        assertTrue(graph.search("广州", "上海", 10, 120).isEmpty());
+    }
+
+    @Test
+    void testRegionAndSegmentPriceLookup() {
+        addTrain(1L, "G1",
+                stop("北京南", "北京", null, "2023-06-01T08:00"),
+                stop("南京南", "南京", "2023-06-01T11:30", null));
+        addTrain(2L, "G2",
+                stop("南京南", "南京", null, "2023-06-01T12:00"),
+                stop("上海虹桥", "上海", "2023-06-01T13:00", null));
+        StationDO station = new StationDO();
+        station.setCode("VNP");
+        station.setRegionName("北京");
+        RegionDO region = new RegionDO();
+        region.setCode("BJP");
+        region.setName("北京");
+        TrainStationPriceDO price = new TrainStationPriceDO();
+        price.setTrainId(1L);
+        price.setDeparture("北京南");
+        price.setArrival("南京南");
+        price.setSeatType(2);
+        price.setPrice(44350);
+        TransferRouteGraph graph = TransferRouteGraph.build(trainList, trainStationList, List.of(station), List.of(region), List.of(price));
+
+        assertEquals("北京", graph.getRegion("VNP"));
+        assertEquals("北京", graph.getRegion("BJP"));
+        assertNull(graph.getRegion("SHH"));
+        TransferRouteGraph.Journey journey = graph.search("北京", "上海", 10, 120).get(0);
+        TransferRouteGraph.SegmentPrice segmentPrice = graph.getSegmentPrice(journey.getFirstTrain(), journey.getBoardingIndex(), journey.getTransferIndex());
+        assertEquals(2, segmentPrice.getSeatTypes()[0]);
+        assertEquals(44350, segmentPrice.getPrices()[0]);
+        assertNull(graph.getSegmentPrice(journey.getSecondTrain(), journey.getDepartureIndex(), journey.getAlightingIndex()));
+    }
+
+    private TransferRouteGraph build() {
+        return TransferRouteGraph.build(trainList, trainStationList, List.of(), List.of(), List.of());
+    }
+
+    private void addTrain(Long trainId, String trainNumber, TrainStationDO... stops) {
+        TrainDO train = new TrainDO();
+        train.setId(trainId);
+        train.setTrainNumber(trainNumber);
+        train.setTrainType(0);
+        trainList.add(train);
+        for (int i = 0; i < stops.length; i++) {
+            stops[i].setTrainId(trainId);
+            stops[i].setSequence(String.format("%02d", i + 1));
+            trainStationList.add(stops[i]);
+        }
+    }
+
+    private static TrainStationDO stop(String station, String region, String arrivalTime, String departureTime) {
+        TrainStationDO trainStation = new TrainStationDO();
+        trainStation.setDeparture(station);
+        trainStation.setStartRegion(region);
+        trainStation.setArrivalTime(parse(arrivalTime));
+        trainStation.setDepartureTime(parse(departureTime));
+        return trainStation;
+    }
+
+    private static Date parse(String dateTime) {
+        return dateTime == null ? null : Date.from(LocalDateTime.parse(dateTime).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static void assertJourney(TransferRouteGraph.Journey journey, String firstTrainNumber, String transferStation,
+                                      String secondTrainNumber, int connectionMinute, int durationMinute) {
+        assertEquals(firstTrainNumber, journey.getFirstTrain().getTrainNumber());
+        assertEquals(transferStation, journey.getFirstTrain().getStations()[journey.getTransferIndex()]);
+        assertEquals(transferStation, journey.getSecondTrain().getStations()[journey.getDepartureIndex()]);
+        assertEquals(secondTrainNumber, journey.getSecondTrain().getTrainNumber());
+        assertEquals(connectionMinute, journey.getConnectionMinute());
+        assertEquals(durationMinute, journey.getDurationMinute());
+    }
+}